@@ -0,0 +1,35 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.api;
+
+/**
+ * Possible orderings when listing the child objects of an object one page at a time.
+ */
+public enum ChildObjectOrder
+{
+    /**
+     * Order children by their label, and then by their URI
+     */
+    LABEL,
+    
+    /**
+     * Order children by the weight of the poddBase:contains sub-property linking them to their
+     * parent, and then by their label and URI
+     */
+    WEIGHT;
+    
+}
@@ -0,0 +1,46 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.api;
+
+/**
+ * The states that a background inference job for an artifact version moves through.
+ */
+public enum InferenceJobStatus
+{
+    /**
+     * The concrete statements have been stored and the job is waiting for a thread.
+     */
+    QUEUED,
+    
+    /**
+     * The inferred statements are being computed.
+     */
+    RUNNING,
+    
+    /**
+     * The inferred statements have been stored.
+     */
+    DONE,
+    
+    /**
+     * The inferred statements could not be computed or stored. The concrete statements are still
+     * available, unless the version was deleted or replaced before the job ran.
+     */
+    FAILED,
+    
+    ;
+}
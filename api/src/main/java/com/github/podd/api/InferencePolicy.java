@@ -0,0 +1,43 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.api;
+
+/**
+ * Possible options for computing inferences when an artifact is updated.
+ */
+public enum InferencePolicy
+{
+    /**
+     * Reason over the complete artifact for every update.
+     */
+    FULL,
+    
+    /**
+     * Reason over only the objects touched by an update and merge the results into the previous
+     * inferred statements, falling back to {@link #FULL} if the update cannot be handled
+     * incrementally.
+     */
+    INCREMENTAL,
+    
+    /**
+     * Compute the incremental inferences, then reason over the complete artifact and report any
+     * differences between the two. The results of the complete reasoning are stored.
+     */
+    INCREMENTAL_VERIFIED,
+    
+    ;
+}
@@ -0,0 +1,101 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+/**
+ * The outcome of loading a single artifact as part of a bulk load.
+ */
+public class ArtifactLoadResult
+{
+    private final int index;
+    
+    private final InferredOWLOntologyID artifactID;
+    
+    private final Exception failure;
+    
+    /**
+     * Creates a result for an artifact that was loaded successfully.
+     * 
+     * @param index
+     *            The position of the artifact in the bulk load.
+     * @param artifactID
+     *            The ID of the loaded artifact.
+     */
+    public ArtifactLoadResult(final int index, final InferredOWLOntologyID artifactID)
+    {
+        this.index = index;
+        this.artifactID = artifactID;
+        this.failure = null;
+    }
+    
+    /**
+     * Creates a result for an artifact that could not be loaded.
+     * 
+     * @param index
+     *            The position of the artifact in the bulk load.
+     * @param failure
+     *            The reason the artifact could not be loaded.
+     */
+    public ArtifactLoadResult(final int index, final Exception failure)
+    {
+        this.index = index;
+        this.artifactID = null;
+        this.failure = failure;
+    }
+    
+    /**
+     * @return The ID of the loaded artifact, or null if it could not be loaded.
+     */
+    public InferredOWLOntologyID getArtifactID()
+    {
+        return this.artifactID;
+    }
+    
+    /**
+     * @return The reason the artifact could not be loaded, or null if it was loaded.
+     */
+    public Exception getFailure()
+    {
+        return this.failure;
+    }
+    
+    /**
+     * @return The position of the artifact in the bulk load.
+     */
+    public int getIndex()
+    {
+        return this.index;
+    }
+    
+    /**
+     * @return True if the artifact was loaded, and false otherwise.
+     */
+    public boolean isSuccessful()
+    {
+        return this.failure == null;
+    }
+    
+    @Override
+    public String toString()
+    {
+        if(this.isSuccessful())
+        {
+            return "ArtifactLoadResult [" + this.index + ", " + this.artifactID + "]";
+        }
+        return "ArtifactLoadResult [" + this.index + ", " + this.failure.getMessage() + "]";
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import com.github.podd.api.InferenceJobStatus;
+
+/**
+ * Tracks the progress of computing the inferred statements for an artifact version in the
+ * background.
+ */
+public class InferenceJob
+{
+    private final InferredOWLOntologyID artifactID;
+    
+    private final long queuedTime;
+    
+    private volatile InferenceJobStatus status = InferenceJobStatus.QUEUED;
+    
+    private volatile long startedTime = -1;
+    
+    private volatile long finishedTime = -1;
+    
+    private volatile String message;
+    
+    public InferenceJob(final InferredOWLOntologyID artifactID)
+    {
+        this.artifactID = artifactID;
+        this.queuedTime = System.currentTimeMillis();
+    }
+    
+    /**
+     * @return The artifact version that inferences are being computed for.
+     */
+    public InferredOWLOntologyID getArtifactID()
+    {
+        return this.artifactID;
+    }
+    
+    /**
+     * @return The time the job finished, in milliseconds since the epoch, or -1 if it has not
+     *         finished.
+     */
+    public long getFinishedTime()
+    {
+        return this.finishedTime;
+    }
+    
+    /**
+     * @return A description of the reason the job failed, or null if it has not failed.
+     */
+    public String getMessage()
+    {
+        return this.message;
+    }
+    
+    /**
+     * @return The time the job was queued, in milliseconds since the epoch.
+     */
+    public long getQueuedTime()
+    {
+        return this.queuedTime;
+    }
+    
+    /**
+     * @return The time the job started running, in milliseconds since the epoch, or -1 if it has
+     *         not started.
+     */
+    public long getStartedTime()
+    {
+        return this.startedTime;
+    }
+    
+    public InferenceJobStatus getStatus()
+    {
+        return this.status;
+    }
+    
+    /**
+     * @return True if the job is either done or failed.
+     */
+    public boolean isFinished()
+    {
+        return this.status == InferenceJobStatus.DONE || this.status == InferenceJobStatus.FAILED;
+    }
+    
+    /**
+     * Marks the job as failed.
+     * 
+     * @param message
+     *            A description of the reason the job failed.
+     */
+    public void setFailed(final String message)
+    {
+        this.message = message;
+        this.setStatus(InferenceJobStatus.FAILED);
+    }
+    
+    public void setStatus(final InferenceJobStatus status)
+    {
+        if(status == InferenceJobStatus.RUNNING)
+        {
+            this.startedTime = System.currentTimeMillis();
+        }
+        else if(status == InferenceJobStatus.DONE || status == InferenceJobStatus.FAILED)
+        {
+            this.finishedTime = System.currentTimeMillis();
+        }
+        this.status = status;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "InferenceJob [" + this.artifactID + ", " + this.status + "]";
+    }
+}
@@ -90,6 +90,18 @@ public interface PODD
      */
     public static final String INFERRED_PREFIX = "urn:podd:inferred:ontologyiriprefix:";
     
+    /**
+     * A prefix used to create the context containing the statements that must be added to the next
+     * version of an artifact to reconstruct a delta encoded version.
+     */
+    public static final String DELTA_ADDED_PREFIX = "urn:podd:delta:added:";
+    
+    /**
+     * A prefix used to create the context containing the statements that must be removed from the
+     * next version of an artifact to reconstruct a delta encoded version.
+     */
+    public static final String DELTA_REMOVED_PREFIX = "urn:podd:delta:removed:";
+    
     /**
      * The key used in the podd.properties file to locate the data repository aliases file.
      */
@@ -302,6 +314,28 @@ public interface PODD
      */
     public static final URI PODD_BASE_INFERRED_VERSION = PODD.VF.createURI(PODD.PODD_BASE, "inferredVersion");
     
+    /**
+     * Links an artifact to a previous version that is stored as a delta against a later version.
+     */
+    public static final URI PODD_BASE_DELTA_VERSION = PODD.VF.createURI(PODD.PODD_BASE, "deltaVersion");
+    
+    /**
+     * Links a delta encoded version of an artifact to the later version that its delta is relative
+     * to.
+     */
+    public static final URI PODD_BASE_DELTA_BASE = PODD.VF.createURI(PODD.PODD_BASE, "deltaBase");
+    
+    /**
+     * The status of the background inference job for an artifact version, as the name of an
+     * InferenceJobStatus.
+     */
+    public static final URI PODD_BASE_INFERENCE_STATUS = PODD.VF.createURI(PODD.PODD_BASE, "inferenceStatus");
+    
+    /**
+     * The position of an artifact in a bulk upload, used to report the result for each artifact.
+     */
+    public static final URI PODD_BASE_BULK_LOAD_INDEX = PODD.VF.createURI(PODD.PODD_BASE, "bulkLoadIndex");
+    
     /** http://purl.org/podd/ns/poddBase#lastModified */
     public static final URI PODD_BASE_LAST_MODIFIED = PODD.VF.createURI(PODD.PODD_BASE, "lastModified");
     
@@ -0,0 +1,279 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.vocabulary.RDFS;
+
+/**
+ * The transitive closure of the rdfs:subClassOf and rdfs:subPropertyOf hierarchies of a set of
+ * schema ontologies, materialised so that ancestor checks do not need a SPARQL query.
+ * <p>
+ * Every named class and property is given an integer identifier, and the ancestors of each are
+ * stored as a {@link BitSet} over those identifiers. Blank node class expressions, such as OWL
+ * restrictions, are not part of the hierarchy.
+ */
+public final class PoddSchemaHierarchy
+{
+    /**
+     * Creates the closure of the rdfs:subClassOf and rdfs:subPropertyOf statements in the given
+     * statements. Other statements are ignored.
+     * 
+     * @param statements
+     *            The schema statements.
+     * @return The materialised hierarchy.
+     */
+    public static PoddSchemaHierarchy create(final Iterable<Statement> statements)
+    {
+        final Map<URI, Integer> identifiers = new HashMap<>();
+        final List<URI> uris = new ArrayList<>();
+        final Map<Integer, Set<Integer>> directSuperClasses = new HashMap<>();
+        final Map<Integer, Set<Integer>> directSuperProperties = new HashMap<>();
+        
+        for(final Statement nextStatement : statements)
+        {
+            if(!(nextStatement.getSubject() instanceof URI) || !(nextStatement.getObject() instanceof URI))
+            {
+                continue;
+            }
+            
+            final Map<Integer, Set<Integer>> directParents;
+            if(RDFS.SUBCLASSOF.equals(nextStatement.getPredicate()))
+            {
+                directParents = directSuperClasses;
+            }
+            else if(RDFS.SUBPROPERTYOF.equals(nextStatement.getPredicate()))
+            {
+                directParents = directSuperProperties;
+            }
+            else
+            {
+                continue;
+            }
+            
+            final Integer child = PoddSchemaHierarchy.getIdentifier((URI)nextStatement.getSubject(), identifiers, uris);
+            final Integer parent = PoddSchemaHierarchy.getIdentifier((URI)nextStatement.getObject(), identifiers, uris);
+            Set<Integer> parents = directParents.get(child);
+            if(parents == null)
+            {
+                parents = new LinkedHashSet<>();
+                directParents.put(child, parents);
+            }
+            parents.add(parent);
+        }
+        
+        return new PoddSchemaHierarchy(identifiers, uris, PoddSchemaHierarchy.close(directSuperClasses, uris.size()),
+                PoddSchemaHierarchy.close(directSuperProperties, uris.size()));
+    }
+    
+    /**
+     * Computes the ancestors of each identifier using a breadth first search over the direct
+     * parents, which terminates for cyclic hierarchies, such as equivalent classes.
+     */
+    private static BitSet[] close(final Map<Integer, Set<Integer>> directParents, final int size)
+    {
+        final BitSet[] result = new BitSet[size];
+        for(final Integer nextChild : directParents.keySet())
+        {
+            final BitSet ancestors = new BitSet(size);
+            final Deque<Integer> queue = new ArrayDeque<>(directParents.get(nextChild));
+            while(!queue.isEmpty())
+            {
+                final Integer nextAncestor = queue.removeFirst();
+                if(!ancestors.get(nextAncestor))
+                {
+                    ancestors.set(nextAncestor);
+                    final Set<Integer> nextParents = directParents.get(nextAncestor);
+                    if(nextParents != null)
+                    {
+                        queue.addAll(nextParents);
+                    }
+                }
+            }
+            result[nextChild] = ancestors;
+        }
+        return result;
+    }
+    
+    private static Integer getIdentifier(final URI uri, final Map<URI, Integer> identifiers, final List<URI> uris)
+    {
+        Integer result = identifiers.get(uri);
+        if(result == null)
+        {
+            result = uris.size();
+            identifiers.put(uri, result);
+            uris.add(uri);
+        }
+        return result;
+    }
+    
+    private final Map<URI, Integer> identifiers;
+    
+    private final List<URI> uris;
+    
+    private final BitSet[] superClasses;
+    
+    private final BitSet[] superProperties;
+    
+    private PoddSchemaHierarchy(final Map<URI, Integer> identifiers, final List<URI> uris,
+            final BitSet[] superClasses, final BitSet[] superProperties)
+    {
+        this.identifiers = identifiers;
+        this.uris = uris;
+        this.superClasses = superClasses;
+        this.superProperties = superProperties;
+    }
+    
+    private Set<URI> getAncestors(final BitSet[] ancestors, final URI uri)
+    {
+        final Integer identifier = this.identifiers.get(uri);
+        if(identifier == null || ancestors[identifier] == null)
+        {
+            return Collections.emptySet();
+        }
+        
+        final Set<URI> result = new LinkedHashSet<>();
+        final BitSet nextAncestors = ancestors[identifier];
+        for(int i = nextAncestors.nextSetBit(0); i >= 0; i = nextAncestors.nextSetBit(i + 1))
+        {
+            result.add(this.uris.get(i));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+    
+    /**
+     * @param objectType
+     *            A class.
+     * @return All of the named classes that the given class is a direct or indirect subclass of.
+     */
+    public Set<URI> getSuperClasses(final URI objectType)
+    {
+        return this.getAncestors(this.superClasses, objectType);
+    }
+    
+    /**
+     * @return All of the named properties that are direct or indirect subproperties of
+     *         {@link PODD#PODD_BASE_CONTAINS}.
+     */
+    public Set<URI> getContainsProperties()
+    {
+        return this.getSubProperties(PODD.PODD_BASE_CONTAINS);
+    }
+    
+    /**
+     * @param superProperty
+     *            A property.
+     * @return All of the named properties that are direct or indirect subproperties of the given
+     *         property.
+     */
+    public Set<URI> getSubProperties(final URI superProperty)
+    {
+        final Integer ancestorIdentifier = this.identifiers.get(superProperty);
+        if(ancestorIdentifier == null)
+        {
+            return Collections.emptySet();
+        }
+        
+        final Set<URI> result = new LinkedHashSet<>();
+        for(int i = 0; i < this.superProperties.length; i++)
+        {
+            if(this.superProperties[i] != null && this.superProperties[i].get(ancestorIdentifier))
+            {
+                result.add(this.uris.get(i));
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+    
+    /**
+     * @param propertyUri
+     *            A property.
+     * @return All of the named properties that the given property is a direct or indirect
+     *         subproperty of.
+     */
+    public Set<URI> getSuperProperties(final URI propertyUri)
+    {
+        return this.getAncestors(this.superProperties, propertyUri);
+    }
+    
+    private boolean isAncestor(final BitSet[] ancestors, final URI uri, final URI ancestor)
+    {
+        final Integer identifier = this.identifiers.get(uri);
+        final Integer ancestorIdentifier = this.identifiers.get(ancestor);
+        if(identifier == null || ancestorIdentifier == null || ancestors[identifier] == null)
+        {
+            return false;
+        }
+        return ancestors[identifier].get(ancestorIdentifier);
+    }
+    
+    /**
+     * @param propertyUri
+     *            A property.
+     * @return True if the property is a direct or indirect subproperty of
+     *         {@link PODD#PODD_BASE_CONTAINS}.
+     */
+    public boolean isContainsProperty(final URI propertyUri)
+    {
+        return this.isSubPropertyOf(propertyUri, PODD.PODD_BASE_CONTAINS);
+    }
+    
+    /**
+     * @return True if there are no subclass or subproperty relationships in this hierarchy.
+     */
+    public boolean isEmpty()
+    {
+        return this.uris.isEmpty();
+    }
+    
+    /**
+     * @param subClass
+     *            A class.
+     * @param superClass
+     *            Another class.
+     * @return True if the first class is a direct or indirect subclass of the second class.
+     */
+    public boolean isSubClassOf(final URI subClass, final URI superClass)
+    {
+        return this.isAncestor(this.superClasses, subClass, superClass);
+    }
+    
+    /**
+     * @param subProperty
+     *            A property.
+     * @param superProperty
+     *            Another property.
+     * @return True if the first property is a direct or indirect subproperty of the second
+     *         property.
+     */
+    public boolean isSubPropertyOf(final URI subProperty, final URI superProperty)
+    {
+        return this.isAncestor(this.superProperties, subProperty, superProperty);
+    }
+}
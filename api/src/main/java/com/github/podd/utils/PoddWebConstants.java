@@ -234,6 +234,16 @@ public interface PoddWebConstants
      */
     public static final String PATH_GET_SCHEMA = "ns/{schemaPath}";
     
+    /**
+     * Path to get the status of the background inference job for an artifact version.
+     */
+    public static final String PATH_ARTIFACT_INFERENCE_STATUS = "artifact/inferencestatus";
+    
+    /**
+     * Path to the bulk artifact upload service.
+     */
+    public static final String PATH_ARTIFACT_BULK_UPLOAD = "artifact/bulkupload";
+    
     /**
      * Key used to represent user identifier part of a URL
      */
@@ -286,6 +296,13 @@ public interface PoddWebConstants
     
     public static final String PROPERTY_CHALLENGE_AUTH_METHOD = "podd.webservice.auth.challenge.method";
     
+    /**
+     * The number of seconds that a session token, issued after a user's password has been
+     * verified, is accepted in place of verifying the password again. Zero disables session tokens.
+     */
+    public static final String PROPERTY_SESSION_TOKEN_LIFETIME = "podd.webservice.auth.token.lifetime";
+    public static final String DEFAULT_SESSION_TOKEN_LIFETIME = "900";
+    
     public static final String PROPERTY_TEST_WEBSERVICE_RESET_KEY = "podd.webservice.reset.key";
     
     public static final String PROPERTY_PURL_PREFIX = "podd.purl.prefix";
@@ -302,6 +319,84 @@ public interface PoddWebConstants
     public static final String PROPERTY_OWLAPI_MANAGER = "podd.owlapimanager";
     public static final String DEFAULT_OWLAPI_MANAGER = "org.semanticweb.owlapi.apibinding.OWLManager";
     
+    public static final String PROPERTY_INFERENCE_POLICY = "podd.inference.policy";
+    public static final String DEFAULT_INFERENCE_POLICY = "FULL";
+    
+    public static final String PROPERTY_INFERENCE_ASYNCHRONOUS = "podd.inference.asynchronous";
+    public static final String DEFAULT_INFERENCE_ASYNCHRONOUS = "false";
+    
+    /**
+     * The number of threads used to compute inferences in the background.
+     */
+    public static final String PROPERTY_INFERENCE_THREADS = "podd.inference.threads";
+    public static final String DEFAULT_INFERENCE_THREADS = "2";
+    
+    /**
+     * The number of background inference jobs that may wait for a thread before inferences are
+     * computed on the request thread instead.
+     */
+    public static final String PROPERTY_INFERENCE_QUEUE_SIZE = "podd.inference.queuesize";
+    public static final String DEFAULT_INFERENCE_QUEUE_SIZE = "20";
+    
+    /**
+     * The number of threads used to verify data references. Zero verifies data references one
+     * after another on the request thread.
+     */
+    public static final String PROPERTY_DATA_REFERENCE_VERIFICATION_THREADS = "podd.datareference.verification.threads";
+    public static final String DEFAULT_DATA_REFERENCE_VERIFICATION_THREADS = "16";
+    
+    /**
+     * The maximum number of data references in each data repository that are verified at once.
+     */
+    public static final String PROPERTY_DATA_REFERENCE_VERIFICATION_CONCURRENCY =
+            "podd.datareference.verification.concurrency";
+    public static final String DEFAULT_DATA_REFERENCE_VERIFICATION_CONCURRENCY = "4";
+    
+    /**
+     * The number of seconds allowed to verify all of the data references in an artifact.
+     */
+    public static final String PROPERTY_DATA_REFERENCE_VERIFICATION_TIMEOUT = "podd.datareference.verification.timeout";
+    public static final String DEFAULT_DATA_REFERENCE_VERIFICATION_TIMEOUT = "120";
+    
+    public static final String PROPERTY_DELTA_VERSION_STORAGE = "podd.versions.delta";
+    public static final String DEFAULT_DELTA_VERSION_STORAGE = "false";
+    
+    /**
+     * The number of seconds between runs of the compactor for delta encoded artifact versions.
+     */
+    public static final String PROPERTY_DELTA_COMPACTION_INTERVAL = "podd.versions.delta.compaction.interval";
+    public static final String DEFAULT_DELTA_COMPACTION_INTERVAL = "3600";
+    
+    public static final String PROPERTY_DELTA_MAX_CHAIN_LENGTH = "podd.versions.delta.maxchainlength";
+    public static final String DEFAULT_DELTA_MAX_CHAIN_LENGTH = "10";
+    
+    /**
+     * The maximum number of artifacts committed in a single transaction during a bulk upload.
+     */
+    public static final String PROPERTY_BULK_LOAD_BATCH_SIZE = "podd.artifacts.bulkload.batchsize";
+    public static final String DEFAULT_BULK_LOAD_BATCH_SIZE = "20";
+    
+    /**
+     * The maximum number of cleared in-memory temporary repositories that are kept for reuse.
+     */
+    public static final String PROPERTY_TEMPORARY_REPOSITORY_POOL_SIZE = "podd.repository.temporary.poolsize";
+    public static final String DEFAULT_TEMPORARY_REPOSITORY_POOL_SIZE = "4";
+    
+    /**
+     * The number of statements above which artifacts are processed in a disk-backed temporary
+     * repository instead of an in-memory temporary repository.
+     */
+    public static final String PROPERTY_TEMPORARY_REPOSITORY_DISK_THRESHOLD =
+            "podd.repository.temporary.diskthreshold";
+    public static final String DEFAULT_TEMPORARY_REPOSITORY_DISK_THRESHOLD = "500000";
+    
+    /**
+     * The number of seconds between logging usage statistics, such as the number of temporary
+     * repositories that were created. Zero disables logging.
+     */
+    public static final String PROPERTY_STATISTICS_LOG_INTERVAL = "podd.statistics.log.interval";
+    public static final String DEFAULT_STATISTICS_LOG_INTERVAL = "3600";
+    
     public static final String PROPERTY_PERMANENT_SESAME_REPOSITORY_CONFIG = "podd.repository.permanent.config";
     public static final String DEFAULT_PERMANENT_SESAME_REPOSITORY_CONFIG = "/memorystoreconfig.ttl";
     
@@ -330,6 +425,35 @@ public interface PoddWebConstants
      */
     public static final String KEY_UNPUBLISHED = "unpublished";
     
+    /**
+     * Key used to limit the number of results in services that support paging.
+     */
+    public static final String KEY_LIMIT = "limit";
+    
+    /**
+     * Key used to skip a number of results in services that support paging.
+     */
+    public static final String KEY_OFFSET = "offset";
+    
+    /**
+     * Key used in "get artifact" to select the order of the child objects in the hierarchy.
+     */
+    public static final String KEY_CHILD_ORDER = "childorder";
+    
+    /**
+     * Key used in "get artifact" to select the page of child objects shown in the hierarchy.
+     */
+    public static final String KEY_CHILD_CURSOR = "childcursor";
+    
+    public static final String CHILD_ORDER_LABEL = "label";
+    
+    public static final String CHILD_ORDER_WEIGHT = "weight";
+    
+    /**
+     * The number of child objects shown on each page of the hierarchy.
+     */
+    public static final int DEFAULT_CHILD_PAGE_SIZE = 50;
+    
     /**
      * Key used in "edit" artifact to indicate whether it should be a "merge" or "replace".
      */
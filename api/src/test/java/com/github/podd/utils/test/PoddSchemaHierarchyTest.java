@@ -0,0 +1,122 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.OWL;
+import org.openrdf.model.vocabulary.RDFS;
+
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddSchemaHierarchy;
+
+/**
+ * Tests for the materialised schema class and property hierarchy.
+ */
+public class PoddSchemaHierarchyTest
+{
+    private final URI classA = PODD.VF.createURI("urn:test:ClassA");
+    
+    private final URI classB = PODD.VF.createURI("urn:test:ClassB");
+    
+    private final URI classC = PODD.VF.createURI("urn:test:ClassC");
+    
+    private final URI hasChild = PODD.VF.createURI("urn:test:hasChild");
+    
+    private final URI hasGrandChild = PODD.VF.createURI("urn:test:hasGrandChild");
+    
+    private final URI hasName = PODD.VF.createURI("urn:test:hasName");
+    
+    private PoddSchemaHierarchy testHierarchy;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        final Model model = new LinkedHashModel();
+        model.add(this.classA, RDFS.SUBCLASSOF, this.classB);
+        model.add(this.classB, RDFS.SUBCLASSOF, this.classC);
+        // Restrictions are not part of the hierarchy
+        model.add(this.classA, RDFS.SUBCLASSOF, PODD.VF.createBNode());
+        model.add(this.hasChild, RDFS.SUBPROPERTYOF, PODD.PODD_BASE_CONTAINS);
+        model.add(this.hasGrandChild, RDFS.SUBPROPERTYOF, this.hasChild);
+        model.add(this.hasName, RDFS.DOMAIN, this.classC);
+        
+        this.testHierarchy = PoddSchemaHierarchy.create(model);
+    }
+    
+    @Test
+    public void testCycle() throws Exception
+    {
+        final Model model = new LinkedHashModel();
+        model.add(this.classA, RDFS.SUBCLASSOF, this.classB);
+        model.add(this.classB, RDFS.SUBCLASSOF, this.classA);
+        
+        final PoddSchemaHierarchy hierarchy = PoddSchemaHierarchy.create(model);
+        
+        Assert.assertTrue(hierarchy.isSubClassOf(this.classA, this.classB));
+        Assert.assertTrue(hierarchy.isSubClassOf(this.classB, this.classA));
+        Assert.assertTrue(hierarchy.isSubClassOf(this.classA, this.classA));
+    }
+    
+    @Test
+    public void testGetSuperClasses() throws Exception
+    {
+        Assert.assertEquals(Arrays.asList(this.classB, this.classC),
+                Arrays.asList(this.testHierarchy.getSuperClasses(this.classA).toArray()));
+        Assert.assertTrue(this.testHierarchy.getSuperClasses(this.classC).isEmpty());
+        Assert.assertTrue(this.testHierarchy.getSuperClasses(OWL.THING).isEmpty());
+    }
+    
+    @Test
+    public void testGetContainsProperties() throws Exception
+    {
+        Assert.assertEquals(new HashSet<URI>(Arrays.asList(this.hasChild, this.hasGrandChild)),
+                this.testHierarchy.getContainsProperties());
+        Assert.assertEquals(Collections.singleton(this.hasGrandChild),
+                this.testHierarchy.getSubProperties(this.hasChild));
+        Assert.assertTrue(this.testHierarchy.getSubProperties(this.hasName).isEmpty());
+    }
+    
+    @Test
+    public void testIsContainsProperty() throws Exception
+    {
+        Assert.assertTrue(this.testHierarchy.isContainsProperty(this.hasChild));
+        Assert.assertTrue(this.testHierarchy.isContainsProperty(this.hasGrandChild));
+        Assert.assertFalse(this.testHierarchy.isContainsProperty(this.hasName));
+        Assert.assertFalse(this.testHierarchy.isContainsProperty(PODD.PODD_BASE_CONTAINS));
+    }
+    
+    @Test
+    public void testIsSubClassOf() throws Exception
+    {
+        Assert.assertTrue(this.testHierarchy.isSubClassOf(this.classA, this.classB));
+        Assert.assertTrue(this.testHierarchy.isSubClassOf(this.classA, this.classC));
+        Assert.assertFalse(this.testHierarchy.isSubClassOf(this.classC, this.classA));
+        Assert.assertFalse(this.testHierarchy.isSubClassOf(this.classA, this.classA));
+        // Properties and classes are kept separate
+        Assert.assertFalse(this.testHierarchy.isSubClassOf(this.hasChild, PODD.PODD_BASE_CONTAINS));
+        Assert.assertFalse(this.testHierarchy.isEmpty());
+    }
+}
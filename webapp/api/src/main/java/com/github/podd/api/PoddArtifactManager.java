@@ -25,6 +25,7 @@ import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
@@ -32,6 +33,7 @@ import org.openrdf.model.URI;
 import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandler;
 import org.openrdf.rio.UnsupportedRDFormatException;
 import org.restlet.resource.ResourceException;
 import org.semanticweb.owlapi.model.IRI;
@@ -49,7 +51,11 @@ import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.exception.UnmanagedArtifactVersionException;
 import com.github.podd.exception.UnmanagedSchemaException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
+import com.github.podd.utils.ArtifactLoadResult;
+import com.github.podd.utils.InferenceJob;
 import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PoddChildObjectPage;
+import com.github.podd.utils.PoddObjectDisplayBundle;
 import com.github.podd.utils.PoddObjectLabel;
 
 /**
@@ -68,6 +74,37 @@ public interface PoddArtifactManager
             DataReferenceVerificationPolicy dataReferenceVerificationPolicy) throws OpenRDFException, IOException,
         OWLException, PoddException;
     
+    /**
+     * Checks that the given artifact version can be exported, so that a missing version can be
+     * reported before any statements are written by
+     * {@link #exportArtifact(InferredOWLOntologyID, OutputStream, RDFFormat, boolean)}.
+     * 
+     * @param ontologyId
+     *            The {@link InferredOWLOntologyID} of the artifact to export.
+     * @param includeInferred
+     *            True if the inferred statements are to be exported.
+     * @throws UnmanagedArtifactVersionException
+     *             If the version is not stored in the permanent repository.
+     * @throws OpenRDFException
+     * @throws PoddException
+     * @throws IOException
+     */
+    void checkArtifactExport(InferredOWLOntologyID ontologyId, boolean includeInferred) throws OpenRDFException,
+        PoddException, IOException;
+    
+    /**
+     * Stores a full copy of any delta encoded artifact versions that would otherwise need more than
+     * the given number of deltas to be replayed to reconstruct them.
+     * 
+     * @param maxChainLength
+     *            The maximum number of deltas that may need to be replayed to reconstruct a version.
+     * @return The number of versions that were stored in full.
+     * @throws OpenRDFException
+     * @throws PoddException
+     * @throws IOException
+     */
+    int compactVersionDeltas(int maxChainLength) throws OpenRDFException, PoddException, IOException;
+    
     /**
      * Deletes the given artifact if and only if it is available and it is not currently published.
      * <p>
@@ -153,6 +190,29 @@ public interface PoddArtifactManager
     void exportArtifact(InferredOWLOntologyID ontologyId, OutputStream outputStream, RDFFormat format,
             boolean includeInferred) throws OpenRDFException, PoddException, IOException;
     
+    /**
+     * Exports the given artifact to the given RDF handler. Versions that are stored in full are
+     * streamed from the repository without being collected in memory first.
+     * 
+     * @param ontologyId
+     *            The {@link InferredOWLOntologyID} of the artifact to export. This must contain
+     *            both an ontology IRI and a version IRI.
+     * @param handler
+     *            The {@link RDFHandler} to send the RDF statements to.
+     * @param includeInferred
+     *            If true, inferred statements will be included in the exported RDF statements,
+     *            otherwise if false, only the concrete RDF statements will be exported.
+     * @throws OpenRDFException
+     *             If there is an error communicating the RDF storage for the artifact, or an error
+     *             in the handler.
+     * @throws PoddException
+     *             If there is an error in the PODD methods.
+     * @throws IOException
+     *             If there is an error accessing the RDF storage.
+     */
+    void exportArtifact(InferredOWLOntologyID ontologyId, RDFHandler handler, boolean includeInferred)
+        throws OpenRDFException, PoddException, IOException;
+    
     /**
      * Exports metadata about the given object Type to the given output stream using an RDF Format.
      * This method is only to be used to obtain metadata for display purposes.
@@ -241,6 +301,25 @@ public interface PoddArtifactManager
     InferredOWLOntologyID getArtifact(IRI artifactIRI, IRI versionIRI) throws UnmanagedArtifactIRIException,
         UnmanagedArtifactVersionException, UnmanagedSchemaIRIException;
     
+    /**
+     * Counts the direct children of the given object, without retrieving their URIs.
+     * 
+     * @param ontologyID
+     * @param objectUri
+     *            The object whose children are to be counted.
+     * @return The number of direct children of the given object.
+     * @throws OpenRDFException
+     * @throws UnmanagedSchemaIRIException
+     * @throws IOException
+     * @throws UnsupportedRDFormatException
+     * @throws SchemaManifestException
+     * @throws UnmanagedArtifactVersionException
+     * @throws UnmanagedArtifactIRIException
+     */
+    int getChildObjectCount(InferredOWLOntologyID ontologyID, URI objectUri) throws OpenRDFException,
+        UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
+        UnmanagedArtifactIRIException, UnmanagedArtifactVersionException;
+    
     /**
      * Returns a {@link Set} containing the Object URIs of the given object's direct children.
      * Direct children are objects that are linked from the given object by a property which is a
@@ -263,6 +342,39 @@ public interface PoddArtifactManager
         UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
         UnmanagedArtifactIRIException, UnmanagedArtifactVersionException;
     
+    /**
+     * Returns a single page of the direct children of the given object, with their labels, in the
+     * given order.
+     * <p>
+     * The cursor from each page can be passed back to fetch the following page. Cursors record the
+     * position of the last child on the page in the given order, so the following page starts
+     * after that child without skipping or repeating children.
+     * 
+     * @param ontologyID
+     * @param objectUri
+     *            The object whose children are sought.
+     * @param order
+     *            The order in which the children are returned.
+     * @param cursor
+     *            The cursor returned with the previous page, or null to fetch the first page.
+     * @param pageSize
+     *            The maximum number of children on the page, which must be at least 1.
+     * @return A page containing the labels of the children and the cursor for the next page.
+     * @throws IllegalArgumentException
+     *             If the cursor was not recognised or the page size is less than 1.
+     * @throws OpenRDFException
+     * @throws UnmanagedSchemaIRIException
+     * @throws IOException
+     * @throws UnsupportedRDFormatException
+     * @throws SchemaManifestException
+     * @throws UnmanagedArtifactVersionException
+     * @throws UnmanagedArtifactIRIException
+     */
+    PoddChildObjectPage getChildObjects(InferredOWLOntologyID ontologyID, URI objectUri, ChildObjectOrder order,
+            String cursor, int pageSize) throws OpenRDFException, UnmanagedSchemaIRIException,
+        SchemaManifestException, UnsupportedRDFormatException, IOException, UnmanagedArtifactIRIException,
+        UnmanagedArtifactVersionException;
+    
     /**
      * 
      * @return The {@link DataReferenceManager} used to create and fetch file references from
@@ -310,6 +422,29 @@ public interface PoddArtifactManager
         throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
         IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException;
     
+    /**
+     * Retrieves everything needed to display an object, including its label, types, ordered
+     * properties, display statements, cardinalities, parent and number of children, using a single
+     * pair of repository connections.
+     * 
+     * @param artifactID
+     *            The artifact containing the object.
+     * @param objectUri
+     *            The object to display, or null to display the top object of the artifact.
+     * @return The display bundle, or null if objectUri was null and the artifact does not have
+     *         exactly one top object.
+     * @throws OpenRDFException
+     * @throws UnmanagedSchemaIRIException
+     * @throws IOException
+     * @throws UnsupportedRDFormatException
+     * @throws SchemaManifestException
+     * @throws UnmanagedArtifactVersionException
+     * @throws UnmanagedArtifactIRIException
+     */
+    PoddObjectDisplayBundle getObjectDisplayBundle(InferredOWLOntologyID artifactID, URI objectUri)
+        throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
+        IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException;
+    
     /**
      * 
      * @param ontologyID
@@ -380,6 +515,22 @@ public interface PoddArtifactManager
         throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
         IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException;
     
+    /**
+     * Finds the background inference job for the given artifact version, if its inferred
+     * statements were computed asynchronously.
+     * 
+     * @param artifactId
+     * @return The job for the given artifact version, or null if there is no record of a job for
+     *         the version.
+     */
+    InferenceJob getInferenceJob(InferredOWLOntologyID artifactId);
+    
+    /**
+     * 
+     * @return The {@link InferencePolicy} used to compute inferences when artifacts are updated.
+     */
+    InferencePolicy getInferencePolicy();
+    
     /**
      * 
      * @return The {@link PoddOWLManager} used to manage OWL validation and inferencing for
@@ -475,6 +626,43 @@ public interface PoddArtifactManager
         UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
         UnmanagedArtifactIRIException, UnmanagedArtifactVersionException;
     
+    /**
+     * A list of labels for the top objects in the given artifacts, resolved using one query for
+     * each permanent repository.
+     * 
+     * @param artifacts
+     *            A sorted list of artifact identifiers that require labels.
+     * @param objectTypes
+     *            If not null, the displayable RDF types of each top object, and a label for each of
+     *            those types, are added to this model.
+     * @return A list of labels in the same order as the artifacts.
+     * @throws OpenRDFException
+     * @throws UnmanagedSchemaIRIException
+     * @throws IOException
+     * @throws UnsupportedRDFormatException
+     * @throws SchemaManifestException
+     * @throws UnmanagedArtifactVersionException
+     * @throws UnmanagedArtifactIRIException
+     */
+    List<PoddObjectLabel> getTopObjectLabels(List<InferredOWLOntologyID> artifacts, Model objectTypes)
+        throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
+        IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException;
+    
+    /**
+     * 
+     * @return True if the inferred statements for artifacts are computed on a background thread
+     *         after the concrete statements are stored, and false if they are computed before the
+     *         load or update returns.
+     */
+    boolean isAsynchronousInferences();
+    
+    /**
+     * 
+     * @return True if previous versions of artifacts are stored as deltas against the following
+     *         version, and false if they are not retained after an update.
+     */
+    boolean isDeltaVersionStorage();
+    
     /**
      * Checks whether a given Ontology is Published.
      * 
@@ -491,6 +679,18 @@ public interface PoddArtifactManager
      */
     List<InferredOWLOntologyID> listPublishedArtifacts() throws OpenRDFException;
     
+    /**
+     * 
+     * @param limit
+     *            The maximum number of artifacts to return, or a number less than 1 to return all
+     *            artifacts.
+     * @param offset
+     *            The number of artifacts to skip, in ontology IRI order.
+     * @return A page from the list of artifacts that have been published.
+     * @throws OpenRDFException
+     */
+    List<InferredOWLOntologyID> listPublishedArtifacts(int limit, int offset) throws OpenRDFException;
+    
     /**
      * 
      * @return The list of artifacts that have not been published.
@@ -498,6 +698,18 @@ public interface PoddArtifactManager
      */
     List<InferredOWLOntologyID> listUnpublishedArtifacts() throws OpenRDFException;
     
+    /**
+     * 
+     * @param limit
+     *            The maximum number of artifacts to return, or a number less than 1 to return all
+     *            artifacts.
+     * @param offset
+     *            The number of artifacts to skip, in ontology IRI order.
+     * @return A page from the list of artifacts that have not been published.
+     * @throws OpenRDFException
+     */
+    List<InferredOWLOntologyID> listUnpublishedArtifacts(int limit, int offset) throws OpenRDFException;
+    
     /**
      * Loads an artifact into the manager.
      * 
@@ -522,6 +734,34 @@ public interface PoddArtifactManager
             DanglingObjectPolicy danglingObjectPolicy, DataReferenceVerificationPolicy dataReferenceVerificationPolicy)
         throws OpenRDFException, PoddException, IOException, OWLException;
     
+    /**
+     * Loads a batch of new artifacts into the manager.
+     * 
+     * Artifacts that import the same schema ontologies are loaded together, sharing the prepared
+     * schema ontologies, and are committed in transactions of up to batchSize artifacts. If an
+     * artifact fails while its transaction is being stored, the other artifacts in that transaction
+     * are retried individually, so a failure only affects the artifact that caused it.
+     * 
+     * @param inputStreams
+     *            The input streams containing the RDF documents for the new artifacts. They are not
+     *            closed by this method.
+     * @param format
+     *            The format for all of the input RDF documents.
+     * @param danglingObjectPolicy
+     * @param dataReferenceVerificationPolicy
+     * @param batchSize
+     *            The maximum number of artifacts to commit in a single transaction.
+     * @return A result for each input stream, in the same order as the input streams.
+     * @throws OpenRDFException
+     *             If there was an error that affected all of the artifacts.
+     * @throws PoddException
+     * @throws IOException
+     * @throws OWLException
+     */
+    List<ArtifactLoadResult> loadArtifacts(List<InputStream> inputStreams, RDFFormat format,
+            DanglingObjectPolicy danglingObjectPolicy, DataReferenceVerificationPolicy dataReferenceVerificationPolicy,
+            int batchSize) throws OpenRDFException, PoddException, IOException, OWLException;
+    
     /**
      * Sets the given OWLOntologyID to be published.
      * 
@@ -566,6 +806,17 @@ public interface PoddArtifactManager
         throws OpenRDFException, ResourceException, UnmanagedSchemaIRIException, SchemaManifestException,
         UnsupportedRDFormatException, IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException;
     
+    /**
+     * Sets whether the inferred statements for artifacts are computed on a background thread after
+     * the concrete statements are stored. Defaults to false. Inferences are computed synchronously
+     * if an executor has not been set using {@link #setInferenceExecutor(ExecutorService)}, or if
+     * data references must be verified. The profile and consistency of an artifact are always
+     * checked before it is stored.
+     * 
+     * @param asynchronousInferences
+     */
+    void setAsynchronousInferences(boolean asynchronousInferences);
+    
     /**
      * Sets the {@link DataReferenceManager} to use for verifying file references for PODD
      * artifacts.
@@ -584,6 +835,30 @@ public interface PoddArtifactManager
      */
     void setDataRepositoryManager(PoddDataRepositoryManager dataRepositoryManager);
     
+    /**
+     * Sets whether previous versions of artifacts are retained as deltas against the following
+     * version when artifacts are updated. Defaults to false.
+     * 
+     * @param deltaVersionStorage
+     */
+    void setDeltaVersionStorage(boolean deltaVersionStorage);
+    
+    /**
+     * Sets the executor used to run background inference jobs. The executor should be bounded, as
+     * each job holds the complete artifact in memory while it is reasoned over.
+     * 
+     * @param inferenceExecutor
+     */
+    void setInferenceExecutor(ExecutorService inferenceExecutor);
+    
+    /**
+     * Sets the policy used to compute inferences when artifacts are updated. Defaults to
+     * {@link InferencePolicy#FULL}.
+     * 
+     * @param inferencePolicy
+     */
+    void setInferencePolicy(InferencePolicy inferencePolicy);
+    
     /**
      * Sets the {@link PoddOWLManager} instance to use when loading and dealing with Artifacts in
      * memory. This manager may not be used for some queries where SPARQL queries on the underlying
@@ -719,4 +994,17 @@ public interface PoddArtifactManager
             Set<? extends OWLOntologyID> oldSchemaOntologyIds, Set<? extends OWLOntologyID> newSchemaOntologyIds)
         throws UnmanagedSchemaException, OpenRDFException, PoddException, IOException, OWLException;
     
+    /**
+     * Derives and caches the metadata for the given object types using the current schema
+     * ontologies, so that the first requests to create objects of these types after the schemas are
+     * loaded are not delayed.
+     * 
+     * @param objectTypes
+     *            The object types to prepare metadata for.
+     * @throws OpenRDFException
+     * @throws PoddException
+     * @throws IOException
+     */
+    void warmUpObjectMetadata(Collection<URI> objectTypes) throws OpenRDFException, PoddException, IOException;
+    
 }
@@ -29,6 +29,7 @@ import org.openrdf.repository.RepositoryConnection;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.model.OWLException;
 import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
 
 import com.github.podd.exception.OntologyNotInProfileException;
 import com.github.podd.exception.PoddException;
@@ -41,6 +42,70 @@ import com.github.podd.utils.InferredOWLOntologyID;
  */
 public interface PoddOWLManager
 {
+    /**
+     * Checks that the given statements are in the required profile and are consistent, without
+     * computing or storing any inferred statements.
+     * 
+     * @param statements
+     *            The statements to check, including the ontology header and imports.
+     * @param dependentSchemaOntologies
+     *            The schema ontologies that the statements import.
+     * @param managementConnection
+     * @param schemaManagementContext
+     * @throws OWLException
+     * @throws PoddException
+     *             If the statements are not in the required profile or are inconsistent.
+     * @throws OpenRDFException
+     * @throws IOException
+     */
+    void checkStatements(Model statements, Set<? extends OWLOntologyID> dependentSchemaOntologies,
+            RepositoryConnection managementConnection, URI schemaManagementContext) throws OWLException,
+        PoddException, OpenRDFException, IOException;
+    
+    /**
+     * Computes the inferred statements for the given statements without storing either of them.
+     * This is used to re-reason over a part of an artifact when it is updated.
+     * 
+     * @param statements
+     *            The statements to reason over, including the ontology header and imports.
+     * @param dependentSchemaOntologies
+     *            The schema ontologies that the statements import.
+     * @param managementConnection
+     * @param schemaManagementContext
+     * @return The inferred statements, in the context of the inferred ontology IRI derived from the
+     *         version IRI of the given statements.
+     * @throws OWLException
+     * @throws PoddException
+     *             If the statements are not in the required profile or are inconsistent.
+     * @throws OpenRDFException
+     * @throws IOException
+     */
+    Model computeInferredStatements(Model statements, Set<? extends OWLOntologyID> dependentSchemaOntologies,
+            RepositoryConnection managementConnection, URI schemaManagementContext) throws OWLException,
+        PoddException, OpenRDFException, IOException;
+    
+    /**
+     * Creates an OWLOntologyManager containing the given schema ontologies, so that a series of
+     * ontologies that import the same schema ontologies can be loaded using
+     * {@link #loadAndInfer(OWLOntologyDocumentSource, RepositoryConnection, OWLOntologyID, OWLOntologyManager)}
+     * without preparing the schema ontologies for each of them.
+     * 
+     * The returned manager is not shared, and must only be used by one thread at a time.
+     * 
+     * @param dependentSchemaOntologies
+     *            The schema ontologies that the ontologies to be loaded import.
+     * @param managementConnection
+     * @param schemaManagementContext
+     * @return A new OWLOntologyManager containing the schema ontologies.
+     * @throws OWLException
+     * @throws PoddException
+     * @throws OpenRDFException
+     * @throws IOException
+     */
+    OWLOntologyManager createLoadSession(Set<? extends OWLOntologyID> dependentSchemaOntologies,
+            RepositoryConnection managementConnection, URI schemaManagementContext) throws OWLException,
+        PoddException, OpenRDFException, IOException;
+    
     /**
      * Determing if the ontology is cached in memory.
      * 
@@ -74,6 +139,32 @@ public interface PoddOWLManager
             Set<? extends OWLOntologyID> dependentSchemaOntologies, RepositoryConnection managementConnection,
             URI schemaManagementContext) throws OWLException, PoddException, OpenRDFException, IOException;
     
+    /**
+     * Loads an ontology in the same way as
+     * {@link #loadAndInfer(OWLOntologyDocumentSource, RepositoryConnection, OWLOntologyID, Set, RepositoryConnection, URI)}
+     * , using a manager created by {@link #createLoadSession(Set, RepositoryConnection, URI)}. The
+     * loaded ontology is removed from the manager before this method returns, so the manager can be
+     * reused for the next load.
+     * 
+     * @param owlSource
+     *            The source of the OWL ontology to be loaded.
+     * @param permanentRepositoryConnection
+     *            A connection to the repository where the ontology will be stored.
+     * @param replacementOntologyID
+     *            (Optional) A replacement ontology IRI and version IRI for the loaded ontology.
+     * @param loadSession
+     *            A manager containing the schema ontologies imported by the ontology.
+     * @return An {@link InferredOWLOntologyID} object containing the details of the loaded
+     *         ontology.
+     * @throws OWLException
+     * @throws PoddException
+     * @throws OpenRDFException
+     * @throws IOException
+     */
+    InferredOWLOntologyID loadAndInfer(OWLOntologyDocumentSource owlSource,
+            RepositoryConnection permanentRepositoryConnection, OWLOntologyID replacementOntologyID,
+            OWLOntologyManager loadSession) throws OWLException, PoddException, OpenRDFException, IOException;
+    
     /**
      * Attempts to regain memory in the underlying OWLOntologyManager by removing the ontology from
      * the in-memory cache.
@@ -67,6 +67,22 @@ public interface PoddRepositoryManager
      */
     Repository getNewTemporaryRepository() throws OpenRDFException;
     
+    /**
+     * Get a new temporary repository that is suitable for the given number of statements.
+     * 
+     * Repositories for large numbers of statements may be disk-backed instead of in-memory.
+     * Calling {@link Repository#shutDown()} on the result returns it to this manager, which may
+     * clear it and reuse it for a later request.
+     * 
+     * @param expectedStatements
+     *            The estimated number of statements that will be stored in the repository, or 0 if
+     *            the number is not known.
+     * @return A new, initialized, empty repository that can be used to store statements
+     *         temporarily while validating them before uploading them to a permanent repository.
+     * @throws OpenRDFException
+     */
+    Repository getNewTemporaryRepository(long expectedStatements) throws OpenRDFException;
+    
     /**
      * 
      * @param schemaOntologies
@@ -103,6 +119,27 @@ public interface PoddRepositoryManager
      */
     URI getSchemaManagementGraph();
     
+    /**
+     * 
+     * @return The number of temporary repository requests that were served by an in-memory
+     *         repository.
+     */
+    long getTemporaryRepositoryInMemoryCount();
+    
+    /**
+     * 
+     * @return The number of temporary repository requests that were served by a disk-backed
+     *         repository.
+     */
+    long getTemporaryRepositoryOnDiskCount();
+    
+    /**
+     * 
+     * @return The number of in-memory temporary repository requests that were satisfied by reusing
+     *         a pooled repository.
+     */
+    long getTemporaryRepositoryPoolHitCount();
+    
     /**
      * Verifies that the context is not null, not the default graph (sesame:nil), and is not one of
      * the management graphs.
@@ -36,7 +36,9 @@ import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddChildObjectPage;
 import com.github.podd.utils.PoddObjectLabel;
+import com.github.podd.utils.PoddSchemaHierarchy;
 
 /**
  * Manages interactions with Sesame Repositories for PODD.
@@ -125,6 +127,29 @@ public interface PoddSesameManager
     Set<InferredOWLOntologyID> getAllSchemaOntologyVersions(RepositoryConnection repositoryConnection,
             URI schemaManagementGraph) throws OpenRDFException;
     
+    /**
+     * Gets the current versions of the artifacts managed in the given graph, selected by their
+     * publication status, using a single query. Results are ordered by ontology IRI so that they can
+     * be paged.
+     * 
+     * @param published
+     *            True to include published artifacts.
+     * @param unpublished
+     *            True to include unpublished artifacts.
+     * @param limit
+     *            The maximum number of results to return, or a number less than 1 to return all
+     *            results.
+     * @param offset
+     *            The number of results to skip.
+     * @param repositoryConnection
+     * @param artifactManagementGraph
+     * @return The current versions of the matching artifacts.
+     * @throws OpenRDFException
+     */
+    List<InferredOWLOntologyID> getArtifactsByPublicationStatus(boolean published, boolean unpublished, int limit,
+            int offset, RepositoryConnection repositoryConnection, URI artifactManagementGraph)
+        throws OpenRDFException;
+    
     // List<URI> getAllValidMembers(InferredOWLOntologyID artifactID, URI conceptUri,
     // RepositoryConnection repositoryConnection, URI schemaManagementGraph) throws
     // OpenRDFException;
@@ -175,6 +200,41 @@ public interface PoddSesameManager
     Map<URI, URI> getCardinalityValues(URI objectUri, Collection<URI> propertyUris, boolean findFromType,
             RepositoryConnection repositoryConnection, URI... contexts) throws OpenRDFException;
     
+    /**
+     * Counts the children of the given object without retrieving their URIs.
+     * 
+     * @param objectUri
+     *            The object whose children are to be counted.
+     * @param conn
+     * @param contexts
+     * @return The number of distinct child objects of the given object.
+     * @throws OpenRDFException
+     */
+    int getChildObjectCount(URI objectUri, RepositoryConnection conn, URI... contexts) throws OpenRDFException;
+    
+    /**
+     * Returns a single page of the labels of the given object's children, in the given order.
+     * 
+     * @param ontologyID
+     *            The artifact containing the object.
+     * @param objectUri
+     *            The object whose children are sought.
+     * @param order
+     *            The order in which children are to be returned.
+     * @param cursor
+     *            The cursor returned with the previous page, or null to fetch the first page.
+     * @param pageSize
+     *            The maximum number of children on the page, which must be at least 1.
+     * @param conn
+     * @param contexts
+     * @return A page containing the labels of the children and the cursor for the next page.
+     * @throws IllegalArgumentException
+     *             If the cursor was not recognised or the page size is less than 1.
+     * @throws OpenRDFException
+     */
+    PoddChildObjectPage getChildObjectLabels(InferredOWLOntologyID ontologyID, URI objectUri, ChildObjectOrder order,
+            String cursor, int pageSize, RepositoryConnection conn, URI... contexts) throws OpenRDFException;
+    
     /**
      * Returns a {@link Set} containing the Object URIs of the given object's children. An empty Set
      * is returned if the given object does not have any children.
@@ -282,6 +342,32 @@ public interface PoddSesameManager
             URI schemaManagementGraph, URI artifactManagementGraph) throws OpenRDFException, SchemaManifestException,
         UnmanagedSchemaIRIException;
     
+    /**
+     * Retrieves the labels (rdfs:label) and descriptions (rdfs:comment) of the given objects
+     * together, using labels that have already been cached where possible.
+     * 
+     * If a label is not found for an object, its URI is used as the label.
+     * 
+     * @param ontologyID
+     *            Is used to decide on the graphs in which to search for labels. This includes the
+     *            given ontology as well as its imports. If it is null, only the schema ontologies
+     *            are searched.
+     * @param objectUris
+     *            The objects whose labels and descriptions are sought.
+     * @param managementConnection
+     * @param permanentConnection
+     * @param schemaManagementGraph
+     * @param artifactManagementGraph
+     * @return A Map from each of the given objects to its label, in the order they were given.
+     * @throws OpenRDFException
+     * @throws SchemaManifestException
+     * @throws UnmanagedSchemaIRIException
+     */
+    Map<URI, PoddObjectLabel> getObjectLabels(InferredOWLOntologyID ontologyID, Collection<URI> objectUris,
+            RepositoryConnection managementConnection, RepositoryConnection permanentConnection,
+            URI schemaManagementGraph, URI artifactManagementGraph) throws OpenRDFException, SchemaManifestException,
+        UnmanagedSchemaIRIException;
+    
     /**
      * For a given PODD Object Type, this method retrieves metadata about possible objects that it
      * can <b>contain</b> and the parent-child relationships with them. Parent-child relationships
@@ -407,6 +493,17 @@ public interface PoddSesameManager
     Model getReferringObjectDetails(URI objectUri, RepositoryConnection repositoryConnection, URI... contexts)
         throws OpenRDFException;
     
+    /**
+     * Returns the materialised subclass and subproperty closure of the schema contexts in the given
+     * contexts that were previously passed to
+     * {@link #materialiseSchemaHierarchy(InferredOWLOntologyID, RepositoryConnection)}.
+     * 
+     * @param contexts
+     *            The contexts, typically including the schema contexts for an artifact.
+     * @return The hierarchy, or null if none of the given contexts have a materialised hierarchy.
+     */
+    PoddSchemaHierarchy getSchemaHierarchy(URI... contexts);
+    
     /**
      * If the given IRI represents a version IRI of a schema ontology, the Ontology ID for this
      * schema version is returned. If the given IRI represents an ontology IRI of a schema ontology,
@@ -431,6 +528,30 @@ public interface PoddSesameManager
     URI getTopObjectIRI(InferredOWLOntologyID ontologyIRI, RepositoryConnection permanentConnection)
         throws OpenRDFException;
     
+    /**
+     * Finds the top objects of a batch of artifacts, which must all be stored in the given
+     * permanent repository, along with their labels and descriptions, using a single query.
+     * 
+     * @param artifacts
+     *            The artifacts, which must all have the same schema imports.
+     * @param objectTypes
+     *            If not null, the displayable RDF types of each top object, and a label for each of
+     *            those types, are added to this model.
+     * @param managementConnection
+     * @param permanentConnection
+     * @param schemaManagementGraph
+     * @param artifactManagementGraph
+     * @return A map from each artifact to the label for its top object. Artifacts without a top
+     *         object are not included.
+     * @throws OpenRDFException
+     * @throws SchemaManifestException
+     * @throws UnmanagedSchemaIRIException
+     */
+    Map<InferredOWLOntologyID, PoddObjectLabel> getTopObjectLabels(Collection<InferredOWLOntologyID> artifacts,
+            Model objectTypes, RepositoryConnection managementConnection, RepositoryConnection permanentConnection,
+            URI schemaManagementGraph, URI artifactManagementGraph) throws OpenRDFException, SchemaManifestException,
+        UnmanagedSchemaIRIException;
+    
     List<URI> getTopObjects(InferredOWLOntologyID ontologyID, RepositoryConnection permanentConnection)
         throws OpenRDFException;
     
@@ -463,6 +584,32 @@ public interface PoddSesameManager
     
     URI[] inferredContexts(InferredOWLOntologyID ontologyID) throws OpenRDFException;
     
+    /**
+     * Indexes the labels in the given contexts for {@link #searchOntologyLabels}, replacing any
+     * existing index for those contexts. Contexts that are searched without being indexed are
+     * indexed when they are first searched.
+     * 
+     * @param repositoryConnection
+     *            The connection containing the contexts.
+     * @param contexts
+     *            The artifact or schema version contexts to index.
+     * @throws OpenRDFException
+     */
+    void indexLabels(RepositoryConnection repositoryConnection, URI... contexts) throws OpenRDFException;
+    
+    /**
+     * Returns true if the given property is a direct or indirect subproperty of
+     * {@link PODD#PODD_BASE_CONTAINS}, using the materialised schema hierarchy if it is available.
+     * 
+     * @param propertyUri
+     * @param repositoryConnection
+     * @param contexts
+     * @return
+     * @throws OpenRDFException
+     */
+    boolean isContainsProperty(URI propertyUri, RepositoryConnection repositoryConnection, URI... contexts)
+        throws OpenRDFException;
+    
     /**
      * Returns true if the combination of the Ontology IRI and the Version IRI in the given
      * ontologyID were previously published.
@@ -475,6 +622,34 @@ public interface PoddSesameManager
     boolean isPublished(InferredOWLOntologyID ontologyID, RepositoryConnection repositoryConnection, final URI context)
         throws OpenRDFException;
     
+    /**
+     * Returns true if the given class is a direct or indirect subclass of the other class, using the
+     * materialised schema hierarchy if it is available.
+     * 
+     * @param subClass
+     * @param superClass
+     * @param repositoryConnection
+     * @param contexts
+     * @return
+     * @throws OpenRDFException
+     */
+    boolean isSubClassOf(URI subClass, URI superClass, RepositoryConnection repositoryConnection, URI... contexts)
+        throws OpenRDFException;
+    
+    /**
+     * Materialises the subclass and subproperty closure of the given schema ontology, so that
+     * {@link #getSchemaHierarchy(URI...)} can answer hierarchy questions for its contexts without a
+     * query.
+     * 
+     * @param schemaOntologyID
+     *            The schema ontology, including its inferred ontology IRI if it has one.
+     * @param managementConnection
+     *            The connection to the repository containing the schema ontology.
+     * @throws OpenRDFException
+     */
+    void materialiseSchemaHierarchy(InferredOWLOntologyID schemaOntologyID, RepositoryConnection managementConnection)
+        throws OpenRDFException;
+    
     URI[] schemaContexts(InferredOWLOntologyID ontologyID, RepositoryConnection repositoryConnection,
             URI schemaManagementGraph, URI artifactManagementGraph) throws OpenRDFException, SchemaManifestException,
         UnmanagedSchemaIRIException;
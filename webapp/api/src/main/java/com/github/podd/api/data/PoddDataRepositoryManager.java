@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
@@ -153,6 +155,36 @@ public interface PoddDataRepositoryManager
     
     void setRepositoryManager(PoddRepositoryManager repositoryManager);
     
+    /**
+     * Sets the maximum number of {@link DataReference}s in each data repository that are verified
+     * at the same time, across all concurrent calls to {@link #verifyDataReferences(Set)}. Defaults
+     * to 4.
+     * 
+     * @param verificationConcurrency
+     *            The maximum number of concurrent verifications for each repository alias.
+     */
+    void setVerificationConcurrency(int verificationConcurrency);
+    
+    /**
+     * Sets the executor used to verify {@link DataReference}s in parallel. References are verified
+     * one after another on the calling thread if an executor has not been set.
+     * 
+     * @param verificationExecutor
+     */
+    void setVerificationExecutor(ExecutorService verificationExecutor);
+    
+    /**
+     * Sets the time allowed for a call to {@link #verifyDataReferences(Set)} to verify all of the
+     * given references using the verification executor. References that have not been verified by
+     * then are reported as failures. Defaults to 120 seconds.
+     * 
+     * @param timeout
+     *            The time allowed, or zero to wait until all references have been verified.
+     * @param unit
+     *            The unit of the timeout.
+     */
+    void setVerificationTimeout(long timeout, TimeUnit unit);
+    
     /**
      * Verifies that a given set of {@link DataReference} objects are valid by checking they can be
      * accessed from the remote Data Repository.
@@ -0,0 +1,249 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.restlet;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openrdf.model.URI;
+import org.restlet.security.Role;
+
+import com.github.podd.utils.PoddLruCache;
+
+/**
+ * A cache of the roles that users have for objects, keyed by user identifier and object URI, so
+ * that authorising a request does not need to query the repository each time. The roles that each
+ * user has for all of their objects are also kept, so that many objects, such as the artifacts in
+ * a listing, can be authorised together.
+ * <p>
+ * Entries must be invalidated whenever role mappings for a user change. A result computed before
+ * an invalidation is not stored, so that a lookup racing with a change can not cache stale roles.
+ * Entries are evicted when the cache is full, least recently used first.
+ */
+public class PoddRoleCache
+{
+    /**
+     * The default number of (user, object) entries to keep.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+    
+    /**
+     * Entries keyed by user identifier, which is null for lookups across all users, and object
+     * URI.
+     */
+    private final PoddLruCache<Entry<String, URI>, Map<String, Collection<Role>>> entries;
+    
+    /**
+     * The roles for all of the objects that each user is mapped to, keyed by user identifier.
+     */
+    private final PoddLruCache<String, Map<URI, Collection<Role>>> userEntries;
+    
+    private final AtomicLong generation = new AtomicLong(0);
+    
+    /**
+     * Creates a cache with the {@link #DEFAULT_MAXIMUM_SIZE}.
+     */
+    public PoddRoleCache()
+    {
+        this(PoddRoleCache.DEFAULT_MAXIMUM_SIZE);
+    }
+    
+    /**
+     * 
+     * @param maximumSize
+     *            The maximum number of (user, object) entries to keep.
+     */
+    public PoddRoleCache(final int maximumSize)
+    {
+        this.entries = new PoddLruCache<>(maximumSize);
+        this.userEntries = new PoddLruCache<>(maximumSize);
+    }
+    
+    /**
+     * Removes all of the entries from this cache.
+     */
+    public void clear()
+    {
+        synchronized(this.entries)
+        {
+            this.generation.incrementAndGet();
+            this.entries.clear();
+            this.userEntries.clear();
+        }
+    }
+    
+    /**
+     * 
+     * @param userIdentifier
+     *            The user identifier, or null to get the roles of all users.
+     * @param objectUri
+     *            The object URI.
+     * @return The cached roles, keyed by user identifier, or null if they are not in this cache.
+     */
+    public Map<String, Collection<Role>> get(final String userIdentifier, final URI objectUri)
+    {
+        return this.entries.get(new AbstractMap.SimpleImmutableEntry<String, URI>(userIdentifier, objectUri));
+    }
+    
+    /**
+     * 
+     * @return The current generation of this cache, which must be read before computing a result
+     *         that is passed to {@link #put(String, URI, Map, long)}.
+     */
+    public long getGeneration()
+    {
+        return this.generation.get();
+    }
+    
+    /**
+     * 
+     * @param userIdentifier
+     *            The user identifier.
+     * @return The cached roles for all of the objects that the user is mapped to, or null if they
+     *         are not in this cache.
+     */
+    public Map<URI, Collection<Role>> getForUser(final String userIdentifier)
+    {
+        return this.userEntries.get(userIdentifier);
+    }
+    
+    /**
+     * 
+     * @return The number of lookups that were found in this cache.
+     */
+    public long getHitCount()
+    {
+        return this.entries.getHitCount() + this.userEntries.getHitCount();
+    }
+    
+    /**
+     * 
+     * @return The number of lookups that were not found in this cache.
+     */
+    public long getMissCount()
+    {
+        return this.entries.getMissCount() + this.userEntries.getMissCount();
+    }
+    
+    /**
+     * Removes the entries for the given user, and the entries for lookups across all users.
+     * 
+     * @param userIdentifier
+     *            The identifier of the user whose role mappings have changed.
+     */
+    public void invalidateUser(final String userIdentifier)
+    {
+        synchronized(this.entries)
+        {
+            this.generation.incrementAndGet();
+            this.userEntries.remove(userIdentifier);
+            final List<Entry<String, URI>> removedKeys = new ArrayList<>();
+            for(final Entry<String, URI> nextKey : this.entries.getKeys())
+            {
+                if(nextKey.getKey() == null || nextKey.getKey().equals(userIdentifier))
+                {
+                    removedKeys.add(nextKey);
+                }
+            }
+            this.entries.removeAll(removedKeys);
+        }
+    }
+    
+    /**
+     * Stores an unmodifiable copy of the given roles, unless this cache has been invalidated since
+     * the given generation was read.
+     * 
+     * @param userIdentifier
+     *            The user identifier, or null if the roles are for all users.
+     * @param objectUri
+     *            The object URI.
+     * @param roles
+     *            The roles, keyed by user identifier.
+     * @param generation
+     *            The result of {@link #getGeneration()} before the roles were computed.
+     * @return The unmodifiable copy of the roles.
+     */
+    public Map<String, Collection<Role>> put(final String userIdentifier, final URI objectUri,
+            final Map<String, Collection<Role>> roles, final long generation)
+    {
+        final Map<String, Collection<Role>> copy = new LinkedHashMap<>();
+        for(final Entry<String, Collection<Role>> nextEntry : roles.entrySet())
+        {
+            copy.put(nextEntry.getKey(), Collections.unmodifiableSet(new HashSet<Role>(nextEntry.getValue())));
+        }
+        final Map<String, Collection<Role>> result = Collections.unmodifiableMap(copy);
+        
+        synchronized(this.entries)
+        {
+            if(this.generation.get() == generation)
+            {
+                this.entries.put(new AbstractMap.SimpleImmutableEntry<String, URI>(userIdentifier, objectUri), result);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Stores an unmodifiable copy of the roles for all of the objects that the given user is
+     * mapped to, unless this cache has been invalidated since the given generation was read.
+     * 
+     * @param userIdentifier
+     *            The user identifier.
+     * @param roles
+     *            The roles, keyed by object URI.
+     * @param generation
+     *            The result of {@link #getGeneration()} before the roles were computed.
+     * @return The unmodifiable copy of the roles.
+     */
+    public Map<URI, Collection<Role>> putForUser(final String userIdentifier, final Map<URI, Collection<Role>> roles,
+            final long generation)
+    {
+        final Map<URI, Collection<Role>> copy = new HashMap<>();
+        for(final Entry<URI, Collection<Role>> nextEntry : roles.entrySet())
+        {
+            copy.put(nextEntry.getKey(), Collections.unmodifiableSet(new HashSet<Role>(nextEntry.getValue())));
+        }
+        final Map<URI, Collection<Role>> result = Collections.unmodifiableMap(copy);
+        
+        synchronized(this.entries)
+        {
+            if(this.generation.get() == generation)
+            {
+                this.userEntries.put(userIdentifier, result);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 
+     * @return The number of (user, object) entries in this cache.
+     */
+    public int size()
+    {
+        return this.entries.size();
+    }
+}
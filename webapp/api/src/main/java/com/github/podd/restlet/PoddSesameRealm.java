@@ -24,6 +24,7 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -33,6 +34,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.OpenRDFUtil;
@@ -49,16 +51,14 @@ import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.query.Binding;
 import org.openrdf.query.BindingSet;
 import org.openrdf.query.Dataset;
-import org.openrdf.query.QueryLanguage;
-import org.openrdf.query.TupleQuery;
 import org.openrdf.query.impl.DatasetImpl;
+import org.openrdf.query.impl.MapBindingSet;
 import org.openrdf.query.resultio.helpers.QueryResultCollector;
 import org.openrdf.queryrender.RenderUtils;
 import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.RepositoryResult;
-import org.openrdf.rio.ntriples.NTriplesUtil;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.data.ClientInfo;
@@ -83,7 +83,8 @@ import com.github.podd.utils.PasswordHash;
 import com.github.podd.utils.PoddRoles;
 import com.github.podd.utils.PoddUser;
 import com.github.podd.utils.PoddUserStatus;
-import com.github.podd.utils.RdfUtility;
+import com.github.podd.utils.PoddWebConstants;
+import com.github.podd.utils.SparqlQueryRegistry;
 
 public class PoddSesameRealm extends Realm
 {
@@ -159,7 +160,12 @@ public class PoddSesameRealm extends Realm
         @Override
         protected User createUser(final String identifier, final Request request, final Response response)
         {
-            final PoddUser checkUser = PoddSesameRealm.this.findUser(identifier);
+            // The user is held with the session token to avoid looking it up again
+            PoddUser checkUser = PoddSesameRealm.this.sessionTokens.getUser(identifier);
+            if(checkUser == null)
+            {
+                checkUser = PoddSesameRealm.this.findUser(identifier);
+            }
             
             if(checkUser == null)
             {
@@ -189,10 +195,24 @@ public class PoddSesameRealm extends Realm
         @Override
         public int verify(final String identifier, final char[] secret)
         {
+            final PoddSessionTokens tokens = PoddSesameRealm.this.sessionTokens;
+            if(tokens.verify(identifier, secret))
+            {
+                return Verifier.RESULT_VALID;
+            }
+            
+            // Read the generation before verifying so that a concurrent password change is not
+            // overridden by a token for the old password
+            final long generation = tokens.getGeneration();
             try
             {
                 final PoddUserSecretHash secretHash = PoddSesameRealm.this.getUserSecretHash(identifier);
-                return secretHash.compare(secret) ? Verifier.RESULT_VALID : Verifier.RESULT_INVALID;
+                if(!secretHash.compare(secret))
+                {
+                    return Verifier.RESULT_INVALID;
+                }
+                tokens.issue(identifier, secret, secretHash.user, generation);
+                return Verifier.RESULT_VALID;
             }
             catch(OpenRDFException | NoSuchAlgorithmException | InvalidKeySpecException e)
             {
@@ -218,7 +238,33 @@ public class PoddSesameRealm extends Realm
     protected static final String PARAM_USER_POSITION = "userPosition";
     protected static final String PARAM_ROLE = "role";
     protected static final String PARAM_OBJECT_URI = "objectUri";
-    protected static final String PARAM_SEARCH_TERM = "searchTerm";
+    protected static final String PARAM_SEARCH_IDENTIFIER = "searchIdentifier";
+    
+    /*
+     * The text of the queries that are registered with the SparqlQueryRegistry, built once.
+     */
+    
+    private static final String FIND_USER_QUERY = PoddSesameRealm.buildSparqlQueryToFindUser(false);
+    
+    private static final String FIND_ALL_USERS_QUERY = PoddSesameRealm.buildSparqlQueryToFindUser(true);
+    
+    private static final String OBJECT_ROLES_QUERY = PoddSesameRealm.buildSparqlQueryForObjectRoles(false);
+    
+    private static final String USER_OBJECT_ROLES_QUERY = PoddSesameRealm.buildSparqlQueryForObjectRoles(true);
+    
+    private static final String ROLES_WITH_OBJECTS_QUERY = PoddSesameRealm.buildSparqlQueryForRolesWithObjects();
+    
+    private static final String UNMAP_QUERY = " SELECT ?roleMappingUri WHERE { " + "   ?roleMappingUri a <"
+            + SesameRealmConstants.OAS_ROLEMAPPING + "> . " + "   ?roleMappingUri ?mappingUri ?identifier . "
+            + "   ?roleMappingUri <" + SesameRealmConstants.OAS_ROLEMAPPEDROLE + "> ?roleUri . "
+            + "   FILTER(str(?identifier) = ?" + PoddSesameRealm.PARAM_SEARCH_IDENTIFIER + ") " + " } ";
+    
+    private static final String UNMAP_OBJECT_QUERY = " SELECT ?roleMappingUri WHERE { " + "   ?roleMappingUri a <"
+            + SesameRealmConstants.OAS_ROLEMAPPING + "> . " + "   ?roleMappingUri <"
+            + SesameRealmConstants.OAS_ROLEMAPPEDUSER + "> ?identifier . " + "   ?roleMappingUri <"
+            + SesameRealmConstants.OAS_ROLEMAPPEDROLE + "> ?role . " + "   ?roleMappingUri <"
+            + PODD.PODD_ROLEMAPPEDOBJECT + "> ?object . " + "   FILTER(str(?identifier) = ?"
+            + PoddSesameRealm.PARAM_SEARCH_IDENTIFIER + ") " + " } ";
     /**
      * The Sesame Repository to use to get access to user information.
      */
@@ -230,6 +276,17 @@ public class PoddSesameRealm extends Realm
     
     /** The currently cached list of root groups. */
     private volatile List<Group> cachedRootGroups;
+    
+    /** The roles that users have for objects, invalidated when role mappings change. */
+    private final PoddRoleCache roleCache = new PoddRoleCache();
+    
+    /** Tokens for users whose passwords have recently been verified. */
+    private final PoddSessionTokens sessionTokens = new PoddSessionTokens(
+            Long.parseLong(PoddWebConstants.DEFAULT_SESSION_TOKEN_LIFETIME), TimeUnit.SECONDS);
+    
+    /** All users, loaded when first needed and updated as users are added, changed or deleted. */
+    private final PoddUserDirectory userDirectory = new PoddUserDirectory();
+    
     protected final Logger log = LoggerFactory.getLogger(this.getClass());
     
     /**
@@ -372,6 +429,9 @@ public class PoddSesameRealm extends Realm
         }
         finally
         {
+            // Group mappings may apply to any user
+            this.roleCache.clear();
+            
             if(conn != null)
             {
                 try
@@ -448,6 +508,10 @@ public class PoddSesameRealm extends Realm
         {
             throw new PoddRuntimeException("Could not add user", e);
         }
+        finally
+        {
+            this.refreshUserDirectory(nextUser.getIdentifier());
+        }
     }
     
     protected URI addUser(final PoddUser nextUser, final boolean isNew) throws NoSuchAlgorithmException,
@@ -741,10 +805,8 @@ public class PoddSesameRealm extends Realm
         return PoddRoles.getRoleByUri(roleUri).getRole();
     }
     
-    protected String buildSparqlQueryForObjectRoles(final String userIdentifier, final URI objectUri)
+    private static String buildSparqlQueryForObjectRoles(final boolean filterByUser)
     {
-        this.log.debug("Building SPARQL query for Roles between User and object URI");
-        
         final StringBuilder query = new StringBuilder();
         
         query.append(" SELECT DISTINCT ?");
@@ -771,30 +833,26 @@ public class PoddSesameRealm extends Realm
         
         query.append(roleMappingVar);
         query.append(RenderUtils.getSPARQLQueryString(PODD.PODD_ROLEMAPPEDOBJECT));
-        query.append(" ?object . ");
+        query.append(" ?");
+        query.append(PoddSesameRealm.PARAM_OBJECT_URI);
+        query.append(" . ");
         
-        if(userIdentifier != null)
+        if(filterByUser)
         {
-            query.append(" FILTER ( ?userIdentifier IN (");
-            query.append("\"" + RenderUtils.escape(userIdentifier) + "\"");
-            query.append(") ) ");
+            query.append(" FILTER ( ?");
+            query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
+            query.append(" = ?");
+            query.append(PoddSesameRealm.PARAM_SEARCH_IDENTIFIER);
+            query.append(" ) ");
         }
         
-        query.append(" FILTER ( ?object IN (");
-        query.append(RenderUtils.getSPARQLQueryString(objectUri));
-        query.append(") ) ");
-        
         query.append(" } ");
         
-        this.log.debug("roles query: {}", query);
-        
         return query.toString();
     }
     
-    protected String buildSparqlQueryForRolesWithObjects(final String userIdentifier)
+    private static String buildSparqlQueryForRolesWithObjects()
     {
-        this.log.debug("Building SPARQL query for Roles and object URIs of a User");
-        
         final StringBuilder query = new StringBuilder();
         
         query.append(" SELECT ?");
@@ -808,9 +866,9 @@ public class PoddSesameRealm extends Realm
         
         query.append(roleMappingVar);
         query.append(" <" + SesameRealmConstants.OAS_ROLEMAPPEDUSER + "> ");
-        query.append(" \"");
-        query.append(RenderUtils.escape(userIdentifier));
-        query.append("\" . ");
+        query.append(" ?");
+        query.append(PoddSesameRealm.PARAM_SEARCH_IDENTIFIER);
+        query.append(" . ");
         
         query.append(roleMappingVar);
         query.append(" <" + SesameRealmConstants.OAS_ROLEMAPPEDROLE + "> ");
@@ -827,15 +885,11 @@ public class PoddSesameRealm extends Realm
         
         query.append(" } ");
         
-        this.log.debug("roles query: {}", query);
-        
         return query.toString();
     }
     
-    protected String buildSparqlQueryToFindUser(final String userIdentifier, final boolean findAllUsers)
+    private static String buildSparqlQueryToFindUser(final boolean findAllUsers)
     {
-        this.log.debug("Building SPARQL query");
-        
         final StringBuilder query = new StringBuilder();
         
         query.append(" SELECT ");
@@ -967,287 +1021,11 @@ public class PoddSesameRealm extends Realm
         
         if(!findAllUsers)
         {
-            query.append("   FILTER(str(?userIdentifier) = \"" + RenderUtils.escape(userIdentifier) + "\") ");
-        }
-        
-        query.append(" } ");
-        
-        final String queryString = query.toString();
-        
-        this.log.debug("buildSparqlQueryToFindUser: query={}", queryString);
-        
-        return queryString;
-    }
-    
-    protected String buildSparqlQueryToGetUserByStatus(final PoddUserStatus status, final String orderByField,
-            final boolean isDescending, final int limit, final int offset)
-    {
-        this.log.debug("Building SPARQL query");
-        
-        final StringBuilder query = new StringBuilder();
-        
-        query.append(" SELECT ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_SECRET);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_EMAIL);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_STATUS);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORGANIZATION);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORCID);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_HOMEPAGE);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_TITLE);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_PHONE);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ADDRESS);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_POSITION);
-        
-        query.append(" WHERE ");
-        query.append(" { ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" a <" + SesameRealmConstants.OAS_USER + "> . ");
-        
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERIDENTIFIER + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" . ");
-        
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_SECRET_HASH + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_SECRET);
-        query.append(" . ");
-        
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_STATUS + "> ");
-        query.append(" <" + status.getURI() + "> ");
-        query.append(" . ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_HOMEPAGE + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_HOMEPAGE);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_ORGANIZATION + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORGANIZATION);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERFIRSTNAME + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERLASTNAME + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USEREMAIL + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_EMAIL);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_TITLE + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_TITLE);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_PHONE + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_PHONE);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_ADDRESS + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ADDRESS);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_POSITION + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_POSITION);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_ORCID + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORCID);
-        query.append(" . } ");
-        
-        query.append(" } ");
-        
-        if(isDescending)
-        {
-            query.append(" ORDER BY DESC(" + orderByField + ") ");
-        }
-        else
-        {
-            query.append(" ORDER BY " + orderByField);
-        }
-        query.append(" LIMIT " + limit);
-        query.append(" OFFSET " + offset);
-        
-        return query.toString();
-    }
-    
-    protected String buildSparqlQueryToSearchUsers(final PoddUserStatus status, final String orderByField,
-            final boolean isDescending, final int limit, final int offset)
-    {
-        this.log.debug("Building SPARQL query");
-        
-        final StringBuilder query = new StringBuilder();
-        
-        query.append(" SELECT ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_SECRET);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_EMAIL);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_STATUS);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORGANIZATION);
-        
-        query.append(" WHERE ");
-        query.append(" { ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" a <" + SesameRealmConstants.OAS_USER + "> . ");
-        
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERIDENTIFIER + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" . ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_ORGANIZATION + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORGANIZATION);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERFIRSTNAME + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERLASTNAME + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USEREMAIL + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_EMAIL);
-        query.append(" . } ");
-        
-        // return a dummy password
-        query.append(" VALUES ?" + PoddSesameRealm.PARAM_USER_SECRET + " { \"not_available\" } . ");
-        
-        // filter by Status if provided
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_STATUS + "> ");
-        if(status == null)
-        {
-            query.append(" ?");
-            query.append(PoddSesameRealm.PARAM_USER_STATUS);
-        }
-        else
-        {
-            query.append(" <" + status.getURI() + "> ");
+            query.append("   FILTER(str(?userIdentifier) = ?" + PoddSesameRealm.PARAM_SEARCH_IDENTIFIER + ") ");
         }
-        query.append(" . ");
-        
-        // concatenate identifier, first and last names for searching
-        query.append(" BIND(CONCAT(");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" , \" \" , ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" , \" \" , ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" ) AS ?name)");
-        
-        // filter for "searchTerm" in ?name
-        query.append(" FILTER( ");
-        query.append(" CONTAINS( LCASE(?name) , LCASE(?" + PoddSesameRealm.PARAM_SEARCH_TERM + ") ) ");
-        query.append(") ");
         
         query.append(" } ");
         
-        if(isDescending)
-        {
-            query.append(" ORDER BY DESC(" + orderByField + ") ");
-        }
-        else
-        {
-            query.append(" ORDER BY " + orderByField);
-        }
-        
-        if(limit > -1)
-        {
-            query.append(" LIMIT " + limit);
-        }
-        
-        if(offset > 0)
-        {
-            query.append(" OFFSET " + offset);
-        }
-        
         return query.toString();
     }
     
@@ -1404,6 +1182,9 @@ public class PoddSesameRealm extends Realm
         }
         finally
         {
+            this.roleCache.invalidateUser(nextUser.getIdentifier());
+            this.sessionTokens.revoke(nextUser.getIdentifier());
+            
             if(conn != null)
             {
                 try
@@ -1415,6 +1196,8 @@ public class PoddSesameRealm extends Realm
                     this.log.error("Found unexpected repository exception", e);
                 }
             }
+            
+            this.refreshUserDirectory(nextUser.getIdentifier());
         }
     }
     
@@ -1644,13 +1427,16 @@ public class PoddSesameRealm extends Realm
     {
         PoddUser result = null;
         
-        final String query = this.buildSparqlQueryToFindUser(userIdentifier, false);
+        final String query = PoddSesameRealm.FIND_USER_QUERY;
         
         this.log.debug("findUser: query={}", query);
         
-        final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding(PoddSesameRealm.PARAM_SEARCH_IDENTIFIER, PODD.VF.createLiteral(userIdentifier));
         
-        final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
+        final QueryResultCollector resultCollector =
+                SparqlQueryRegistry.getTemplate("findUser", query).evaluateTupleQuery(conn, bindings,
+                        this.getContexts());
         
         if(!resultCollector.getHandledTuple() || resultCollector.getBindingSets().isEmpty())
         {
@@ -1674,6 +1460,42 @@ public class PoddSesameRealm extends Realm
         return this.userManagerContexts;
     }
     
+    /**
+     * Finds the roles that the given user has for each object that they are mapped to, with a
+     * single query, so that many objects can be authorised together.
+     * 
+     * @param user
+     *            The user.
+     * @return The roles of the user, keyed by object URI. Objects that the user is not mapped to
+     *         are not included.
+     */
+    public Map<URI, Collection<Role>> getObjectRolesForUser(final User user)
+    {
+        final Map<URI, Collection<Role>> cached = this.roleCache.getForUser(user.getIdentifier());
+        if(cached != null)
+        {
+            return cached;
+        }
+        
+        // Read the generation before querying so that a concurrent change is not cached
+        final long generation = this.roleCache.getGeneration();
+        final Map<URI, Collection<Role>> results = new HashMap<URI, Collection<Role>>();
+        for(final Entry<Role, URI> nextMapping : this.getRolesWithObjectMappings(user))
+        {
+            if(nextMapping.getValue() != null)
+            {
+                Collection<Role> nextRoles = results.get(nextMapping.getValue());
+                if(nextRoles == null)
+                {
+                    nextRoles = new HashSet<Role>();
+                    results.put(nextMapping.getValue(), nextRoles);
+                }
+                nextRoles.add(nextMapping.getKey());
+            }
+        }
+        return this.roleCache.putForUser(user.getIdentifier(), results, generation);
+    }
+    
     public Repository getRepository()
     {
         return this.repository;
@@ -1699,6 +1521,15 @@ public class PoddSesameRealm extends Realm
         return nextStandardRole;
     }
     
+    /**
+     * 
+     * @return The cache of the roles that users have for objects.
+     */
+    public PoddRoleCache getRoleCache()
+    {
+        return this.roleCache;
+    }
+    
     protected List<RoleMapping> getRoleMappings()
     {
         RepositoryConnection conn = null;
@@ -1894,11 +1725,20 @@ public class PoddSesameRealm extends Realm
     
     public Map<String, Collection<Role>> getRolesForObjectAlternate(final String userIdentifier, final URI objectUri)
     {
+        final Map<String, Collection<Role>> cached = this.roleCache.get(userIdentifier, objectUri);
+        if(cached != null)
+        {
+            return cached;
+        }
+        
+        // Read the generation before querying so that a concurrent change is not cached
+        final long generation = this.roleCache.getGeneration();
         RepositoryConnection conn = null;
         try
         {
             conn = this.getRepository().getConnection();
-            return this.getRolesForObjectAlternate(userIdentifier, objectUri, conn);
+            return this.roleCache.put(userIdentifier, objectUri,
+                    this.getRolesForObjectAlternate(userIdentifier, objectUri, conn), generation);
         }
         catch(final OpenRDFException e)
         {
@@ -1926,16 +1766,24 @@ public class PoddSesameRealm extends Realm
         final ConcurrentMap<String, Collection<Role>> roleCollection =
                 new ConcurrentHashMap<String, Collection<Role>>();
         
-        final String query = this.buildSparqlQueryForObjectRoles(userIdentifier, objectUri);
+        final String query =
+                userIdentifier != null ? PoddSesameRealm.USER_OBJECT_ROLES_QUERY : PoddSesameRealm.OBJECT_ROLES_QUERY;
         
         if(this.log.isDebugEnabled())
         {
             this.log.debug("getCommonRolesForObjects: query={}", query);
         }
         
-        final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding(PoddSesameRealm.PARAM_OBJECT_URI, objectUri);
+        if(userIdentifier != null)
+        {
+            bindings.addBinding(PoddSesameRealm.PARAM_SEARCH_IDENTIFIER, PODD.VF.createLiteral(userIdentifier));
+        }
         
-        final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
+        final QueryResultCollector resultCollector =
+                SparqlQueryRegistry.getTemplate("getObjectRoles", query).evaluateTupleQuery(conn, bindings,
+                        this.getContexts());
         
         if(!resultCollector.getHandledTuple() || resultCollector.getBindingSets().isEmpty())
         {
@@ -1980,16 +1828,19 @@ public class PoddSesameRealm extends Realm
         {
             conn = this.getRepository().getConnection();
             
-            final String query = this.buildSparqlQueryForRolesWithObjects(user.getIdentifier());
+            final String query = PoddSesameRealm.ROLES_WITH_OBJECTS_QUERY;
             
             if(this.log.isDebugEnabled())
             {
                 this.log.debug("getRolesAndObjectsForUser: query={}", query);
             }
             
-            final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
+            final MapBindingSet bindings = new MapBindingSet();
+            bindings.addBinding(PoddSesameRealm.PARAM_SEARCH_IDENTIFIER, PODD.VF.createLiteral(user.getIdentifier()));
             
-            final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
+            final QueryResultCollector resultCollector =
+                    SparqlQueryRegistry.getTemplate("getRolesWithObjectMappings", query).evaluateTupleQuery(conn,
+                            bindings, this.getContexts());
             
             if(!resultCollector.getHandledTuple() || resultCollector.getBindingSets().isEmpty())
             {
@@ -2137,52 +1988,36 @@ public class PoddSesameRealm extends Realm
         return result;
     }
     
+    /**
+     * 
+     * @return The session tokens that are accepted in place of verifying a user's password.
+     */
+    public PoddSessionTokens getSessionTokens()
+    {
+        return this.sessionTokens;
+    }
+    
     public List<PoddUser> getUserByStatus(final PoddUserStatus status, final boolean isDescending, final int limit,
             final int offset)
     {
-        final List<PoddUser> result = new ArrayList<PoddUser>();
-        
-        RepositoryConnection conn = null;
-        try
-        {
-            conn = this.getRepository().getConnection();
-            
-            final String orderBy = "?" + PoddSesameRealm.PARAM_USER_IDENTIFIER;
-            final String query = this.buildSparqlQueryToGetUserByStatus(status, orderBy, isDescending, limit, offset);
-            
-            this.log.debug("getUserByStatus: query={}", query);
-            
-            final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
-            
-            final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
-            
-            for(final BindingSet bindingSet : resultCollector.getBindingSets())
-            {
-                final Binding binding = bindingSet.getBinding("userIdentifier");
-                result.add(this.buildRestletUserFromSparqlResult(binding.getValue().stringValue(), bindingSet));
-            }
-            
-        }
-        catch(final OpenRDFException e)
-        {
-            throw new RuntimeException("Failure finding user in repository", e);
-        }
-        finally
+        return this.getUserDirectory().getUsers(status, isDescending, limit, offset);
+    }
+    
+    /**
+     * 
+     * @return The directory of all users, which is loaded from the repository the first time it is
+     *         used.
+     */
+    private PoddUserDirectory getUserDirectory()
+    {
+        synchronized(this.userDirectory)
         {
-            if(conn != null)
+            if(!this.userDirectory.isLoaded())
             {
-                try
-                {
-                    conn.close();
-                }
-                catch(final RepositoryException e)
-                {
-                    this.log.error("Failure to close connection", e);
-                }
+                this.userDirectory.load(this.getUsers());
             }
         }
-        
-        return result;
+        return this.userDirectory;
     }
     
     public String getUsername(final URI userURI) throws RepositoryException
@@ -2280,13 +2115,12 @@ public class PoddSesameRealm extends Realm
     {
         final List<PoddUser> result = new ArrayList<PoddUser>();
         
-        final String query = this.buildSparqlQueryToFindUser(null, true);
+        final String query = PoddSesameRealm.FIND_ALL_USERS_QUERY;
         
         this.log.debug("findUser: query={}", query);
         
-        final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
-        
-        final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
+        final QueryResultCollector resultCollector =
+                SparqlQueryRegistry.getTemplate("getUsers", query).evaluateTupleQuery(conn, null, this.getContexts());
         
         for(final BindingSet bindingSet : resultCollector.getBindingSets())
         {
@@ -2555,6 +2389,8 @@ public class PoddSesameRealm extends Realm
         }
         finally
         {
+            this.roleCache.invalidateUser(user.getIdentifier());
+            
             if(conn != null)
             {
                 try
@@ -2569,58 +2405,37 @@ public class PoddSesameRealm extends Realm
         }
     }
     
-    public List<PoddUser> searchUser(String searchTerm, final PoddUserStatus status, final boolean isDescending,
-            final int limit, final int offset)
+    /**
+     * Updates the user directory, if it has been loaded, after the user with the given identifier
+     * has been added, changed or deleted.
+     * 
+     * @param identifier
+     *            The identifier of the user.
+     */
+    private void refreshUserDirectory(final String identifier)
     {
-        final List<PoddUser> result = new ArrayList<PoddUser>();
-        
-        RepositoryConnection conn = null;
-        try
-        {
-            conn = this.getRepository().getConnection();
-            
-            final String orderBy = "?" + PoddSesameRealm.PARAM_USER_IDENTIFIER;
-            final String query = this.buildSparqlQueryToSearchUsers(status, orderBy, isDescending, limit, offset);
-            
-            this.log.debug("searchUser: query={}", query);
-            
-            final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
-            
-            if(searchTerm == null)
-            {
-                // could this lead to an inefficient sparql query?
-                searchTerm = "";
-            }
-            tupleQuery.setBinding(PoddSesameRealm.PARAM_SEARCH_TERM, PODD.VF.createLiteral(searchTerm));
-            
-            final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
-            
-            for(final BindingSet bindingSet : resultCollector.getBindingSets())
-            {
-                final Binding binding = bindingSet.getBinding("userIdentifier");
-                
-                result.add(this.buildRestletUserFromSparqlResult(binding.getValue().stringValue(), bindingSet));
-            }
-        }
-        catch(final OpenRDFException e)
+        synchronized(this.userDirectory)
         {
-            throw new RuntimeException("Failure searching users in repository", e);
-        }
-        finally
-        {
-            if(conn != null)
+            if(this.userDirectory.isLoaded())
             {
-                try
+                // Read the user while holding the lock so that concurrent changes are applied in order
+                final PoddUser nextUser = this.findUser(identifier);
+                if(nextUser == null)
                 {
-                    conn.close();
+                    this.userDirectory.remove(identifier);
                 }
-                catch(final RepositoryException e)
+                else
                 {
-                    this.log.error("Failure to close connection", e);
+                    this.userDirectory.put(nextUser);
                 }
             }
         }
-        return result;
+    }
+    
+    public List<PoddUser> searchUser(final String searchTerm, final PoddUserStatus status, final boolean isDescending,
+            final int limit, final int offset)
+    {
+        return this.getUserDirectory().search(searchTerm, status, isDescending, limit, offset);
     }
     
     public void setContexts(final URI... contexts)
@@ -2632,6 +2447,9 @@ public class PoddSesameRealm extends Realm
                     "Cannot create an PoddSesameRealm without specifying the contexts that are used to manage user data.");
         }
         this.userManagerContexts = contexts;
+        this.roleCache.clear();
+        this.sessionTokens.clear();
+        this.userDirectory.clear();
     }
     
     public void setRepository(final Repository repository)
@@ -2645,6 +2463,9 @@ public class PoddSesameRealm extends Realm
         {
             this.vf = ValueFactoryImpl.getInstance();
         }
+        this.roleCache.clear();
+        this.sessionTokens.clear();
+        this.userDirectory.clear();
     }
     
     /**
@@ -2764,7 +2585,6 @@ public class PoddSesameRealm extends Realm
         {
             conn = this.repository.getConnection();
             conn.begin();
-            final StringBuilder query = new StringBuilder();
             
             final RestletUtilRole oasRole = this.getRoleByName(role.getName());
             
@@ -2773,24 +2593,14 @@ public class PoddSesameRealm extends Realm
                 throw new IllegalArgumentException("Did not recognise role as a standard OAS role" + role.getName());
             }
             
-            query.append(" SELECT ?roleMappingUri ");
-            query.append(" WHERE ");
-            query.append(" { ");
-            query.append("   ?roleMappingUri a <" + SesameRealmConstants.OAS_ROLEMAPPING + "> . ");
-            query.append("   ?roleMappingUri <" + mappingUri + "> ?identifier . ");
-            query.append("   ?roleMappingUri <" + SesameRealmConstants.OAS_ROLEMAPPEDROLE + "> ?roleUri . ");
-            query.append("   FILTER(str(?identifier) = \"" + NTriplesUtil.escapeString(identifier) + "\") ");
-            query.append(" } ");
+            final MapBindingSet bindings = new MapBindingSet();
+            bindings.addBinding("mappingUri", mappingUri);
+            bindings.addBinding("roleUri", oasRole.getURI());
+            bindings.addBinding(PoddSesameRealm.PARAM_SEARCH_IDENTIFIER, PODD.VF.createLiteral(identifier));
             
-            if(this.log.isDebugEnabled())
-            {
-                this.log.debug("findUser: query={}", query.toString());
-            }
-            
-            final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query.toString());
-            tupleQuery.setBinding("roleUri", oasRole.getURI());
-            
-            final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
+            final QueryResultCollector resultCollector =
+                    SparqlQueryRegistry.getTemplate("unmap", PoddSesameRealm.UNMAP_QUERY).evaluateTupleQuery(conn,
+                            bindings, this.getContexts());
             
             if(!resultCollector.getHandledTuple() || resultCollector.getBindingSets().isEmpty())
             {
@@ -2836,6 +2646,15 @@ public class PoddSesameRealm extends Realm
         }
         finally
         {
+            if(SesameRealmConstants.OAS_ROLEMAPPEDUSER.equals(mappingUri))
+            {
+                this.roleCache.invalidateUser(identifier);
+            }
+            else
+            {
+                this.roleCache.clear();
+            }
+            
             if(conn != null)
             {
                 try
@@ -2866,7 +2685,6 @@ public class PoddSesameRealm extends Realm
             {
                 conn = this.getRepository().getConnection();
                 conn.begin();
-                final StringBuilder query = new StringBuilder();
                 
                 final RestletUtilRole oasRole = this.getRoleByName(role.getName());
                 
@@ -2875,26 +2693,14 @@ public class PoddSesameRealm extends Realm
                     throw new IllegalArgumentException("Did not recognise role as a standard OAS role" + role.getName());
                 }
                 
-                query.append(" SELECT ?roleMappingUri ");
-                query.append(" WHERE ");
-                query.append(" { ");
-                query.append("   ?roleMappingUri a <" + SesameRealmConstants.OAS_ROLEMAPPING + "> . ");
-                query.append("   ?roleMappingUri <" + SesameRealmConstants.OAS_ROLEMAPPEDUSER + "> ?identifier . ");
-                query.append("   ?roleMappingUri <" + SesameRealmConstants.OAS_ROLEMAPPEDROLE + "> ?role . ");
-                query.append("   ?roleMappingUri <" + PODD.PODD_ROLEMAPPEDOBJECT + "> ?object . ");
-                query.append("   FILTER(str(?identifier) = \"" + NTriplesUtil.escapeString(user.getIdentifier())
-                        + "\") ");
-                query.append(" } ");
-                
-                final String queryString = query.toString();
-                
-                this.log.debug("findUser: query={}", queryString);
-                
-                final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, queryString);
-                tupleQuery.setBinding("role", oasRole.getURI());
-                tupleQuery.setBinding("object", optionalObjectUri);
+                final MapBindingSet bindings = new MapBindingSet();
+                bindings.addBinding("role", oasRole.getURI());
+                bindings.addBinding("object", optionalObjectUri);
+                bindings.addBinding(PoddSesameRealm.PARAM_SEARCH_IDENTIFIER,
+                        PODD.VF.createLiteral(user.getIdentifier()));
                 final QueryResultCollector resultCollector =
-                        RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
+                        SparqlQueryRegistry.getTemplate("unmapObject", PoddSesameRealm.UNMAP_OBJECT_QUERY)
+                                .evaluateTupleQuery(conn, bindings, this.getContexts());
                 
                 if(!resultCollector.getHandledTuple() || resultCollector.getBindingSets().isEmpty())
                 {
@@ -2942,6 +2748,8 @@ public class PoddSesameRealm extends Realm
             }
             finally
             {
+                this.roleCache.invalidateUser(user.getIdentifier());
+                
                 if(conn != null)
                 {
                     try
@@ -2967,6 +2775,13 @@ public class PoddSesameRealm extends Realm
         {
             throw new PoddRuntimeException("Could not update user", e);
         }
+        finally
+        {
+            // Revoke the session token, as the password may have changed
+            this.roleCache.invalidateUser(nextUser.getIdentifier());
+            this.sessionTokens.revoke(nextUser.getIdentifier());
+            this.refreshUserDirectory(nextUser.getIdentifier());
+        }
     }
     
     private static final class PoddUserSecretHash
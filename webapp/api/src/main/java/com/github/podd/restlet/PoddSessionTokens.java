@@ -0,0 +1,277 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.restlet;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+import com.github.podd.exception.PoddRuntimeException;
+import com.github.podd.utils.PoddUser;
+
+/**
+ * Expiring session tokens that are issued after a user's password has been verified, so that
+ * later requests carrying the same credentials can be verified with an HMAC instead of a password
+ * hash and a user lookup.
+ * <p>
+ * A token is an HMAC of the user identifier, the secret and the expiry time, using a key that is
+ * generated for each instance and never leaves memory, so tokens do not survive a restart. Tokens
+ * must be revoked when a user's password or details change. A token computed before a revocation
+ * is not stored, so that a verification racing with a password change can not keep the old
+ * password valid.
+ */
+public class PoddSessionTokens
+{
+    private static final class Token
+    {
+        private final long expiry;
+        private final byte[] hmac;
+        private final PoddUser user;
+        
+        private Token(final long expiry, final byte[] hmac, final PoddUser user)
+        {
+            this.expiry = expiry;
+            this.hmac = hmac;
+            this.user = user;
+        }
+    }
+    
+    /**
+     * The MAC algorithm used to sign tokens.
+     */
+    public static final String ALGORITHM = "HmacSHA256";
+    
+    private final SecretKey key;
+    
+    private volatile long lifetimeMillis;
+    
+    private final ConcurrentMap<String, Token> tokens = new ConcurrentHashMap<>();
+    
+    private final AtomicLong generation = new AtomicLong(0);
+    
+    /**
+     * 
+     * @param lifetime
+     *            The length of time that each token is valid for, or zero to not issue tokens.
+     * @param unit
+     *            The unit of the lifetime.
+     */
+    public PoddSessionTokens(final long lifetime, final TimeUnit unit)
+    {
+        try
+        {
+            this.key = KeyGenerator.getInstance(PoddSessionTokens.ALGORITHM).generateKey();
+        }
+        catch(final GeneralSecurityException e)
+        {
+            throw new PoddRuntimeException("Could not generate a session token key", e);
+        }
+        this.setLifetime(lifetime, unit);
+    }
+    
+    /**
+     * Revokes all tokens.
+     */
+    public void clear()
+    {
+        this.generation.incrementAndGet();
+        this.tokens.clear();
+    }
+    
+    private byte[] computeHmac(final String identifier, final char[] secret, final long expiry)
+    {
+        final Mac mac;
+        try
+        {
+            mac = Mac.getInstance(PoddSessionTokens.ALGORITHM);
+            mac.init(this.key);
+        }
+        catch(final GeneralSecurityException e)
+        {
+            throw new PoddRuntimeException("Could not compute session token", e);
+        }
+        
+        mac.update(identifier.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte)0);
+        final ByteBuffer secretBytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(secret));
+        try
+        {
+            mac.update(secretBytes);
+        }
+        finally
+        {
+            Arrays.fill(secretBytes.array(), (byte)0);
+        }
+        mac.update((byte)0);
+        mac.update(ByteBuffer.allocate(8).putLong(0, expiry));
+        return mac.doFinal();
+    }
+    
+    /**
+     * 
+     * @return The current generation of these tokens, which must be read before verifying a
+     *         password that is passed to {@link #issue(String, char[], PoddUser, long)}.
+     */
+    public long getGeneration()
+    {
+        return this.generation.get();
+    }
+    
+    /**
+     * 
+     * @param unit
+     *            The unit to return the lifetime in.
+     * @return The length of time that each token is valid for.
+     */
+    public long getLifetime(final TimeUnit unit)
+    {
+        return unit.convert(this.lifetimeMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * 
+     * @param identifier
+     *            The user identifier.
+     * @return The user that a current token was issued for, or null if there is no current token
+     *         for the identifier.
+     */
+    public PoddUser getUser(final String identifier)
+    {
+        final Token token = this.tokens.get(identifier);
+        if(token == null || token.expiry < System.currentTimeMillis())
+        {
+            return null;
+        }
+        return token.user;
+    }
+    
+    /**
+     * Issues a token for the given credentials, which must already have been verified, unless
+     * tokens have been revoked since the given generation was read.
+     * 
+     * @param identifier
+     *            The user identifier.
+     * @param secret
+     *            The verified secret.
+     * @param user
+     *            The user that the secret was verified for.
+     * @param generation
+     *            The result of {@link #getGeneration()} before the secret was verified.
+     */
+    public void issue(final String identifier, final char[] secret, final PoddUser user, final long generation)
+    {
+        final long lifetime = this.lifetimeMillis;
+        if(lifetime <= 0)
+        {
+            return;
+        }
+        
+        final long expiry = System.currentTimeMillis() + lifetime;
+        final Token token = new Token(expiry, this.computeHmac(identifier, secret, expiry), user);
+        
+        synchronized(this.generation)
+        {
+            if(this.generation.get() == generation)
+            {
+                this.tokens.put(identifier, token);
+            }
+        }
+    }
+    
+    /**
+     * Revokes the token for the given user.
+     * 
+     * @param identifier
+     *            The identifier of the user whose password or details have changed.
+     */
+    public void revoke(final String identifier)
+    {
+        synchronized(this.generation)
+        {
+            this.generation.incrementAndGet();
+            this.tokens.remove(identifier);
+        }
+    }
+    
+    /**
+     * Sets the length of time that tokens issued after this call are valid for. Zero stops tokens
+     * from being issued.
+     * 
+     * @param lifetime
+     *            The length of time that each token is valid for.
+     * @param unit
+     *            The unit of the lifetime.
+     */
+    public void setLifetime(final long lifetime, final TimeUnit unit)
+    {
+        this.lifetimeMillis = unit.toMillis(lifetime);
+    }
+    
+    /**
+     * 
+     * @return The number of tokens that have been issued and not revoked, including expired tokens
+     *         that have not been checked since they expired.
+     */
+    public int size()
+    {
+        return this.tokens.size();
+    }
+    
+    /**
+     * Checks the given credentials against the current token for the user, using a constant time
+     * comparison.
+     * 
+     * @param identifier
+     *            The user identifier.
+     * @param secret
+     *            The secret to check.
+     * @return True if there is a current token for the user and it matches the given secret, and
+     *         false if the secret must be verified against the password hash instead.
+     */
+    public boolean verify(final String identifier, final char[] secret)
+    {
+        if(identifier == null || secret == null)
+        {
+            return false;
+        }
+        
+        final Token token = this.tokens.get(identifier);
+        if(token == null)
+        {
+            return false;
+        }
+        
+        if(token.expiry < System.currentTimeMillis())
+        {
+            this.tokens.remove(identifier, token);
+            return false;
+        }
+        
+        return MessageDigest.isEqual(token.hmac, this.computeHmac(identifier, secret, token.expiry));
+    }
+}
@@ -0,0 +1,335 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.restlet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.github.podd.utils.PoddUser;
+import com.github.podd.utils.PoddUserStatus;
+
+/**
+ * An in-memory directory of users, sorted by identifier, so that user listings and searches do not
+ * need to query the repository.
+ * <p>
+ * Searches match the search term anywhere in the first name, last name and identifier of a user,
+ * or in their email address or organisation, ignoring case. An index of the suffixes of each word
+ * in those fields turns a search into a range lookup on the index.
+ * <p>
+ * The directory must be updated whenever a user is added, changed or deleted.
+ */
+public class PoddUserDirectory
+{
+    private boolean loaded = false;
+    
+    /**
+     * All users, keyed by identifier.
+     */
+    private final NavigableMap<String, PoddUser> users = new TreeMap<>();
+    
+    /**
+     * Users with each status, keyed by identifier.
+     */
+    private final Map<PoddUserStatus, NavigableMap<String, PoddUser>> usersByStatus = new EnumMap<>(
+            PoddUserStatus.class);
+    
+    /**
+     * The identifiers of the users that contain each lower case word suffix in one of their fields.
+     */
+    private final NavigableMap<String, Set<String>> suffixIndex = new TreeMap<>();
+    
+    /**
+     * Removes all users from the directory, so that it must be loaded again before it is used.
+     */
+    public synchronized void clear()
+    {
+        this.users.clear();
+        this.usersByStatus.clear();
+        this.suffixIndex.clear();
+        this.loaded = false;
+    }
+    
+    /**
+     * 
+     * @param status
+     *            The status of the users to return, or null to return users with any status.
+     * @param isDescending
+     *            True to order the users by descending identifier, and false to order them by
+     *            ascending identifier.
+     * @param limit
+     *            The maximum number of users to return, or -1 to return all of them.
+     * @param offset
+     *            The number of users to skip.
+     * @return The users with the given status.
+     */
+    public synchronized List<PoddUser> getUsers(final PoddUserStatus status, final boolean isDescending,
+            final int limit, final int offset)
+    {
+        NavigableMap<String, PoddUser> view = this.users;
+        if(status != null)
+        {
+            view = this.usersByStatus.get(status);
+            if(view == null)
+            {
+                return new ArrayList<PoddUser>();
+            }
+        }
+        if(isDescending)
+        {
+            view = view.descendingMap();
+        }
+        return this.page(view.values(), limit, offset);
+    }
+    
+    /**
+     * 
+     * @return True if the directory has been loaded, and false if it must be loaded before it is
+     *         used.
+     */
+    public synchronized boolean isLoaded()
+    {
+        return this.loaded;
+    }
+    
+    /**
+     * Replaces the contents of the directory with the given users.
+     * 
+     * @param nextUsers
+     *            All of the known users.
+     */
+    public synchronized void load(final Collection<PoddUser> nextUsers)
+    {
+        this.clear();
+        for(final PoddUser nextUser : nextUsers)
+        {
+            this.put(nextUser);
+        }
+        this.loaded = true;
+    }
+    
+    /**
+     * Adds the given user to the directory, replacing any user with the same identifier.
+     * 
+     * @param nextUser
+     *            The user to add.
+     */
+    public synchronized void put(final PoddUser nextUser)
+    {
+        final String identifier = nextUser.getIdentifier();
+        this.remove(identifier);
+        
+        this.users.put(identifier, nextUser);
+        
+        final PoddUserStatus status = nextUser.getUserStatus();
+        if(status != null)
+        {
+            NavigableMap<String, PoddUser> statusUsers = this.usersByStatus.get(status);
+            if(statusUsers == null)
+            {
+                statusUsers = new TreeMap<>();
+                this.usersByStatus.put(status, statusUsers);
+            }
+            statusUsers.put(identifier, nextUser);
+        }
+        
+        for(final String nextSuffix : this.getSuffixes(nextUser))
+        {
+            Set<String> identifiers = this.suffixIndex.get(nextSuffix);
+            if(identifiers == null)
+            {
+                identifiers = new HashSet<>();
+                this.suffixIndex.put(nextSuffix, identifiers);
+            }
+            identifiers.add(identifier);
+        }
+    }
+    
+    /**
+     * Removes the user with the given identifier from the directory, if it is present.
+     * 
+     * @param identifier
+     *            The identifier of the user to remove.
+     */
+    public synchronized void remove(final String identifier)
+    {
+        final PoddUser existingUser = this.users.remove(identifier);
+        if(existingUser == null)
+        {
+            return;
+        }
+        
+        final NavigableMap<String, PoddUser> statusUsers = this.usersByStatus.get(existingUser.getUserStatus());
+        if(statusUsers != null)
+        {
+            statusUsers.remove(identifier);
+        }
+        
+        for(final String nextSuffix : this.getSuffixes(existingUser))
+        {
+            final Set<String> identifiers = this.suffixIndex.get(nextSuffix);
+            if(identifiers != null)
+            {
+                identifiers.remove(identifier);
+                if(identifiers.isEmpty())
+                {
+                    this.suffixIndex.remove(nextSuffix);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 
+     * @param searchTerm
+     *            The term to search for, or null or an empty string to match all users.
+     * @param status
+     *            The status of the users to return, or null to return users with any status.
+     * @param isDescending
+     *            True to order the users by descending identifier, and false to order them by
+     *            ascending identifier.
+     * @param limit
+     *            The maximum number of users to return, or -1 to return all of them.
+     * @param offset
+     *            The number of users to skip.
+     * @return The users matching the search term.
+     */
+    public synchronized List<PoddUser> search(final String searchTerm, final PoddUserStatus status,
+            final boolean isDescending, final int limit, final int offset)
+    {
+        if(searchTerm == null || searchTerm.isEmpty())
+        {
+            return this.getUsers(status, isDescending, limit, offset);
+        }
+        
+        final String term = searchTerm.toLowerCase(Locale.ROOT);
+        
+        // Any match must contain the longest word in the term inside a single word of a field
+        String longestWord = "";
+        for(final String nextWord : term.split("\\s+"))
+        {
+            if(nextWord.length() > longestWord.length())
+            {
+                longestWord = nextWord;
+            }
+        }
+        
+        Collection<String> candidates = this.users.keySet();
+        if(!longestWord.isEmpty())
+        {
+            final Set<String> matchingIdentifiers = new HashSet<>();
+            for(final Set<String> nextIdentifiers : this.suffixIndex.subMap(longestWord, true,
+                    longestWord + Character.MAX_VALUE, false).values())
+            {
+                matchingIdentifiers.addAll(nextIdentifiers);
+            }
+            candidates = matchingIdentifiers;
+        }
+        
+        final NavigableMap<String, PoddUser> matches = new TreeMap<>();
+        for(final String nextIdentifier : candidates)
+        {
+            final PoddUser nextUser = this.users.get(nextIdentifier);
+            if((status == null || status == nextUser.getUserStatus()) && this.matches(nextUser, term))
+            {
+                matches.put(nextIdentifier, nextUser);
+            }
+        }
+        
+        return this.page(isDescending ? matches.descendingMap().values() : matches.values(), limit, offset);
+    }
+    
+    /**
+     * 
+     * @return The number of users in the directory.
+     */
+    public synchronized int size()
+    {
+        return this.users.size();
+    }
+    
+    private List<String> getSearchFields(final PoddUser nextUser)
+    {
+        final List<String> result = new ArrayList<>(3);
+        result.add((nextUser.getFirstName() + " " + nextUser.getLastName() + " " + nextUser.getIdentifier())
+                .toLowerCase(Locale.ROOT));
+        if(nextUser.getEmail() != null)
+        {
+            result.add(nextUser.getEmail().toLowerCase(Locale.ROOT));
+        }
+        if(nextUser.getOrganization() != null)
+        {
+            result.add(nextUser.getOrganization().toLowerCase(Locale.ROOT));
+        }
+        return result;
+    }
+    
+    private Set<String> getSuffixes(final PoddUser nextUser)
+    {
+        final Set<String> result = new HashSet<>();
+        for(final String nextField : this.getSearchFields(nextUser))
+        {
+            for(final String nextWord : nextField.split("\\s+"))
+            {
+                for(int i = 0; i < nextWord.length(); i++)
+                {
+                    result.add(nextWord.substring(i));
+                }
+            }
+        }
+        return result;
+    }
+    
+    private boolean matches(final PoddUser nextUser, final String term)
+    {
+        for(final String nextField : this.getSearchFields(nextUser))
+        {
+            if(nextField.contains(term))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private List<PoddUser> page(final Collection<PoddUser> view, final int limit, final int offset)
+    {
+        final List<PoddUser> result = new ArrayList<>();
+        int skipped = 0;
+        for(final PoddUser nextUser : view)
+        {
+            if(limit > -1 && result.size() >= limit)
+            {
+                break;
+            }
+            if(skipped < Math.max(offset, 0))
+            {
+                skipped++;
+                continue;
+            }
+            result.add(nextUser);
+        }
+        return result;
+    }
+}
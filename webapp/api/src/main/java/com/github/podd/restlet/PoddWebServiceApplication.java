@@ -16,6 +16,10 @@
  */
 package com.github.podd.restlet;
 
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
 import org.openrdf.model.Model;
 import org.openrdf.model.URI;
 import org.openrdf.repository.Repository;
@@ -43,6 +47,15 @@ import freemarker.template.Configuration;
 public abstract class PoddWebServiceApplication extends Application
 {
     
+    /**
+     * Registers an executor that runs background tasks for this application, so that it is shut
+     * down when the application is stopped.
+     * 
+     * @param executor
+     *            The executor to shut down when the application is stopped.
+     */
+    public abstract void addExecutor(ExecutorService executor);
+    
     /**
      * Checks whether the client is authenticated for the given action, and if they are not, the
      * response will have challenges inserted and the status will be set to HTTP 401.
@@ -65,6 +78,26 @@ public abstract class PoddWebServiceApplication extends Application
      */
     public abstract boolean authenticate(PoddAction action, Request request, Response response, URI optionalObjectUri);
     
+    /**
+     * Finds the objects that the client is authorised to perform the given action on, checking the
+     * roles for all of the objects together instead of one at a time. If the client is not
+     * authenticated, the response will have challenges inserted and the status will be set to HTTP
+     * 401.
+     * 
+     * @param action
+     *            The action to perform
+     * @param request
+     *            The Restlet {@link Request} matching the given action.
+     * @param response
+     *            The Restlet {@link Response} matching the given action.
+     * @param objectUris
+     *            The Object URIs on which the action is to be performed.
+     * @return The Object URIs, out of those given, that the client is authorised to perform the
+     *         action on.
+     */
+    public abstract Set<URI> authenticateObjects(PoddAction action, Request request, Response response,
+            Collection<URI> objectUris);
+    
     /**
      * Retrieves the data repository configuration used by this server.
      * 
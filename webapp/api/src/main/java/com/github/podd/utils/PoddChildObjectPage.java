@@ -0,0 +1,69 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single page of the child objects of an object, together with the cursor to use to fetch the
+ * next page.
+ */
+public class PoddChildObjectPage
+{
+    private final List<PoddObjectLabel> children;
+    
+    private final String nextCursor;
+    
+    /**
+     * @param children
+     *            The labels of the child objects on this page, in order.
+     * @param nextCursor
+     *            The cursor for the next page, or null if this is the last page.
+     */
+    public PoddChildObjectPage(final List<PoddObjectLabel> children, final String nextCursor)
+    {
+        this.children = Collections.unmodifiableList(children);
+        this.nextCursor = nextCursor;
+    }
+    
+    /**
+     * @return The labels of the child objects on this page, in order.
+     */
+    public List<PoddObjectLabel> getChildren()
+    {
+        return this.children;
+    }
+    
+    /**
+     * @return The cursor to pass back to fetch the next page, or null if there are no more child
+     *         objects.
+     */
+    public String getNextCursor()
+    {
+        return this.nextCursor;
+    }
+    
+    /**
+     * @return True if there are more child objects after this page.
+     */
+    public boolean hasNext()
+    {
+        return this.nextCursor != null;
+    }
+    
+}
@@ -0,0 +1,174 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A map with a maximum size that evicts the least recently used entry when it is full, and counts
+ * the lookups that were found in it.
+ * <p>
+ * All methods synchronize on this cache, so callers can synchronize on it to make several
+ * operations atomic.
+ * 
+ * @param <K>
+ *            The type of the keys.
+ * @param <V>
+ *            The type of the values.
+ */
+public class PoddLruCache<K, V>
+{
+    private final int maximumSize;
+    
+    private final Map<K, V> entries;
+    
+    private final AtomicLong hitCount = new AtomicLong(0);
+    
+    private final AtomicLong missCount = new AtomicLong(0);
+    
+    /**
+     * 
+     * @param maximumSize
+     *            The maximum number of entries to keep.
+     */
+    public PoddLruCache(final int maximumSize)
+    {
+        this.maximumSize = maximumSize;
+        // Access ordered so that the least recently used entries are evicted
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true)
+            {
+                private static final long serialVersionUID = 1L;
+                
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<K, V> eldest)
+                {
+                    return this.size() > PoddLruCache.this.maximumSize;
+                }
+            };
+    }
+    
+    /**
+     * Removes all of the entries from this cache.
+     */
+    public synchronized void clear()
+    {
+        this.entries.clear();
+    }
+    
+    /**
+     * 
+     * @param key
+     *            The key to look up.
+     * @return The value for the key, or null if it is not in this cache.
+     */
+    public synchronized V get(final K key)
+    {
+        final V result = this.entries.get(key);
+        if(result == null)
+        {
+            this.missCount.incrementAndGet();
+        }
+        else
+        {
+            this.hitCount.incrementAndGet();
+        }
+        return result;
+    }
+    
+    /**
+     * 
+     * @return The number of lookups that were found in this cache.
+     */
+    public long getHitCount()
+    {
+        return this.hitCount.get();
+    }
+    
+    /**
+     * 
+     * @return A copy of the keys in this cache, from the least to the most recently used.
+     */
+    public synchronized List<K> getKeys()
+    {
+        return new ArrayList<K>(this.entries.keySet());
+    }
+    
+    /**
+     * 
+     * @return The number of lookups that were not found in this cache.
+     */
+    public long getMissCount()
+    {
+        return this.missCount.get();
+    }
+    
+    /**
+     * 
+     * @param key
+     *            The key.
+     * @param value
+     *            The value, which must not be null.
+     */
+    public synchronized void put(final K key, final V value)
+    {
+        this.entries.put(key, value);
+    }
+    
+    /**
+     * Counts a lookup that was found outside of this cache, for owners that keep some entries
+     * elsewhere, such as entries that must not be evicted.
+     */
+    public void recordHit()
+    {
+        this.hitCount.incrementAndGet();
+    }
+    
+    /**
+     * 
+     * @param key
+     *            The key to remove.
+     * @return The value that was removed, or null if the key was not in this cache.
+     */
+    public synchronized V remove(final K key)
+    {
+        return this.entries.remove(key);
+    }
+    
+    /**
+     * 
+     * @param keys
+     *            The keys to remove.
+     */
+    public synchronized void removeAll(final Collection<? extends K> keys)
+    {
+        this.entries.keySet().removeAll(keys);
+    }
+    
+    /**
+     * 
+     * @return The number of entries in this cache.
+     */
+    public synchronized int size()
+    {
+        return this.entries.size();
+    }
+}
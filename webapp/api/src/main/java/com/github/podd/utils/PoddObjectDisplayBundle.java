@@ -0,0 +1,160 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+
+/**
+ * An immutable bundle of everything needed to display a single object in an artifact, retrieved
+ * together so that the object page can be rendered without separate requests for each part.
+ */
+public class PoddObjectDisplayBundle
+{
+    private final PoddObjectLabel object;
+    
+    private final List<PoddObjectLabel> objectTypes;
+    
+    private final List<URI> orderedProperties;
+    
+    private final Model displayModel;
+    
+    private final Map<URI, URI> cardinalities;
+    
+    private final PoddObjectLabel parent;
+    
+    private final PoddObjectLabel parentType;
+    
+    private final PoddObjectLabel parentRelationship;
+    
+    private final int childCount;
+    
+    /**
+     * @param object
+     *            The label and description of the object.
+     * @param objectTypes
+     *            The labels of the most specific types of the object.
+     * @param orderedProperties
+     *            The asserted properties of the object, in display order.
+     * @param displayModel
+     *            The statements about the object with labels for their properties and values, as
+     *            returned by PoddArtifactManager.getObjectDetailsForDisplay.
+     * @param cardinalities
+     *            The cardinality of each of the ordered properties.
+     * @param parent
+     *            The label of the parent of the object, or null if it is the top object.
+     * @param parentType
+     *            The label of the type of the parent, or null if it is not known.
+     * @param parentRelationship
+     *            The label of the property linking the parent to the object, or null if it is the
+     *            top object.
+     * @param childCount
+     *            The number of children of the object.
+     */
+    public PoddObjectDisplayBundle(final PoddObjectLabel object, final List<PoddObjectLabel> objectTypes,
+            final List<URI> orderedProperties, final Model displayModel, final Map<URI, URI> cardinalities,
+            final PoddObjectLabel parent, final PoddObjectLabel parentType, final PoddObjectLabel parentRelationship,
+            final int childCount)
+    {
+        this.object = object;
+        this.objectTypes = Collections.unmodifiableList(objectTypes);
+        this.orderedProperties = Collections.unmodifiableList(orderedProperties);
+        this.displayModel = displayModel.unmodifiable();
+        this.cardinalities = Collections.unmodifiableMap(cardinalities);
+        this.parent = parent;
+        this.parentType = parentType;
+        this.parentRelationship = parentRelationship;
+        this.childCount = childCount;
+    }
+    
+    /**
+     * @return The cardinality of each of the ordered properties, using the PODD cardinality URIs.
+     */
+    public Map<URI, URI> getCardinalities()
+    {
+        return this.cardinalities;
+    }
+    
+    /**
+     * @return The number of children of the object.
+     */
+    public int getChildCount()
+    {
+        return this.childCount;
+    }
+    
+    /**
+     * @return The statements about the object with labels for their properties and values.
+     */
+    public Model getDisplayModel()
+    {
+        return this.displayModel;
+    }
+    
+    /**
+     * @return The label and description of the object.
+     */
+    public PoddObjectLabel getObject()
+    {
+        return this.object;
+    }
+    
+    /**
+     * @return The labels of the most specific types of the object.
+     */
+    public List<PoddObjectLabel> getObjectTypes()
+    {
+        return this.objectTypes;
+    }
+    
+    /**
+     * @return The asserted properties of the object, in display order.
+     */
+    public List<URI> getOrderedProperties()
+    {
+        return this.orderedProperties;
+    }
+    
+    /**
+     * @return The label of the parent of the object, or null if it is the top object.
+     */
+    public PoddObjectLabel getParent()
+    {
+        return this.parent;
+    }
+    
+    /**
+     * @return The label of the property linking the parent to the object, or null if it is the top
+     *         object.
+     */
+    public PoddObjectLabel getParentRelationship()
+    {
+        return this.parentRelationship;
+    }
+    
+    /**
+     * @return The label of the type of the parent, or null if it is not known.
+     */
+    public PoddObjectLabel getParentType()
+    {
+        return this.parentType;
+    }
+}
@@ -0,0 +1,478 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.openrdf.OpenRDFException;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.query.Binding;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.BooleanQuery;
+import org.openrdf.query.Dataset;
+import org.openrdf.query.GraphQuery;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.Query;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.TupleQuery;
+import org.openrdf.query.impl.DatasetImpl;
+import org.openrdf.query.parser.ParsedBooleanQuery;
+import org.openrdf.query.parser.ParsedGraphQuery;
+import org.openrdf.query.parser.ParsedQuery;
+import org.openrdf.query.parser.ParsedTupleQuery;
+import org.openrdf.query.parser.QueryParserUtil;
+import org.openrdf.query.resultio.helpers.QueryResultCollector;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.base.RepositoryConnectionWrapper;
+import org.openrdf.repository.sail.SailBooleanQuery;
+import org.openrdf.repository.sail.SailGraphQuery;
+import org.openrdf.repository.sail.SailRepositoryConnection;
+import org.openrdf.repository.sail.SailTupleQuery;
+import org.openrdf.rio.helpers.StatementCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A shared registry of SPARQL query templates. Each template is parsed once and then evaluated
+ * with bindings on any connection, recording the number of executions and a histogram of their
+ * latencies.
+ * <p>
+ * Templates are keyed by their query text, so values must be supplied as bindings rather than
+ * concatenated into the query, and the text of each query should be built once, as a constant,
+ * rather than on every call.
+ */
+public final class SparqlQueryRegistry
+{
+    /**
+     * A single SPARQL query, parsed once, with execution statistics.
+     */
+    public static final class QueryTemplate
+    {
+        private final String name;
+        
+        private final String query;
+        
+        private final ParsedQuery parsedQuery;
+        
+        private final AtomicLong executionCount = new AtomicLong(0);
+        
+        private final AtomicLong totalExecutionNanos = new AtomicLong(0);
+        
+        private final AtomicLongArray latencyHistogram = new AtomicLongArray(
+                SparqlQueryRegistry.LATENCY_BUCKET_LIMITS_MILLIS.length + 1);
+        
+        QueryTemplate(final String name, final String query) throws MalformedQueryException
+        {
+            this.name = name;
+            this.query = query;
+            this.parsedQuery = QueryParserUtil.parseQuery(QueryLanguage.SPARQL, query, null);
+        }
+        
+        /**
+         * Evaluates this template as an ASK query.
+         * 
+         * @param connection
+         *            The connection to evaluate the query on.
+         * @param bindings
+         *            The bindings for the query, or null if there are none.
+         * @param dataset
+         *            The dataset for the query, or null to use the dataset in the query.
+         * @return The result of the query.
+         * @throws OpenRDFException
+         */
+        public boolean evaluateBooleanQuery(final RepositoryConnection connection, final BindingSet bindings,
+                final Dataset dataset) throws OpenRDFException
+        {
+            if(!(this.parsedQuery instanceof ParsedBooleanQuery))
+            {
+                throw new MalformedQueryException("Not a boolean query: " + this.name);
+            }
+            
+            final long start = System.nanoTime();
+            try
+            {
+                return ((BooleanQuery)this.prepare(connection, bindings, dataset)).evaluate();
+            }
+            finally
+            {
+                this.recordExecution(System.nanoTime() - start);
+            }
+        }
+        
+        /**
+         * Evaluates this template as a CONSTRUCT or DESCRIBE query.
+         * 
+         * @param connection
+         *            The connection to evaluate the query on.
+         * @param bindings
+         *            The bindings for the query, or null if there are none.
+         * @param dataset
+         *            The dataset for the query, or null to use the dataset in the query.
+         * @return The statements returned by the query.
+         * @throws OpenRDFException
+         */
+        public Model evaluateGraphQuery(final RepositoryConnection connection, final BindingSet bindings,
+                final Dataset dataset) throws OpenRDFException
+        {
+            if(!(this.parsedQuery instanceof ParsedGraphQuery))
+            {
+                throw new MalformedQueryException("Not a graph query: " + this.name);
+            }
+            
+            final long start = System.nanoTime();
+            try
+            {
+                final Model results = new LinkedHashModel();
+                ((GraphQuery)this.prepare(connection, bindings, dataset)).evaluate(new StatementCollector(results));
+                return results;
+            }
+            finally
+            {
+                this.recordExecution(System.nanoTime() - start);
+            }
+        }
+        
+        /**
+         * Evaluates this template as a CONSTRUCT or DESCRIBE query with the given contexts as the
+         * default graph.
+         * 
+         * @param connection
+         *            The connection to evaluate the query on.
+         * @param bindings
+         *            The bindings for the query, or null if there are none.
+         * @param contexts
+         *            The contexts that make up the default graph.
+         * @return The statements returned by the query.
+         * @throws OpenRDFException
+         */
+        public Model evaluateGraphQuery(final RepositoryConnection connection, final BindingSet bindings,
+                final URI... contexts) throws OpenRDFException
+        {
+            return this.evaluateGraphQuery(connection, bindings, SparqlQueryRegistry.getDataset(contexts));
+        }
+        
+        /**
+         * Evaluates this template as a SELECT query.
+         * 
+         * @param connection
+         *            The connection to evaluate the query on.
+         * @param bindings
+         *            The bindings for the query, or null if there are none.
+         * @param dataset
+         *            The dataset for the query, or null to use the dataset in the query.
+         * @return The results of the query.
+         * @throws OpenRDFException
+         */
+        public QueryResultCollector evaluateTupleQuery(final RepositoryConnection connection,
+                final BindingSet bindings, final Dataset dataset) throws OpenRDFException
+        {
+            if(!(this.parsedQuery instanceof ParsedTupleQuery))
+            {
+                throw new MalformedQueryException("Not a tuple query: " + this.name);
+            }
+            
+            final long start = System.nanoTime();
+            try
+            {
+                final QueryResultCollector results = new QueryResultCollector();
+                ((TupleQuery)this.prepare(connection, bindings, dataset)).evaluate(results);
+                return results;
+            }
+            finally
+            {
+                this.recordExecution(System.nanoTime() - start);
+            }
+        }
+        
+        /**
+         * Evaluates this template as a SELECT query with the given contexts as the default graph.
+         * 
+         * @param connection
+         *            The connection to evaluate the query on.
+         * @param bindings
+         *            The bindings for the query, or null if there are none.
+         * @param contexts
+         *            The contexts that make up the default graph.
+         * @return The results of the query.
+         * @throws OpenRDFException
+         */
+        public QueryResultCollector evaluateTupleQuery(final RepositoryConnection connection,
+                final BindingSet bindings, final URI... contexts) throws OpenRDFException
+        {
+            return this.evaluateTupleQuery(connection, bindings, SparqlQueryRegistry.getDataset(contexts));
+        }
+        
+        /**
+         * 
+         * @return The number of times this template has been evaluated.
+         */
+        public long getExecutionCount()
+        {
+            return this.executionCount.get();
+        }
+        
+        /**
+         * 
+         * @return The number of executions in each latency bucket, as defined by
+         *         {@link SparqlQueryRegistry#getLatencyBucketLimitsMillis()}.
+         */
+        public long[] getLatencyHistogram()
+        {
+            final long[] result = new long[this.latencyHistogram.length()];
+            for(int i = 0; i < result.length; i++)
+            {
+                result[i] = this.latencyHistogram.get(i);
+            }
+            return result;
+        }
+        
+        /**
+         * 
+         * @return The name used to identify this template in statistics.
+         */
+        public String getName()
+        {
+            return this.name;
+        }
+        
+        /**
+         * 
+         * @return The SPARQL query text for this template.
+         */
+        public String getQuery()
+        {
+            return this.query;
+        }
+        
+        /**
+         * 
+         * @return The total time spent evaluating this template, in milliseconds.
+         */
+        public long getTotalExecutionTimeMillis()
+        {
+            return TimeUnit.NANOSECONDS.toMillis(this.totalExecutionNanos.get());
+        }
+        
+        private Query prepare(final RepositoryConnection connection, final BindingSet bindings,
+                final Dataset dataset) throws RepositoryException, MalformedQueryException
+        {
+            // Wrappers only intercept updates, so queries can be prepared on the underlying
+            // connection
+            RepositoryConnection delegate = connection;
+            while(delegate instanceof RepositoryConnectionWrapper)
+            {
+                delegate = ((RepositoryConnectionWrapper)delegate).getDelegate();
+            }
+            
+            Query result;
+            if(delegate instanceof SailRepositoryConnection)
+            {
+                // The Sail copies the parsed query before optimising it for each evaluation, so the
+                // parsed query can be shared by all connections
+                final SailRepositoryConnection sailConnection = (SailRepositoryConnection)delegate;
+                if(this.parsedQuery instanceof ParsedTupleQuery)
+                {
+                    result = new PreparedTupleQuery((ParsedTupleQuery)this.parsedQuery, sailConnection);
+                }
+                else if(this.parsedQuery instanceof ParsedGraphQuery)
+                {
+                    result = new PreparedGraphQuery((ParsedGraphQuery)this.parsedQuery, sailConnection);
+                }
+                else
+                {
+                    result = new PreparedBooleanQuery((ParsedBooleanQuery)this.parsedQuery, sailConnection);
+                }
+            }
+            else
+            {
+                // Other repositories, such as HTTP repositories, must be sent the query text
+                result = connection.prepareQuery(QueryLanguage.SPARQL, this.query);
+            }
+            
+            if(bindings != null)
+            {
+                for(final Binding nextBinding : bindings)
+                {
+                    result.setBinding(nextBinding.getName(), nextBinding.getValue());
+                }
+            }
+            
+            if(dataset != null)
+            {
+                result.setDataset(dataset);
+            }
+            
+            return result;
+        }
+        
+        private void recordExecution(final long nanos)
+        {
+            this.executionCount.incrementAndGet();
+            this.totalExecutionNanos.addAndGet(nanos);
+            
+            final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while(bucket < SparqlQueryRegistry.LATENCY_BUCKET_LIMITS_MILLIS.length
+                    && millis >= SparqlQueryRegistry.LATENCY_BUCKET_LIMITS_MILLIS[bucket])
+            {
+                bucket++;
+            }
+            this.latencyHistogram.incrementAndGet(bucket);
+            
+            SparqlQueryRegistry.log.debug("{} query took {} ms", this.name, millis);
+        }
+        
+        @Override
+        public String toString()
+        {
+            final StringBuilder b = new StringBuilder();
+            b.append("[");
+            b.append(this.name);
+            b.append(" executions=");
+            b.append(this.getExecutionCount());
+            b.append(" totalMillis=");
+            b.append(this.getTotalExecutionTimeMillis());
+            b.append("]");
+            return b.toString();
+        }
+    }
+    
+    private static final class PreparedBooleanQuery extends SailBooleanQuery
+    {
+        PreparedBooleanQuery(final ParsedBooleanQuery query, final SailRepositoryConnection connection)
+        {
+            super(query, connection);
+        }
+    }
+    
+    private static final class PreparedGraphQuery extends SailGraphQuery
+    {
+        PreparedGraphQuery(final ParsedGraphQuery query, final SailRepositoryConnection connection)
+        {
+            super(query, connection);
+        }
+    }
+    
+    private static final class PreparedTupleQuery extends SailTupleQuery
+    {
+        PreparedTupleQuery(final ParsedTupleQuery query, final SailRepositoryConnection connection)
+        {
+            super(query, connection);
+        }
+    }
+    
+    /**
+     * The exclusive upper bounds, in milliseconds, of all latency histogram buckets except the last,
+     * which counts all slower executions.
+     */
+    private static final long[] LATENCY_BUCKET_LIMITS_MILLIS = { 1, 5, 10, 50, 100, 500, 1000 };
+    
+    /**
+     * Bounds the registry in case queries with structural variations are registered. Queries with
+     * LIMIT or OFFSET clauses should not be registered, as each page would be a new template.
+     */
+    private static final int MAX_TEMPLATES = 1000;
+    
+    private static final ConcurrentMap<String, QueryTemplate> TEMPLATES = new ConcurrentHashMap<>();
+    
+    private static final Logger log = LoggerFactory.getLogger(SparqlQueryRegistry.class);
+    
+    /**
+     * Creates a dataset with the given contexts as the default graph, in the same way as
+     * {@link RdfUtility#executeTupleQuery(TupleQuery, URI...)}.
+     * 
+     * @param contexts
+     *            The contexts that make up the default graph.
+     * @return A dataset for the contexts.
+     */
+    public static Dataset getDataset(final URI... contexts)
+    {
+        final DatasetImpl dataset = new DatasetImpl();
+        for(final URI nextContext : contexts)
+        {
+            dataset.addDefaultGraph(nextContext);
+        }
+        return dataset;
+    }
+    
+    /**
+     * 
+     * @return The exclusive upper bounds, in milliseconds, of all latency histogram buckets except
+     *         the last, which counts all slower executions.
+     */
+    public static long[] getLatencyBucketLimitsMillis()
+    {
+        return SparqlQueryRegistry.LATENCY_BUCKET_LIMITS_MILLIS.clone();
+    }
+    
+    /**
+     * Gets the template for the given query, parsing the query if this is the first time it has been
+     * used.
+     * 
+     * @param name
+     *            The name used to identify the template in statistics.
+     * @param query
+     *            The SPARQL query text, which should not contain any values that change between
+     *            executions.
+     * @return The template for the query.
+     * @throws MalformedQueryException
+     *             If the query could not be parsed.
+     */
+    public static QueryTemplate getTemplate(final String name, final String query) throws MalformedQueryException
+    {
+        QueryTemplate result = SparqlQueryRegistry.TEMPLATES.get(query);
+        if(result == null)
+        {
+            result = new QueryTemplate(name, query);
+            if(SparqlQueryRegistry.TEMPLATES.size() < SparqlQueryRegistry.MAX_TEMPLATES)
+            {
+                final QueryTemplate existing = SparqlQueryRegistry.TEMPLATES.putIfAbsent(query, result);
+                if(existing != null)
+                {
+                    result = existing;
+                }
+            }
+            else
+            {
+                SparqlQueryRegistry.log.debug("Query template registry is full, not caching: {}", name);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 
+     * @return All of the registered templates, for reporting statistics.
+     */
+    public static Collection<QueryTemplate> getTemplates()
+    {
+        return Collections.unmodifiableCollection(SparqlQueryRegistry.TEMPLATES.values());
+    }
+    
+    private SparqlQueryRegistry()
+    {
+    }
+}
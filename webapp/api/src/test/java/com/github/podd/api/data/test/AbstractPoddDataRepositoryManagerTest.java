@@ -20,6 +20,8 @@ import java.io.InputStream;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -596,6 +598,61 @@ public abstract class AbstractPoddDataRepositoryManagerTest
         }
     }
     
+    /**
+     * This test starts up an internal file repository source and therefore can be slow.
+     */
+    @Test
+    public void testVerifyFileReferencesInParallel() throws Exception
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            this.startRepositorySource();
+            this.testDataRepositoryManager.setVerificationExecutor(executor);
+            this.testDataRepositoryManager.setVerificationConcurrency(2);
+            
+            // prepare: create valid FileReferences for two aliases and invalid FileReferences
+            final Set<DataReference> dataReferences = new HashSet<DataReference>();
+            for(int i = 0; i < 10; i++)
+            {
+                final DataReference fileRefWithAlias1A = this.getNewValidDataReference();
+                fileRefWithAlias1A.setRepositoryAlias(AbstractPoddDataRepositoryManagerTest.TEST_ALIAS_1A);
+                dataReferences.add(fileRefWithAlias1A);
+                
+                final DataReference fileRefWithAlias2A = this.getNewValidDataReference();
+                fileRefWithAlias2A.setRepositoryAlias(AbstractPoddDataRepositoryManagerTest.TEST_ALIAS_2A);
+                dataReferences.add(fileRefWithAlias2A);
+            }
+            
+            this.testDataRepositoryManager.verifyDataReferences(dataReferences);
+            
+            final Set<DataReference> invalidReferences = new HashSet<DataReference>();
+            for(int i = 0; i < 3; i++)
+            {
+                final DataReference fileRefWithNoSuchFile = this.getNewInvalidDataReference();
+                fileRefWithNoSuchFile.setRepositoryAlias(AbstractPoddDataRepositoryManagerTest.TEST_ALIAS_2A);
+                invalidReferences.add(fileRefWithNoSuchFile);
+            }
+            dataReferences.addAll(invalidReferences);
+            
+            try
+            {
+                this.testDataRepositoryManager.verifyDataReferences(dataReferences);
+                Assert.fail("Verify should have thrown an Exception containing errors");
+            }
+            catch(final DataReferenceVerificationException e)
+            {
+                Assert.assertEquals("Expected 3 validation failures", 3, e.getValidationFailures().size());
+                Assert.assertEquals(invalidReferences, e.getValidationFailures().keySet());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+            this.stopRepositorySource();
+        }
+    }
+    
     @Test
     public void testVerifyFileReferencesWithEmptyFileReferenceSet() throws Exception
     {
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -33,6 +34,8 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.IOUtils;
@@ -50,6 +53,7 @@ import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
 import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.impl.ValueFactoryImpl;
+import org.openrdf.model.util.ModelUtil;
 import org.openrdf.model.vocabulary.OWL;
 import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.model.vocabulary.RDFS;
@@ -77,8 +81,11 @@ import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.podd.api.ChildObjectOrder;
 import com.github.podd.api.DanglingObjectPolicy;
 import com.github.podd.api.DataReferenceVerificationPolicy;
+import com.github.podd.api.InferenceJobStatus;
+import com.github.podd.api.InferencePolicy;
 import com.github.podd.api.MetadataPolicy;
 import com.github.podd.api.PoddArtifactManager;
 import com.github.podd.api.PoddOWLManager;
@@ -105,10 +112,14 @@ import com.github.podd.exception.SchemaManifestException;
 import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.exception.UnmanagedArtifactVersionException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
+import com.github.podd.utils.ArtifactLoadResult;
 import com.github.podd.utils.DebugUtils;
+import com.github.podd.utils.InferenceJob;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.OntologyUtils;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddChildObjectPage;
+import com.github.podd.utils.PoddObjectDisplayBundle;
 import com.github.podd.utils.PoddObjectLabel;
 
 /**
@@ -691,6 +702,29 @@ public abstract class AbstractPoddArtifactManagerTest
         }
     }
     
+    @Test
+    public final void testCheckArtifactExport() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final InputStream inputStream1 = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);
+        final InferredOWLOntologyID artifactID = this.testArtifactManager.loadArtifact(inputStream1, RDFFormat.TURTLE);
+        
+        this.testArtifactManager.checkArtifactExport(artifactID, true);
+        
+        final InferredOWLOntologyID missingVersion =
+                new InferredOWLOntologyID(artifactID.getOntologyIRI(), IRI.create("urn:test:missing-version"),
+                        artifactID.getInferredOntologyIRI());
+        try
+        {
+            this.testArtifactManager.checkArtifactExport(missingVersion, false);
+            Assert.fail("Should have thrown an UnmanagedArtifactVersionException");
+        }
+        catch(final UnmanagedArtifactVersionException e)
+        {
+        }
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.api.PoddArtifactManager#deleteArtifact(org.semanticweb.owlapi.model.OWLOntologyID)}
@@ -1104,6 +1138,27 @@ public abstract class AbstractPoddArtifactManagerTest
                 TestConstants.TEST_ARTIFACT_BASIC_1_20130206_CONCRETE_TRIPLES, modelAfterReload.size());
     }
     
+    @Test
+    public final void testExportArtifactToHandler() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        // prepare: upload a test artifact
+        final InputStream inputStream1 = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);
+        final InferredOWLOntologyID artifactIDv1 =
+                this.testArtifactManager.loadArtifact(inputStream1, RDFFormat.TURTLE);
+        this.verifyLoadedArtifact(artifactIDv1, 12, TestConstants.TEST_ARTIFACT_BASIC_1_20130206_CONCRETE_TRIPLES,
+                TestConstants.TEST_ARTIFACT_BASIC_1_20130206_INFERRED_TRIPLES, false);
+        
+        final Model streamed = new LinkedHashModel();
+        this.testArtifactManager.exportArtifact(artifactIDv1, new StatementCollector(streamed), false);
+        
+        Assert.assertEquals("Incorrect statement count in streamed artifact",
+                TestConstants.TEST_ARTIFACT_BASIC_1_20130206_CONCRETE_TRIPLES, streamed.size());
+        Assert.assertTrue("Streamed artifact did not match exported model",
+                ModelUtil.equals(this.testArtifactManager.exportArtifact(artifactIDv1, false), streamed));
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.api.PoddArtifactManager#exportObjectMetadata(URI, java.io.OutputStream, RDFFormat, boolean, MetadataPolicy, InferredOWLOntologyID)}
@@ -1280,7 +1335,134 @@ public abstract class AbstractPoddArtifactManagerTest
             final Set<URI> childObjects = this.testArtifactManager.getChildObjects(ontologyID, objectUri);
             Assert.assertEquals("Not the expected number of child objects", expectedChildObjectCount,
                     childObjects.size());
+            Assert.assertEquals("Count did not match the child objects", expectedChildObjectCount,
+                    this.testArtifactManager.getChildObjectCount(ontologyID, objectUri));
+        }
+    }
+    
+    @Test
+    public final void testGetChildObjectsPaged() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        // prepare: upload a test artifact
+        final InputStream inputStream1 = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);
+        final InferredOWLOntologyID ontologyID = this.testArtifactManager.loadArtifact(inputStream1, RDFFormat.TURTLE);
+        
+        final URI objectUri = PODD.VF.createURI("http://purl.org/podd/basic-1-20130206/object:2966");
+        final Set<URI> expectedChildren = this.testArtifactManager.getChildObjects(ontologyID, objectUri);
+        Assert.assertEquals(6, expectedChildren.size());
+        
+        for(final ChildObjectOrder order : ChildObjectOrder.values())
+        {
+            final PoddChildObjectPage firstPage =
+                    this.testArtifactManager.getChildObjects(ontologyID, objectUri, order, null, 4);
+            Assert.assertEquals("Not the expected number of children on the first page", 4, firstPage
+                    .getChildren().size());
+            Assert.assertTrue("First page should have a cursor", firstPage.hasNext());
+            
+            final PoddChildObjectPage secondPage =
+                    this.testArtifactManager.getChildObjects(ontologyID, objectUri, order,
+                            firstPage.getNextCursor(), 4);
+            Assert.assertEquals("Not the expected number of children on the second page", 2, secondPage
+                    .getChildren().size());
+            Assert.assertFalse("Second page should be the last page", secondPage.hasNext());
+            Assert.assertNull(secondPage.getNextCursor());
+            
+            final List<PoddObjectLabel> allChildren = new ArrayList<PoddObjectLabel>(firstPage.getChildren());
+            allChildren.addAll(secondPage.getChildren());
+            
+            final Set<URI> pagedChildren = new HashSet<URI>();
+            for(final PoddObjectLabel nextChild : allChildren)
+            {
+                Assert.assertNotNull("Child did not have a label", nextChild.getLabel());
+                pagedChildren.add(nextChild.getObjectURI());
+            }
+            Assert.assertEquals("Pages did not contain every child exactly once", expectedChildren, pagedChildren);
+            Assert.assertEquals(6, allChildren.size());
+            
+            if(order == ChildObjectOrder.LABEL)
+            {
+                // Children without a label are listed first, using their URI in place of a label
+                final List<String> labels = new ArrayList<String>();
+                for(final PoddObjectLabel nextChild : allChildren)
+                {
+                    if(!nextChild.getLabel().equals(nextChild.getObjectURI().stringValue()))
+                    {
+                        labels.add(nextChild.getLabel());
+                    }
+                }
+                final List<String> sortedLabels = new ArrayList<String>(labels);
+                Collections.sort(sortedLabels);
+                Assert.assertEquals("Children were not ordered by label", sortedLabels, labels);
+            }
+        }
+        
+        final PoddChildObjectPage singlePage =
+                this.testArtifactManager.getChildObjects(ontologyID, objectUri, ChildObjectOrder.WEIGHT, null, 10);
+        Assert.assertEquals(6, singlePage.getChildren().size());
+        Assert.assertFalse(singlePage.hasNext());
+        
+        try
+        {
+            this.testArtifactManager.getChildObjects(ontologyID, objectUri, ChildObjectOrder.LABEL, "not-a-cursor", 4);
+            Assert.fail("Did not find expected exception");
+        }
+        catch(final IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+    
+    /**
+     * Tests that the object display bundle matches the results of the separate calls that it
+     * replaces.
+     */
+    @Test
+    public final void testGetObjectDisplayBundle() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final InputStream inputStream1 = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);
+        final InferredOWLOntologyID ontologyID = this.testArtifactManager.loadArtifact(inputStream1, RDFFormat.TURTLE);
+        
+        final PoddObjectDisplayBundle topObjectBundle =
+                this.testArtifactManager.getObjectDisplayBundle(ontologyID, null);
+        Assert.assertNotNull(topObjectBundle);
+        Assert.assertEquals(this.testArtifactManager.getTopObjectLabels(Arrays.asList(ontologyID)).get(0)
+                .getObjectURI(), topObjectBundle.getObject().getObjectURI());
+        Assert.assertNull("Top object should not have a parent", topObjectBundle.getParent());
+        
+        final URI objectUri = PODD.VF.createURI("http://purl.org/podd/basic-2-20130206/artifact:1#Demo_Investigation");
+        
+        final PoddObjectDisplayBundle bundle = this.testArtifactManager.getObjectDisplayBundle(ontologyID, objectUri);
+        
+        final PoddObjectLabel objectLabel = this.testArtifactManager.getObjectLabel(ontologyID, objectUri);
+        final List<PoddObjectLabel> objectTypes = this.testArtifactManager.getObjectTypes(ontologyID, objectUri);
+        final List<URI> orderedProperties =
+                this.testArtifactManager.getOrderedProperties(ontologyID, objectUri, false);
+        final Model displayModel = this.testArtifactManager.getObjectDetailsForDisplay(ontologyID, objectUri);
+        final Set<URI> childObjects = this.testArtifactManager.getChildObjects(ontologyID, objectUri);
+        final Model parentDetails = this.testArtifactManager.getParentDetails(ontologyID, objectUri);
+        
+        Assert.assertEquals(objectLabel.getObjectURI(), bundle.getObject().getObjectURI());
+        Assert.assertEquals(objectLabel.getLabel(), bundle.getObject().getLabel());
+        Assert.assertEquals(objectTypes.size(), bundle.getObjectTypes().size());
+        for(int i = 0; i < objectTypes.size(); i++)
+        {
+            Assert.assertEquals(objectTypes.get(i).getObjectURI(), bundle.getObjectTypes().get(i).getObjectURI());
+            Assert.assertEquals(objectTypes.get(i).getLabel(), bundle.getObjectTypes().get(i).getLabel());
         }
+        Assert.assertEquals(orderedProperties, bundle.getOrderedProperties());
+        Assert.assertEquals(new LinkedHashModel(displayModel), new LinkedHashModel(bundle.getDisplayModel()));
+        Assert.assertEquals(childObjects.size(), bundle.getChildCount());
+        Assert.assertEquals(3, bundle.getChildCount());
+        
+        Assert.assertEquals(1, parentDetails.size());
+        final Statement parentStatement = parentDetails.iterator().next();
+        Assert.assertEquals(parentStatement.getSubject(), bundle.getParent().getObjectURI());
+        Assert.assertEquals(parentStatement.getPredicate(), bundle.getParentRelationship().getObjectURI());
+        Assert.assertNotNull(bundle.getParentType());
     }
     
     @Test
@@ -1576,6 +1758,57 @@ public abstract class AbstractPoddArtifactManagerTest
         Assert.assertFalse("No schema imports detected", schemaImports.isEmpty());
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddArtifactManager#getTopObjectLabels(List, Model)} .
+     * 
+     * Tests that the batched labels and types match those found for each artifact individually.
+     */
+    @Test
+    public final void testGetTopObjectLabelsWithTypes() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final InferredOWLOntologyID firstArtifactId =
+                this.testArtifactManager.loadArtifact(
+                        this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT),
+                        RDFFormat.RDFXML);
+        final InferredOWLOntologyID secondArtifactId =
+                this.testArtifactManager.loadArtifact(
+                        this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_PROJECT_2),
+                        RDFFormat.RDFXML);
+        
+        final List<InferredOWLOntologyID> artifacts = Arrays.asList(secondArtifactId, firstArtifactId);
+        final Model objectTypes = new LinkedHashModel();
+        
+        final List<PoddObjectLabel> labels = this.testArtifactManager.getTopObjectLabels(artifacts, objectTypes);
+        
+        Assert.assertEquals(2, labels.size());
+        for(int i = 0; i < artifacts.size(); i++)
+        {
+            final PoddObjectLabel nextLabel = labels.get(i);
+            Assert.assertEquals("Labels not in the order of the artifacts", artifacts.get(i),
+                    nextLabel.getOntologyID());
+            
+            final PoddObjectLabel expectedLabel =
+                    this.testArtifactManager.getObjectLabel(artifacts.get(i), nextLabel.getObjectURI());
+            Assert.assertEquals(expectedLabel.getLabel(), nextLabel.getLabel());
+            Assert.assertEquals(expectedLabel.getDescription(), nextLabel.getDescription());
+            
+            final List<PoddObjectLabel> expectedTypes =
+                    this.testArtifactManager.getObjectTypes(artifacts.get(i), nextLabel.getObjectURI());
+            Assert.assertFalse(expectedTypes.isEmpty());
+            Assert.assertEquals(expectedTypes.size(), objectTypes.filter(nextLabel.getObjectURI(), RDF.TYPE, null)
+                    .size());
+            for(final PoddObjectLabel nextType : expectedTypes)
+            {
+                Assert.assertTrue(objectTypes.contains(nextLabel.getObjectURI(), RDF.TYPE, nextType.getObjectURI()));
+                Assert.assertTrue(objectTypes.contains(nextType.getObjectURI(), RDFS.LABEL,
+                        nextType.getLabelLiteral()));
+            }
+        }
+    }
+    
     /**
      * Test method for {@link com.github.podd.api.PoddArtifactManager#listPublishedArtifacts()}. .
      */
@@ -1677,6 +1910,178 @@ public abstract class AbstractPoddArtifactManagerTest
         }
     }
     
+    /**
+     * Test that the concrete statements are available when loadArtifact returns with asynchronous
+     * inferences enabled, and the inferred statements are available when the job is done.
+     */
+    @Test
+    public final void testLoadArtifactAsynchronousInferences() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final ExecutorService inferenceExecutor = Executors.newSingleThreadExecutor();
+        try
+        {
+            this.testArtifactManager.setInferenceExecutor(inferenceExecutor);
+            this.testArtifactManager.setAsynchronousInferences(true);
+            
+            final InferredOWLOntologyID resultArtifactId;
+            try (final InputStream inputStream =
+                    this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT);)
+            {
+                resultArtifactId = this.testArtifactManager.loadArtifact(inputStream, RDFFormat.RDFXML);
+            }
+            Assert.assertNotNull("Null inferred ontology IRI", resultArtifactId.getInferredOntologyIRI());
+            
+            final InferenceJob job = this.testArtifactManager.getInferenceJob(resultArtifactId);
+            Assert.assertNotNull("Inference job was not recorded", job);
+            
+            while(!job.isFinished())
+            {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals("Inference job failed: " + job.getMessage(), InferenceJobStatus.DONE,
+                    job.getStatus());
+            
+            RepositoryConnection permanentConnection = null;
+            try
+            {
+                permanentConnection =
+                        this.testRepositoryManager.getPermanentRepositoryConnection(this.testArtifactManager
+                                .getSchemaImports(resultArtifactId));
+                Assert.assertTrue("Concrete statements missing",
+                        permanentConnection.size(resultArtifactId.getVersionIRI().toOpenRDFURI()) > 0);
+                Assert.assertTrue("Inferred statements missing",
+                        permanentConnection.size(resultArtifactId.getInferredOntologyIRI().toOpenRDFURI()) > 0);
+            }
+            finally
+            {
+                if(permanentConnection != null)
+                {
+                    permanentConnection.close();
+                }
+            }
+        }
+        finally
+        {
+            inferenceExecutor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Test that a background inference job does not store inferred statements for an artifact that
+     * was deleted while the job was waiting to run.
+     */
+    @Test
+    public final void testLoadArtifactAsynchronousInferencesAfterDelete() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final ExecutorService inferenceExecutor = Executors.newSingleThreadExecutor();
+        final CountDownLatch blocker = new CountDownLatch(1);
+        try
+        {
+            this.testArtifactManager.setInferenceExecutor(inferenceExecutor);
+            this.testArtifactManager.setAsynchronousInferences(true);
+            
+            // Keep the only inference thread busy so that the job stays queued
+            inferenceExecutor.execute(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            blocker.await();
+                        }
+                        catch(final InterruptedException e)
+                        {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+            
+            final InferredOWLOntologyID resultArtifactId;
+            try (final InputStream inputStream =
+                    this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT);)
+            {
+                resultArtifactId = this.testArtifactManager.loadArtifact(inputStream, RDFFormat.RDFXML);
+            }
+            final Set<? extends OWLOntologyID> schemaImports =
+                    this.testArtifactManager.getSchemaImports(resultArtifactId);
+            final InferenceJob job = this.testArtifactManager.getInferenceJob(resultArtifactId);
+            Assert.assertNotNull("Inference job was not recorded", job);
+            Assert.assertEquals(InferenceJobStatus.QUEUED, job.getStatus());
+            
+            Assert.assertTrue(this.testArtifactManager.deleteArtifact(resultArtifactId));
+            blocker.countDown();
+            
+            while(!job.isFinished())
+            {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals(InferenceJobStatus.FAILED, job.getStatus());
+            
+            RepositoryConnection permanentConnection = null;
+            try
+            {
+                permanentConnection = this.testRepositoryManager.getPermanentRepositoryConnection(schemaImports);
+                Assert.assertEquals("Inferred statements were stored for a deleted artifact", 0,
+                        permanentConnection.size(resultArtifactId.getInferredOntologyIRI().toOpenRDFURI()));
+                Assert.assertEquals("Concrete statements were not deleted", 0,
+                        permanentConnection.size(resultArtifactId.getVersionIRI().toOpenRDFURI()));
+            }
+            finally
+            {
+                if(permanentConnection != null)
+                {
+                    permanentConnection.close();
+                }
+            }
+        }
+        finally
+        {
+            blocker.countDown();
+            inferenceExecutor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Test that an inconsistent artifact is rejected before it is stored when inferences are
+     * computed asynchronously.
+     */
+    @Test
+    public final void testLoadArtifactAsynchronousInferencesWithInconsistency() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final ExecutorService inferenceExecutor = Executors.newSingleThreadExecutor();
+        try
+        {
+            this.testArtifactManager.setInferenceExecutor(inferenceExecutor);
+            this.testArtifactManager.setAsynchronousInferences(true);
+            
+            try (final InputStream inputStream =
+                    this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BAD_2_LEAD_INSTITUTES);)
+            {
+                this.testArtifactManager.loadArtifact(inputStream, RDFFormat.RDFXML);
+                Assert.fail("Should have thrown an InconsistentOntologyException");
+            }
+            catch(final InconsistentOntologyException e)
+            {
+                Assert.assertTrue("Not the expected error message",
+                        e.getMessage().startsWith("Ontology is inconsistent"));
+            }
+            
+            Assert.assertTrue("Inconsistent artifact was stored", this.testArtifactManager
+                    .listUnpublishedArtifacts().isEmpty());
+        }
+        finally
+        {
+            inferenceExecutor.shutdownNow();
+        }
+    }
+    
     @Ignore("TODO: Enable periodically to debug concurrency issues")
     @Test
     public final void testLoadArtifactConcurrency() throws Exception
@@ -2126,6 +2531,68 @@ public abstract class AbstractPoddArtifactManagerTest
                 .endsWith(":1"));
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddArtifactManager#loadArtifacts(List, RDFFormat, DanglingObjectPolicy, DataReferenceVerificationPolicy, int)}
+     * .
+     * 
+     * Tests that failures are reported against the artifacts that caused them, without preventing
+     * the other artifacts in the same batch from being loaded.
+     */
+    @Test
+    public final void testLoadArtifactsWithFailures() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final List<InputStream> inputStreams = new ArrayList<>();
+        try
+        {
+            inputStreams.add(this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT));
+            inputStreams.add(this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BAD_2_LEAD_INSTITUTES));
+            inputStreams.add(this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_PROJECT_2));
+            inputStreams.add(this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_PURLS_v1));
+            // The same artifact IRI as the previous artifact
+            inputStreams.add(this.getClass().getResourceAsStream("/test/artifacts/project-with-purls-v2.rdf"));
+            
+            final List<ArtifactLoadResult> results =
+                    this.testArtifactManager.loadArtifacts(inputStreams, RDFFormat.RDFXML, DanglingObjectPolicy.REPORT,
+                            DataReferenceVerificationPolicy.DO_NOT_VERIFY, 10);
+            
+            Assert.assertEquals(5, results.size());
+            for(int i = 0; i < results.size(); i++)
+            {
+                Assert.assertEquals(i, results.get(i).getIndex());
+            }
+            
+            Assert.assertTrue(results.get(0).isSuccessful());
+            Assert.assertFalse(results.get(1).isSuccessful());
+            Assert.assertTrue(results.get(1).getFailure() instanceof InconsistentOntologyException);
+            Assert.assertTrue(results.get(2).isSuccessful());
+            Assert.assertTrue(results.get(3).isSuccessful());
+            Assert.assertFalse(results.get(4).isSuccessful());
+            Assert.assertTrue(results.get(4).getFailure() instanceof DuplicateArtifactIRIException);
+            
+            final List<InferredOWLOntologyID> unpublishedArtifacts =
+                    this.testArtifactManager.listUnpublishedArtifacts();
+            Assert.assertEquals(3, unpublishedArtifacts.size());
+            Assert.assertTrue(unpublishedArtifacts.contains(results.get(0).getArtifactID()));
+            Assert.assertTrue(unpublishedArtifacts.contains(results.get(2).getArtifactID()));
+            Assert.assertTrue(unpublishedArtifacts.contains(results.get(3).getArtifactID()));
+            
+            for(final InferredOWLOntologyID nextArtifactId : unpublishedArtifacts)
+            {
+                Assert.assertNotNull(nextArtifactId.getInferredOntologyIRI());
+            }
+        }
+        finally
+        {
+            for(final InputStream nextStream : inputStreams)
+            {
+                nextStream.close();
+            }
+        }
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.api.PoddArtifactManager#publishArtifact(org.semanticweb.owlapi.model.OWLOntologyID)}
@@ -2606,6 +3073,139 @@ public abstract class AbstractPoddArtifactManagerTest
         }
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddArtifactManager#updateArtifact(URI, InputStream, RDFFormat, boolean)}
+     * using {@link InferencePolicy#INCREMENTAL}.
+     */
+    @Test
+    public final void testUpdateArtifactModifyPoddObjectWithReplaceIncremental() throws Exception
+    {
+        this.testArtifactManager.setInferencePolicy(InferencePolicy.INCREMENTAL);
+        
+        final InferredOWLOntologyID updatedArtifact =
+                this.internalTestUpdateArtifact(TestConstants.TEST_ARTIFACT_20130206, RDFFormat.TURTLE, 12,
+                        TestConstants.TEST_ARTIFACT_BASIC_1_20130206_CONCRETE_TRIPLES,
+                        TestConstants.TEST_ARTIFACT_BASIC_1_20130206_INFERRED_TRIPLES, false,
+                        TestConstants.TEST_ARTIFACT_FRAGMENT_MODIFIED_PUBLICATION_OBJECT, RDFFormat.TURTLE,
+                        UpdatePolicy.REPLACE_EXISTING, DanglingObjectPolicy.FORCE_CLEAN,
+                        DataReferenceVerificationPolicy.DO_NOT_VERIFY, Collections.<URI> emptyList());
+        
+        RepositoryConnection permanentConnection = null;
+        try
+        {
+            final Set<? extends OWLOntologyID> schemaImports =
+                    this.testArtifactManager.getSchemaImports(updatedArtifact);
+            permanentConnection = this.testRepositoryManager.getPermanentRepositoryConnection(schemaImports);
+            
+            final List<Statement> testList =
+                    Iterations.asList(permanentConnection.getStatements(null,
+                            ValueFactoryImpl.getInstance().createURI(PODD.PODD_SCIENCE, "hasYear"), null, false,
+                            updatedArtifact.getVersionIRI().toOpenRDFURI()));
+            Assert.assertEquals("Incorrect no. of hasYear statements", 1, testList.size());
+            Assert.assertEquals("Publication Year has not been updated", "2011", testList.get(0).getObject()
+                    .stringValue());
+            
+            final URI inferredContext = updatedArtifact.getInferredOntologyIRI().toOpenRDFURI();
+            Assert.assertTrue("Inferred ontology header missing", permanentConnection.hasStatement(inferredContext,
+                    RDF.TYPE, OWL.ONTOLOGY, false, inferredContext));
+            Assert.assertTrue("Inferred statements missing", permanentConnection.size(inferredContext) > 1);
+        }
+        finally
+        {
+            if(permanentConnection != null)
+            {
+                permanentConnection.close();
+            }
+        }
+    }
+    
+    /**
+     * Test that previous versions can be reconstructed from deltas after an update, and after the
+     * deltas are compacted.
+     */
+    @Test
+    public final void testUpdateArtifactWithDeltaVersionStorage() throws Exception
+    {
+        this.testArtifactManager.setDeltaVersionStorage(true);
+        
+        this.loadVersion1SchemaOntologies();
+        
+        final InferredOWLOntologyID artifactId =
+                this.testArtifactManager.loadArtifact(
+                        this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206), RDFFormat.TURTLE);
+        final Model originalArtifact = this.testArtifactManager.exportArtifact(artifactId, true);
+        
+        InferredOWLOntologyID currentId = artifactId;
+        for(int i = 0; i < 2; i++)
+        {
+            final Model model =
+                    this.testArtifactManager.updateArtifact(currentId.getOntologyIRI().toOpenRDFURI(), currentId
+                            .getVersionIRI().toOpenRDFURI(), Collections.<URI> emptyList(), this.getClass()
+                            .getResourceAsStream(TestConstants.TEST_ARTIFACT_FRAGMENT_MODIFIED_PUBLICATION_OBJECT),
+                            RDFFormat.TURTLE, UpdatePolicy.REPLACE_EXISTING, DanglingObjectPolicy.FORCE_CLEAN,
+                            DataReferenceVerificationPolicy.DO_NOT_VERIFY);
+            currentId = OntologyUtils.modelToOntologyIDs(model).get(0);
+        }
+        
+        final InferredOWLOntologyID previousId =
+                this.testArtifactManager.getArtifact(artifactId.getOntologyIRI(), artifactId.getVersionIRI());
+        Assert.assertEquals(artifactId.getVersionIRI(), previousId.getVersionIRI());
+        Assert.assertEquals(artifactId.getInferredOntologyIRI(), previousId.getInferredOntologyIRI());
+        Assert.assertTrue("Reconstructed version did not match original",
+                ModelUtil.equals(originalArtifact, this.testArtifactManager.exportArtifact(previousId, true)));
+        
+        final Set<? extends OWLOntologyID> schemaImports = this.testArtifactManager.getSchemaImports(currentId);
+        RepositoryConnection permanentConnection =
+                this.testRepositoryManager.getPermanentRepositoryConnection(schemaImports);
+        try
+        {
+            Assert.assertEquals("Original version should only be stored as a delta", 0,
+                    permanentConnection.size(artifactId.getVersionIRI().toOpenRDFURI()));
+        }
+        finally
+        {
+            permanentConnection.close();
+        }
+        
+        // The original version is two deltas away from the current version
+        Assert.assertEquals(1, this.testArtifactManager.compactVersionDeltas(1));
+        Assert.assertEquals(0, this.testArtifactManager.compactVersionDeltas(1));
+        
+        permanentConnection = this.testRepositoryManager.getPermanentRepositoryConnection(schemaImports);
+        try
+        {
+            Assert.assertTrue("Original version should be stored in full after compaction",
+                    permanentConnection.size(artifactId.getVersionIRI().toOpenRDFURI()) > 0);
+        }
+        finally
+        {
+            permanentConnection.close();
+        }
+        
+        Assert.assertTrue("Compacted version did not match original",
+                ModelUtil.equals(originalArtifact, this.testArtifactManager.exportArtifact(previousId, true)));
+        
+        // Deleting the artifact must also remove the management statements for its previous versions
+        this.testArtifactManager.deleteArtifact(currentId);
+        
+        final RepositoryConnection managementConnection =
+                this.testRepositoryManager.getManagementRepositoryConnection();
+        try
+        {
+            final URI artifactManagementGraph = this.testRepositoryManager.getArtifactManagementGraph();
+            final URI inferredUri = artifactId.getInferredOntologyIRI().toOpenRDFURI();
+            Assert.assertFalse(managementConnection.hasStatement(inferredUri, null, null, false,
+                    artifactManagementGraph));
+            Assert.assertFalse(managementConnection.hasStatement(null, null, inferredUri, false,
+                    artifactManagementGraph));
+        }
+        finally
+        {
+            managementConnection.close();
+        }
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.api.PoddArtifactManager#updateArtifact(URI, InputStream, RDFFormat, boolean)}
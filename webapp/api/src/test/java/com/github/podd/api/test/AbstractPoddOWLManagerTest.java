@@ -16,9 +16,17 @@
  */
 package com.github.podd.api.test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -238,4 +246,71 @@ public abstract class AbstractPoddOWLManagerTest
             managementConnection.close();
         }
     }
+    
+    @Test
+    public void testLoadAndInferConcurrent() throws Exception
+    {
+        final List<String> paths =
+                Arrays.asList("/test/ontologies/version/1/a1.owl", "/test/ontologies/version/4/a4.owl");
+        final ExecutorService executor = Executors.newFixedThreadPool(paths.size());
+        try
+        {
+            // Both loads use the same schema ontologies, and therefore the same cached manager
+            final CountDownLatch startLatch = new CountDownLatch(1);
+            final List<Future<InferredOWLOntologyID>> results = new ArrayList<>();
+            for(final String nextPath : paths)
+            {
+                results.add(executor.submit(new Callable<InferredOWLOntologyID>()
+                    {
+                        @Override
+                        public InferredOWLOntologyID call() throws Exception
+                        {
+                            final RioMemoryTripleSource owlSource = TestUtils.getRioTripleSource(nextPath);
+                            startLatch.await();
+                            final RepositoryConnection managementConnection =
+                                    AbstractPoddOWLManagerTest.this.testRepositoryManager
+                                            .getManagementRepositoryConnection();
+                            try
+                            {
+                                managementConnection.begin();
+                                final InferredOWLOntologyID ontologyID =
+                                        AbstractPoddOWLManagerTest.this.testOwlManager.loadAndInfer(owlSource,
+                                                managementConnection, null,
+                                                Collections.<InferredOWLOntologyID> emptySet(),
+                                                managementConnection, AbstractPoddOWLManagerTest.this.schemaGraph);
+                                Assert.assertFalse(managementConnection.size(ontologyID.getInferredOntologyIRI()
+                                        .toOpenRDFURI()) == 0);
+                                return ontologyID;
+                            }
+                            finally
+                            {
+                                try
+                                {
+                                    managementConnection.rollback();
+                                }
+                                finally
+                                {
+                                    managementConnection.close();
+                                }
+                            }
+                        }
+                    }));
+            }
+            startLatch.countDown();
+            
+            final InferredOWLOntologyID firstID = results.get(0).get(60, TimeUnit.SECONDS);
+            final InferredOWLOntologyID secondID = results.get(1).get(60, TimeUnit.SECONDS);
+            
+            Assert.assertEquals("http://example.org/podd/ns/version/poddA/1", firstID.getVersionIRI().toString());
+            Assert.assertEquals("http://example.org/podd/ns/version/poddA/4", secondID.getVersionIRI().toString());
+            
+            // Loaded ontologies are never added to the shared schema cache
+            Assert.assertFalse(this.testOwlManager.isCached(firstID, Collections.<InferredOWLOntologyID> emptySet()));
+            Assert.assertFalse(this.testOwlManager.isCached(secondID, Collections.<InferredOWLOntologyID> emptySet()));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -329,6 +329,104 @@ public abstract class AbstractPoddRepositoryManagerTest
         }
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.impl.PoddRepositoryManagerImpl#getNewTemporaryRepository(long)} with
+     * a number of statements that is large enough to use a disk-backed repository.
+     */
+    @Test
+    public final void testGetNewTemporaryRepositoryOnDisk() throws Exception
+    {
+        final Repository newTempRepository = this.testRepositoryManager.getNewTemporaryRepository(Long.MAX_VALUE);
+        try
+        {
+            Assert.assertNotNull("New temporary repository was null", newTempRepository);
+            Assert.assertTrue("New temporary repository was not initialized", newTempRepository.isInitialized());
+            Assert.assertEquals(1, this.testRepositoryManager.getTemporaryRepositoryOnDiskCount());
+            Assert.assertEquals(0, this.testRepositoryManager.getTemporaryRepositoryInMemoryCount());
+            
+            final RepositoryConnection tempRepositoryConnection = newTempRepository.getConnection();
+            try
+            {
+                tempRepositoryConnection.begin();
+                tempRepositoryConnection.add(this.vf.createURI("urn:test:s"), this.vf.createURI("urn:test:p"),
+                        this.vf.createURI("urn:test:o"));
+                tempRepositoryConnection.commit();
+                Assert.assertEquals(1, tempRepositoryConnection.size());
+            }
+            finally
+            {
+                tempRepositoryConnection.close();
+            }
+        }
+        finally
+        {
+            newTempRepository.shutDown();
+        }
+    }
+    
+    /**
+     * Test method for
+     * {@link com.github.podd.impl.PoddRepositoryManagerImpl#getNewTemporaryRepository()} that
+     * checks that repositories which have been shutdown are cleared before they are reused.
+     */
+    @Test
+    public final void testGetNewTemporaryRepositoryReused() throws Exception
+    {
+        final Repository firstTempRepository = this.testRepositoryManager.getNewTemporaryRepository();
+        RepositoryConnection tempRepositoryConnection = firstTempRepository.getConnection();
+        try
+        {
+            tempRepositoryConnection.begin();
+            tempRepositoryConnection.add(this.vf.createURI("urn:test:s"), this.vf.createURI("urn:test:p"),
+                    this.vf.createURI("urn:test:o"));
+            tempRepositoryConnection.commit();
+        }
+        finally
+        {
+            tempRepositoryConnection.close();
+        }
+        firstTempRepository.shutDown();
+        
+        final Repository secondTempRepository = this.testRepositoryManager.getNewTemporaryRepository();
+        try
+        {
+            Assert.assertTrue("Reused temporary repository was not initialized",
+                    secondTempRepository.isInitialized());
+            Assert.assertEquals(2, this.testRepositoryManager.getTemporaryRepositoryInMemoryCount());
+            Assert.assertEquals(1, this.testRepositoryManager.getTemporaryRepositoryPoolHitCount());
+            Assert.assertEquals(0, this.testRepositoryManager.getTemporaryRepositoryOnDiskCount());
+            
+            tempRepositoryConnection = secondTempRepository.getConnection();
+            try
+            {
+                Assert.assertEquals("Reused temporary repository was not empty", 0, tempRepositoryConnection.size());
+            }
+            finally
+            {
+                tempRepositoryConnection.close();
+            }
+            
+            // Shutting down a repository again after it has been released must not affect the
+            // repository that reused its store
+            firstTempRepository.shutDown();
+            Assert.assertTrue(secondTempRepository.isInitialized());
+            
+            try
+            {
+                firstTempRepository.getConnection();
+                Assert.fail("Should have thrown an IllegalStateException");
+            }
+            catch(final IllegalStateException e)
+            {
+            }
+        }
+        finally
+        {
+            secondTempRepository.shutDown();
+        }
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.impl.PoddRepositoryManagerImpl#getManagementRepositoryConnection()}.
@@ -351,6 +449,39 @@ public abstract class AbstractPoddRepositoryManagerTest
         }
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.impl.PoddRepositoryManagerImpl#getPermanentRepositoryConnection(java.util.Set)}
+     * that checks that schema ontologies with and without inferred ontology IRIs share the same
+     * permanent repository.
+     */
+    @Test
+    public final void testGetPermanentRepositoryInferredSchemaShared() throws Exception
+    {
+        final RepositoryConnection permanentConnection1 =
+                this.testRepositoryManager.getPermanentRepositoryConnection(Collections
+                        .<OWLOntologyID> singleton(this.testOntologyID));
+        try
+        {
+            final RepositoryConnection permanentConnection2 =
+                    this.testRepositoryManager.getPermanentRepositoryConnection(Collections
+                            .<OWLOntologyID> singleton(this.testOntologyID.getBaseOWLOntologyID()));
+            try
+            {
+                Assert.assertSame("Schema ontologies did not share a permanent repository",
+                        permanentConnection1.getRepository(), permanentConnection2.getRepository());
+            }
+            finally
+            {
+                permanentConnection2.close();
+            }
+        }
+        finally
+        {
+            permanentConnection1.close();
+        }
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.impl.PoddRepositoryManagerImpl#getManagementRepositoryConnection()}.
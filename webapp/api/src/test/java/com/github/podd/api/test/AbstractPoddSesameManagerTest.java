@@ -51,6 +51,7 @@ import org.semanticweb.owlapi.model.OWLOntologyID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.podd.api.ChildObjectOrder;
 import com.github.podd.api.MetadataPolicy;
 import com.github.podd.api.PoddSesameManager;
 import com.github.podd.exception.UnmanagedArtifactIRIException;
@@ -59,6 +60,7 @@ import com.github.podd.utils.DebugUtils;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.OntologyUtils;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddChildObjectPage;
 import com.github.podd.utils.PoddObjectLabel;
 
 /**
@@ -555,6 +557,49 @@ public abstract class AbstractPoddSesameManagerTest
         }
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddSesameManager#getArtifactsByPublicationStatus(boolean, boolean, int, int, RepositoryConnection, URI)}
+     * .
+     */
+    @Test
+    public void testGetArtifactsByPublicationStatus() throws Exception
+    {
+        final List<InferredOWLOntologyID> artifacts = new ArrayList<>();
+        for(int i = 1; i <= 3; i++)
+        {
+            final InferredOWLOntologyID nextArtifact =
+                    new InferredOWLOntologyID(IRI.create("http://purl.org/podd/99-99/artifact:" + i),
+                            IRI.create("http://purl.org/podd/99-99/artifact:" + i + ":version:1"),
+                            IRI.create("urn:inferred:http://purl.org/podd/99-99/artifact:" + i + ":version:1"));
+            this.testPoddSesameManager.updateManagedPoddArtifactVersion(nextArtifact, true,
+                    this.testRepositoryConnection, this.artifactGraph);
+            artifacts.add(nextArtifact);
+        }
+        this.testPoddSesameManager.setPublished(true, artifacts.get(1), this.testRepositoryConnection,
+                this.artifactGraph);
+        
+        final List<InferredOWLOntologyID> published =
+                this.testPoddSesameManager.getArtifactsByPublicationStatus(true, false, -1, 0,
+                        this.testRepositoryConnection, this.artifactGraph);
+        Assert.assertEquals(Arrays.asList(artifacts.get(1)), published);
+        
+        final List<InferredOWLOntologyID> unpublished =
+                this.testPoddSesameManager.getArtifactsByPublicationStatus(false, true, -1, 0,
+                        this.testRepositoryConnection, this.artifactGraph);
+        Assert.assertEquals(Arrays.asList(artifacts.get(0), artifacts.get(2)), unpublished);
+        
+        final List<InferredOWLOntologyID> all =
+                this.testPoddSesameManager.getArtifactsByPublicationStatus(true, true, -1, 0,
+                        this.testRepositoryConnection, this.artifactGraph);
+        Assert.assertEquals(artifacts, all);
+        
+        final List<InferredOWLOntologyID> secondPage =
+                this.testPoddSesameManager.getArtifactsByPublicationStatus(true, true, 2, 2,
+                        this.testRepositoryConnection, this.artifactGraph);
+        Assert.assertEquals(Arrays.asList(artifacts.get(2)), secondPage);
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.api.PoddSesameManager#getCardinalityValues(InferredOWLOntologyID, URI, Collection, RepositoryConnection, URI)}
@@ -1846,6 +1891,129 @@ public abstract class AbstractPoddSesameManagerTest
         }
     }
     
+    /**
+     * Test that the materialised schema hierarchy gives the same children and weighted properties
+     * as the queries that are used without it.
+     */
+    @Test
+    public void testGetWeightedPropertiesWithMaterialisedSchemaHierarchy() throws Exception
+    {
+        // prepare: load schema ontologies and test artifact
+        final List<InferredOWLOntologyID> schemaOntologies = this.loadSchemaOntologies();
+        final InferredOWLOntologyID nextOntologyID =
+                this.loadOntologyFromResource(TestConstants.TEST_ARTIFACT_20130206,
+                        TestConstants.TEST_ARTIFACT_20130206_INFERRED, RDFFormat.TURTLE);
+        
+        final URI topObjectUri =
+                this.testPoddSesameManager.getTopObjectIRI(nextOntologyID, this.testRepositoryConnection);
+        
+        final URI[] contexts =
+                this.testPoddSesameManager.versionAndSchemaContexts(nextOntologyID, this.testRepositoryConnection,
+                        this.schemaGraph, this.artifactGraph);
+        
+        Assert.assertNull(this.testPoddSesameManager.getSchemaHierarchy(contexts));
+        final Set<URI> expectedChildren =
+                this.testPoddSesameManager.getChildObjects(topObjectUri, this.testRepositoryConnection, contexts);
+        final List<URI> expectedProperties =
+                this.testPoddSesameManager.getWeightedProperties(topObjectUri, true, this.testRepositoryConnection,
+                        contexts);
+        Assert.assertFalse(expectedChildren.isEmpty());
+        
+        for(final InferredOWLOntologyID nextSchemaOntology : schemaOntologies)
+        {
+            this.testPoddSesameManager.materialiseSchemaHierarchy(nextSchemaOntology, this.testRepositoryConnection);
+        }
+        
+        // verify:
+        Assert.assertNotNull(this.testPoddSesameManager.getSchemaHierarchy(contexts));
+        Assert.assertEquals(expectedChildren,
+                this.testPoddSesameManager.getChildObjects(topObjectUri, this.testRepositoryConnection, contexts));
+        Assert.assertEquals(expectedChildren.size(),
+                this.testPoddSesameManager.getChildObjectCount(topObjectUri, this.testRepositoryConnection, contexts));
+        Assert.assertEquals(expectedProperties, this.testPoddSesameManager.getWeightedProperties(topObjectUri, true,
+                this.testRepositoryConnection, contexts));
+    }
+    
+    /**
+     * Test method for
+     * {@link PoddSesameManager#getChildObjectLabels}
+     * that checks that following the cursors returns every child once, in the same order as a
+     * single page, with and without the materialised schema hierarchy.
+     */
+    @Test
+    public void testGetChildObjectLabelsPaging() throws Exception
+    {
+        // prepare: load schema ontologies and test artifact
+        final List<InferredOWLOntologyID> schemaOntologies = this.loadSchemaOntologies();
+        final InferredOWLOntologyID nextOntologyID =
+                this.loadOntologyFromResource(TestConstants.TEST_ARTIFACT_20130206,
+                        TestConstants.TEST_ARTIFACT_20130206_INFERRED, RDFFormat.TURTLE);
+        
+        final URI topObjectUri =
+                this.testPoddSesameManager.getTopObjectIRI(nextOntologyID, this.testRepositoryConnection);
+        
+        final URI[] contexts =
+                this.testPoddSesameManager.versionAndSchemaContexts(nextOntologyID, this.testRepositoryConnection,
+                        this.schemaGraph, this.artifactGraph);
+        
+        final Set<URI> expectedChildren =
+                this.testPoddSesameManager.getChildObjects(topObjectUri, this.testRepositoryConnection, contexts);
+        Assert.assertTrue(expectedChildren.size() > 2);
+        
+        this.verifyChildObjectLabelsPaging(nextOntologyID, topObjectUri, expectedChildren, contexts);
+        
+        for(final InferredOWLOntologyID nextSchemaOntology : schemaOntologies)
+        {
+            this.testPoddSesameManager.materialiseSchemaHierarchy(nextSchemaOntology, this.testRepositoryConnection);
+        }
+        Assert.assertNotNull(this.testPoddSesameManager.getSchemaHierarchy(contexts));
+        
+        this.verifyChildObjectLabelsPaging(nextOntologyID, topObjectUri, expectedChildren, contexts);
+    }
+    
+    private void verifyChildObjectLabelsPaging(final InferredOWLOntologyID ontologyID, final URI objectUri,
+            final Set<URI> expectedChildren, final URI... contexts) throws Exception
+    {
+        Assert.assertEquals(expectedChildren.size(),
+                this.testPoddSesameManager.getChildObjectCount(objectUri, this.testRepositoryConnection, contexts));
+        
+        for(final ChildObjectOrder order : ChildObjectOrder.values())
+        {
+            final PoddChildObjectPage allChildren =
+                    this.testPoddSesameManager.getChildObjectLabels(ontologyID, objectUri, order, null,
+                            expectedChildren.size() + 1, this.testRepositoryConnection, contexts);
+            Assert.assertFalse(allChildren.hasNext());
+            Assert.assertEquals(expectedChildren.size(), allChildren.getChildren().size());
+            
+            for(int pageSize = 1; pageSize <= 2; pageSize++)
+            {
+                final List<URI> pagedChildren = new ArrayList<URI>();
+                String cursor = null;
+                do
+                {
+                    final PoddChildObjectPage page =
+                            this.testPoddSesameManager.getChildObjectLabels(ontologyID, objectUri, order, cursor,
+                                    pageSize, this.testRepositoryConnection, contexts);
+                    Assert.assertTrue(page.getChildren().size() <= pageSize);
+                    for(final PoddObjectLabel nextChild : page.getChildren())
+                    {
+                        pagedChildren.add(nextChild.getObjectURI());
+                    }
+                    cursor = page.getNextCursor();
+                }
+                while(cursor != null);
+                
+                final List<URI> expectedOrder = new ArrayList<URI>();
+                for(final PoddObjectLabel nextChild : allChildren.getChildren())
+                {
+                    expectedOrder.add(nextChild.getObjectURI());
+                }
+                Assert.assertEquals(expectedOrder, pagedChildren);
+                Assert.assertEquals(expectedChildren, new HashSet<URI>(pagedChildren));
+            }
+        }
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.api.PoddSesameManager#isPublished(org.semanticweb.owlapi.model.OWLOntologyID)}
@@ -0,0 +1,79 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils.test;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.podd.utils.PoddLruCache;
+
+/**
+ * Tests for the bounded least recently used cache.
+ */
+public class PoddLruCacheTest
+{
+    private PoddLruCache<String, Integer> testCache;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        this.testCache = new PoddLruCache<>(2);
+    }
+    
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception
+    {
+        this.testCache.put("a", 1);
+        this.testCache.put("b", 2);
+        
+        // Reading "a" makes "b" the least recently used entry
+        Assert.assertEquals(Integer.valueOf(1), this.testCache.get("a"));
+        this.testCache.put("c", 3);
+        
+        Assert.assertEquals(2, this.testCache.size());
+        Assert.assertEquals(Arrays.asList("a", "c"), this.testCache.getKeys());
+        Assert.assertNull(this.testCache.get("b"));
+    }
+    
+    @Test
+    public void testHitAndMissCounts() throws Exception
+    {
+        this.testCache.put("a", 1);
+        this.testCache.get("a");
+        this.testCache.get("b");
+        this.testCache.recordHit();
+        
+        Assert.assertEquals(2, this.testCache.getHitCount());
+        Assert.assertEquals(1, this.testCache.getMissCount());
+    }
+    
+    @Test
+    public void testRemove() throws Exception
+    {
+        this.testCache.put("a", 1);
+        this.testCache.put("b", 2);
+        
+        Assert.assertEquals(Integer.valueOf(1), this.testCache.remove("a"));
+        Assert.assertNull(this.testCache.remove("a"));
+        
+        this.testCache.removeAll(Arrays.asList("b", "c"));
+        Assert.assertEquals(0, this.testCache.size());
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils.test;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.impl.MapBindingSet;
+import org.openrdf.query.resultio.helpers.QueryResultCollector;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.base.RepositoryConnectionWrapper;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.SparqlQueryRegistry;
+import com.github.podd.utils.SparqlQueryRegistry.QueryTemplate;
+
+/**
+ * Tests for the shared SPARQL query template registry.
+ */
+public class SparqlQueryRegistryTest
+{
+    private final URI context = PODD.VF.createURI("urn:test:context");
+    
+    private final URI object1 = PODD.VF.createURI("urn:test:object1");
+    
+    private final URI object2 = PODD.VF.createURI("urn:test:object2");
+    
+    private Repository testRepository;
+    
+    private RepositoryConnection testConnection;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        this.testRepository = new SailRepository(new MemoryStore());
+        this.testRepository.initialize();
+        this.testConnection = this.testRepository.getConnection();
+        
+        this.testConnection.add(this.object1, RDFS.LABEL, PODD.VF.createLiteral("Object 1"), this.context);
+        this.testConnection.add(this.object2, RDFS.LABEL, PODD.VF.createLiteral("Object 2"), this.context);
+        // Not in the queried context
+        this.testConnection.add(this.object1, RDFS.COMMENT, PODD.VF.createLiteral("Comment"));
+    }
+    
+    @After
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            if(this.testConnection != null)
+            {
+                this.testConnection.close();
+            }
+        }
+        finally
+        {
+            if(this.testRepository != null)
+            {
+                this.testRepository.shutDown();
+            }
+        }
+    }
+    
+    @Test
+    public void testEvaluateBooleanQuery() throws Exception
+    {
+        final QueryTemplate template =
+                SparqlQueryRegistry.getTemplate("testEvaluateBooleanQuery", "ASK { ?object <" + RDFS.LABEL
+                        + "> ?label . }");
+        
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("object", this.object1);
+        Assert.assertTrue(template.evaluateBooleanQuery(this.testConnection, bindings,
+                SparqlQueryRegistry.getDataset(this.context)));
+        
+        bindings.addBinding("label", PODD.VF.createLiteral("Object 2"));
+        Assert.assertFalse(template.evaluateBooleanQuery(this.testConnection, bindings,
+                SparqlQueryRegistry.getDataset(this.context)));
+    }
+    
+    @Test
+    public void testEvaluateGraphQuery() throws Exception
+    {
+        final QueryTemplate template =
+                SparqlQueryRegistry.getTemplate("testEvaluateGraphQuery", "CONSTRUCT { ?object ?property ?value . } "
+                        + "WHERE { ?object ?property ?value . }");
+        
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("object", this.object1);
+        
+        final Model results = template.evaluateGraphQuery(this.testConnection, bindings, this.context);
+        
+        Assert.assertEquals(1, results.size());
+        Assert.assertTrue(results.contains(this.object1, RDFS.LABEL, PODD.VF.createLiteral("Object 1")));
+    }
+    
+    @Test
+    public void testEvaluateTupleQuery() throws Exception
+    {
+        final QueryTemplate template =
+                SparqlQueryRegistry.getTemplate("testEvaluateTupleQuery", "SELECT ?label WHERE { ?object <"
+                        + RDFS.LABEL + "> ?label . }");
+        final long executionsBefore = template.getExecutionCount();
+        
+        for(final URI nextObject : new URI[] { this.object1, this.object2 })
+        {
+            final MapBindingSet bindings = new MapBindingSet();
+            bindings.addBinding("object", nextObject);
+            
+            final QueryResultCollector results =
+                    template.evaluateTupleQuery(this.testConnection, bindings, this.context);
+            
+            Assert.assertEquals(1, results.getBindingSets().size());
+            Assert.assertEquals(this.testConnection.getStatements(nextObject, RDFS.LABEL, null, false).next()
+                    .getObject(), results.getBindingSets().get(0).getValue("label"));
+        }
+        
+        Assert.assertEquals(executionsBefore + 2, template.getExecutionCount());
+        
+        long histogramTotal = 0;
+        for(final long nextBucket : template.getLatencyHistogram())
+        {
+            histogramTotal += nextBucket;
+        }
+        Assert.assertEquals(template.getExecutionCount(), histogramTotal);
+        Assert.assertEquals(SparqlQueryRegistry.getLatencyBucketLimitsMillis().length + 1,
+                template.getLatencyHistogram().length);
+    }
+    
+    @Test
+    public void testEvaluateTupleQueryOnWrappedConnection() throws Exception
+    {
+        final QueryTemplate template =
+                SparqlQueryRegistry.getTemplate("testEvaluateTupleQueryOnWrappedConnection",
+                        "SELECT ?object WHERE { ?object <" + RDFS.LABEL + "> ?label . }");
+        
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("label", PODD.VF.createLiteral("Object 2"));
+        
+        final QueryResultCollector results =
+                template.evaluateTupleQuery(new RepositoryConnectionWrapper(this.testRepository,
+                        this.testConnection), bindings, this.context);
+        
+        Assert.assertEquals(1, results.getBindingSets().size());
+        Assert.assertEquals(this.object2, results.getBindingSets().get(0).getValue("object"));
+    }
+    
+    @Test
+    public void testGetTemplate() throws Exception
+    {
+        final String query = "SELECT ?object WHERE { ?object <" + RDFS.COMMENT + "> ?comment . }";
+        
+        final QueryTemplate template = SparqlQueryRegistry.getTemplate("testGetTemplate", query);
+        
+        Assert.assertSame(template, SparqlQueryRegistry.getTemplate("testGetTemplate", query));
+        Assert.assertTrue(SparqlQueryRegistry.getTemplates().contains(template));
+        Assert.assertEquals(query, template.getQuery());
+        Assert.assertEquals("testGetTemplate", template.getName());
+    }
+    
+    @Test(expected = MalformedQueryException.class)
+    public void testGetTemplateMalformed() throws Exception
+    {
+        SparqlQueryRegistry.getTemplate("testGetTemplateMalformed", "SELECT ?object WHERE { ?object ");
+    }
+}
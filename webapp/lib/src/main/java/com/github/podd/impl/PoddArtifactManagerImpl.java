@@ -21,20 +21,30 @@ import info.aduna.iteration.Iterations;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.openrdf.OpenRDFException;
+import org.openrdf.model.BNode;
 import org.openrdf.model.Literal;
 import org.openrdf.model.Model;
 import org.openrdf.model.Resource;
@@ -45,27 +55,37 @@ import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.util.Namespaces;
 import org.openrdf.model.vocabulary.OWL;
 import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.RepositoryResult;
+import org.openrdf.repository.util.RDFInserter;
 import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.RDFParser;
 import org.openrdf.rio.Rio;
 import org.openrdf.rio.UnsupportedRDFormatException;
 import org.openrdf.rio.helpers.StatementCollector;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLException;
 import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.rio.RioMemoryTripleSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.clarkparsia.owlapi.explanation.GlassBoxExplanation;
+import com.github.podd.api.ChildObjectOrder;
 import com.github.podd.api.DanglingObjectPolicy;
 import com.github.podd.api.DataReferenceVerificationPolicy;
+import com.github.podd.api.InferenceJobStatus;
+import com.github.podd.api.InferencePolicy;
 import com.github.podd.api.MetadataPolicy;
 import com.github.podd.api.PoddArtifactManager;
 import com.github.podd.api.PoddOWLManager;
+import com.github.podd.api.PoddProcessorStage;
 import com.github.podd.api.PoddRepositoryManager;
 import com.github.podd.api.PoddSchemaManager;
 import com.github.podd.api.PoddSesameManager;
@@ -74,6 +94,7 @@ import com.github.podd.api.data.DataReference;
 import com.github.podd.api.data.DataReferenceManager;
 import com.github.podd.api.data.PoddDataRepositoryManager;
 import com.github.podd.api.purl.PoddPurlManager;
+import com.github.podd.api.purl.PoddPurlProcessorFactory;
 import com.github.podd.api.purl.PoddPurlReference;
 import com.github.podd.exception.ArtifactModifyException;
 import com.github.podd.exception.DataReferenceVerificationException;
@@ -92,11 +113,24 @@ import com.github.podd.exception.SchemaManifestException;
 import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.exception.UnmanagedArtifactVersionException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
+import com.github.podd.impl.PoddManagementGraphIndex.ManagementConnection;
+import com.github.podd.impl.PoddManagementGraphIndex.ManagementGraph;
+import com.github.podd.impl.PoddObjectMetadataCache.CachedObjectMetadata;
+import com.github.podd.impl.ingest.PrivilegedAssertionFilterStage;
+import com.github.podd.impl.ingest.PurlRewritingStage;
+import com.github.podd.impl.ingest.SchemaImportVersionStage;
+import com.github.podd.impl.ingest.TimestampDefaultingStage;
+import com.github.podd.utils.ArtifactLoadResult;
+import com.github.podd.utils.InferenceJob;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.OntologyUtils;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddChildObjectPage;
+import com.github.podd.utils.PoddObjectDisplayBundle;
 import com.github.podd.utils.PoddObjectLabel;
+import com.github.podd.utils.PoddObjectLabelImpl;
 import com.github.podd.utils.RdfUtility;
+import com.github.podd.utils.RepositoryResultIterator;
 
 /**
  * Implementation of the PODD Artifact Manager API, to manage the lifecycle for PODD Artifacts.
@@ -111,6 +145,42 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         GlassBoxExplanation.setup();
     }
     
+    /**
+     * Updates which touch more than this fraction of the statements in an artifact are reasoned
+     * over completely, as incremental inferencing would not save any time.
+     */
+    private static final double MAX_INCREMENTAL_FRACTION = 0.5;
+    
+    /**
+     * Predicates whose effect on inferencing is not limited to the objects they describe.
+     */
+    private static final Set<URI> NON_LOCAL_PREDICATES = new HashSet<URI>(Arrays.asList(RDFS.SUBCLASSOF,
+            RDFS.SUBPROPERTYOF, RDFS.DOMAIN, RDFS.RANGE, OWL.EQUIVALENTCLASS, OWL.EQUIVALENTPROPERTY, OWL.INVERSEOF,
+            OWL.SAMEAS, OWL.IMPORTS));
+    
+    /**
+     * Types whose effect on inferencing is not limited to the objects they describe.
+     */
+    private static final Set<URI> NON_LOCAL_TYPES = new HashSet<URI>(Arrays.asList(OWL.CLASS, OWL.OBJECTPROPERTY,
+            OWL.DATATYPEPROPERTY, OWL.TRANSITIVEPROPERTY, OWL.RESTRICTION, OWL.ONTOLOGY, RDF.PROPERTY));
+    
+    /**
+     * The number of background inference jobs to remember the status of.
+     */
+    private static final int MAX_INFERENCE_JOBS = 1000;
+    
+    /**
+     * A rough size of a serialised statement, used to estimate the number of statements in an
+     * uploaded artifact before it is parsed.
+     */
+    private static final int ESTIMATED_BYTES_PER_STATEMENT = 100;
+    
+    /**
+     * The number of locks that artifacts are spread over. Artifacts that share a lock are
+     * serialised with each other, which is safe as only one artifact is locked at a time.
+     */
+    private static final int ARTIFACT_LOCK_STRIPES = 64;
+    
     private final Logger log = LoggerFactory.getLogger(this.getClass());
     
     private DataReferenceManager dataReferenceManager;
@@ -122,11 +192,48 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
     
     private PoddSesameManager sesameManager;
     
+    private InferencePolicy inferencePolicy = InferencePolicy.FULL;
+    
+    private boolean deltaVersionStorage = false;
+    
+    private final PoddVersionDeltaStore versionDeltaStore = new PoddVersionDeltaStore();
+    
+    private final PoddObjectMetadataCache objectMetadataCache = new PoddObjectMetadataCache();
+    
+    private boolean asynchronousInferences = false;
+    
+    private ExecutorService inferenceExecutor;
+    
+    /**
+     * Locks that serialise changes to the stored versions of each artifact, selected by the hash of
+     * the artifact IRI so that the number of locks does not grow with the number of artifacts.
+     */
+    private final Lock[] artifactLocks = new Lock[PoddArtifactManagerImpl.ARTIFACT_LOCK_STRIPES];
+    
+    /**
+     * The most recent background inference jobs, keyed by artifact version IRI.
+     */
+    private final Map<IRI, InferenceJob> inferenceJobs = Collections
+            .synchronizedMap(new LinkedHashMap<IRI, InferenceJob>()
+                {
+                    private static final long serialVersionUID = 1L;
+                    
+                    @Override
+                    protected boolean removeEldestEntry(final Map.Entry<IRI, InferenceJob> eldest)
+                    {
+                        return this.size() > PoddArtifactManagerImpl.MAX_INFERENCE_JOBS;
+                    }
+                });
+    
     /**
      * 
      */
     public PoddArtifactManagerImpl()
     {
+        for(int i = 0; i < this.artifactLocks.length; i++)
+        {
+            this.artifactLocks[i] = new ReentrantLock();
+        }
     }
     
     @Override
@@ -170,6 +277,196 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         return OntologyUtils.modelToOntologyIDs(resultModel, true, false).get(0);
     }
     
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#checkArtifactExport(com.github.podd.utils.
+     * InferredOWLOntologyID, boolean)
+     */
+    @Override
+    public void checkArtifactExport(final InferredOWLOntologyID ontologyId, final boolean includeInferred)
+        throws OpenRDFException, PoddException, IOException
+    {
+        this.checkExportIDs(ontologyId, includeInferred);
+        
+        RepositoryConnection conn = null;
+        RepositoryConnection managementConnection = null;
+        
+        try
+        {
+            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyId);
+            conn = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            
+            final InferredOWLOntologyID deltaVersion =
+                    this.versionDeltaStore.getDeltaVersion(ontologyId.getVersionIRI(), managementConnection,
+                            this.getRepositoryManager().getArtifactManagementGraph());
+            if(deltaVersion == null
+                    && !conn.hasStatement(null, null, null, false, ontologyId.getVersionIRI().toOpenRDFURI()))
+            {
+                throw new UnmanagedArtifactVersionException(ontologyId.getOntologyIRI(), ontologyId.getVersionIRI(),
+                        ontologyId.getVersionIRI(), "Artifact version was not found in the permanent repository");
+            }
+        }
+        finally
+        {
+            try
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+            finally
+            {
+                if(conn != null)
+                {
+                    conn.close();
+                }
+            }
+        }
+    }
+    
+    private void checkExportIDs(final InferredOWLOntologyID ontologyId, final boolean includeInferred)
+    {
+        if(ontologyId.getOntologyIRI() == null || ontologyId.getVersionIRI() == null)
+        {
+            throw new PoddRuntimeException("Ontology IRI and Version IRI cannot be null");
+        }
+        
+        if(includeInferred && ontologyId.getInferredOntologyIRI() == null)
+        {
+            throw new PoddRuntimeException("Inferred Ontology IRI cannot be null");
+        }
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#compactVersionDeltas(int)
+     */
+    @Override
+    public int compactVersionDeltas(final int maxChainLength) throws OpenRDFException, PoddException, IOException
+    {
+        if(maxChainLength < 1)
+        {
+            throw new IllegalArgumentException("Maximum delta chain length must be positive");
+        }
+        
+        int snapshots = 0;
+        for(final InferredOWLOntologyID nextArtifact : this.listArtifacts(true, true, -1, 0))
+        {
+            final Lock artifactLock = this.getArtifactLock(nextArtifact.getOntologyIRI());
+            artifactLock.lock();
+            try
+            {
+                snapshots += this.compactVersionDeltas(nextArtifact, maxChainLength);
+            }
+            finally
+            {
+                artifactLock.unlock();
+            }
+        }
+        return snapshots;
+    }
+    
+    private int compactVersionDeltas(final InferredOWLOntologyID artifactId, final int maxChainLength)
+        throws OpenRDFException, PoddException, IOException
+    {
+        RepositoryConnection permanentConnection = null;
+        RepositoryConnection managementConnection = null;
+        
+        final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(artifactId);
+        final URI artifactManagementGraph = this.getRepositoryManager().getArtifactManagementGraph();
+        
+        try
+        {
+            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            permanentConnection.begin();
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            managementConnection.begin();
+            
+            final List<InferredOWLOntologyID> deltaVersions =
+                    this.versionDeltaStore.getDeltaVersions(artifactId.getOntologyIRI(), managementConnection,
+                            artifactManagementGraph);
+            
+            // Work from the newest to the oldest version, so that each snapshot shortens the chains
+            // for all of the older versions
+            final Map<InferredOWLOntologyID, Integer> chainLengths = new HashMap<InferredOWLOntologyID, Integer>();
+            for(final InferredOWLOntologyID nextVersion : deltaVersions)
+            {
+                chainLengths.put(nextVersion,
+                        this.versionDeltaStore.getDeltaChain(nextVersion.getVersionIRI().toOpenRDFURI(),
+                                managementConnection, artifactManagementGraph).size());
+            }
+            Collections.sort(deltaVersions, new Comparator<InferredOWLOntologyID>()
+                {
+                    @Override
+                    public int compare(final InferredOWLOntologyID o1, final InferredOWLOntologyID o2)
+                    {
+                        return chainLengths.get(o1).compareTo(chainLengths.get(o2));
+                    }
+                });
+            
+            int snapshots = 0;
+            for(final InferredOWLOntologyID nextVersion : deltaVersions)
+            {
+                // The chain includes the version itself, so it is one longer than the number of
+                // deltas that need to be replayed
+                final int deltas =
+                        this.versionDeltaStore.getDeltaChain(nextVersion.getVersionIRI().toOpenRDFURI(),
+                                managementConnection, artifactManagementGraph).size() - 1;
+                if(deltas > maxChainLength)
+                {
+                    this.versionDeltaStore.snapshot(nextVersion, permanentConnection, managementConnection,
+                            artifactManagementGraph);
+                    snapshots++;
+                }
+            }
+            
+            permanentConnection.commit();
+            managementConnection.commit();
+            
+            return snapshots;
+        }
+        catch(final Throwable e)
+        {
+            try
+            {
+                if(managementConnection != null && managementConnection.isActive())
+                {
+                    managementConnection.rollback();
+                }
+            }
+            finally
+            {
+                if(permanentConnection != null && permanentConnection.isActive())
+                {
+                    permanentConnection.rollback();
+                }
+            }
+            
+            throw e;
+        }
+        finally
+        {
+            try
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+            finally
+            {
+                if(permanentConnection != null)
+                {
+                    permanentConnection.close();
+                }
+            }
+        }
+    }
+    
     @Override
     public boolean deleteArtifact(final InferredOWLOntologyID artifactId) throws PoddException,
         UnsupportedRDFormatException, OpenRDFException, IOException
@@ -182,9 +479,10 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         RepositoryConnection permanentConnection = null;
         RepositoryConnection managementConnection = null;
         
-        List<InferredOWLOntologyID> requestedArtifactIds = null;
         final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(artifactId);
         
+        final Lock artifactLock = this.getArtifactLock(artifactId.getOntologyIRI());
+        artifactLock.lock();
         try
         {
             permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
@@ -198,7 +496,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
                 throw new DeleteArtifactException("Published Artifacts cannot be deleted", artifactId);
             }
             
-            requestedArtifactIds =
+            List<InferredOWLOntologyID> requestedArtifactIds =
                     this.getSesameManager().getAllOntologyVersions(artifactId.getOntologyIRI(), managementConnection,
                             this.getRepositoryManager().getArtifactManagementGraph());
             
@@ -217,6 +515,9 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             
             this.getSesameManager().deleteOntologies(requestedArtifactIds, permanentConnection, managementConnection,
                     this.getRepositoryManager().getArtifactManagementGraph());
+            // Previous versions cannot be reconstructed without the current version
+            this.versionDeltaStore.deleteDeltas(artifactId.getOntologyIRI(), permanentConnection,
+                    managementConnection, this.getRepositoryManager().getArtifactManagementGraph());
             permanentConnection.commit();
             managementConnection.commit();
             
@@ -254,6 +555,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
         finally
         {
+            artifactLock.unlock();
+            
             try
             {
                 if(managementConnection != null)
@@ -278,38 +581,6 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
                 {
                     this.log.error("Found error closing repository connection", e);
                 }
-                finally
-                {
-                    // - ensure deleted ontologies are removed from the
-                    // OWLOntologyManager's cache
-                    if(requestedArtifactIds != null)
-                    {
-                        for(final InferredOWLOntologyID deletedOntologyId : requestedArtifactIds)
-                        {
-                            try
-                            {
-                                this.getOWLManager().removeCache(deletedOntologyId.getBaseOWLOntologyID(),
-                                        schemaImports);
-                            }
-                            catch(final OWLException e)
-                            {
-                                this.log.error("Found error clearing cache", e);
-                            }
-                            finally
-                            {
-                                try
-                                {
-                                    this.getOWLManager().removeCache(deletedOntologyId.getInferredOWLOntologyID(),
-                                            schemaImports);
-                                }
-                                catch(final OWLException e)
-                                {
-                                    this.log.error("Found error clearing cache", e);
-                                }
-                            }
-                        }
-                    }
-                }
             }
         }
         
@@ -386,15 +657,22 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
     public Model exportArtifact(final InferredOWLOntologyID ontologyId, final boolean includeInferred)
         throws OpenRDFException, PoddException, IOException
     {
-        if(ontologyId.getOntologyIRI() == null || ontologyId.getVersionIRI() == null)
-        {
-            throw new PoddRuntimeException("Ontology IRI and Version IRI cannot be null");
-        }
-        
-        if(includeInferred && ontologyId.getInferredOntologyIRI() == null)
-        {
-            throw new PoddRuntimeException("Inferred Ontology IRI cannot be null");
-        }
+        final Model model = new LinkedHashModel();
+        this.exportArtifact(ontologyId, new StatementCollector(model), includeInferred);
+        return model;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#exportArtifact(com.github.podd.utils.
+     * InferredOWLOntologyID, org.openrdf.rio.RDFHandler, boolean)
+     */
+    @Override
+    public void exportArtifact(final InferredOWLOntologyID ontologyId, final RDFHandler handler,
+            final boolean includeInferred) throws OpenRDFException, PoddException, IOException
+    {
+        this.checkExportIDs(ontologyId, includeInferred);
         
         List<URI> contexts;
         
@@ -410,23 +688,75 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
         
         RepositoryConnection conn = null;
+        RepositoryConnection managementConnection = null;
         
         try
         {
             final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyId);
             conn = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             
-            return this.exportArtifactInternal(includeInferred, conn, contexts.toArray(new Resource[] {}));
+            final InferredOWLOntologyID deltaVersion =
+                    this.versionDeltaStore.getDeltaVersion(ontologyId.getVersionIRI(), managementConnection,
+                            this.getRepositoryManager().getArtifactManagementGraph());
+            if(deltaVersion != null)
+            {
+                // Delta encoded versions can only be rebuilt in memory by replaying their deltas
+                final Model model =
+                        this.versionDeltaStore.reconstruct(deltaVersion, includeInferred, conn,
+                                managementConnection, this.getRepositoryManager().getArtifactManagementGraph());
+                handler.startRDF();
+                for(final Statement nextStatement : model)
+                {
+                    handler.handleStatement(nextStatement);
+                }
+                handler.endRDF();
+            }
+            else
+            {
+                // Versions stored in full are streamed to the handler directly from the repository
+                conn.exportStatements(null, null, null, includeInferred, handler, contexts.toArray(new Resource[] {}));
+            }
         }
         finally
         {
-            if(conn != null)
+            try
             {
-                conn.close();
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+            finally
+            {
+                if(conn != null)
+                {
+                    conn.close();
+                }
             }
         }
     }
     
+    /**
+     * Estimates the number of statements in an input stream that has not been parsed yet, so that
+     * large artifacts can be given a suitable temporary repository.
+     * 
+     * @return The estimated number of statements, or 0 if the size of the stream is not known.
+     */
+    private long estimateStatements(final InputStream inputStream)
+    {
+        try
+        {
+            // Streams backed by files or byte arrays report their full remaining length here
+            return inputStream.available() / PoddArtifactManagerImpl.ESTIMATED_BYTES_PER_STATEMENT;
+        }
+        catch(final IOException e)
+        {
+            this.log.debug("Could not estimate the size of an input stream", e);
+            return 0;
+        }
+    }
+    
     private Model exportArtifactInternal(final boolean includeInferred, final RepositoryConnection permanentConnection,
             final Resource... contexts) throws OpenRDFException, PoddException, IOException
     {
@@ -440,99 +770,34 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
     public void exportArtifact(final InferredOWLOntologyID ontologyId, final OutputStream outputStream,
             final RDFFormat format, final boolean includeInferred) throws OpenRDFException, PoddException, IOException
     {
-        final Model model = this.exportArtifact(ontologyId, includeInferred);
-        Rio.write(model, outputStream, format);
+        this.exportArtifact(ontologyId, Rio.createWriter(format, outputStream), includeInferred);
     }
     
     @Override
     public void exportObjectMetadata(final URI objectType, final OutputStream outputStream, final RDFFormat format,
             final boolean includeDoNotDisplayProperties, final MetadataPolicy containsPropertyPolicy,
             final InferredOWLOntologyID artifactID) throws OpenRDFException, PoddException, IOException
+    {
+        this.getObjectMetadata(objectType, includeDoNotDisplayProperties, containsPropertyPolicy, artifactID).write(
+                outputStream, format);
+    }
+    
+    @Override
+    public Model fillMissingData(final InferredOWLOntologyID ontologyID, final Model inputModel)
+        throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
+        IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException
     {
         RepositoryConnection permanentConnection = null;
         RepositoryConnection managementConnection = null;
-        
         try
         {
-            Set<? extends OWLOntologyID> schemaImports;
-            
-            if(artifactID != null)
-            {
-                schemaImports = this.getSchemaImports(artifactID);
-            }
-            else
-            {
-                // If they don't have an artifact yet, we return the set of current schema
-                // ontologies
-                schemaImports = this.getSchemaManager().getCurrentSchemaOntologies();
-            }
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
-            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
-            final URI[] contexts =
-                    this.sesameManager.versionAndInferredAndSchemaContexts(artifactID, managementConnection,
-                            this.repositoryManager.getSchemaManagementGraph(),
-                            this.repositoryManager.getArtifactManagementGraph());
-            
-            Model model;
-            if(containsPropertyPolicy == MetadataPolicy.ONLY_CONTAINS)
-            {
-                model = this.sesameManager.getObjectTypeContainsMetadata(objectType, permanentConnection, contexts);
-            }
-            else if(containsPropertyPolicy == MetadataPolicy.EXCLUDE_CONTAINS)
-            {
-                model =
-                        this.sesameManager.getObjectTypeMetadata(objectType, includeDoNotDisplayProperties,
-                                containsPropertyPolicy, permanentConnection, contexts);
-            }
-            else if(containsPropertyPolicy == MetadataPolicy.INCLUDE_ALL)
-            {
-                model =
-                        this.sesameManager.getObjectTypeMetadata(objectType, includeDoNotDisplayProperties,
-                                containsPropertyPolicy, permanentConnection, contexts);
-            }
-            else
-            {
-                // Will need to implement the policy separately
-                throw new PoddRuntimeException("Did not recognise metadata policy: " + containsPropertyPolicy);
-            }
-            
-            Rio.write(model, outputStream, format);
-        }
-        finally
-        {
-            try
-            {
-                if(managementConnection != null)
-                {
-                    managementConnection.close();
-                }
-            }
-            finally
-            {
-                if(permanentConnection != null)
-                {
-                    permanentConnection.close();
-                }
-            }
-        }
-    }
-    
-    @Override
-    public Model fillMissingData(final InferredOWLOntologyID ontologyID, final Model inputModel)
-        throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
-        IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException
-    {
-        RepositoryConnection permanentConnection = null;
-        RepositoryConnection managementConnection = null;
-        try
-        {
-            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
-            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
-            final URI[] contexts =
-                    this.getSesameManager().versionAndInferredAndSchemaContexts(ontologyID, managementConnection,
-                            this.getRepositoryManager().getSchemaManagementGraph(),
-                            this.getRepositoryManager().getArtifactManagementGraph());
+            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
+            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            final URI[] contexts =
+                    this.getSesameManager().versionAndInferredAndSchemaContexts(ontologyID, managementConnection,
+                            this.getRepositoryManager().getSchemaManagementGraph(),
+                            this.getRepositoryManager().getArtifactManagementGraph());
             
             return this.getSesameManager().fillMissingLabels(inputModel, permanentConnection, contexts);
         }
@@ -613,6 +878,19 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
                 result =
                         this.getSesameManager().getOntologyVersion(versionIRI, managementConnection,
                                 this.getRepositoryManager().getArtifactManagementGraph());
+                
+                if(result == null)
+                {
+                    // Previous versions that are stored as deltas are not linked using
+                    // owl:versionIRI
+                    final InferredOWLOntologyID deltaVersion =
+                            this.versionDeltaStore.getDeltaVersion(versionIRI, managementConnection,
+                                    this.getRepositoryManager().getArtifactManagementGraph());
+                    if(deltaVersion != null && deltaVersion.getOntologyIRI().equals(artifactIRI))
+                    {
+                        return deltaVersion;
+                    }
+                }
             }
             
             if(result == null)
@@ -642,6 +920,63 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
+    /**
+     * 
+     * @param artifactIRI
+     *            The IRI of an artifact.
+     * @return The lock that must be held while the stored versions of the artifact are changed.
+     */
+    private Lock getArtifactLock(final IRI artifactIRI)
+    {
+        return this.artifactLocks[(artifactIRI.hashCode() & Integer.MAX_VALUE) % this.artifactLocks.length];
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * Wraps PoddSesameManager.getChildObjectCount()
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#getChildObjectCount()
+     */
+    @Override
+    public int getChildObjectCount(final InferredOWLOntologyID ontologyID, final URI objectUri)
+        throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
+        IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException
+    {
+        RepositoryConnection permanentConnection = null;
+        RepositoryConnection managementConnection = null;
+        try
+        {
+            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
+            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            
+            final URI[] contexts =
+                    this.getSesameManager().versionAndInferredAndSchemaContexts(ontologyID, managementConnection,
+                            this.getRepositoryManager().getSchemaManagementGraph(),
+                            this.getRepositoryManager().getArtifactManagementGraph());
+            
+            return this.getSesameManager().getChildObjectCount(objectUri, permanentConnection, contexts);
+        }
+        finally
+        {
+            try
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+            finally
+            {
+                if(permanentConnection != null)
+                {
+                    permanentConnection.close();
+                }
+            }
+        }
+    }
+    
     /*
      * (non-Javadoc)
      * 
@@ -688,6 +1023,56 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
+    /*
+     * (non-Javadoc)
+     * 
+     * Wraps PoddSesameManager.getChildObjectLabels()
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#getChildObjects(com.github.podd.utils.
+     * InferredOWLOntologyID, org.openrdf.model.URI, com.github.podd.api.ChildObjectOrder,
+     * java.lang.String, int)
+     */
+    @Override
+    public PoddChildObjectPage getChildObjects(final InferredOWLOntologyID ontologyID, final URI objectUri,
+            final ChildObjectOrder order, final String cursor, final int pageSize) throws OpenRDFException,
+        UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
+        UnmanagedArtifactIRIException, UnmanagedArtifactVersionException
+    {
+        RepositoryConnection permanentConnection = null;
+        RepositoryConnection managementConnection = null;
+        try
+        {
+            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
+            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            
+            final URI[] contexts =
+                    this.getSesameManager().versionAndInferredAndSchemaContexts(ontologyID, managementConnection,
+                            this.getRepositoryManager().getSchemaManagementGraph(),
+                            this.getRepositoryManager().getArtifactManagementGraph());
+            
+            return this.getSesameManager().getChildObjectLabels(ontologyID, objectUri, order, cursor, pageSize,
+                    permanentConnection, contexts);
+        }
+        finally
+        {
+            try
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+            finally
+            {
+                if(permanentConnection != null)
+                {
+                    permanentConnection.close();
+                }
+            }
+        }
+    }
+    
     /*
      * (non-Javadoc)
      * 
@@ -699,6 +1084,29 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         return this.dataReferenceManager;
     }
     
+    /**
+     * Creates a label for display from the labels found for it, falling back to its URI as
+     * {@link PoddSesameManager#getObjectLabel} does.
+     * 
+     * @return The label, or null if the given URI was null.
+     */
+    private PoddObjectLabel getDisplayLabel(final InferredOWLOntologyID artifactID, final URI uri, final Model labels)
+    {
+        if(uri == null)
+        {
+            return null;
+        }
+        
+        for(final Value nextLabel : labels.filter(uri, RDFS.LABEL, null).objects())
+        {
+            if(!nextLabel.stringValue().equals("?blank"))
+            {
+                return new PoddObjectLabelImpl(artifactID, uri, nextLabel.stringValue());
+            }
+        }
+        return new PoddObjectLabelImpl(artifactID, uri, uri.stringValue());
+    }
+    
     @Override
     public Set<DataReference> getFileReferences(final InferredOWLOntologyID artifactId)
     {
@@ -773,8 +1181,14 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#getObjectDisplayBundle(com.github.podd.utils.
+     * InferredOWLOntologyID, org.openrdf.model.URI)
+     */
     @Override
-    public PoddObjectLabel getObjectLabel(final InferredOWLOntologyID ontologyID, final URI objectUri)
+    public PoddObjectDisplayBundle getObjectDisplayBundle(final InferredOWLOntologyID artifactID, final URI objectUri)
         throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
         IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException
     {
@@ -782,13 +1196,102 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         RepositoryConnection managementConnection = null;
         try
         {
-            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            final Set<? extends OWLOntologyID> schemaImports =
+                    this.getSchemaImports(artifactID, managementConnection, this.getImportsModel(managementConnection));
             permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
             
-            return this.getSesameManager().getObjectLabel(ontologyID, objectUri, managementConnection,
-                    permanentConnection, this.getRepositoryManager().getSchemaManagementGraph(),
-                    this.getRepositoryManager().getArtifactManagementGraph());
+            final URI schemaManagementGraph = this.getRepositoryManager().getSchemaManagementGraph();
+            final URI artifactManagementGraph = this.getRepositoryManager().getArtifactManagementGraph();
+            final URI[] versionAndSchemaContexts =
+                    this.getSesameManager().versionAndSchemaContexts(artifactID, managementConnection,
+                            schemaManagementGraph, artifactManagementGraph);
+            final URI[] allContexts =
+                    this.getSesameManager().versionAndInferredAndSchemaContexts(artifactID, managementConnection,
+                            schemaManagementGraph, artifactManagementGraph);
+            
+            URI displayedUri = objectUri;
+            if(displayedUri == null)
+            {
+                final List<URI> topObjects = this.getSesameManager().getTopObjects(artifactID, permanentConnection);
+                if(topObjects.size() != 1)
+                {
+                    this.log.warn("Artifact did not have exactly one top object: {} {}", artifactID, topObjects);
+                    return null;
+                }
+                displayedUri = topObjects.get(0);
+            }
+            
+            final PoddObjectLabel object =
+                    this.getSesameManager().getObjectLabel(artifactID, displayedUri, managementConnection,
+                            permanentConnection, schemaManagementGraph, artifactManagementGraph);
+            final List<URI> objectTypes =
+                    this.getSesameManager().getObjectTypes(artifactID, displayedUri, managementConnection,
+                            permanentConnection, schemaManagementGraph, artifactManagementGraph);
+            final List<URI> orderedProperties =
+                    this.getSesameManager().getWeightedProperties(displayedUri, false, permanentConnection,
+                            versionAndSchemaContexts);
+            final Model displayModel =
+                    this.getSesameManager().getObjectDetailsForDisplay(artifactID, displayedUri, managementConnection,
+                            permanentConnection, schemaManagementGraph, artifactManagementGraph);
+            
+            // Without any properties, the query would find the cardinalities of every property
+            final Map<URI, URI> cardinalities = new HashMap<>();
+            if(!orderedProperties.isEmpty())
+            {
+                cardinalities.putAll(this.getSesameManager().getCardinalityValues(displayedUri, orderedProperties,
+                        false, permanentConnection, allContexts));
+            }
+            
+            final int childCount =
+                    this.getSesameManager().getChildObjectCount(displayedUri, permanentConnection, allContexts);
+            
+            URI parentUri = null;
+            URI parentRelationshipUri = null;
+            URI parentTypeUri = null;
+            final Model parentDetails =
+                    this.getSesameManager().getParentDetails(displayedUri, permanentConnection, allContexts);
+            if(parentDetails.size() == 1)
+            {
+                final Statement parentStatement = parentDetails.iterator().next();
+                parentUri = (URI)parentStatement.getSubject();
+                parentRelationshipUri = parentStatement.getPredicate();
+                final List<URI> parentTypes =
+                        this.getSesameManager().getObjectTypes(artifactID, parentUri, managementConnection,
+                                permanentConnection, schemaManagementGraph, artifactManagementGraph);
+                if(!parentTypes.isEmpty())
+                {
+                    parentTypeUri = parentTypes.get(0);
+                }
+            }
+            
+            // Find all of the remaining labels in a single query
+            final Model labels = new LinkedHashModel();
+            final Literal blankLabel = PODD.VF.createLiteral("?blank");
+            for(final URI nextUri : Arrays.asList(parentUri, parentRelationshipUri, parentTypeUri))
+            {
+                if(nextUri != null)
+                {
+                    labels.add(nextUri, RDFS.LABEL, blankLabel);
+                }
+            }
+            for(final URI nextType : objectTypes)
+            {
+                labels.add(nextType, RDFS.LABEL, blankLabel);
+            }
+            labels.addAll(this.getSesameManager().fillMissingLabels(labels, permanentConnection,
+                    versionAndSchemaContexts));
+            
+            final List<PoddObjectLabel> objectTypeLabels = new ArrayList<>(objectTypes.size());
+            for(final URI nextType : objectTypes)
+            {
+                objectTypeLabels.add(this.getDisplayLabel(artifactID, nextType, labels));
+            }
+            
+            return new PoddObjectDisplayBundle(object, objectTypeLabels, orderedProperties, displayModel,
+                    cardinalities, this.getDisplayLabel(artifactID, parentUri, labels), this.getDisplayLabel(
+                            artifactID, parentTypeUri, labels), this.getDisplayLabel(artifactID,
+                            parentRelationshipUri, labels), childCount);
         }
         finally
         {
@@ -809,37 +1312,22 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
-    /*
-     * (non-Javadoc)
-     * 
-     * @see com.github.podd.api.PoddArtifactManager#getObjectTypes(com.github.podd .utils.
-     * InferredOWLOntologyID, org.openrdf.model.URI)
-     */
     @Override
-    public List<PoddObjectLabel> getObjectTypes(final InferredOWLOntologyID artifactId, final URI objectUri)
+    public PoddObjectLabel getObjectLabel(final InferredOWLOntologyID ontologyID, final URI objectUri)
         throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
         IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException
     {
-        final List<PoddObjectLabel> results = new ArrayList<PoddObjectLabel>();
         RepositoryConnection permanentConnection = null;
         RepositoryConnection managementConnection = null;
-        
         try
         {
-            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(artifactId);
+            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
             
-            final List<URI> typesList =
-                    this.getSesameManager().getObjectTypes(artifactId, objectUri, managementConnection,
-                            permanentConnection, this.getRepositoryManager().getSchemaManagementGraph(),
-                            this.getRepositoryManager().getArtifactManagementGraph());
-            for(final URI objectType : typesList)
-            {
-                results.add(this.getSesameManager().getObjectLabel(artifactId, objectType, managementConnection,
-                        permanentConnection, this.getRepositoryManager().getSchemaManagementGraph(),
-                        this.getRepositoryManager().getArtifactManagementGraph()));
-            }
+            return this.getSesameManager().getObjectLabel(ontologyID, objectUri, managementConnection,
+                    permanentConnection, this.getRepositoryManager().getSchemaManagementGraph(),
+                    this.getRepositoryManager().getArtifactManagementGraph());
         }
         finally
         {
@@ -858,22 +1346,168 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
                 }
             }
         }
-        
-        return results;
     }
     
-    /*
-     * (non-Javadoc)
-     * 
-     * Wraps PoddSesameManager.getOrderedProperties()
-     * 
-     * @see com.github.podd.api.PoddArtifactManager#getOrderedProperties()
+    /**
+     * Gets the metadata for an object type from the cache, deriving it from the schema ontologies
+     * if it has not been cached.
      */
-    @Override
-    public List<URI> getOrderedProperties(final InferredOWLOntologyID ontologyID, final URI objectUri,
-            final boolean excludeContainsProperties) throws OpenRDFException, UnmanagedSchemaIRIException,
-        SchemaManifestException, UnsupportedRDFormatException, IOException, UnmanagedArtifactIRIException,
-        UnmanagedArtifactVersionException
+    private CachedObjectMetadata getObjectMetadata(final URI objectType, final boolean includeDoNotDisplayProperties,
+            final MetadataPolicy containsPropertyPolicy, final InferredOWLOntologyID artifactID)
+        throws OpenRDFException, PoddException, IOException
+    {
+        RepositoryConnection permanentConnection = null;
+        RepositoryConnection managementConnection = null;
+        
+        try
+        {
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            // Object type metadata is derived only from the schema ontologies that the artifact
+            // imports, so it does not change when the artifact or its inferences change
+            final URI[] contexts =
+                    this.sesameManager.schemaContexts(artifactID, managementConnection,
+                            this.repositoryManager.getSchemaManagementGraph(),
+                            this.repositoryManager.getArtifactManagementGraph());
+            
+            final CachedObjectMetadata cached =
+                    this.objectMetadataCache.get(objectType, includeDoNotDisplayProperties, containsPropertyPolicy,
+                            contexts);
+            if(cached != null)
+            {
+                return cached;
+            }
+            
+            Set<? extends OWLOntologyID> schemaImports;
+            
+            if(artifactID != null)
+            {
+                schemaImports = this.getSchemaImports(artifactID);
+            }
+            else
+            {
+                // If they don't have an artifact yet, we return the set of current schema
+                // ontologies
+                schemaImports = this.getSchemaManager().getCurrentSchemaOntologies();
+            }
+            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            
+            Model model;
+            if(containsPropertyPolicy == MetadataPolicy.ONLY_CONTAINS)
+            {
+                model = this.sesameManager.getObjectTypeContainsMetadata(objectType, permanentConnection, contexts);
+            }
+            else if(containsPropertyPolicy == MetadataPolicy.EXCLUDE_CONTAINS)
+            {
+                model =
+                        this.sesameManager.getObjectTypeMetadata(objectType, includeDoNotDisplayProperties,
+                                containsPropertyPolicy, permanentConnection, contexts);
+            }
+            else if(containsPropertyPolicy == MetadataPolicy.INCLUDE_ALL)
+            {
+                model =
+                        this.sesameManager.getObjectTypeMetadata(objectType, includeDoNotDisplayProperties,
+                                containsPropertyPolicy, permanentConnection, contexts);
+            }
+            else
+            {
+                // Will need to implement the policy separately
+                throw new PoddRuntimeException("Did not recognise metadata policy: " + containsPropertyPolicy);
+            }
+            
+            return this.objectMetadataCache.put(objectType, includeDoNotDisplayProperties, containsPropertyPolicy,
+                    model, contexts);
+        }
+        finally
+        {
+            try
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+            finally
+            {
+                if(permanentConnection != null)
+                {
+                    permanentConnection.close();
+                }
+            }
+        }
+    }
+    
+    /**
+     * 
+     * @return The cache of object type metadata, for reporting its hit and miss counts.
+     */
+    public PoddObjectMetadataCache getObjectMetadataCache()
+    {
+        return this.objectMetadataCache;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#getObjectTypes(com.github.podd .utils.
+     * InferredOWLOntologyID, org.openrdf.model.URI)
+     */
+    @Override
+    public List<PoddObjectLabel> getObjectTypes(final InferredOWLOntologyID artifactId, final URI objectUri)
+        throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
+        IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException
+    {
+        final List<PoddObjectLabel> results = new ArrayList<PoddObjectLabel>();
+        RepositoryConnection permanentConnection = null;
+        RepositoryConnection managementConnection = null;
+        
+        try
+        {
+            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(artifactId);
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            
+            final List<URI> typesList =
+                    this.getSesameManager().getObjectTypes(artifactId, objectUri, managementConnection,
+                            permanentConnection, this.getRepositoryManager().getSchemaManagementGraph(),
+                            this.getRepositoryManager().getArtifactManagementGraph());
+            results.addAll(this.getSesameManager()
+                    .getObjectLabels(artifactId, typesList, managementConnection, permanentConnection,
+                            this.getRepositoryManager().getSchemaManagementGraph(),
+                            this.getRepositoryManager().getArtifactManagementGraph()).values());
+        }
+        finally
+        {
+            try
+            {
+                if(permanentConnection != null)
+                {
+                    permanentConnection.close();
+                }
+            }
+            finally
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+        }
+        
+        return results;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * Wraps PoddSesameManager.getOrderedProperties()
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#getOrderedProperties()
+     */
+    @Override
+    public List<URI> getOrderedProperties(final InferredOWLOntologyID ontologyID, final URI objectUri,
+            final boolean excludeContainsProperties) throws OpenRDFException, UnmanagedSchemaIRIException,
+        SchemaManifestException, UnsupportedRDFormatException, IOException, UnmanagedArtifactIRIException,
+        UnmanagedArtifactVersionException
     {
         RepositoryConnection permanentConnection = null;
         RepositoryConnection managementConnection = null;
@@ -910,6 +1544,24 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#getInferenceJob(com.github.podd.utils.
+     * InferredOWLOntologyID)
+     */
+    @Override
+    public InferenceJob getInferenceJob(final InferredOWLOntologyID artifactId)
+    {
+        return this.inferenceJobs.get(artifactId.getVersionIRI());
+    }
+    
+    @Override
+    public InferencePolicy getInferencePolicy()
+    {
+        return this.inferencePolicy;
+    }
+    
     /*
      * (non-Javadoc)
      * 
@@ -1036,24 +1688,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         {
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             
-            final InferredOWLOntologyID inferredOWLOntologyID =
-                    this.getArtifactInternal(artifactID.getOntologyIRI(), artifactID.getVersionIRI(),
-                            managementConnection);
-            
-            final Model model = new LinkedHashModel();
-            // NOTE: In future when we support imports to exist between artifacts, will be utilising
-            // the entire artifact management graph here, so exporting it all
-            managementConnection.export(new StatementCollector(model), this.getRepositoryManager()
-                    .getArtifactManagementGraph());
-            managementConnection.export(new StatementCollector(model), this.getRepositoryManager()
-                    .getSchemaManagementGraph());
-            
-            final Set<OWLOntologyID> result =
-                    new LinkedHashSet<>(OntologyUtils.artifactImports(inferredOWLOntologyID, model));
-            
-            this.log.debug("Returning from getSchemaImports: {} {}", artifactID, result);
-            
-            return result;
+            return this.getSchemaImports(artifactID, managementConnection, this.getImportsModel(managementConnection));
         }
         finally
         {
@@ -1064,6 +1699,56 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
+    /**
+     * Resolves the schema imports for an artifact from a model created by
+     * {@link #getImportsModel(RepositoryConnection)}, which may be shared between artifacts.
+     */
+    private Set<? extends OWLOntologyID> getSchemaImports(final InferredOWLOntologyID artifactID,
+            final RepositoryConnection managementConnection, final Model importsModel) throws OpenRDFException,
+        SchemaManifestException, UnsupportedRDFormatException, IOException, UnmanagedArtifactIRIException,
+        UnmanagedArtifactVersionException
+    {
+        final InferredOWLOntologyID inferredOWLOntologyID =
+                this.getArtifactInternal(artifactID.getOntologyIRI(), artifactID.getVersionIRI(), managementConnection);
+        
+        final Set<OWLOntologyID> result =
+                new LinkedHashSet<>(OntologyUtils.artifactImports(inferredOWLOntologyID, importsModel));
+        
+        this.log.debug("Returning from getSchemaImports: {} {}", artifactID, result);
+        
+        return result;
+    }
+    
+    /**
+     * Collects the statements that schema imports are resolved from, using the indexed copies of
+     * the management graphs if the connection has them instead of exporting the graphs.
+     */
+    private Model getImportsModel(final RepositoryConnection managementConnection) throws OpenRDFException
+    {
+        final Model model = new LinkedHashModel();
+        // NOTE: In future when we support imports to exist between artifacts, will be utilising
+        // the entire artifact management graph here, so exporting it all
+        for(final URI nextGraph : Arrays.asList(this.getRepositoryManager().getArtifactManagementGraph(), this
+                .getRepositoryManager().getSchemaManagementGraph()))
+        {
+            ManagementGraph indexedGraph = null;
+            if(managementConnection instanceof ManagementConnection)
+            {
+                indexedGraph = ((ManagementConnection)managementConnection).getIndexedGraph(nextGraph);
+            }
+            
+            if(indexedGraph != null)
+            {
+                model.addAll(indexedGraph.getModel());
+            }
+            else
+            {
+                managementConnection.export(new StatementCollector(model), nextGraph);
+            }
+        }
+        return model;
+    }
+    
     @Override
     public PoddSchemaManager getSchemaManager()
     {
@@ -1081,67 +1766,80 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
         IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException
     {
-        final List<PoddObjectLabel> results = new ArrayList<PoddObjectLabel>();
-        final ConcurrentMap<Set<? extends OWLOntologyID>, RepositoryConnection> cache =
-                new ConcurrentHashMap<Set<? extends OWLOntologyID>, RepositoryConnection>();
+        return this.getTopObjectLabels(artifacts, null);
+    }
+    
+    @Override
+    public List<PoddObjectLabel> getTopObjectLabels(final List<InferredOWLOntologyID> artifacts,
+            final Model objectTypes) throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException,
+        UnsupportedRDFormatException, IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException
+    {
+        final Map<InferredOWLOntologyID, PoddObjectLabel> labels = new HashMap<>();
         
         RepositoryConnection managementConnection = null;
         
         try
         {
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            
+            // Artifacts with the same schema imports share a permanent repository, so each group is
+            // resolved using a single query, and the imports of every artifact are resolved from a
+            // single copy of the management graphs
+            final Model importsModel = this.getImportsModel(managementConnection);
+            final Map<Set<? extends OWLOntologyID>, List<InferredOWLOntologyID>> groups = new LinkedHashMap<>();
             for(final InferredOWLOntologyID artifactId : artifacts)
             {
-                final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(artifactId);
-                RepositoryConnection permanentConnection = cache.get(schemaImports);
-                if(permanentConnection == null)
+                final Set<? extends OWLOntologyID> schemaImports =
+                        this.getSchemaImports(artifactId, managementConnection, importsModel);
+                List<InferredOWLOntologyID> group = groups.get(schemaImports);
+                if(group == null)
                 {
-                    RepositoryConnection nextConnection =
-                            this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
-                    final RepositoryConnection putIfAbsent = cache.putIfAbsent(schemaImports, nextConnection);
-                    if(putIfAbsent != null)
-                    {
-                        nextConnection = putIfAbsent;
-                    }
-                    permanentConnection = nextConnection;
+                    group = new ArrayList<InferredOWLOntologyID>();
+                    groups.put(schemaImports, group);
                 }
-                final URI objectIRI = this.getSesameManager().getTopObjectIRI(artifactId, permanentConnection);
-                if(objectIRI == null)
+                group.add(artifactId);
+            }
+            
+            for(final Map.Entry<Set<? extends OWLOntologyID>, List<InferredOWLOntologyID>> nextGroup : groups
+                    .entrySet())
+            {
+                RepositoryConnection permanentConnection = null;
+                try
+                {
+                    permanentConnection =
+                            this.getRepositoryManager().getPermanentRepositoryConnection(nextGroup.getKey());
+                    labels.putAll(this.getSesameManager().getTopObjectLabels(nextGroup.getValue(), objectTypes,
+                            managementConnection, permanentConnection,
+                            this.getRepositoryManager().getSchemaManagementGraph(),
+                            this.getRepositoryManager().getArtifactManagementGraph()));
+                }
+                finally
                 {
-                    throw new UnmanagedArtifactIRIException(artifactId.getOntologyIRI(),
-                            "Could not find the top object for an artifact");
+                    if(permanentConnection != null)
+                    {
+                        permanentConnection.close();
+                    }
                 }
-                results.add(this.getSesameManager().getObjectLabel(artifactId, objectIRI, managementConnection,
-                        permanentConnection, this.getRepositoryManager().getSchemaManagementGraph(),
-                        this.getRepositoryManager().getArtifactManagementGraph()));
             }
         }
         finally
         {
-            try
+            if(managementConnection != null)
             {
-                if(managementConnection != null)
-                {
-                    managementConnection.close();
-                }
+                managementConnection.close();
             }
-            finally
+        }
+        
+        final List<PoddObjectLabel> results = new ArrayList<PoddObjectLabel>(artifacts.size());
+        for(final InferredOWLOntologyID artifactId : artifacts)
+        {
+            final PoddObjectLabel label = labels.get(artifactId);
+            if(label == null)
             {
-                for(final RepositoryConnection nextPermanentConnection : cache.values())
-                {
-                    try
-                    {
-                        if(nextPermanentConnection != null)
-                        {
-                            nextPermanentConnection.close();
-                        }
-                    }
-                    catch(final Throwable e)
-                    {
-                        this.log.error("Found exception closing connection", e);
-                    }
-                }
+                throw new UnmanagedArtifactIRIException(artifactId.getOntologyIRI(),
+                        "Could not find the top object for an artifact");
             }
+            results.add(label);
         }
         return results;
     }
@@ -1355,6 +2053,45 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         return oldVersion.concat("1");
     }
     
+    /**
+     * Indexes the labels in the version and inferred contexts of the given artifact after they have
+     * been committed, so that the first search for them does not need to index them.
+     */
+    private void indexLabels(final RepositoryConnection permanentConnection, final InferredOWLOntologyID artifactID)
+    {
+        try
+        {
+            this.getSesameManager().indexLabels(permanentConnection,
+                    this.getSesameManager().versionAndInferredContexts(artifactID));
+        }
+        catch(final OpenRDFException e)
+        {
+            this.log.warn("Could not index labels for artifact: " + artifactID, e);
+        }
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#isAsynchronousInferences()
+     */
+    @Override
+    public boolean isAsynchronousInferences()
+    {
+        return this.asynchronousInferences;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#isDeltaVersionStorage()
+     */
+    @Override
+    public boolean isDeltaVersionStorage()
+    {
+        return this.deltaVersionStorage;
+    }
+    
     @Override
     public boolean isPublished(final InferredOWLOntologyID ontologyId) throws OpenRDFException
     {
@@ -1375,43 +2112,16 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
-    private List<InferredOWLOntologyID> listArtifacts(final boolean published, final boolean unpublished)
-        throws OpenRDFException
+    private List<InferredOWLOntologyID> listArtifacts(final boolean published, final boolean unpublished,
+            final int limit, final int offset) throws OpenRDFException
     {
-        if(!published && !unpublished)
-        {
-            throw new IllegalArgumentException("Cannot choose to exclude both published and unpublished artifacts");
-        }
-        
-        final List<InferredOWLOntologyID> results = new ArrayList<InferredOWLOntologyID>();
-        
         RepositoryConnection conn = null;
         
         try
         {
             conn = this.getRepositoryManager().getManagementRepositoryConnection();
-            final Collection<InferredOWLOntologyID> ontologies =
-                    this.getSesameManager().getOntologies(true, conn,
-                            this.getRepositoryManager().getArtifactManagementGraph());
-            
-            for(final InferredOWLOntologyID nextOntology : ontologies)
-            {
-                final boolean isPublished =
-                        this.getSesameManager().isPublished(nextOntology, conn,
-                                this.getRepositoryManager().getArtifactManagementGraph());
-                
-                if(isPublished)
-                {
-                    if(published)
-                    {
-                        results.add(nextOntology);
-                    }
-                }
-                else if(unpublished)
-                {
-                    results.add(nextOntology);
-                }
-            }
+            return this.getSesameManager().getArtifactsByPublicationStatus(published, unpublished, limit, offset,
+                    conn, this.getRepositoryManager().getArtifactManagementGraph());
         }
         finally
         {
@@ -1420,19 +2130,32 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
                 conn.close();
             }
         }
-        return results;
     }
     
     @Override
     public List<InferredOWLOntologyID> listPublishedArtifacts() throws OpenRDFException
     {
-        return this.listArtifacts(true, false);
+        return this.listArtifacts(true, false, -1, 0);
+    }
+    
+    @Override
+    public List<InferredOWLOntologyID> listPublishedArtifacts(final int limit, final int offset)
+        throws OpenRDFException
+    {
+        return this.listArtifacts(true, false, limit, offset);
     }
     
     @Override
     public List<InferredOWLOntologyID> listUnpublishedArtifacts() throws OpenRDFException
     {
-        return this.listArtifacts(false, true);
+        return this.listArtifacts(false, true, -1, 0);
+    }
+    
+    @Override
+    public List<InferredOWLOntologyID> listUnpublishedArtifacts(final int limit, final int offset)
+        throws OpenRDFException
+    {
+        return this.listArtifacts(false, true, limit, offset);
     }
     
     @Override
@@ -1479,200 +2202,1119 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         try
         {
             final URI randomContext = PODD.VF.createURI("urn:uuid:" + UUID.randomUUID().toString());
-            Model rawModel = Rio.parse(inputStream, "", format, randomContext);
-            
-            final List<InferredOWLOntologyID> ontologyIDs = OntologyUtils.modelToOntologyIDs(rawModel, true, false);
-            if(ontologyIDs.isEmpty())
-            {
-                throw new EmptyOntologyException(null, "Loaded ontology is empty");
-            }
-            else if(ontologyIDs.size() > 1)
-            {
-                this.log.warn("Found multiple ontologies when we were only expecting a single ontology: {}",
-                        ontologyIDs);
-            }
             
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             managementConnection.begin();
             
-            tempRepository = this.repositoryManager.getNewTemporaryRepository();
+            tempRepository = this.repositoryManager.getNewTemporaryRepository(this.estimateStatements(inputStream));
             temporaryConnection = tempRepository.getConnection();
             
-            // Load the artifact RDF triples into a random context in the temp
-            // repository, which may be shared between different uploads
-            temporaryConnection.add(rawModel, randomContext);
+            schemaImports =
+                    this.prepareArtifact(inputStream, format, danglingObjectPolicy, managementConnection,
+                            temporaryConnection, randomContext);
             
-            rawModel.clear();
-            rawModel = null;
+            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            permanentConnection.begin();
             
-            // check and ensure schema ontology imports are for version IRIs
-            this.useVersionsForSchemaImports(ontologyIDs.get(0).getOntologyIRI().toOpenRDFURI(), managementConnection,
-                    temporaryConnection, randomContext);
+            final boolean asynchronousInferences =
+                    this.useAsynchronousInferences(dataReferenceVerificationPolicy);
+            inferredOWLOntologyID =
+                    this.storeArtifact(temporaryConnection, permanentConnection, managementConnection, randomContext,
+                            dataReferenceVerificationPolicy, asynchronousInferences, schemaImports, null);
             
-            final Model importsModel = new LinkedHashModel();
+            permanentConnection.commit();
+            managementConnection.commit();
             
-            // Repopulate model so it can be used by OntologyUtils in getSchemaImportsInternal
-            temporaryConnection.exportStatements(null, OWL.IMPORTS, null, true, new StatementCollector(importsModel),
-                    randomContext);
-            temporaryConnection.exportStatements(null, RDF.TYPE, OWL.ONTOLOGY, true, new StatementCollector(
-                    importsModel), randomContext);
-            temporaryConnection.exportStatements(null, OWL.VERSIONIRI, null, true,
-                    new StatementCollector(importsModel), randomContext);
-            managementConnection.export(new StatementCollector(importsModel), this.getRepositoryManager()
-                    .getSchemaManagementGraph());
+            this.indexLabels(permanentConnection, inferredOWLOntologyID);
             
-            // Rio.write(model, Rio.createWriter(RDFFormat.NQUADS, System.out));
+            if(asynchronousInferences)
+            {
+                this.submitInferenceJob(inferredOWLOntologyID, schemaImports);
+            }
             
-            schemaImports = new LinkedHashSet<>(OntologyUtils.artifactImports(ontologyIDs.get(0), importsModel));
+            return inferredOWLOntologyID;
+        }
+        catch(final Throwable e)
+        {
+            try
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.rollback();
+                }
+            }
+            finally
+            {
+                try
+                {
+                    if(permanentConnection != null)
+                    {
+                        permanentConnection.rollback();
+                    }
+                }
+                finally
+                {
+                    if(temporaryConnection != null)
+                    {
+                        temporaryConnection.rollback();
+                    }
+                }
+            }
+            throw e;
+        }
+        finally
+        {
+            try
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+            catch(final RepositoryException e)
+            {
+                this.log.error("Found exception closing management repository connection", e);
+            }
+            finally
+            {
+                try
+                {
+                    if(permanentConnection != null)
+                    {
+                        permanentConnection.close();
+                    }
+                }
+                catch(final RepositoryException e)
+                {
+                    this.log.error("Found exception closing permanent repository connection", e);
+                }
+                finally
+                {
+                    try
+                    {
+                        if(temporaryConnection != null)
+                        {
+                            temporaryConnection.close();
+                        }
+                    }
+                    catch(final RepositoryException e)
+                    {
+                        this.log.error("Found exception closing temporary repository connection", e);
+                    }
+                    finally
+                    {
+                        try
+                        {
+                            if(tempRepository != null)
+                            {
+                                tempRepository.shutDown();
+                            }
+                        }
+                        catch(final RepositoryException e)
+                        {
+                            this.log.error("Found exception shutting down temporary repository", e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    @Override
+    public List<ArtifactLoadResult> loadArtifacts(final List<InputStream> inputStreams, RDFFormat format,
+            final DanglingObjectPolicy danglingObjectPolicy,
+            final DataReferenceVerificationPolicy dataReferenceVerificationPolicy, final int batchSize)
+        throws OpenRDFException, PoddException, IOException, OWLException
+    {
+        if(inputStreams == null)
+        {
+            throw new NullPointerException("Input streams must not be null");
+        }
+        
+        if(batchSize < 1)
+        {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        
+        if(format == null)
+        {
+            format = RDFFormat.RDFXML;
+        }
+        
+        final long start = System.currentTimeMillis();
+        final ArtifactLoadResult[] results = new ArtifactLoadResult[inputStreams.size()];
+        
+        // All of the artifacts share one temporary repository, using a different context for each
+        final Map<Integer, URI> tempContexts = new HashMap<>();
+        final Map<Set<OWLOntologyID>, List<Integer>> schemaImportGroups = new LinkedHashMap<>();
+        
+        Repository tempRepository = null;
+        RepositoryConnection temporaryConnection = null;
+        RepositoryConnection managementConnection = null;
+        try
+        {
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             
-            // Remove any assertions that the user has made about publication status, as this
-            // information is a privileged operation that must be done through the designated API
-            // method
-            this.cleanPrivilegedAssertions(randomContext, temporaryConnection);
+            long expectedStatements = 0;
+            for(final InputStream nextInputStream : inputStreams)
+            {
+                expectedStatements += this.estimateStatements(nextInputStream);
+            }
+            tempRepository = this.repositoryManager.getNewTemporaryRepository(expectedStatements);
+            temporaryConnection = tempRepository.getConnection();
             
-            // Replace temporary URIs with PURLs
-            this.handlePurls(temporaryConnection, randomContext);
+            for(int i = 0; i < inputStreams.size(); i++)
+            {
+                final URI nextContext = PODD.VF.createURI("urn:uuid:" + UUID.randomUUID().toString());
+                try
+                {
+                    final Set<OWLOntologyID> nextSchemaImports =
+                            this.prepareArtifact(inputStreams.get(i), format, danglingObjectPolicy,
+                                    managementConnection, temporaryConnection, nextContext);
+                    tempContexts.put(i, nextContext);
+                    
+                    List<Integer> nextGroup = schemaImportGroups.get(nextSchemaImports);
+                    if(nextGroup == null)
+                    {
+                        nextGroup = new ArrayList<>();
+                        schemaImportGroups.put(nextSchemaImports, nextGroup);
+                    }
+                    nextGroup.add(i);
+                }
+                catch(final Exception e)
+                {
+                    this.log.warn("Could not prepare artifact {} in bulk load: {}", i, e.getMessage());
+                    results[i] = new ArtifactLoadResult(i, e);
+                    temporaryConnection.clear(nextContext);
+                }
+            }
             
-            // Set a Version IRI for this artifact based on the PURL
-            /*
-             * Version information need not be available in uploaded artifacts (any existing values
-             * are ignored).
-             * 
-             * For a new artifact, a Version IRI is created based on the Ontology IRI while for a
-             * new version of a managed artifact, the most recent version is incremented.
-             */
-            final IRI ontologyIRI = this.getSesameManager().getOntologyIRI(temporaryConnection, randomContext);
-            if(ontologyIRI == null)
+            final boolean asynchronousInferences =
+                    this.useAsynchronousInferences(dataReferenceVerificationPolicy);
+            for(final Map.Entry<Set<OWLOntologyID>, List<Integer>> nextGroup : schemaImportGroups.entrySet())
+            {
+                this.loadArtifactGroup(nextGroup.getKey(), nextGroup.getValue(), tempContexts, results,
+                        temporaryConnection, managementConnection, dataReferenceVerificationPolicy,
+                        asynchronousInferences, batchSize);
+            }
+        }
+        finally
+        {
+            try
             {
-                throw new EmptyOntologyException(null, "Loaded ontology is empty");
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+            catch(final RepositoryException e)
+            {
+                this.log.error("Found exception closing management repository connection", e);
+            }
+            finally
+            {
+                try
+                {
+                    if(temporaryConnection != null)
+                    {
+                        temporaryConnection.close();
+                    }
+                }
+                catch(final RepositoryException e)
+                {
+                    this.log.error("Found exception closing temporary repository connection", e);
+                }
+                finally
+                {
+                    try
+                    {
+                        if(tempRepository != null)
+                        {
+                            tempRepository.shutDown();
+                        }
+                    }
+                    catch(final RepositoryException e)
+                    {
+                        this.log.error("Found exception shutting down temporary repository", e);
+                    }
+                }
             }
+        }
+        
+        this.log.info("Bulk loaded {} artifacts in {} schema import groups in {}ms", inputStreams.size(),
+                schemaImportGroups.size(), System.currentTimeMillis() - start);
+        
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * Stores a group of prepared artifacts that import the same schema ontologies, sharing one
+     * permanent repository connection and one load session between them.
+     * 
+     * Artifacts are committed in transactions of up to batchSize artifacts. If a transaction fails,
+     * it is rolled back and its artifacts are retried in their own transactions, so the failure is
+     * reported against the artifact that caused it. A failure after the permanent repository has
+     * been committed is reported against every artifact in the batch without retrying them.
+     */
+    private void loadArtifactGroup(final Set<OWLOntologyID> schemaImports, final List<Integer> group,
+            final Map<Integer, URI> tempContexts, final ArtifactLoadResult[] results,
+            final RepositoryConnection temporaryConnection, final RepositoryConnection managementConnection,
+            final DataReferenceVerificationPolicy dataReferenceVerificationPolicy,
+            final boolean asynchronousInferences, final int batchSize) throws OpenRDFException
+    {
+        RepositoryConnection permanentConnection = null;
+        try
+        {
+            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
             
-            // check for managed version from artifact graph
-            OWLOntologyID currentManagedArtifactID = null;
+            // Inferences computed in the background use their own sessions
+            OWLOntologyManager loadSession = null;
+            if(!asynchronousInferences)
+            {
+                loadSession =
+                        this.getOWLManager().createLoadSession(schemaImports, managementConnection,
+                                this.getRepositoryManager().getSchemaManagementGraph());
+            }
             
+            for(int batchStart = 0; batchStart < group.size(); batchStart += batchSize)
+            {
+                final List<Integer> batch = group.subList(batchStart, Math.min(batchStart + batchSize, group.size()));
+                try
+                {
+                    this.storeArtifactBatch(batch, tempContexts, results, temporaryConnection, permanentConnection,
+                            managementConnection, dataReferenceVerificationPolicy, asynchronousInferences,
+                            schemaImports, loadSession);
+                }
+                catch(final Exception e)
+                {
+                    if(batch.size() == 1)
+                    {
+                        this.log.warn("Could not load artifact {} in bulk load: {}", batch.get(0), e.getMessage());
+                        results[batch.get(0)] = new ArtifactLoadResult(batch.get(0), e);
+                        continue;
+                    }
+                    
+                    this.log.warn("Retrying bulk load batch individually after failure: {}", e.getMessage());
+                    for(final Integer nextIndex : batch)
+                    {
+                        try
+                        {
+                            this.storeArtifactBatch(Collections.singletonList(nextIndex), tempContexts, results,
+                                    temporaryConnection, permanentConnection, managementConnection,
+                                    dataReferenceVerificationPolicy, asynchronousInferences, schemaImports,
+                                    loadSession);
+                        }
+                        catch(final Exception e1)
+                        {
+                            this.log.warn("Could not load artifact {} in bulk load: {}", nextIndex, e1.getMessage());
+                            results[nextIndex] = new ArtifactLoadResult(nextIndex, e1);
+                        }
+                    }
+                }
+            }
+        }
+        catch(final Exception e)
+        {
+            // The schema imports for the group could not be prepared
+            this.log.warn("Could not load artifacts for schema imports {}: {}", schemaImports, e.getMessage());
+            for(final Integer nextIndex : group)
+            {
+                if(results[nextIndex] == null)
+                {
+                    results[nextIndex] = new ArtifactLoadResult(nextIndex, e);
+                }
+            }
+        }
+        finally
+        {
             try
             {
-                currentManagedArtifactID =
-                        this.getSesameManager().getCurrentArtifactVersion(ontologyIRI, managementConnection,
-                                this.getRepositoryManager().getArtifactManagementGraph());
-                if(currentManagedArtifactID != null)
+                for(final Integer nextIndex : group)
+                {
+                    temporaryConnection.clear(tempContexts.get(nextIndex));
+                }
+            }
+            finally
+            {
+                if(permanentConnection != null)
+                {
+                    permanentConnection.close();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stores the given prepared artifacts in a single transaction, and records their results once
+     * the transaction is committed.
+     */
+    private void storeArtifactBatch(final List<Integer> batch, final Map<Integer, URI> tempContexts,
+            final ArtifactLoadResult[] results, final RepositoryConnection temporaryConnection,
+            final RepositoryConnection permanentConnection, final RepositoryConnection managementConnection,
+            final DataReferenceVerificationPolicy dataReferenceVerificationPolicy,
+            final boolean asynchronousInferences, final Set<OWLOntologyID> schemaImports,
+            final OWLOntologyManager loadSession) throws OpenRDFException, PoddException, IOException, OWLException
+    {
+        final List<InferredOWLOntologyID> storedIDs = new ArrayList<>(batch.size());
+        permanentConnection.begin();
+        managementConnection.begin();
+        try
+        {
+            for(final Integer nextIndex : batch)
+            {
+                final URI nextContext = tempContexts.get(nextIndex);
+                
+                // Another artifact in this batch may have used the same artifact IRI
+                this.checkUnmanagedArtifact(this.getSesameManager().getOntologyIRI(temporaryConnection, nextContext),
+                        managementConnection);
+                
+                storedIDs.add(this.storeArtifact(temporaryConnection, permanentConnection, managementConnection,
+                        nextContext, dataReferenceVerificationPolicy, asynchronousInferences, schemaImports,
+                        loadSession));
+            }
+            
+            permanentConnection.commit();
+            try
+            {
+                managementConnection.commit();
+            }
+            catch(final RepositoryException e)
+            {
+                // The artifacts are in the permanent repository but are not managed, so their
+                // contexts are removed, and they are not retried in case they could not be removed
+                this.log.error("Could not commit management graph for bulk load batch: {}", batch, e);
+                this.removeStoredContexts(storedIDs, permanentConnection);
+                for(final Integer nextIndex : batch)
+                {
+                    results[nextIndex] = new ArtifactLoadResult(nextIndex, e);
+                }
+                return;
+            }
+            
+            for(final InferredOWLOntologyID nextStoredID : storedIDs)
+            {
+                this.indexLabels(permanentConnection, nextStoredID);
+            }
+        }
+        finally
+        {
+            try
+            {
+                if(managementConnection.isActive())
+                {
+                    managementConnection.rollback();
+                }
+            }
+            finally
+            {
+                if(permanentConnection.isActive())
+                {
+                    permanentConnection.rollback();
+                }
+            }
+        }
+        
+        for(int i = 0; i < batch.size(); i++)
+        {
+            results[batch.get(i)] = new ArtifactLoadResult(batch.get(i), storedIDs.get(i));
+            if(asynchronousInferences)
+            {
+                this.submitInferenceJob(storedIDs.get(i), schemaImports);
+            }
+        }
+    }
+    
+    /**
+     * Removes the version and inferred contexts of artifacts that were committed to the permanent
+     * repository, but whose management graph entries could not be committed.
+     */
+    private void removeStoredContexts(final List<InferredOWLOntologyID> storedIDs,
+            final RepositoryConnection permanentConnection)
+    {
+        try
+        {
+            permanentConnection.begin();
+            try
+            {
+                for(final InferredOWLOntologyID nextStoredID : storedIDs)
+                {
+                    permanentConnection.clear(this.getSesameManager().versionAndInferredContexts(nextStoredID));
+                }
+                permanentConnection.commit();
+            }
+            finally
+            {
+                if(permanentConnection.isActive())
+                {
+                    permanentConnection.rollback();
+                }
+            }
+        }
+        catch(final RepositoryException e)
+        {
+            this.log.error("Could not remove the contexts of unmanaged artifacts: {}", storedIDs, e);
+        }
+    }
+    
+    /**
+     * Parses an artifact into the given context in the temporary repository in a single pass.
+     * 
+     * Each statement is passed through a chain of streaming stages as it is parsed, which remove
+     * privileged assertions, replace temporary URIs with PURLs, update default timestamps and pin
+     * schema imports to their current version IRIs.
+     * 
+     * @param inputStream
+     * @param format
+     * @param managementConnection
+     * @param temporaryConnection
+     * @param tempContext
+     * @throws OpenRDFException
+     * @throws PoddException
+     * @throws IOException
+     */
+    private void parseArtifact(final InputStream inputStream, final RDFFormat format,
+            final RepositoryConnection managementConnection, final RepositoryConnection temporaryConnection,
+            final URI tempContext) throws OpenRDFException, PoddException, IOException
+    {
+        final long start = System.currentTimeMillis();
+        
+        final RDFInserter inserter = new RDFInserter(temporaryConnection);
+        inserter.enforceContext(tempContext);
+        
+        // Stages are constructed from the last to the first, as each needs a reference to the next
+        final SchemaImportVersionStage importsStage =
+                new SchemaImportVersionStage(this.getSesameManager(), managementConnection, this
+                        .getRepositoryManager().getSchemaManagementGraph(), inserter);
+        
+        final Value now = PODD.VF.createLiteral(new Date());
+        final TimestampDefaultingStage timestampStage =
+                new TimestampDefaultingStage(now, importsStage, PODD.PODD_BASE_CREATED_AT,
+                        PODD.PODD_BASE_LAST_MODIFIED);
+        
+        final List<PoddPurlProcessorFactory> purlFactories;
+        if(this.getPurlManager() == null)
+        {
+            purlFactories = Collections.emptyList();
+        }
+        else
+        {
+            purlFactories =
+                    this.getPurlManager().getPurlProcessorFactoryRegistry().getByStage(PoddProcessorStage.RDF_PARSING);
+        }
+        final PurlRewritingStage purlStage = new PurlRewritingStage(purlFactories, timestampStage);
+        
+        final PrivilegedAssertionFilterStage privilegedStage = new PrivilegedAssertionFilterStage(purlStage);
+        
+        final RDFParser parser = Rio.createParser(format);
+        parser.setRDFHandler(privilegedStage);
+        
+        temporaryConnection.begin();
+        try
+        {
+            parser.parse(inputStream, "");
+            temporaryConnection.commit();
+        }
+        catch(final RDFHandlerException e)
+        {
+            // Unwrap exceptions thrown inside of the stages
+            if(e.getCause() instanceof PoddException)
+            {
+                throw (PoddException)e.getCause();
+            }
+            else if(e.getCause() instanceof OpenRDFException)
+            {
+                throw (OpenRDFException)e.getCause();
+            }
+            throw e;
+        }
+        finally
+        {
+            if(temporaryConnection.isActive())
+            {
+                temporaryConnection.rollback();
+            }
+        }
+        
+        this.log.info("Parsed {} statements and generated {} PURLs in {}ms", privilegedStage.getStatementCount(),
+                purlStage.getPurlReferences().size(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Parses a new artifact into the given context in the temporary repository, and prepares it to
+     * be stored by assigning its first version IRI and handling dangling objects.
+     * 
+     * @return The schema ontologies imported by the artifact.
+     * @throws DuplicateArtifactIRIException
+     *             If the artifact is already managed.
+     */
+    private Set<OWLOntologyID> prepareArtifact(final InputStream inputStream, final RDFFormat format,
+            final DanglingObjectPolicy danglingObjectPolicy, final RepositoryConnection managementConnection,
+            final RepositoryConnection temporaryConnection, final URI tempContext) throws OpenRDFException,
+        PoddException, IOException
+    {
+        // Parse the artifact RDF triples directly into a random context in the temp repository,
+        // which may be shared between different uploads, processing each statement once on the
+        // way through
+        this.parseArtifact(inputStream, format, managementConnection, temporaryConnection, tempContext);
+        
+        final Model importsModel = new LinkedHashModel();
+        
+        temporaryConnection.exportStatements(null, RDF.TYPE, OWL.ONTOLOGY, true, new StatementCollector(
+                importsModel), tempContext);
+        temporaryConnection.exportStatements(null, OWL.VERSIONIRI, null, true,
+                new StatementCollector(importsModel), tempContext);
+        
+        final List<InferredOWLOntologyID> ontologyIDs = OntologyUtils.modelToOntologyIDs(importsModel, true, false);
+        if(ontologyIDs.isEmpty())
+        {
+            throw new EmptyOntologyException(null, "Loaded ontology is empty");
+        }
+        else if(ontologyIDs.size() > 1)
+        {
+            this.log.warn("Found multiple ontologies when we were only expecting a single ontology: {}", ontologyIDs);
+        }
+        
+        // Repopulate model so it can be used by OntologyUtils in getSchemaImportsInternal
+        temporaryConnection.exportStatements(null, OWL.IMPORTS, null, true, new StatementCollector(importsModel),
+                tempContext);
+        managementConnection.export(new StatementCollector(importsModel), this.getRepositoryManager()
+                .getSchemaManagementGraph());
+        
+        final Set<OWLOntologyID> schemaImports =
+                new LinkedHashSet<>(OntologyUtils.artifactImports(ontologyIDs.get(0), importsModel));
+        
+        // Set a Version IRI for this artifact based on the PURL
+        /*
+         * Version information need not be available in uploaded artifacts (any existing values
+         * are ignored).
+         * 
+         * For a new artifact, a Version IRI is created based on the Ontology IRI while for a
+         * new version of a managed artifact, the most recent version is incremented.
+         */
+        final IRI ontologyIRI = this.getSesameManager().getOntologyIRI(temporaryConnection, tempContext);
+        if(ontologyIRI == null)
+        {
+            throw new EmptyOntologyException(null, "Loaded ontology is empty");
+        }
+        
+        this.checkUnmanagedArtifact(ontologyIRI, managementConnection);
+        
+        // A new artifact always starts at the first version
+        final IRI newVersionIRI = IRI.create(ontologyIRI.toString() + ":version:1");
+        this.log.info("Setting version IRI to <{}>", newVersionIRI);
+        
+        temporaryConnection.remove(ontologyIRI.toOpenRDFURI(), OWL.VERSIONIRI, null, tempContext);
+        temporaryConnection.add(ontologyIRI.toOpenRDFURI(), OWL.VERSIONIRI, newVersionIRI.toOpenRDFURI(),
+                tempContext);
+        
+        this.handleDanglingObjects(ontologyIRI, temporaryConnection, tempContext, danglingObjectPolicy);
+        
+        return schemaImports;
+    }
+    
+    /**
+     * Checks that the given artifact IRI is not already managed.
+     * 
+     * @throws DuplicateArtifactIRIException
+     *             If the artifact IRI is already managed.
+     */
+    private void checkUnmanagedArtifact(final IRI ontologyIRI, final RepositoryConnection managementConnection)
+        throws OpenRDFException, DuplicateArtifactIRIException
+    {
+        try
+        {
+            final InferredOWLOntologyID currentManagedArtifactID =
+                    this.getSesameManager().getCurrentArtifactVersion(ontologyIRI, managementConnection,
+                            this.getRepositoryManager().getArtifactManagementGraph());
+            if(currentManagedArtifactID != null)
+            {
+                throw new DuplicateArtifactIRIException(ontologyIRI, "This artifact is already managed");
+            }
+        }
+        catch(final UnmanagedArtifactIRIException e)
+        {
+            // ignore. indicates a new artifact is being uploaded
+            this.log.info("This is an unmanaged artifact IRI {}", ontologyIRI);
+        }
+    }
+    
+    /**
+     * Stores an artifact that was prepared using
+     * {@link #prepareArtifact(InputStream, RDFFormat, DanglingObjectPolicy, RepositoryConnection, RepositoryConnection, URI)}
+     * , and records it in the artifact management graph. The caller is responsible for the
+     * transactions on the permanent and management connections.
+     * 
+     * @param loadSession
+     *            (Optional) A manager containing the schema imports, to be reused between artifacts.
+     */
+    private InferredOWLOntologyID storeArtifact(final RepositoryConnection temporaryConnection,
+            final RepositoryConnection permanentConnection, final RepositoryConnection managementConnection,
+            final URI tempContext, final DataReferenceVerificationPolicy dataReferenceVerificationPolicy,
+            final boolean asynchronousInferences, final Set<OWLOntologyID> schemaImports,
+            final OWLOntologyManager loadSession) throws OpenRDFException, PoddException, IOException, OWLException
+    {
+        final InferredOWLOntologyID inferredOWLOntologyID =
+                this.loadInferStoreArtifact(temporaryConnection, permanentConnection, managementConnection,
+                        tempContext, dataReferenceVerificationPolicy, asynchronousInferences, schemaImports,
+                        loadSession);
+        
+        this.getSesameManager().updateManagedPoddArtifactVersion(inferredOWLOntologyID, true, managementConnection,
+                this.getRepositoryManager().getArtifactManagementGraph());
+        
+        managementConnection.remove(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS, null, this
+                .getRepositoryManager().getArtifactManagementGraph());
+        
+        for(final Statement nextImport : Iterations.asList(permanentConnection.getStatements(inferredOWLOntologyID
+                .getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS, null, true, inferredOWLOntologyID.getVersionIRI()
+                .toOpenRDFURI())))
+        {
+            managementConnection.add(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS,
+                    nextImport.getObject(), this.getRepositoryManager().getArtifactManagementGraph());
+        }
+        
+        for(final OWLOntologyID nextSchemaImport : schemaImports)
+        {
+            managementConnection.add(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS,
+                    nextSchemaImport.getVersionIRI().toOpenRDFURI(), this.getRepositoryManager()
+                            .getArtifactManagementGraph());
+        }
+        
+        return inferredOWLOntologyID;
+    }
+    
+    /**
+     * @param randomContext
+     * @param temporaryRepositoryConnection
+     * @throws RepositoryException
+     */
+    public void cleanPrivilegedAssertions(final URI randomContext,
+            final RepositoryConnection temporaryRepositoryConnection) throws RepositoryException
+    {
+        temporaryRepositoryConnection.remove((Resource)null, PODD.PODD_BASE_HAS_PUBLICATION_STATUS, (Resource)null,
+                randomContext);
+    }
+    
+    /**
+     * Helper method to load the artifact into OWLAPI from a temporary location, perform reasoning
+     * and store in permanent repository.
+     * 
+     * @param fileReferencePolicy
+     * @param asynchronousInferences
+     *            If true, only the concrete statements are stored, and the caller must submit an
+     *            inference job after committing them.
+     * @param dependentSchemaOntologies
+     * @param loadSession
+     *            (Optional) A manager created by {@link PoddOWLManager#createLoadSession} for the
+     *            dependent schema ontologies, or null to create one for this artifact.
+     */
+    private InferredOWLOntologyID loadInferStoreArtifact(final RepositoryConnection tempRepositoryConnection,
+            final RepositoryConnection permanentConnection, final RepositoryConnection managementConnection,
+            final URI tempContext, final DataReferenceVerificationPolicy fileReferencePolicy,
+            final boolean asynchronousInferences, final Set<? extends OWLOntologyID> dependentSchemaOntologies,
+            final OWLOntologyManager loadSession)
+        throws OpenRDFException, OWLException, IOException, PoddException, OntologyNotInProfileException,
+        InconsistentOntologyException
+    {
+        if(asynchronousInferences)
+        {
+            // Reject invalid artifacts before they are committed. The inferred statements are
+            // computed by submitInferenceJob after the concrete statements are committed.
+            final Model concreteStatements = new LinkedHashModel();
+            tempRepositoryConnection.export(new StatementCollector(concreteStatements), tempContext);
+            this.getOWLManager().checkStatements(concreteStatements, dependentSchemaOntologies,
+                    managementConnection, this.getRepositoryManager().getSchemaManagementGraph());
+            
+            return this.storeConcreteArtifact(tempRepositoryConnection, permanentConnection, tempContext);
+        }
+        
+        // load into OWLAPI
+        this.log.debug("Loading podd artifact from temp repository: {}", tempContext);
+        final long start = System.currentTimeMillis();
+        
+        // Stream the statements into OWLAPI instead of copying them into a List first
+        final RepositoryResultIterator statements =
+                new RepositoryResultIterator(tempRepositoryConnection.getStatements(null, null, null, true,
+                        tempContext));
+        
+        InferredOWLOntologyID inferredOWLOntologyID = null;
+        try
+        {
+            final RioMemoryTripleSource owlSource =
+                    new RioMemoryTripleSource(statements, Namespaces.asMap(Iterations.asSet(tempRepositoryConnection
+                            .getNamespaces())));
+            
+            if(loadSession == null)
+            {
+                inferredOWLOntologyID =
+                        this.getOWLManager().loadAndInfer(owlSource, permanentConnection, null,
+                                dependentSchemaOntologies, managementConnection,
+                                this.getRepositoryManager().getSchemaManagementGraph());
+            }
+            else
+            {
+                inferredOWLOntologyID =
+                        this.getOWLManager().loadAndInfer(owlSource, permanentConnection, null, loadSession);
+            }
+        }
+        finally
+        {
+            statements.close();
+        }
+        
+        final Runtime runtime = Runtime.getRuntime();
+        this.log.info("Loaded and inferred artifact in {}ms (heap used {}MB)", System.currentTimeMillis() - start,
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+        
+        // Check file references after inferencing to accurately identify
+        // the parent object
+        this.handleFileReferences(permanentConnection, fileReferencePolicy, inferredOWLOntologyID.getVersionIRI()
+                .toOpenRDFURI(), inferredOWLOntologyID.getInferredOntologyIRI().toOpenRDFURI());
+        
+        return inferredOWLOntologyID;
+    }
+    
+    /**
+     * Helper method to compute the inferred statements for an updated artifact by reasoning over
+     * only the objects touched by the update, and merging the results with the inferred statements
+     * for the previous version.
+     * 
+     * An object is touched if it is the subject, or an object that is described in the artifact,
+     * of a statement that was added or removed. The reasoner is given the statements about the
+     * touched objects, the objects directly linked to or from them, and the ontology header.
+     * 
+     * @return The inferred statements for the new version, or null if the update could not be
+     *         handled incrementally and the complete artifact needs to be reasoned over.
+     */
+    private Model computeIncrementalInferences(final InferredOWLOntologyID previousID,
+            final InferredOWLOntologyID newID, final RepositoryConnection tempRepositoryConnection,
+            final RepositoryConnection permanentConnection, final RepositoryConnection managementConnection,
+            final URI tempContext, final Set<? extends OWLOntologyID> dependentSchemaOntologies)
+        throws OpenRDFException, OWLException, IOException, PoddException
+    {
+        final long start = System.currentTimeMillis();
+        final URI ontologyUri = newID.getOntologyIRI().toOpenRDFURI();
+        
+        final Model previousConcrete = new LinkedHashModel();
+        permanentConnection.export(new StatementCollector(previousConcrete), previousID.getVersionIRI()
+                .toOpenRDFURI());
+        final Model currentConcrete = new LinkedHashModel();
+        tempRepositoryConnection.export(new StatementCollector(currentConcrete), tempContext);
+        
+        final Set<Resource> describedObjects = new HashSet<Resource>(previousConcrete.subjects());
+        describedObjects.addAll(currentConcrete.subjects());
+        
+        final Set<Statement> delta = new LinkedHashSet<Statement>();
+        for(final Statement nextStatement : previousConcrete)
+        {
+            if(!currentConcrete.contains(nextStatement.getSubject(), nextStatement.getPredicate(),
+                    nextStatement.getObject()))
+            {
+                delta.add(nextStatement);
+            }
+        }
+        for(final Statement nextStatement : currentConcrete)
+        {
+            if(!previousConcrete.contains(nextStatement.getSubject(), nextStatement.getPredicate(),
+                    nextStatement.getObject()))
+            {
+                delta.add(nextStatement);
+            }
+        }
+        
+        final Set<URI> touchedObjects = new HashSet<URI>();
+        for(final Statement nextStatement : delta)
+        {
+            if(nextStatement.getSubject().equals(ontologyUri))
+            {
+                if(!OWL.VERSIONIRI.equals(nextStatement.getPredicate()))
+                {
+                    this.log.info("Ontology header changed, using full inferencing: {}", nextStatement);
+                    return null;
+                }
+                continue;
+            }
+            
+            if(!(nextStatement.getSubject() instanceof URI) || nextStatement.getObject() instanceof BNode)
+            {
+                this.log.info("Blank nodes changed, using full inferencing: {}", nextStatement);
+                return null;
+            }
+            
+            if(PoddArtifactManagerImpl.NON_LOCAL_PREDICATES.contains(nextStatement.getPredicate())
+                    || (RDF.TYPE.equals(nextStatement.getPredicate()) && PoddArtifactManagerImpl.NON_LOCAL_TYPES
+                            .contains(nextStatement.getObject())))
+            {
+                this.log.info("Schema level statement changed, using full inferencing: {}", nextStatement);
+                return null;
+            }
+            
+            touchedObjects.add((URI)nextStatement.getSubject());
+            if(nextStatement.getObject() instanceof URI && describedObjects.contains(nextStatement.getObject()))
+            {
+                touchedObjects.add((URI)nextStatement.getObject());
+            }
+        }
+        
+        // Add the objects that link directly to or from the touched objects
+        final Set<Resource> neighbourhood = new HashSet<Resource>(touchedObjects);
+        neighbourhood.add(ontologyUri);
+        for(final Statement nextStatement : currentConcrete)
+        {
+            if(touchedObjects.contains(nextStatement.getObject()) && nextStatement.getSubject() instanceof URI)
+            {
+                neighbourhood.add(nextStatement.getSubject());
+            }
+            else if(touchedObjects.contains(nextStatement.getSubject()) && nextStatement.getObject() instanceof URI
+                    && describedObjects.contains(nextStatement.getObject()))
+            {
+                neighbourhood.add((URI)nextStatement.getObject());
+            }
+        }
+        
+        // Copy the statements about the neighbourhood, including any blank nodes they refer to
+        final Model subset = new LinkedHashModel();
+        final Deque<Resource> toVisit = new ArrayDeque<Resource>(neighbourhood);
+        final Set<Resource> visited = new HashSet<Resource>();
+        while(!toVisit.isEmpty())
+        {
+            final Resource nextResource = toVisit.poll();
+            if(visited.add(nextResource))
+            {
+                for(final Statement nextStatement : currentConcrete.filter(nextResource, null, null))
+                {
+                    subset.add(nextStatement);
+                    if(nextStatement.getObject() instanceof BNode)
+                    {
+                        toVisit.add((BNode)nextStatement.getObject());
+                    }
+                }
+            }
+        }
+        
+        if(subset.size() > currentConcrete.size() * PoddArtifactManagerImpl.MAX_INCREMENTAL_FRACTION)
+        {
+            this.log.info("Update touches {} of {} statements, using full inferencing", subset.size(),
+                    currentConcrete.size());
+            return null;
+        }
+        
+        final Model subsetInferences =
+                this.getOWLManager().computeInferredStatements(subset, dependentSchemaOntologies,
+                        managementConnection, this.getRepositoryManager().getSchemaManagementGraph());
+        
+        final URI previousInferredUri = previousID.getInferredOntologyIRI().toOpenRDFURI();
+        final URI newInferredUri = newID.getInferredOntologyIRI().toOpenRDFURI();
+        
+        final Model results = new LinkedHashModel();
+        
+        // Keep the previous inferences that are not about the touched objects
+        final RepositoryResult<Statement> previousInferences =
+                permanentConnection.getStatements(null, null, null, false, previousInferredUri);
+        try
+        {
+            while(previousInferences.hasNext())
+            {
+                final Statement nextStatement = previousInferences.next();
+                if(!nextStatement.getSubject().equals(previousInferredUri)
+                        && !touchedObjects.contains(nextStatement.getSubject())
+                        && !touchedObjects.contains(nextStatement.getObject()))
+                {
+                    results.add(nextStatement.getSubject(), nextStatement.getPredicate(), nextStatement.getObject(),
+                            newInferredUri);
+                }
+            }
+        }
+        finally
+        {
+            previousInferences.close();
+        }
+        
+        // Add the new inferences about the touched objects, and the new inferred ontology header,
+        // excluding any that are already concrete statements
+        for(final Statement nextStatement : subsetInferences)
+        {
+            if((nextStatement.getSubject().equals(newInferredUri)
+                    || touchedObjects.contains(nextStatement.getSubject()) || touchedObjects.contains(nextStatement
+                    .getObject()))
+                    && !currentConcrete.contains(nextStatement.getSubject(), nextStatement.getPredicate(),
+                            nextStatement.getObject()))
+            {
+                results.add(nextStatement.getSubject(), nextStatement.getPredicate(), nextStatement.getObject(),
+                        newInferredUri);
+            }
+        }
+        
+        this.log.info("Incremental inferencing for {} touched objects over {} of {} statements took {}ms",
+                touchedObjects.size(), subset.size(), currentConcrete.size(), System.currentTimeMillis() - start);
+        
+        return results;
+    }
+    
+    /**
+     * Helper method to store the concrete statements for an artifact without reasoning over them.
+     */
+    private InferredOWLOntologyID storeConcreteArtifact(final RepositoryConnection tempRepositoryConnection,
+            final RepositoryConnection permanentConnection, final URI tempContext) throws OpenRDFException,
+        PoddException
+    {
+        final Model header = new LinkedHashModel();
+        tempRepositoryConnection.exportStatements(null, RDF.TYPE, OWL.ONTOLOGY, true,
+                new StatementCollector(header), tempContext);
+        tempRepositoryConnection.exportStatements(null, OWL.VERSIONIRI, null, true, new StatementCollector(header),
+                tempContext);
+        
+        final List<InferredOWLOntologyID> ontologyIDs = OntologyUtils.modelToOntologyIDs(header, true, false);
+        if(ontologyIDs.isEmpty() || ontologyIDs.get(0).getVersionIRI() == null)
+        {
+            throw new EmptyOntologyException(null, "Loaded ontology is empty");
+        }
+        
+        final IRI versionIRI = ontologyIDs.get(0).getVersionIRI();
+        final InferredOWLOntologyID result =
+                new InferredOWLOntologyID(ontologyIDs.get(0).getOntologyIRI(), versionIRI,
+                        IRI.create(PODD.INFERRED_PREFIX + versionIRI.toString()));
+        
+        permanentConnection.add(tempRepositoryConnection.getStatements(null, null, null, false, tempContext),
+                versionIRI.toOpenRDFURI());
+        
+        return result;
+    }
+    
+    /**
+     * Helper method to decide whether inferences for the next load or update will be computed on
+     * a background thread. Data references are found using the inferred statements, so inferences
+     * are computed synchronously when data references must be verified, to report failures to the
+     * caller.
+     */
+    private boolean useAsynchronousInferences(final DataReferenceVerificationPolicy fileReferencePolicy)
+    {
+        if(this.isAsynchronousInferences() && this.inferenceExecutor == null)
+        {
+            this.log.warn("Asynchronous inferences were requested without an executor, computing them synchronously");
+            return false;
+        }
+        if(this.isAsynchronousInferences() && fileReferencePolicy == DataReferenceVerificationPolicy.VERIFY)
+        {
+            this.log.debug("Computing inferences synchronously to verify data references");
+            return false;
+        }
+        return this.isAsynchronousInferences();
+    }
+    
+    /**
+     * Submits a job to compute and store the inferred statements for an artifact version whose
+     * concrete statements have already been committed.
+     */
+    private InferenceJob submitInferenceJob(final InferredOWLOntologyID artifactId,
+            final Set<? extends OWLOntologyID> schemaImports)
+    {
+        final InferenceJob job = new InferenceJob(artifactId);
+        this.inferenceJobs.put(artifactId.getVersionIRI(), job);
+        
+        try
+        {
+            this.inferenceExecutor.execute(new Runnable()
                 {
-                    throw new DuplicateArtifactIRIException(ontologyIRI, "This artifact is already managed");
-                }
-            }
-            catch(final UnmanagedArtifactIRIException e)
-            {
-                // ignore. indicates a new artifact is being uploaded
-                this.log.info("This is an unmanaged artifact IRI {}", ontologyIRI);
-            }
-            
-            IRI newVersionIRI = null;
-            if(currentManagedArtifactID == null || currentManagedArtifactID.getVersionIRI() == null)
-            {
-                newVersionIRI = IRI.create(ontologyIRI.toString() + ":version:1");
-            }
-            
-            if(newVersionIRI != null)
-            {
-                // set version IRI in temporary repository
-                this.log.info("Setting version IRI to <{}>", newVersionIRI);
-            }
-            
-            temporaryConnection.remove(ontologyIRI.toOpenRDFURI(), OWL.VERSIONIRI, null, randomContext);
-            temporaryConnection.add(ontologyIRI.toOpenRDFURI(), OWL.VERSIONIRI, newVersionIRI.toOpenRDFURI(),
-                    randomContext);
-            
-            // check and update statements with default timestamp values
-            final Value now = PODD.VF.createLiteral(new Date());
-            this.handleTimestamps(temporaryConnection, PODD.PODD_BASE_CREATED_AT, now, randomContext);
-            this.handleTimestamps(temporaryConnection, PODD.PODD_BASE_LAST_MODIFIED, now, randomContext);
-            
-            this.handleDanglingObjects(ontologyIRI, temporaryConnection, randomContext, danglingObjectPolicy);
-            
-            // ensure schema ontologies are cached in memory before loading
-            // statements into OWLAPI
-            // this.getDirectImports(managementConnection, temporaryRepositoryConnection,
-            // randomContext);
-            
+                    @Override
+                    public void run()
+                    {
+                        PoddArtifactManagerImpl.this.runInferenceJob(job, schemaImports);
+                    }
+                });
+        }
+        catch(final RejectedExecutionException e)
+        {
+            this.log.error("Inference job was rejected: {}", artifactId);
+            job.setFailed("Inference job was rejected: " + e.getMessage());
+        }
+        
+        return job;
+    }
+    
+    /**
+     * Computes and stores the inferred statements for an inference job, using new connections as
+     * the connections used to store the concrete statements have already been closed. The concrete
+     * statements were checked for consistency before they were stored, so a job only fails if the
+     * repository or reasoner fails, or if the version was deleted or replaced before the job ran.
+     */
+    private void runInferenceJob(final InferenceJob job, final Set<? extends OWLOntologyID> schemaImports)
+    {
+        job.setStatus(InferenceJobStatus.RUNNING);
+        
+        final InferredOWLOntologyID artifactId = job.getArtifactID();
+        final long start = System.currentTimeMillis();
+        
+        RepositoryConnection permanentConnection = null;
+        RepositoryConnection managementConnection = null;
+        
+        // Held until the inferred statements are committed, so that they can not be added to a
+        // version that is being deleted, updated or compacted
+        final Lock artifactLock = this.getArtifactLock(artifactId.getOntologyIRI());
+        artifactLock.lock();
+        try
+        {
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
-            permanentConnection.begin();
-            
-            inferredOWLOntologyID =
-                    this.loadInferStoreArtifact(temporaryConnection, permanentConnection, managementConnection,
-                            randomContext, dataReferenceVerificationPolicy, false, schemaImports);
-            
-            this.getSesameManager().updateManagedPoddArtifactVersion(inferredOWLOntologyID, true, managementConnection,
-                    this.getRepositoryManager().getArtifactManagementGraph());
             
-            managementConnection.remove(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS, null, this
-                    .getRepositoryManager().getArtifactManagementGraph());
+            final Model concreteStatements = new LinkedHashModel();
+            permanentConnection.export(new StatementCollector(concreteStatements), artifactId.getVersionIRI()
+                    .toOpenRDFURI());
             
-            for(final Statement nextImport : Iterations.asList(permanentConnection.getStatements(inferredOWLOntologyID
-                    .getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS, null, true, inferredOWLOntologyID.getVersionIRI()
-                    .toOpenRDFURI())))
+            if(concreteStatements.isEmpty()
+                    || this.getSesameManager().getOntologyVersion(artifactId.getVersionIRI(), managementConnection,
+                            this.getRepositoryManager().getArtifactManagementGraph()) == null)
             {
-                managementConnection.add(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS,
-                        nextImport.getObject(), this.getRepositoryManager().getArtifactManagementGraph());
+                this.log.info("Artifact version was removed before its inferences were computed: {}", artifactId);
+                job.setFailed("Artifact version was deleted or replaced before its inferences were computed");
+                return;
             }
             
-            for(final OWLOntologyID nextSchemaImport : schemaImports)
-            {
-                managementConnection.add(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS,
-                        nextSchemaImport.getVersionIRI().toOpenRDFURI(), this.getRepositoryManager()
-                                .getArtifactManagementGraph());
-            }
+            final Model inferredStatements =
+                    this.getOWLManager().computeInferredStatements(concreteStatements, schemaImports,
+                            managementConnection, this.getRepositoryManager().getSchemaManagementGraph());
             
+            permanentConnection.begin();
+            permanentConnection.add(inferredStatements, artifactId.getInferredOntologyIRI().toOpenRDFURI());
             permanentConnection.commit();
-            managementConnection.commit();
             
-            return inferredOWLOntologyID;
+            this.indexLabels(permanentConnection, artifactId);
+            
+            job.setStatus(InferenceJobStatus.DONE);
+            this.log.info("Inferred {} statements for {} in {}ms", inferredStatements.size(), artifactId,
+                    System.currentTimeMillis() - start);
         }
         catch(final Throwable e)
         {
+            this.log.error("Failed to compute inferences for artifact: " + artifactId, e);
+            job.setFailed(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+            
             try
             {
-                if(managementConnection != null)
+                if(permanentConnection != null && permanentConnection.isActive())
                 {
-                    managementConnection.rollback();
+                    permanentConnection.rollback();
                 }
             }
-            finally
+            catch(final RepositoryException e1)
             {
-                try
-                {
-                    if(permanentConnection != null)
-                    {
-                        permanentConnection.rollback();
-                    }
-                }
-                finally
-                {
-                    if(temporaryConnection != null)
-                    {
-                        temporaryConnection.rollback();
-                    }
-                }
+                this.log.error("Found error rolling back repository connection", e1);
             }
-            throw e;
         }
         finally
         {
+            artifactLock.unlock();
+            
             try
             {
-                // release resources
-                if(inferredOWLOntologyID != null && schemaImports != null)
+                if(permanentConnection != null)
                 {
-                    try
-                    {
-                        this.getOWLManager().removeCache(inferredOWLOntologyID.getBaseOWLOntologyID(), schemaImports);
-                    }
-                    finally
-                    {
-                        this.getOWLManager().removeCache(inferredOWLOntologyID.getInferredOWLOntologyID(),
-                                schemaImports);
-                    }
+                    permanentConnection.close();
                 }
             }
+            catch(final RepositoryException e)
+            {
+                this.log.error("Found exception closing permanent repository connection", e);
+            }
             finally
             {
                 try
@@ -1686,97 +3328,79 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
                 {
                     this.log.error("Found exception closing management repository connection", e);
                 }
-                finally
-                {
-                    try
-                    {
-                        if(permanentConnection != null)
-                        {
-                            permanentConnection.close();
-                        }
-                    }
-                    catch(final RepositoryException e)
-                    {
-                        this.log.error("Found exception closing permanent repository connection", e);
-                    }
-                    finally
-                    {
-                        try
-                        {
-                            if(temporaryConnection != null)
-                            {
-                                temporaryConnection.close();
-                            }
-                        }
-                        catch(final RepositoryException e)
-                        {
-                            this.log.error("Found exception closing temporary repository connection", e);
-                        }
-                        finally
-                        {
-                            try
-                            {
-                                if(tempRepository != null)
-                                {
-                                    tempRepository.shutDown();
-                                }
-                            }
-                            catch(final RepositoryException e)
-                            {
-                                this.log.error("Found exception shutting down temporary repository", e);
-                            }
-                        }
-                    }
-                }
             }
         }
     }
     
     /**
-     * @param randomContext
-     * @param temporaryRepositoryConnection
-     * @throws RepositoryException
+     * Helper method to store the concrete statements for an updated artifact along with the
+     * incrementally computed inferred statements. The incremental inferences only covered the
+     * neighbourhood of the update, so the complete artifact is checked for consistency first.
      */
-    public void cleanPrivilegedAssertions(final URI randomContext,
-            final RepositoryConnection temporaryRepositoryConnection) throws RepositoryException
+    private InferredOWLOntologyID storeIncrementalArtifact(final InferredOWLOntologyID newID,
+            final Model inferences, final RepositoryConnection tempRepositoryConnection,
+            final RepositoryConnection permanentConnection, final RepositoryConnection managementConnection,
+            final URI tempContext, final DataReferenceVerificationPolicy fileReferencePolicy,
+            final Set<? extends OWLOntologyID> dependentSchemaOntologies) throws OpenRDFException, OWLException,
+        IOException, PoddException
     {
-        temporaryRepositoryConnection.remove((Resource)null, PODD.PODD_BASE_HAS_PUBLICATION_STATUS, (Resource)null,
-                randomContext);
+        final Model concreteStatements = new LinkedHashModel();
+        tempRepositoryConnection.export(new StatementCollector(concreteStatements), tempContext);
+        this.getOWLManager().checkStatements(concreteStatements, dependentSchemaOntologies, managementConnection,
+                this.getRepositoryManager().getSchemaManagementGraph());
+        
+        permanentConnection.add(tempRepositoryConnection.getStatements(null, null, null, false, tempContext), newID
+                .getVersionIRI().toOpenRDFURI());
+        permanentConnection.add(inferences, newID.getInferredOntologyIRI().toOpenRDFURI());
+        
+        this.handleFileReferences(permanentConnection, fileReferencePolicy, newID.getVersionIRI().toOpenRDFURI(),
+                newID.getInferredOntologyIRI().toOpenRDFURI());
+        
+        return newID;
     }
     
     /**
-     * Helper method to load the artifact into OWLAPI from a temporary location, perform reasoning
-     * and store in permanent repository.
-     * 
-     * @param fileReferencePolicy
-     * @param dependentSchemaOntologies
+     * Helper method to compare incrementally computed inferred statements with those stored after
+     * reasoning over the complete artifact, and report any differences.
      */
-    private InferredOWLOntologyID loadInferStoreArtifact(final RepositoryConnection tempRepositoryConnection,
-            final RepositoryConnection permanentConnection, final RepositoryConnection managementConnection,
-            final URI tempContext, final DataReferenceVerificationPolicy fileReferencePolicy,
-            final boolean asynchronousInferences, final Set<? extends OWLOntologyID> dependentSchemaOntologies)
-        throws OpenRDFException, OWLException, IOException, PoddException, OntologyNotInProfileException,
-        InconsistentOntologyException
+    private void verifyIncrementalInferences(final InferredOWLOntologyID fullID, final Model incrementalInferences,
+            final RepositoryConnection permanentConnection) throws OpenRDFException
     {
-        // load into OWLAPI
-        this.log.debug("Loading podd artifact from temp repository: {}", tempContext);
-        final List<Statement> statements =
-                Iterations.asList(tempRepositoryConnection.getStatements(null, null, null, true, tempContext));
+        final Model fullInferences = new LinkedHashModel();
+        permanentConnection.export(new StatementCollector(fullInferences), fullID.getInferredOntologyIRI()
+                .toOpenRDFURI());
         
-        final RioMemoryTripleSource owlSource =
-                new RioMemoryTripleSource(statements.iterator(), Namespaces.asMap(Iterations
-                        .asSet(tempRepositoryConnection.getNamespaces())));
-        
-        final InferredOWLOntologyID inferredOWLOntologyID =
-                this.getOWLManager().loadAndInfer(owlSource, permanentConnection, null, dependentSchemaOntologies,
-                        managementConnection, this.getRepositoryManager().getSchemaManagementGraph());
+        int missing = 0;
+        for(final Statement nextStatement : fullInferences)
+        {
+            if(!incrementalInferences.contains(nextStatement.getSubject(), nextStatement.getPredicate(),
+                    nextStatement.getObject()))
+            {
+                this.log.debug("Incremental inferences missing: {}", nextStatement);
+                missing++;
+            }
+        }
         
-        // Check file references after inferencing to accurately identify
-        // the parent object
-        this.handleFileReferences(permanentConnection, fileReferencePolicy, inferredOWLOntologyID.getVersionIRI()
-                .toOpenRDFURI(), inferredOWLOntologyID.getInferredOntologyIRI().toOpenRDFURI());
+        int extra = 0;
+        for(final Statement nextStatement : incrementalInferences)
+        {
+            if(!fullInferences.contains(nextStatement.getSubject(), nextStatement.getPredicate(),
+                    nextStatement.getObject()))
+            {
+                this.log.debug("Incremental inferences extra: {}", nextStatement);
+                extra++;
+            }
+        }
         
-        return inferredOWLOntologyID;
+        if(missing > 0 || extra > 0)
+        {
+            this.log.warn("Incremental inferences for {} differed from full inferences: {} missing, {} extra",
+                    fullID.getVersionIRI(), missing, extra);
+        }
+        else
+        {
+            this.log.info("Incremental inferences for {} matched full inferences", fullID.getVersionIRI());
+        }
     }
     
     /*
@@ -1962,6 +3586,17 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
      * @see com.github.podd.api.PoddArtifactManager#setFileReferenceManager(com.github
      * .podd.api.file. PoddFileReferenceManager)
      */
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#setAsynchronousInferences(boolean)
+     */
+    @Override
+    public void setAsynchronousInferences(final boolean asynchronousInferences)
+    {
+        this.asynchronousInferences = asynchronousInferences;
+    }
+    
     @Override
     public void setDataReferenceManager(final DataReferenceManager fileManager)
     {
@@ -1980,6 +3615,36 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         this.dataRepositoryManager = dataRepositoryManager;
     }
     
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#setDeltaVersionStorage(boolean)
+     */
+    @Override
+    public void setDeltaVersionStorage(final boolean deltaVersionStorage)
+    {
+        this.deltaVersionStorage = deltaVersionStorage;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.github.podd.api.PoddArtifactManager#setInferenceExecutor(java.util.concurrent.ExecutorService
+     * )
+     */
+    @Override
+    public void setInferenceExecutor(final ExecutorService inferenceExecutor)
+    {
+        this.inferenceExecutor = inferenceExecutor;
+    }
+    
+    @Override
+    public void setInferencePolicy(final InferencePolicy inferencePolicy)
+    {
+        this.inferencePolicy = inferencePolicy;
+    }
+    
     /*
      * (non-Javadoc)
      * 
@@ -2058,6 +3723,28 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             final Model model, final UpdatePolicy updatePolicy, final DanglingObjectPolicy danglingObjectAction,
             final DataReferenceVerificationPolicy fileReferenceAction) throws OpenRDFException, IOException,
         OWLException, PoddException
+    {
+        final Lock artifactLock = this.getArtifactLock(IRI.create(artifactUri));
+        artifactLock.lock();
+        try
+        {
+            return this.updateArtifactWithLock(artifactUri, versionUri, objectUris, model, updatePolicy,
+                    danglingObjectAction, fileReferenceAction);
+        }
+        finally
+        {
+            artifactLock.unlock();
+        }
+    }
+    
+    /**
+     * Updates an artifact while holding the lock for the artifact, so that the update is not
+     * interleaved with other changes to the stored versions of the artifact.
+     */
+    private Model updateArtifactWithLock(final URI artifactUri, final URI versionUri,
+            final Collection<URI> objectUris, final Model model, final UpdatePolicy updatePolicy,
+            final DanglingObjectPolicy danglingObjectAction, final DataReferenceVerificationPolicy fileReferenceAction)
+        throws OpenRDFException, IOException, OWLException, PoddException
     {
         if(model == null)
         {
@@ -2096,7 +3783,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             // FIXME - handle this conflict intelligently instead of rejecting the update.
         }
         
-        final Repository tempRepository = this.getRepositoryManager().getNewTemporaryRepository();
+        Repository tempRepository = null;
         RepositoryConnection tempRepositoryConnection = null;
         RepositoryConnection permanentConnection = null;
         RepositoryConnection managementConnection = null;
@@ -2105,10 +3792,6 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         
         try
         {
-            // create a temporary in-memory repository
-            tempRepositoryConnection = tempRepository.getConnection();
-            tempRepositoryConnection.begin();
-            
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             
             currentSchemaImports = this.getSchemaImports(artifactID);
@@ -2116,6 +3799,14 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(currentSchemaImports);
             permanentConnection.begin();
             
+            // The whole current version is copied into the temporary repository along with the
+            // changes, so it is sized for both
+            tempRepository =
+                    this.getRepositoryManager().getNewTemporaryRepository(
+                            permanentConnection.size(artifactID.getVersionIRI().toOpenRDFURI()) + model.size());
+            tempRepositoryConnection = tempRepository.getConnection();
+            tempRepositoryConnection.begin();
+            
             // load and copy the artifact's concrete statements to the temporary
             // store
             final RepositoryResult<Statement> repoResult =
@@ -2242,17 +3933,65 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             // this.getDirectImports(managementConnection, tempRepositoryConnection,
             // tempContext);
             
-            inferredOWLOntologyID =
-                    this.loadInferStoreArtifact(tempRepositoryConnection, permanentConnection, managementConnection,
-                            tempContext, fileReferenceAction, false, currentSchemaImports);
+            final boolean asynchronousInferences = this.useAsynchronousInferences(fileReferenceAction);
+            Model incrementalInferences = null;
+            InferredOWLOntologyID newOntologyID = null;
+            if(!asynchronousInferences && this.getInferencePolicy() != InferencePolicy.FULL)
+            {
+                newOntologyID =
+                        new InferredOWLOntologyID(artifactID.getOntologyIRI(), IRI.create(newVersionIRI
+                                .stringValue()), IRI.create(PODD.INFERRED_PREFIX + newVersionIRI.stringValue()));
+                incrementalInferences =
+                        this.computeIncrementalInferences(artifactID, newOntologyID, tempRepositoryConnection,
+                                permanentConnection, managementConnection, tempContext, currentSchemaImports);
+            }
+            
+            if(incrementalInferences != null && this.getInferencePolicy() == InferencePolicy.INCREMENTAL)
+            {
+                inferredOWLOntologyID =
+                        this.storeIncrementalArtifact(newOntologyID, incrementalInferences, tempRepositoryConnection,
+                                permanentConnection, managementConnection, tempContext, fileReferenceAction,
+                                currentSchemaImports);
+            }
+            else
+            {
+                inferredOWLOntologyID =
+                        this.loadInferStoreArtifact(tempRepositoryConnection, permanentConnection,
+                                managementConnection, tempContext, fileReferenceAction, asynchronousInferences,
+                                currentSchemaImports, null);
+                
+                // The complete inferences have been stored, so the incremental inferences are only
+                // compared with them, and any mismatch is reported
+                if(incrementalInferences != null)
+                {
+                    this.verifyIncrementalInferences(inferredOWLOntologyID, incrementalInferences,
+                            permanentConnection);
+                }
+            }
             
             this.getSesameManager().updateManagedPoddArtifactVersion(inferredOWLOntologyID, true, managementConnection,
                     this.getRepositoryManager().getArtifactManagementGraph());
             
+            if(this.isDeltaVersionStorage())
+            {
+                // The inferred statements for the new version are not available yet when they are
+                // computed asynchronously, so the previous inferred statements are kept in full
+                this.versionDeltaStore.storeDelta(artifactID, inferredOWLOntologyID, !asynchronousInferences,
+                        permanentConnection, managementConnection, this.getRepositoryManager()
+                                .getArtifactManagementGraph());
+            }
+            
             permanentConnection.commit();
             managementConnection.commit();
             tempRepositoryConnection.rollback();
             
+            this.indexLabels(permanentConnection, inferredOWLOntologyID);
+            
+            if(asynchronousInferences)
+            {
+                this.submitInferenceJob(inferredOWLOntologyID, currentSchemaImports);
+            }
+            
             return OntologyUtils.ontologyIDsToModel(Arrays.asList(inferredOWLOntologyID), resultsModel);
         }
         catch(final Exception e)
@@ -2313,29 +4052,18 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
                 {
                     try
                     {
-                        // release resources
-                        if(inferredOWLOntologyID != null && currentSchemaImports != null)
+                        if(tempRepositoryConnection != null)
                         {
-                            this.getOWLManager().removeCache(inferredOWLOntologyID.getBaseOWLOntologyID(),
-                                    currentSchemaImports);
-                            this.getOWLManager().removeCache(inferredOWLOntologyID.getInferredOWLOntologyID(),
-                                    currentSchemaImports);
+                            tempRepositoryConnection.close();
                         }
                     }
+                    catch(final RepositoryException e)
+                    {
+                        this.log.error("Found exception closing repository connection", e);
+                    }
                     finally
                     {
-                        try
-                        {
-                            if(tempRepositoryConnection != null)
-                            {
-                                tempRepositoryConnection.close();
-                            }
-                        }
-                        catch(final RepositoryException e)
-                        {
-                            this.log.error("Found exception closing repository connection", e);
-                        }
-                        finally
+                        if(tempRepository != null)
                         {
                             tempRepository.shutDown();
                         }
@@ -2362,6 +4090,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         RepositoryConnection newPermanentConnection = null;
         RepositoryConnection tempRepositoryConnection = null;
         Repository tempRepository = null;
+        final Lock artifactLock = this.getArtifactLock(artifactId.getOntologyIRI());
+        artifactLock.lock();
         try
         {
             managementConnection = this.repositoryManager.getManagementRepositoryConnection();
@@ -2395,7 +4125,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             
             this.log.info("Finished exporting artifact to RDF: {}", artifactVersion);
             
-            tempRepository = this.repositoryManager.getNewTemporaryRepository();
+            // The exported model is the whole current version, so it sizes the temporary repository
+            tempRepository = this.repositoryManager.getNewTemporaryRepository(model.size());
             tempRepositoryConnection = tempRepository.getConnection();
             tempRepositoryConnection.begin();
             // Bump the version identifier to a new value
@@ -2451,10 +4182,15 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             final InferredOWLOntologyID inferredOWLOntologyID =
                     this.loadInferStoreArtifact(tempRepositoryConnection, newPermanentConnection, managementConnection,
                             newVersionIRI.toOpenRDFURI(), DataReferenceVerificationPolicy.DO_NOT_VERIFY, false,
-                            newSchemaOntologyIds);
+                            newSchemaOntologyIds, null);
             
             this.log.info("Completed reload of artifact to Repository: {}", artifactVersion);
             
+            // Deltas for previous versions are relative to statements in the old permanent
+            // repository, so they cannot be followed into the new repository
+            this.versionDeltaStore.deleteDeltas(artifactVersion.getOntologyIRI(), oldPermanentConnection,
+                    managementConnection, this.getRepositoryManager().getArtifactManagementGraph());
+            
             this.getSesameManager().updateManagedPoddArtifactVersion(inferredOWLOntologyID, true, managementConnection,
                     this.getRepositoryManager().getArtifactManagementGraph());
             
@@ -2522,6 +4258,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
         finally
         {
+            artifactLock.unlock();
+            
             try
             {
                 if(managementConnection != null)
@@ -2569,4 +4307,21 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
+    @Override
+    public void warmUpObjectMetadata(final Collection<URI> objectTypes) throws OpenRDFException, PoddException,
+        IOException
+    {
+        for(final URI nextObjectType : objectTypes)
+        {
+            for(final MetadataPolicy nextPolicy : MetadataPolicy.values())
+            {
+                this.getObjectMetadata(nextObjectType, false, nextPolicy, null);
+            }
+        }
+        
+        this.log.info("Object metadata cache warmed up for {}: size={} hits={} misses={}", objectTypes,
+                this.objectMetadataCache.size(), this.objectMetadataCache.getHitCount(),
+                this.objectMetadataCache.getMissCount());
+    }
+    
 }
@@ -0,0 +1,327 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl;
+
+import info.aduna.iteration.Iterations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openrdf.OpenRDFException;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.repository.RepositoryConnection;
+
+import com.github.podd.utils.PoddLruCache;
+
+/**
+ * A cache of the rdfs:label and rdfs:comment statements about each URI in each context, shared
+ * across requests so that the same labels are not looked up again for every page that shows them.
+ * <p>
+ * Contexts are version IRIs, so entries only need to be removed when their context is deleted or
+ * replaced by a new version. Entries for pinned contexts, which are used for schema ontologies and
+ * published artifacts, are kept until their context is unpinned or removed. Entries for all other
+ * contexts are evicted when the cache is full, least recently used first.
+ */
+public class PoddLabelCache
+{
+    /**
+     * The default number of entries to keep for contexts that are not pinned.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 100000;
+    
+    private final Set<URI> pinnedContexts = Collections.newSetFromMap(new ConcurrentHashMap<URI, Boolean>());
+    
+    private final ConcurrentMap<URI, ConcurrentMap<URI, List<Statement>>> pinnedEntries =
+            new ConcurrentHashMap<>();
+    
+    /**
+     * Entries for contexts that are not pinned, keyed by context and then subject.
+     */
+    private final PoddLruCache<List<URI>, List<Statement>> entries;
+    
+    /**
+     * Creates a cache with the {@link #DEFAULT_MAXIMUM_SIZE}.
+     */
+    public PoddLabelCache()
+    {
+        this(PoddLabelCache.DEFAULT_MAXIMUM_SIZE);
+    }
+    
+    /**
+     * 
+     * @param maximumSize
+     *            The maximum number of entries to keep for contexts that are not pinned.
+     */
+    public PoddLabelCache(final int maximumSize)
+    {
+        this.entries = new PoddLruCache<>(maximumSize);
+    }
+    
+    /**
+     * Removes all of the entries from this cache, without changing which contexts are pinned.
+     */
+    public void clear()
+    {
+        this.pinnedEntries.clear();
+        this.entries.clear();
+    }
+    
+    private List<Statement> getEntry(final URI context, final URI subject)
+    {
+        final ConcurrentMap<URI, List<Statement>> pinned = this.pinnedEntries.get(context);
+        if(pinned != null)
+        {
+            final List<Statement> result = pinned.get(subject);
+            if(result != null)
+            {
+                this.entries.recordHit();
+                return result;
+            }
+        }
+        return this.entries.get(Arrays.asList(context, subject));
+    }
+    
+    /**
+     * 
+     * @return The number of lookups of a URI in a context that were found in this cache.
+     */
+    public long getHitCount()
+    {
+        return this.entries.getHitCount();
+    }
+    
+    /**
+     * Gets the rdfs:label and rdfs:comment statements about each of the given URIs in each of the
+     * given contexts. The URIs and contexts that have not been cached are looked up together, and
+     * cached even if they have no labels.
+     * 
+     * @param subjects
+     *            The URIs whose labels are sought.
+     * @param repositoryConnection
+     *            The connection to use to look up labels that have not been cached.
+     * @param contexts
+     *            The contexts to find labels in, which must not be empty.
+     * @return A {@link Model} containing the label and comment statements, with their contexts.
+     * @throws OpenRDFException
+     */
+    public Model getLabels(final Collection<URI> subjects, final RepositoryConnection repositoryConnection,
+            final URI... contexts) throws OpenRDFException
+    {
+        if(contexts.length == 0)
+        {
+            throw new IllegalArgumentException("Labels can only be cached for specific contexts");
+        }
+        
+        final Model results = new LinkedHashModel();
+        final Set<URI> missingSubjects = new LinkedHashSet<>();
+        final Set<URI> missingContexts = new LinkedHashSet<>();
+        for(final URI nextSubject : subjects)
+        {
+            for(final URI nextContext : contexts)
+            {
+                final List<Statement> cached = this.getEntry(nextContext, nextSubject);
+                if(cached == null)
+                {
+                    missingSubjects.add(nextSubject);
+                    missingContexts.add(nextContext);
+                }
+                else
+                {
+                    results.addAll(cached);
+                }
+            }
+        }
+        
+        if(!missingSubjects.isEmpty())
+        {
+            final URI[] queryContexts = missingContexts.toArray(new URI[missingContexts.size()]);
+            for(final URI nextSubject : missingSubjects)
+            {
+                final Map<Resource, List<Statement>> found = new HashMap<>();
+                for(final URI nextProperty : Arrays.asList(RDFS.LABEL, RDFS.COMMENT))
+                {
+                    for(final Statement next : Iterations.asList(repositoryConnection.getStatements(nextSubject,
+                            nextProperty, null, true, queryContexts)))
+                    {
+                        List<Statement> nextStatements = found.get(next.getContext());
+                        if(nextStatements == null)
+                        {
+                            nextStatements = new ArrayList<>();
+                            found.put(next.getContext(), nextStatements);
+                        }
+                        nextStatements.add(next);
+                    }
+                }
+                
+                for(final URI nextContext : queryContexts)
+                {
+                    List<Statement> nextStatements = found.get(nextContext);
+                    if(nextStatements == null)
+                    {
+                        nextStatements = Collections.emptyList();
+                    }
+                    else
+                    {
+                        nextStatements = Collections.unmodifiableList(nextStatements);
+                    }
+                    this.putEntry(nextContext, nextSubject, nextStatements);
+                    results.addAll(nextStatements);
+                }
+            }
+        }
+        
+        return results;
+    }
+    
+    /**
+     * 
+     * @return The number of lookups of a URI in a context that were not found in this cache.
+     */
+    public long getMissCount()
+    {
+        return this.entries.getMissCount();
+    }
+    
+    /**
+     * Removes the entries for the given contexts, without changing whether they are pinned, so
+     * that their labels are looked up again the next time they are needed.
+     * 
+     * @param contexts
+     *            The contexts whose entries are to be removed.
+     */
+    public void invalidate(final URI... contexts)
+    {
+        final Set<URI> removedContexts = new LinkedHashSet<>(Arrays.asList(contexts));
+        for(final URI nextContext : removedContexts)
+        {
+            this.pinnedEntries.remove(nextContext);
+        }
+        final List<List<URI>> removedKeys = new ArrayList<>();
+        for(final List<URI> nextKey : this.entries.getKeys())
+        {
+            if(removedContexts.contains(nextKey.get(0)))
+            {
+                removedKeys.add(nextKey);
+            }
+        }
+        this.entries.removeAll(removedKeys);
+    }
+    
+    /**
+     * 
+     * @param context
+     *            A context.
+     * @return True if entries for the given context are kept until it is unpinned or removed.
+     */
+    public boolean isPinned(final URI context)
+    {
+        return this.pinnedContexts.contains(context);
+    }
+    
+    /**
+     * Keeps the entries for the given contexts until they are unpinned or removed, instead of
+     * evicting them when they are not used. Entries that were cached before the contexts were
+     * pinned may still be evicted.
+     * 
+     * @param contexts
+     *            The contexts to pin.
+     */
+    public void pin(final URI... contexts)
+    {
+        this.pinnedContexts.addAll(Arrays.asList(contexts));
+    }
+    
+    private void putEntry(final URI context, final URI subject, final List<Statement> statements)
+    {
+        if(this.pinnedContexts.contains(context))
+        {
+            ConcurrentMap<URI, List<Statement>> pinned = this.pinnedEntries.get(context);
+            if(pinned == null)
+            {
+                pinned = new ConcurrentHashMap<>();
+                final ConcurrentMap<URI, List<Statement>> existing =
+                        this.pinnedEntries.putIfAbsent(context, pinned);
+                if(existing != null)
+                {
+                    pinned = existing;
+                }
+            }
+            pinned.put(subject, statements);
+        }
+        else
+        {
+            this.entries.put(Arrays.asList(context, subject), statements);
+        }
+    }
+    
+    /**
+     * Removes the entries for the given contexts, and unpins them, as they have been deleted or
+     * replaced.
+     * 
+     * @param contexts
+     *            The contexts to remove.
+     */
+    public void remove(final URI... contexts)
+    {
+        this.unpin(contexts);
+        this.invalidate(contexts);
+    }
+    
+    /**
+     * 
+     * @return The number of entries in this cache, including entries for pinned contexts.
+     */
+    public int size()
+    {
+        int result = this.entries.size();
+        for(final ConcurrentMap<URI, List<Statement>> nextPinned : this.pinnedEntries.values())
+        {
+            result += nextPinned.size();
+        }
+        return result;
+    }
+    
+    /**
+     * Allows the entries for the given contexts to be evicted again. The entries that were kept
+     * while the contexts were pinned are removed.
+     * 
+     * @param contexts
+     *            The contexts to unpin.
+     */
+    public void unpin(final URI... contexts)
+    {
+        for(final URI nextContext : contexts)
+        {
+            this.pinnedContexts.remove(nextContext);
+            this.pinnedEntries.remove(nextContext);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl;
+
+import info.aduna.iteration.Iterations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openrdf.OpenRDFException;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.repository.RepositoryConnection;
+
+/**
+ * An in-memory inverted index over the rdfs:label statements in each artifact and schema context,
+ * used to search labels without scanning the repository.
+ * <p>
+ * Each context is indexed separately, so searches are scoped to the given contexts exactly as the
+ * equivalent SPARQL query would be. Contexts are version IRIs, so an indexed context only needs to
+ * be replaced if its statements are added asynchronously, and removed when it is deleted. Contexts
+ * that are searched before being indexed are indexed on demand.
+ */
+public class PoddLabelIndex
+{
+    /**
+     * The labels and types in a single context, with every suffix of every token in the labels
+     * mapped to the labels containing it, so that substring searches become prefix lookups.
+     */
+    private static class ContextLabels
+    {
+        private final List<Statement> labels = new ArrayList<>();
+        
+        private final List<String> lowerCaseLabels = new ArrayList<>();
+        
+        private final NavigableMap<String, BitSet> suffixes = new TreeMap<>();
+        
+        private final Map<Resource, Set<Value>> types = new HashMap<>();
+        
+        ContextLabels(final Iterable<Statement> labels, final Iterable<Statement> types)
+        {
+            for(final Statement nextLabel : labels)
+            {
+                final int index = this.labels.size();
+                final String lowerCaseLabel = nextLabel.getObject().stringValue().toLowerCase();
+                this.labels.add(nextLabel);
+                this.lowerCaseLabels.add(lowerCaseLabel);
+                
+                for(final String nextToken : PoddLabelIndex.tokenise(lowerCaseLabel))
+                {
+                    for(int i = 0; i < nextToken.length(); i++)
+                    {
+                        final String nextSuffix = nextToken.substring(i);
+                        BitSet matches = this.suffixes.get(nextSuffix);
+                        if(matches == null)
+                        {
+                            matches = new BitSet();
+                            this.suffixes.put(nextSuffix, matches);
+                        }
+                        matches.set(index);
+                    }
+                }
+            }
+            
+            for(final Statement nextType : types)
+            {
+                Set<Value> nextTypes = this.types.get(nextType.getSubject());
+                if(nextTypes == null)
+                {
+                    nextTypes = new HashSet<>();
+                    this.types.put(nextType.getSubject(), nextTypes);
+                }
+                nextTypes.add(nextType.getObject());
+            }
+        }
+        
+        /**
+         * @param token
+         *            A lower case token from the search term, or null to match all labels.
+         * @return The indexes of the labels that contain the given token.
+         */
+        BitSet getCandidates(final String token)
+        {
+            final BitSet result = new BitSet(this.labels.size());
+            if(token == null)
+            {
+                result.set(0, this.labels.size());
+            }
+            else
+            {
+                for(final BitSet nextMatches : this.suffixes.subMap(token, true, token + Character.MAX_VALUE, false)
+                        .values())
+                {
+                    result.or(nextMatches);
+                }
+            }
+            return result;
+        }
+        
+        boolean hasType(final Resource subject, final Value type)
+        {
+            final Set<Value> subjectTypes = this.types.get(subject);
+            return subjectTypes != null && subjectTypes.contains(type);
+        }
+    }
+    
+    /**
+     * Splits the given text into its runs of letters and digits.
+     */
+    private static List<String> tokenise(final String text)
+    {
+        final List<String> result = new ArrayList<>();
+        int start = -1;
+        for(int i = 0; i <= text.length(); i++)
+        {
+            if(i < text.length() && Character.isLetterOrDigit(text.charAt(i)))
+            {
+                if(start < 0)
+                {
+                    start = i;
+                }
+            }
+            else if(start >= 0)
+            {
+                result.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return result;
+    }
+    
+    private final ConcurrentMap<URI, ContextLabels> contextLabels = new ConcurrentHashMap<>();
+    
+    /**
+     * Removes all of the indexed contexts.
+     */
+    public void clear()
+    {
+        this.contextLabels.clear();
+    }
+    
+    private ContextLabels createContextLabels(final RepositoryConnection connection, final URI context)
+        throws OpenRDFException
+    {
+        return new ContextLabels(Iterations.asList(connection.getStatements(null, RDFS.LABEL, null, true, context)),
+                Iterations.asList(connection.getStatements(null, RDF.TYPE, null, true, context)));
+    }
+    
+    private boolean hasTypes(final Resource subject, final URI[] searchTypes, final List<ContextLabels> searchContexts)
+    {
+        if(searchTypes == null)
+        {
+            return true;
+        }
+        
+        for(final URI nextType : searchTypes)
+        {
+            boolean found = false;
+            for(final ContextLabels nextContext : searchContexts)
+            {
+                if(nextContext.hasType(subject, nextType))
+                {
+                    found = true;
+                    break;
+                }
+            }
+            if(!found)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Indexes the labels in the given contexts, replacing any existing index for them.
+     * 
+     * @param connection
+     *            The connection containing the contexts.
+     * @param contexts
+     *            The contexts to index.
+     * @throws OpenRDFException
+     */
+    public void index(final RepositoryConnection connection, final URI... contexts) throws OpenRDFException
+    {
+        for(final URI nextContext : contexts)
+        {
+            if(nextContext != null)
+            {
+                this.contextLabels.put(nextContext, this.createContextLabels(connection, nextContext));
+            }
+        }
+    }
+    
+    /**
+     * @param context
+     *            A context.
+     * @return True if the labels in the given context are indexed.
+     */
+    public boolean isIndexed(final URI context)
+    {
+        return this.contextLabels.containsKey(context);
+    }
+    
+    /**
+     * Removes the index for the given contexts, typically because they have been deleted.
+     * 
+     * @param contexts
+     *            The contexts to remove.
+     */
+    public void remove(final URI... contexts)
+    {
+        for(final URI nextContext : contexts)
+        {
+            if(nextContext != null)
+            {
+                this.contextLabels.remove(nextContext);
+            }
+        }
+    }
+    
+    /**
+     * Finds the labels in the given contexts that contain the given search term, ignoring case,
+     * attached to resources that have all of the given types in the given contexts. This is
+     * equivalent to filtering the labels with CONTAINS(LCASE(?label), LCASE(?searchTerm)) in
+     * SPARQL.
+     * 
+     * @param searchTerm
+     *            The text to search for.
+     * @param searchTypes
+     *            The types that matching resources must have, or null to match any resource.
+     * @param limit
+     *            The maximum number of results.
+     * @param offset
+     *            The number of results to skip.
+     * @param connection
+     *            The connection used to index any contexts that are not yet indexed.
+     * @param contexts
+     *            The contexts to search.
+     * @return A model containing the matching rdfs:label statements, without contexts.
+     * @throws OpenRDFException
+     */
+    public Model search(final String searchTerm, final URI[] searchTypes, final int limit, final int offset,
+            final RepositoryConnection connection, final URI... contexts) throws OpenRDFException
+    {
+        final List<ContextLabels> searchContexts = new ArrayList<>(contexts.length);
+        for(final URI nextContext : new LinkedHashSet<URI>(Arrays.asList(contexts)))
+        {
+            if(nextContext == null)
+            {
+                continue;
+            }
+            
+            ContextLabels nextLabels = this.contextLabels.get(nextContext);
+            // Contexts without any statements may still be in the process of being loaded, so they
+            // are not recorded
+            if(nextLabels == null && connection.hasStatement(null, null, null, false, nextContext))
+            {
+                nextLabels = this.createContextLabels(connection, nextContext);
+                final ContextLabels existing = this.contextLabels.putIfAbsent(nextContext, nextLabels);
+                if(existing != null)
+                {
+                    nextLabels = existing;
+                }
+            }
+            if(nextLabels != null)
+            {
+                searchContexts.add(nextLabels);
+            }
+        }
+        
+        final String lowerCaseSearchTerm = searchTerm.toLowerCase();
+        // Every matching label must contain the longest token in the search term
+        String longestToken = null;
+        for(final String nextToken : PoddLabelIndex.tokenise(lowerCaseSearchTerm))
+        {
+            if(longestToken == null || nextToken.length() > longestToken.length())
+            {
+                longestToken = nextToken;
+            }
+        }
+        
+        final Model matches = new LinkedHashModel();
+        for(final ContextLabels nextContext : searchContexts)
+        {
+            final BitSet candidates = nextContext.getCandidates(longestToken);
+            for(int i = candidates.nextSetBit(0); i >= 0 && matches.size() < offset + limit; i =
+                    candidates.nextSetBit(i + 1))
+            {
+                if(!nextContext.lowerCaseLabels.get(i).contains(lowerCaseSearchTerm))
+                {
+                    continue;
+                }
+                
+                final Statement nextLabel = nextContext.labels.get(i);
+                if(this.hasTypes(nextLabel.getSubject(), searchTypes, searchContexts))
+                {
+                    matches.add(nextLabel.getSubject(), nextLabel.getPredicate(), nextLabel.getObject());
+                }
+            }
+        }
+        
+        final Model results = new LinkedHashModel();
+        int index = 0;
+        for(final Statement nextMatch : matches)
+        {
+            if(index >= offset)
+            {
+                results.add(nextMatch);
+            }
+            index++;
+        }
+        return results;
+    }
+    
+    /**
+     * @return The number of indexed contexts.
+     */
+    public int size()
+    {
+        return this.contextLabels.size();
+    }
+}
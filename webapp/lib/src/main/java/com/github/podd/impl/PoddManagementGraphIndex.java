@@ -0,0 +1,696 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.OWL;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.Update;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.base.RepositoryConnectionWrapper;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.helpers.StatementCollector;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PODD;
+
+/**
+ * An in-memory, indexed view of the artifact and schema management graphs, which answers the
+ * common management lookups without evaluating SPARQL queries against the management repository.
+ * <p>
+ * Each management graph is copied into a {@link LinkedHashModel} the first time it is looked up.
+ * All writes made through a {@link ManagementConnection} are tracked, and the copies are discarded
+ * when the write is committed or rolled back, so they are rebuilt on the next lookup. While any
+ * write is uncommitted, lookups return null and callers must query the repository directly.
+ * <p>
+ * The schema contexts resolved for each artifact version are also cached here. As they are
+ * expensive to resolve and rarely change, they are only discarded when a write touches one of the
+ * artifact or schema ontologies that they were resolved from.
+ */
+public class PoddManagementGraphIndex
+{
+    private final ConcurrentMap<URI, ManagementGraph> graphs = new ConcurrentHashMap<>();
+    
+    /**
+     * Keyed by the artifact version URI, or null for the current schemas, followed by the schema
+     * and artifact management graphs.
+     */
+    private final ConcurrentMap<List<URI>, SchemaContexts> schemaContexts = new ConcurrentHashMap<>();
+    
+    private final Set<ManagementConnection> pendingWriters = Collections
+            .newSetFromMap(new ConcurrentHashMap<ManagementConnection, Boolean>());
+    
+    /**
+     * Incremented whenever a write starts or finishes, to detect copies that were built
+     * concurrently with a write.
+     */
+    private final AtomicLong generation = new AtomicLong(0);
+    
+    private void beginWrite(final ManagementConnection connection)
+    {
+        this.pendingWriters.add(connection);
+        this.generation.incrementAndGet();
+    }
+    
+    private void endWrite(final ManagementConnection connection)
+    {
+        // Invalidate before removing the writer so that no stale copy is shared in between
+        this.generation.incrementAndGet();
+        this.graphs.clear();
+        for(final Iterator<SchemaContexts> iterator = this.schemaContexts.values().iterator(); iterator.hasNext();)
+        {
+            if(iterator.next().isAffectedBy(connection))
+            {
+                iterator.remove();
+            }
+        }
+        this.pendingWriters.remove(connection);
+    }
+    
+    /**
+     * Gets the indexed view of a management graph, as seen by the given connection.
+     * 
+     * @param connection
+     *            The connection to copy the graph from if there is no current copy.
+     * @param managementGraph
+     *            The management graph to look up.
+     * @return The indexed view of the graph, or null if there are uncommitted writes to the
+     *         management repository.
+     * @throws RepositoryException
+     */
+    private ManagementGraph getGraph(final ManagementConnection connection, final URI managementGraph)
+        throws RepositoryException
+    {
+        if(!this.pendingWriters.isEmpty())
+        {
+            return null;
+        }
+        
+        final long currentGeneration = this.generation.get();
+        final ManagementGraph existing = this.graphs.get(managementGraph);
+        if(existing != null && existing.generation == currentGeneration)
+        {
+            return existing;
+        }
+        
+        final Model model = new LinkedHashModel();
+        try
+        {
+            connection.getDelegate().export(new StatementCollector(model), managementGraph);
+        }
+        catch(final RDFHandlerException e)
+        {
+            throw new RepositoryException("Could not copy management graph: " + managementGraph, e);
+        }
+        
+        final ManagementGraph result = new ManagementGraph(model, currentGeneration);
+        
+        // Only share the copy if no writes started or finished while it was being built
+        if(this.pendingWriters.isEmpty() && this.generation.get() == currentGeneration)
+        {
+            this.graphs.put(managementGraph, result);
+        }
+        
+        return result;
+    }
+    
+    private List<URI> getSchemaContextsKey(final InferredOWLOntologyID artifactID, final URI schemaManagementGraph,
+            final URI artifactManagementGraph)
+    {
+        final URI versionUri = artifactID == null ? null : artifactID.getVersionIRI().toOpenRDFURI();
+        return Arrays.asList(versionUri, schemaManagementGraph, artifactManagementGraph);
+    }
+    
+    private URI[] getSchemaContexts(final InferredOWLOntologyID artifactID, final URI schemaManagementGraph,
+            final URI artifactManagementGraph)
+    {
+        if(!this.pendingWriters.isEmpty())
+        {
+            return null;
+        }
+        
+        final SchemaContexts existing =
+                this.schemaContexts.get(this.getSchemaContextsKey(artifactID, schemaManagementGraph,
+                        artifactManagementGraph));
+        if(existing == null)
+        {
+            return null;
+        }
+        return existing.contexts.clone();
+    }
+    
+    private void putSchemaContexts(final InferredOWLOntologyID artifactID, final URI schemaManagementGraph,
+            final URI artifactManagementGraph, final ManagementGraph indexedGraph,
+            final Collection<? extends OWLOntologyID> schemaOntologies, final URI[] contexts)
+    {
+        Set<Resource> dependencies = null;
+        if(artifactID != null)
+        {
+            dependencies = new HashSet<>();
+            dependencies.add(artifactID.getOntologyIRI().toOpenRDFURI());
+            dependencies.add(artifactID.getVersionIRI().toOpenRDFURI());
+            for(final OWLOntologyID nextSchemaOntology : schemaOntologies)
+            {
+                dependencies.add(nextSchemaOntology.getOntologyIRI().toOpenRDFURI());
+                if(nextSchemaOntology.getVersionIRI() != null)
+                {
+                    dependencies.add(nextSchemaOntology.getVersionIRI().toOpenRDFURI());
+                }
+            }
+        }
+        
+        // Only share the contexts if they were resolved from a copy that is still current
+        if(this.pendingWriters.isEmpty() && this.generation.get() == indexedGraph.generation)
+        {
+            this.schemaContexts.put(this.getSchemaContextsKey(artifactID, schemaManagementGraph,
+                    artifactManagementGraph), new SchemaContexts(schemaManagementGraph, dependencies, contexts
+                    .clone()));
+        }
+    }
+    
+    /**
+     * Wraps a connection to the management repository so that writes through it are tracked by
+     * this index.
+     * 
+     * @param repository
+     *            The management repository.
+     * @param connection
+     *            A connection to the management repository.
+     * @return A connection that can be used to look up indexed views of the management graphs.
+     */
+    public ManagementConnection wrap(final Repository repository, final RepositoryConnection connection)
+    {
+        return new ManagementConnection(this, repository, connection);
+    }
+    
+    /**
+     * An immutable, indexed copy of a single management graph.
+     */
+    public static class ManagementGraph
+    {
+        private final Model model;
+        
+        private final long generation;
+        
+        ManagementGraph(final Model model, final long generation)
+        {
+            this.model = model;
+            this.generation = generation;
+        }
+        
+        private void addVersion(final List<InferredOWLOntologyID> results, final Resource ontology,
+                final URI version)
+        {
+            final Set<Value> inferredVersions =
+                    this.model.filter(version, PODD.PODD_BASE_INFERRED_VERSION, null).objects();
+            if(inferredVersions.isEmpty())
+            {
+                results.add(new InferredOWLOntologyID(IRI.create(ontology.stringValue()), IRI.create(version), null));
+            }
+            for(final Value nextInferredVersion : inferredVersions)
+            {
+                results.add(new InferredOWLOntologyID(IRI.create(ontology.stringValue()), IRI.create(version), IRI
+                        .create(nextInferredVersion.stringValue())));
+            }
+        }
+        
+        /**
+         * Finds the current versions of the artifacts in this graph, selected by their publication
+         * status.
+         * 
+         * @param published
+         *            True to include published artifacts.
+         * @param unpublished
+         *            True to include unpublished artifacts.
+         * @return The matching artifacts, ordered by ontology IRI and then version IRI.
+         */
+        public List<InferredOWLOntologyID> getArtifacts(final boolean published, final boolean unpublished)
+        {
+            final List<InferredOWLOntologyID> results = new ArrayList<>();
+            for(final InferredOWLOntologyID nextArtifact : this.getOntologies(true))
+            {
+                final boolean isPublished =
+                        this.model.contains(nextArtifact.getOntologyIRI().toOpenRDFURI(),
+                                PODD.PODD_BASE_HAS_PUBLICATION_STATUS, PODD.PODD_BASE_PUBLISHED);
+                if(isPublished ? published : unpublished)
+                {
+                    results.add(nextArtifact);
+                }
+            }
+            Collections.sort(results, new Comparator<InferredOWLOntologyID>()
+                {
+                    @Override
+                    public int compare(final InferredOWLOntologyID o1, final InferredOWLOntologyID o2)
+                    {
+                        final int result = o1.getOntologyIRI().toString().compareTo(o2.getOntologyIRI().toString());
+                        if(result != 0)
+                        {
+                            return result;
+                        }
+                        return o1.getVersionIRI().toString().compareTo(o2.getVersionIRI().toString());
+                    }
+                });
+            return results;
+        }
+        
+        /**
+         * Finds the current versions of the ontology with the given IRI, where the IRI may be
+         * either an ontology IRI or a version IRI.
+         * 
+         * @param ontologyIRI
+         *            Either an ontology IRI or a version IRI.
+         * @return The current versions, with the current version by convention at the start of the
+         *         list, or an empty list if the ontology is not managed.
+         */
+        public List<InferredOWLOntologyID> getCurrentVersions(final IRI ontologyIRI)
+        {
+            final List<InferredOWLOntologyID> results = new ArrayList<>();
+            final URI ontologyUri = ontologyIRI.toOpenRDFURI();
+            
+            // 1: see if the given IRI exists as an ontology IRI
+            if(this.model.contains(ontologyUri, RDF.TYPE, OWL.ONTOLOGY))
+            {
+                for(final Value nextVersion : this.model.filter(ontologyUri, PODD.OMV_CURRENT_VERSION, null)
+                        .objects())
+                {
+                    if(nextVersion instanceof URI)
+                    {
+                        this.addVersion(results, ontologyUri, (URI)nextVersion);
+                    }
+                }
+            }
+            
+            // 2: see if the given IRI exists as a version IRI
+            for(final Resource nextOntology : this.model.filter(null, OWL.VERSIONIRI, ontologyUri).subjects())
+            {
+                if(this.model.contains(nextOntology, RDF.TYPE, OWL.ONTOLOGY))
+                {
+                    for(final Value nextVersion : this.model.filter(nextOntology, PODD.OMV_CURRENT_VERSION, null)
+                            .objects())
+                    {
+                        if(nextVersion instanceof URI && this.model.contains(nextOntology, OWL.VERSIONIRI, nextVersion))
+                        {
+                            this.addVersion(results, nextOntology, (URI)nextVersion);
+                        }
+                    }
+                }
+            }
+            
+            return results;
+        }
+        
+        /**
+         * Finds the objects of owl:imports statements in this graph.
+         * 
+         * @param ontologyIRI
+         *            The IRI of the importing ontology, or null to find all imports in this graph.
+         * @return The imported URIs.
+         */
+        public Set<URI> getImports(final IRI ontologyIRI)
+        {
+            final Set<URI> results = new HashSet<>();
+            final URI ontologyUri = ontologyIRI == null ? null : ontologyIRI.toOpenRDFURI();
+            for(final Value nextImport : this.model.filter(ontologyUri, OWL.IMPORTS, null).objects())
+            {
+                if(nextImport instanceof URI)
+                {
+                    results.add((URI)nextImport);
+                }
+            }
+            return results;
+        }
+        
+        /**
+         * 
+         * @return An unmodifiable view of all of the statements in this graph.
+         */
+        public Model getModel()
+        {
+            return this.model.unmodifiable();
+        }
+        
+        /**
+         * Finds the ontologies in this graph.
+         * 
+         * @param onlyCurrentVersions
+         *            True to only include the current version of each ontology, and false to
+         *            include all versions.
+         * @return The ontologies in this graph.
+         */
+        public List<InferredOWLOntologyID> getOntologies(final boolean onlyCurrentVersions)
+        {
+            final List<InferredOWLOntologyID> results = new ArrayList<>();
+            final URI versionPredicate = onlyCurrentVersions ? PODD.OMV_CURRENT_VERSION : OWL.VERSIONIRI;
+            for(final Resource nextOntology : this.model.filter(null, RDF.TYPE, OWL.ONTOLOGY).subjects())
+            {
+                for(final Value nextVersion : this.model.filter(nextOntology, versionPredicate, null).objects())
+                {
+                    if(nextVersion instanceof URI)
+                    {
+                        this.addVersion(results, nextOntology, (URI)nextVersion);
+                    }
+                }
+            }
+            return results;
+        }
+        
+        /**
+         * Finds the ontology with the given version IRI.
+         * 
+         * @param versionIRI
+         *            The version IRI to look up.
+         * @return The ontology ID for the version, or null if the version IRI is not in this graph.
+         */
+        public InferredOWLOntologyID getOntologyVersion(final IRI versionIRI)
+        {
+            final URI versionUri = versionIRI.toOpenRDFURI();
+            for(final Resource nextOntology : this.model.filter(null, OWL.VERSIONIRI, versionUri).subjects())
+            {
+                if(this.model.contains(nextOntology, RDF.TYPE, OWL.ONTOLOGY))
+                {
+                    IRI inferredIRI = null;
+                    for(final Value nextInferredVersion : this.model.filter(versionUri,
+                            PODD.PODD_BASE_INFERRED_VERSION, null).objects())
+                    {
+                        inferredIRI = IRI.create(nextInferredVersion.stringValue());
+                    }
+                    return new InferredOWLOntologyID(IRI.create(nextOntology.stringValue()), versionIRI, inferredIRI);
+                }
+            }
+            return null;
+        }
+        
+        /**
+         * 
+         * @param versionIRI
+         *            The version IRI of an artifact.
+         * @return True if the artifact with the given version IRI is published.
+         */
+        public boolean isPublished(final IRI versionIRI)
+        {
+            for(final Resource nextArtifact : this.model.filter(null, OWL.VERSIONIRI, versionIRI.toOpenRDFURI())
+                    .subjects())
+            {
+                if(this.model.contains(nextArtifact, PODD.PODD_BASE_HAS_PUBLICATION_STATUS, PODD.PODD_BASE_PUBLISHED))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * The schema contexts resolved for an artifact version, or for the current schemas.
+     */
+    private static class SchemaContexts
+    {
+        private final URI schemaManagementGraph;
+        
+        /**
+         * The artifact and schema ontology and version URIs that the contexts were resolved from,
+         * or null if the contexts are for all of the current schemas.
+         */
+        private final Set<Resource> dependencies;
+        
+        private final URI[] contexts;
+        
+        SchemaContexts(final URI schemaManagementGraph, final Set<Resource> dependencies, final URI[] contexts)
+        {
+            this.schemaManagementGraph = schemaManagementGraph;
+            this.dependencies = dependencies;
+            this.contexts = contexts;
+        }
+        
+        boolean isAffectedBy(final ManagementConnection connection)
+        {
+            if(connection.unboundedWrite)
+            {
+                return true;
+            }
+            if(this.dependencies == null)
+            {
+                return connection.writtenContexts.contains(this.schemaManagementGraph)
+                        || connection.writtenContexts.contains(null);
+            }
+            return !Collections.disjoint(this.dependencies, connection.writtenSubjects);
+        }
+    }
+    
+    /**
+     * A connection to the management repository which reports writes to the index that created
+     * it.
+     */
+    public static class ManagementConnection extends RepositoryConnectionWrapper
+    {
+        private final PoddManagementGraphIndex index;
+        
+        private boolean pendingWrite = false;
+        
+        /**
+         * True if a write in the current transaction could have changed any statement.
+         */
+        private boolean unboundedWrite = false;
+        
+        private final Set<Resource> writtenSubjects = new HashSet<>();
+        
+        /**
+         * The contexts written in the current transaction, including null if a write was not
+         * restricted to specific contexts.
+         */
+        private final Set<Resource> writtenContexts = new HashSet<>();
+        
+        ManagementConnection(final PoddManagementGraphIndex index, final Repository repository,
+                final RepositoryConnection delegate)
+        {
+            super(repository, delegate);
+            this.index = index;
+        }
+        
+        @Override
+        protected void addWithoutCommit(final Resource subject, final URI predicate, final Value object,
+                final Resource... contexts) throws RepositoryException
+        {
+            this.recordWrite(subject, contexts);
+            super.addWithoutCommit(subject, predicate, object, contexts);
+        }
+        
+        private void beginWrite()
+        {
+            if(!this.pendingWrite)
+            {
+                this.pendingWrite = true;
+                this.index.beginWrite(this);
+            }
+        }
+        
+        @Override
+        public void close() throws RepositoryException
+        {
+            try
+            {
+                super.close();
+            }
+            finally
+            {
+                this.endWrite();
+            }
+        }
+        
+        @Override
+        public void commit() throws RepositoryException
+        {
+            try
+            {
+                super.commit();
+            }
+            finally
+            {
+                this.endWrite();
+            }
+        }
+        
+        private void endWrite()
+        {
+            if(this.pendingWrite)
+            {
+                this.pendingWrite = false;
+                try
+                {
+                    this.index.endWrite(this);
+                }
+                finally
+                {
+                    this.unboundedWrite = false;
+                    this.writtenSubjects.clear();
+                    this.writtenContexts.clear();
+                }
+            }
+        }
+        
+        /**
+         * Gets the indexed view of a management graph, as seen by this connection.
+         * 
+         * @param managementGraph
+         *            The management graph to look up.
+         * @return The indexed view of the graph, or null if the graph must be queried directly.
+         * @throws RepositoryException
+         */
+        public ManagementGraph getIndexedGraph(final URI managementGraph) throws RepositoryException
+        {
+            return this.index.getGraph(this, managementGraph);
+        }
+        
+        /**
+         * Gets the schema contexts previously resolved for an artifact version, as seen by this
+         * connection.
+         * 
+         * @param artifactID
+         *            The artifact, or null for the current schemas.
+         * @param schemaManagementGraph
+         *            The schema management graph.
+         * @param artifactManagementGraph
+         *            The artifact management graph.
+         * @return A copy of the cached schema contexts, or null if they must be resolved again.
+         */
+        public URI[] getSchemaContexts(final InferredOWLOntologyID artifactID, final URI schemaManagementGraph,
+                final URI artifactManagementGraph)
+        {
+            return this.index.getSchemaContexts(artifactID, schemaManagementGraph, artifactManagementGraph);
+        }
+        
+        /**
+         * Route all additions through {@link #addWithoutCommit} so they can be tracked.
+         */
+        @Override
+        protected boolean isDelegatingAdd() throws RepositoryException
+        {
+            return false;
+        }
+        
+        /**
+         * Route all removals through {@link #removeWithoutCommit} so they can be tracked.
+         */
+        @Override
+        protected boolean isDelegatingRemove() throws RepositoryException
+        {
+            return false;
+        }
+        
+        @Override
+        public Update prepareUpdate(final QueryLanguage ql, final String update, final String baseURI)
+            throws MalformedQueryException, RepositoryException
+        {
+            // Updates may change any graph, and are only known to be finished when this
+            // connection is committed, rolled back or closed
+            this.beginWrite();
+            this.unboundedWrite = true;
+            return super.prepareUpdate(ql, update, baseURI);
+        }
+        
+        /**
+         * Caches the schema contexts resolved for an artifact version until one of the ontologies
+         * they were resolved from is changed.
+         * 
+         * @param artifactID
+         *            The artifact, or null for the current schemas.
+         * @param schemaManagementGraph
+         *            The schema management graph.
+         * @param artifactManagementGraph
+         *            The artifact management graph.
+         * @param indexedGraph
+         *            The indexed view of the schema management graph that the contexts were
+         *            resolved from.
+         * @param schemaOntologies
+         *            The schema ontologies that the contexts were resolved from.
+         * @param contexts
+         *            The resolved schema contexts.
+         */
+        public void putSchemaContexts(final InferredOWLOntologyID artifactID, final URI schemaManagementGraph,
+                final URI artifactManagementGraph, final ManagementGraph indexedGraph,
+                final Collection<? extends OWLOntologyID> schemaOntologies, final URI[] contexts)
+        {
+            this.index.putSchemaContexts(artifactID, schemaManagementGraph, artifactManagementGraph, indexedGraph,
+                    schemaOntologies, contexts);
+        }
+        
+        private void recordWrite(final Resource subject, final Resource... contexts)
+        {
+            this.beginWrite();
+            if(subject == null)
+            {
+                this.unboundedWrite = true;
+            }
+            else
+            {
+                this.writtenSubjects.add(subject);
+            }
+            if(contexts == null || contexts.length == 0)
+            {
+                this.writtenContexts.add(null);
+            }
+            else
+            {
+                this.writtenContexts.addAll(Arrays.asList(contexts));
+            }
+        }
+        
+        @Override
+        protected void removeWithoutCommit(final Resource subject, final URI predicate, final Value object,
+                final Resource... contexts) throws RepositoryException
+        {
+            this.recordWrite(subject, contexts);
+            super.removeWithoutCommit(subject, predicate, object, contexts);
+        }
+        
+        @Override
+        public void rollback() throws RepositoryException
+        {
+            try
+            {
+                super.rollback();
+            }
+            finally
+            {
+                this.endWrite();
+            }
+        }
+    }
+}
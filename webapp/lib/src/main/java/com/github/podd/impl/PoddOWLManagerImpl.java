@@ -18,6 +18,7 @@ package com.github.podd.impl;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -53,10 +54,14 @@ import org.semanticweb.owlapi.io.OWLParserFactoryRegistry;
 import org.semanticweb.owlapi.io.RDFOntologyFormat;
 import org.semanticweb.owlapi.io.RDFResourceParseError;
 import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
 import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLException;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
 import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyChangeException;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyID;
@@ -130,6 +135,13 @@ public class PoddOWLManagerImpl implements PoddOWLManager
     private final ConcurrentMap<Set<? extends OWLOntologyID>, OWLOntologyManager> managerCache =
             new ConcurrentHashMap<>();
     
+    /**
+     * Immutable copies of the ontologies in each cached manager, used to populate the private
+     * manager for each load without holding the lock on the cached manager.
+     */
+    private final ConcurrentMap<Set<? extends OWLOntologyID>, List<SchemaOntologySnapshot>> snapshotCache =
+            new ConcurrentHashMap<>();
+    
     public PoddOWLManagerImpl(final OWLOntologyManagerFactory nextManager, final OWLReasonerFactory nextReasonerFactory)
     {
         if(nextManager == null)
@@ -306,12 +318,20 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         synchronized(cachedManager)
         {
             this.log.debug("About to cache ontologies: {}", manifestImports);
+            boolean changed = false;
             for(final OWLOntologyID ontologyID : manifestImports)
             {
                 this.log.debug("About to cache ontology: {}", ontologyID);
                 // NOTE: if InferredOntologyIRI is null, only the base ontology is
                 // cached
-                this.cacheSchemaOntologyInternal(managementConnection, ontologyID, cachedManager);
+                if(this.cacheSchemaOntologyInternal(managementConnection, ontologyID, cachedManager))
+                {
+                    changed = true;
+                }
+            }
+            if(changed)
+            {
+                this.snapshotCache.remove(ontologyIDs);
             }
             this.log.debug("Finished caching ontologies: {}", manifestImports);
         }
@@ -323,19 +343,23 @@ public class PoddOWLManagerImpl implements PoddOWLManager
      * 
      * @param conn
      * @param ontologyID
+     * @return True if either ontology was parsed into the manager by this call, and false if they
+     *         were both already cached.
      * @throws OpenRDFException
      * @throws OWLException
      * @throws IOException
      * @throws PoddException
      */
-    public void cacheSchemaOntologyInternal(final RepositoryConnection conn, final OWLOntologyID ontologyID,
+    public boolean cacheSchemaOntologyInternal(final RepositoryConnection conn, final OWLOntologyID ontologyID,
             final OWLOntologyManager cachedManager) throws OpenRDFException, OWLException, IOException, PoddException
     {
+        boolean parsed = false;
         if(!this.isCachedInternal(ontologyID, cachedManager))
         {
             this.log.debug("About to parse schema ontology into managers cache: {}", ontologyID);
             
             this.parseRDFStatements(cachedManager, conn, ontologyID.getVersionIRI().toOpenRDFURI());
+            parsed = true;
         }
         else
         {
@@ -354,6 +378,7 @@ public class PoddOWLManagerImpl implements PoddOWLManager
                 {
                     this.parseRDFStatements(cachedManager, conn, ((InferredOWLOntologyID)ontologyID)
                             .getInferredOntologyIRI().toOpenRDFURI());
+                    parsed = true;
                 }
                 else
                 {
@@ -369,6 +394,65 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         {
             this.log.debug("Was not an inferred OWL ontology ID: {}", ontologyID);
         }
+        return parsed;
+    }
+    
+    /**
+     * Checks that the given reasoner found the ontology to be consistent, and if not, throws an
+     * {@link InconsistentOntologyException} containing explanations where they are available.
+     */
+    private void checkConsistent(final OWLOntology nextOntology, final OWLReasoner nextReasoner)
+        throws InconsistentOntologyException
+    {
+        if(!nextReasoner.isConsistent())
+        {
+            final RDFXMLExplanationRenderer renderer = new RDFXMLExplanationRenderer();
+            // Get 100 inconsistency explanations, any more than that and they need to make
+            // modifications and try again
+            final ExplanationUtils exp =
+                    new ExplanationUtils((PelletReasoner)nextReasoner,
+                            (PelletReasonerFactory)this.getReasonerFactory(), renderer, new NullProgressMonitor(),
+                            100);
+            
+            try
+            {
+                final Set<Set<OWLAxiom>> inconsistencyExplanations = exp.explainClassHierarchy();
+                
+                throw new InconsistentOntologyException(inconsistencyExplanations, nextOntology.getOntologyID(),
+                        renderer, "Ontology is inconsistent (explanation available)");
+            }
+            catch(final org.mindswap.pellet.exceptions.InconsistentOntologyException e)
+            {
+                throw new InconsistentOntologyException(new HashSet<Set<OWLAxiom>>(), nextOntology.getOntologyID(),
+                        renderer, "Ontology is inconsistent (textual explanation available): " + e.getMessage());
+            }
+            catch(PelletRuntimeException | OWLRuntimeException e)
+            {
+                throw new InconsistentOntologyException(new HashSet<Set<OWLAxiom>>(), nextOntology.getOntologyID(),
+                        renderer, "Ontology is inconsistent (no explanation available): " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Checks the given ontology against the profile supported by the reasoner.
+     */
+    private void checkInProfile(final OWLOntology nextOntology) throws OntologyNotInProfileException
+    {
+        final OWLProfileReport profileReport =
+                this.getReasonerProfiles().iterator().next().checkOntology(nextOntology);
+        if(!profileReport.isInProfile())
+        {
+            if(this.log.isInfoEnabled())
+            {
+                for(final OWLProfileViolation violation : profileReport.getViolations())
+                {
+                    this.log.info(violation.toString());
+                }
+            }
+            throw new OntologyNotInProfileException(nextOntology, profileReport,
+                    "Ontology is not in required OWL Profile: " + profileReport.getProfile().getName());
+        }
     }
     
     /**
@@ -468,6 +552,34 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         return nextOntology;
     }
     
+    @Override
+    public void checkStatements(final Model statements, final Set<? extends OWLOntologyID> dependentSchemaOntologies,
+            final RepositoryConnection managementConnection, final URI schemaManagementContext) throws OWLException,
+        PoddException, OpenRDFException, IOException
+    {
+        final OWLOntologyManager loadManager =
+                this.createLoadSession(dependentSchemaOntologies, managementConnection, schemaManagementContext);
+        OWLReasoner nextReasoner = null;
+        try
+        {
+            final RioMemoryTripleSource owlSource =
+                    new RioMemoryTripleSource(statements.iterator(), Namespaces.asMap(statements.getNamespaces()));
+            final OWLOntology nextOntology = this.loadOntologyInternal(null, owlSource, loadManager);
+            
+            this.checkInProfile(nextOntology);
+            
+            nextReasoner = this.createReasoner(nextOntology);
+            this.checkConsistent(nextOntology, nextReasoner);
+        }
+        finally
+        {
+            if(nextReasoner != null)
+            {
+                nextReasoner.dispose();
+            }
+        }
+    }
+    
     /**
      * Computes the inferences using the given reasoner, which has previously been setup based on an
      * ontology.
@@ -528,6 +640,89 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         return nextInferredAxiomsOntology;
     }
     
+    @Override
+    public Model computeInferredStatements(final Model statements,
+            final Set<? extends OWLOntologyID> dependentSchemaOntologies,
+            final RepositoryConnection managementConnection, final URI schemaManagementContext) throws OWLException,
+        PoddException, OpenRDFException, IOException
+    {
+        // Neither ontology is stored, so they are created in a manager that is discarded afterwards
+        final OWLOntologyManager loadManager =
+                this.createLoadSession(dependentSchemaOntologies, managementConnection, schemaManagementContext);
+        OWLReasoner nextReasoner = null;
+        try
+        {
+            final RioMemoryTripleSource owlSource =
+                    new RioMemoryTripleSource(statements.iterator(), Namespaces.asMap(statements.getNamespaces()));
+            final OWLOntology nextOntology = this.loadOntologyInternal(null, owlSource, loadManager);
+            
+            this.checkInProfile(nextOntology);
+            
+            nextReasoner = this.createReasoner(nextOntology);
+            this.checkConsistent(nextOntology, nextReasoner);
+            
+            final InferredOWLOntologyID inferredOntologyID =
+                    this.generateInferredOntologyID(nextOntology.getOntologyID());
+            final OWLOntology nextInferredOntology =
+                    this.computeInferences(nextReasoner, nextOntology.getOntologyID(),
+                            inferredOntologyID.getInferredOWLOntologyID());
+            
+            final Model results = new LinkedHashModel();
+            final RioRenderer renderer =
+                    new RioRenderer(nextInferredOntology, loadManager, new StatementCollector(results), null,
+                            inferredOntologyID.getInferredOntologyIRI().toOpenRDFURI());
+            renderer.render();
+            return results;
+        }
+        finally
+        {
+            if(nextReasoner != null)
+            {
+                nextReasoner.dispose();
+            }
+        }
+    }
+    
+    /**
+     * Creates a new OWLOntologyManager containing copies of the schema ontologies for the given set of
+     * dependent schema ontologies. Artifacts are parsed and reasoned over in this manager, so the lock
+     * on the shared cached manager is only held while the schema snapshots are first created.
+     */
+    @Override
+    public OWLOntologyManager createLoadSession(final Set<? extends OWLOntologyID> dependentSchemaOntologies,
+            final RepositoryConnection managementConnection, final URI schemaManagementContext)
+        throws OpenRDFException, OWLException, IOException, PoddException
+    {
+        final OWLOntologyManager cachedManager =
+                this.cacheSchemaOntologies(dependentSchemaOntologies, managementConnection, schemaManagementContext);
+        
+        List<SchemaOntologySnapshot> snapshots = this.snapshotCache.get(dependentSchemaOntologies);
+        if(snapshots == null)
+        {
+            synchronized(cachedManager)
+            {
+                snapshots = this.snapshotCache.get(dependentSchemaOntologies);
+                if(snapshots == null)
+                {
+                    final List<SchemaOntologySnapshot> newSnapshots = new ArrayList<>();
+                    for(final OWLOntology nextSchemaOntology : cachedManager.getOntologies())
+                    {
+                        newSnapshots.add(new SchemaOntologySnapshot(nextSchemaOntology));
+                    }
+                    snapshots = Collections.unmodifiableList(newSnapshots);
+                    this.snapshotCache.put(dependentSchemaOntologies, snapshots);
+                }
+            }
+        }
+        
+        final OWLOntologyManager loadManager = this.managerFactory.buildOWLOntologyManager();
+        for(final SchemaOntologySnapshot nextSnapshot : snapshots)
+        {
+            nextSnapshot.copyInto(loadManager);
+        }
+        return loadManager;
+    }
+    
     public OWLReasoner createReasoner(final OWLOntology nextOntology)
     {
         if(this.reasonerFactory == null)
@@ -690,144 +885,100 @@ public class PoddOWLManagerImpl implements PoddOWLManager
             final RepositoryConnection managementConnection, final URI schemaManagementContext) throws OWLException,
         PoddException, OpenRDFException, IOException
     {
-        return this.loadAndInfer(permanentRepositoryConnection, replacementOntologyID, owlSource, true,
+        return this.loadAndInfer(permanentRepositoryConnection, replacementOntologyID, owlSource,
                 dependentSchemaOntologies, managementConnection, schemaManagementContext);
     }
     
+    /**
+     * Loads, checks and infers the given ontology in a manager that is private to this call, so that
+     * concurrent loads against the same schema ontologies do not wait for each other. The loaded
+     * ontology is never added to the shared cache, so there is nothing to remove from it on failure.
+     */
     public InferredOWLOntologyID loadAndInfer(final RepositoryConnection permanentRepositoryConnection,
             final OWLOntologyID ontologyID, final OWLOntologyDocumentSource owlSource,
-            final boolean removeFromCacheOnException, final Set<? extends OWLOntologyID> dependentSchemaOntologies,
+            final Set<? extends OWLOntologyID> dependentSchemaOntologies,
             final RepositoryConnection managementConnection, final URI schemaManagementContext) throws OWLException,
         PoddException, OpenRDFException, IOException
     {
-        InferredOWLOntologyID inferredOWLOntologyID = null;
+        final OWLOntologyManager loadSession =
+                this.createLoadSession(dependentSchemaOntologies, managementConnection, schemaManagementContext);
+        return this.loadAndInfer(owlSource, permanentRepositoryConnection, ontologyID, loadSession);
+    }
+    
+    @Override
+    public InferredOWLOntologyID loadAndInfer(final OWLOntologyDocumentSource owlSource,
+            final RepositoryConnection permanentRepositoryConnection, final OWLOntologyID replacementOntologyID,
+            final OWLOntologyManager loadSession) throws OWLException, PoddException, OpenRDFException, IOException
+    {
         OWLOntology nextOntology = null;
-        OWLOntologyManager cachedManager = null;
+        OWLReasoner nextReasoner = null;
+        InferredOWLOntologyID inferredOWLOntologyID = null;
         try
         {
-            cachedManager =
-                    this.cacheSchemaOntologies(dependentSchemaOntologies, managementConnection, schemaManagementContext);
-            synchronized(cachedManager)
+            nextOntology = this.loadOntologyInternal(replacementOntologyID, owlSource, loadSession);
+            
+            // Check the OWLAPI OWLOntology against an OWLProfile to make sure
+            // it is in profile
+            this.checkInProfile(nextOntology);
+            
+            // Use the OWLManager to create a reasoner over the ontology
+            nextReasoner = this.createReasoner(nextOntology);
+            
+            // Test that the ontology was consistent with this reasoner
+            // This ensures in the case of Pellet that it is in the OWL2-DL
+            // profile
+            this.checkConsistent(nextOntology, nextReasoner);
+            
+            // Copy the statements to permanentRepositoryConnection
+            this.dumpOntologyToRepository(nextOntology, permanentRepositoryConnection, nextOntology.getOntologyID()
+                    .getVersionIRI().toOpenRDFURI());
+            
+            // NOTE: At this stage, a client could be notified, and the artifact
+            // could be streamed
+            // back to them from permanentRepositoryConnection
+            
+            // Use an OWLAPI InferredAxiomGenerator together with the reasoner
+            // to create inferred
+            // axioms to store in the database.
+            // Serialise the inferred statements back to a different context in
+            // the permanent
+            // repository connection.
+            // The contexts to use within the permanent repository connection
+            // are all encapsulated
+            // in the InferredOWLOntologyID object.
+            inferredOWLOntologyID = this.inferStatements(nextOntology, permanentRepositoryConnection, nextReasoner);
+            return inferredOWLOntologyID;
+        }
+        finally
+        {
+            try
             {
-                nextOntology = this.loadOntologyInternal(ontologyID, owlSource, cachedManager);
-                
-                // Check the OWLAPI OWLOntology against an OWLProfile to make sure
-                // it is in profile
-                final OWLProfileReport profileReport =
-                        this.getReasonerProfiles().iterator().next().checkOntology(nextOntology);
-                if(!profileReport.isInProfile())
+                if(nextReasoner != null)
                 {
-                    if(this.log.isInfoEnabled())
-                    {
-                        for(final OWLProfileViolation violation : profileReport.getViolations())
-                        {
-                            this.log.info(violation.toString());
-                        }
-                    }
-                    throw new OntologyNotInProfileException(nextOntology, profileReport,
-                            "Ontology is not in required OWL Profile: " + profileReport.getProfile().getName());
+                    nextReasoner.dispose();
                 }
-                
-                // Use the OWLManager to create a reasoner over the ontology
-                final OWLReasoner nextReasoner = this.createReasoner(nextOntology);
-                
-                // Test that the ontology was consistent with this reasoner
-                // This ensures in the case of Pellet that it is in the OWL2-DL
-                // profile
-                if(!nextReasoner.isConsistent())
-                {
-                    final RDFXMLExplanationRenderer renderer = new RDFXMLExplanationRenderer();
-                    // Get 100 inconsistency explanations, any more than that and they need to make
-                    // modifications and try again
-                    final ExplanationUtils exp =
-                            new ExplanationUtils((PelletReasoner)nextReasoner,
-                                    (PelletReasonerFactory)this.getReasonerFactory(), renderer,
-                                    new NullProgressMonitor(), 100);
-                    
-                    try
-                    {
-                        final Set<Set<OWLAxiom>> inconsistencyExplanations = exp.explainClassHierarchy();
-                        
-                        throw new InconsistentOntologyException(inconsistencyExplanations,
-                                nextOntology.getOntologyID(), renderer,
-                                "Ontology is inconsistent (explanation available)");
-                    }
-                    catch(final org.mindswap.pellet.exceptions.InconsistentOntologyException e)
-                    {
-                        throw new InconsistentOntologyException(new HashSet<Set<OWLAxiom>>(),
-                                nextOntology.getOntologyID(), renderer,
-                                "Ontology is inconsistent (textual explanation available): " + e.getMessage());
-                    }
-                    catch(PelletRuntimeException | OWLRuntimeException e)
-                    {
-                        throw new InconsistentOntologyException(new HashSet<Set<OWLAxiom>>(),
-                                nextOntology.getOntologyID(), renderer,
-                                "Ontology is inconsistent (no explanation available): " + e.getMessage());
-                    }
-                }
-                
-                // Copy the statements to permanentRepositoryConnection
-                this.dumpOntologyToRepository(nextOntology, permanentRepositoryConnection, nextOntology.getOntologyID()
-                        .getVersionIRI().toOpenRDFURI());
-                
-                // NOTE: At this stage, a client could be notified, and the artifact
-                // could be streamed
-                // back to them from permanentRepositoryConnection
-                
-                // Use an OWLAPI InferredAxiomGenerator together with the reasoner
-                // to create inferred
-                // axioms to store in the database.
-                // Serialise the inferred statements back to a different context in
-                // the permanent
-                // repository connection.
-                // The contexts to use within the permanent repository connection
-                // are all encapsulated
-                // in the InferredOWLOntologyID object.
-                
-                // FIXME: This should return a Future so that we can defer inferencing into the
-                // background
-                inferredOWLOntologyID = this.inferStatements(nextOntology, permanentRepositoryConnection, nextReasoner);
             }
-        }
-        catch(final Throwable e)
-        {
-            if(cachedManager != null)
+            finally
             {
-                synchronized(cachedManager)
+                // Leave only the schema ontologies in the session so it can be reused
+                try
                 {
-                    try
+                    if(inferredOWLOntologyID != null
+                            && loadSession.contains(inferredOWLOntologyID.getInferredOntologyIRI()))
                     {
-                        try
-                        {
-                            if(nextOntology != null && removeFromCacheOnException)
-                            {
-                                this.removeCacheInternal(nextOntology.getOntologyID(), dependentSchemaOntologies,
-                                        cachedManager);
-                            }
-                        }
-                        finally
-                        {
-                            if(inferredOWLOntologyID != null && removeFromCacheOnException)
-                            {
-                                this.removeCacheInternal(inferredOWLOntologyID.getInferredOWLOntologyID(),
-                                        dependentSchemaOntologies, cachedManager);
-                            }
-                        }
+                        loadSession.removeOntology(loadSession.getOntology(inferredOWLOntologyID
+                                .getInferredOntologyIRI()));
                     }
-                    catch(final Throwable e1)
+                }
+                finally
+                {
+                    if(nextOntology != null)
                     {
-                        // Do not propagate this exception as it will clobber the real exception
-                        // that we
-                        // want to rethrow
-                        this.log.error("Found exception while clearing memory cache: ", e1);
+                        loadSession.removeOntology(nextOntology);
                     }
                 }
             }
-            
-            throw e;
         }
-        
-        return inferredOWLOntologyID;
     }
     
     public OWLOntology loadOntologyInternal(final OWLOntologyID ontologyID, final OWLOntologyDocumentSource owlSource,
@@ -966,6 +1117,7 @@ public class PoddOWLManagerImpl implements PoddOWLManager
                 cachedManager.removeOntology(nextOntology.getOntologyID());
             }
             this.managerCache.remove(dependentSchemaOntologies);
+            this.snapshotCache.remove(dependentSchemaOntologies);
             return true;
         }
         else
@@ -978,6 +1130,7 @@ public class PoddOWLManagerImpl implements PoddOWLManager
                 {
                     cachedManager.removeOntology(cachedManager.getOntology(((InferredOWLOntologyID)ontologyID)
                             .getInferredOntologyIRI()));
+                    this.snapshotCache.remove(dependentSchemaOntologies);
                 }
                 // TODO: Verify that this .contains method matches our desired
                 // semantics
@@ -987,6 +1140,7 @@ public class PoddOWLManagerImpl implements PoddOWLManager
                 if(containsOntology)
                 {
                     cachedManager.removeOntology(((InferredOWLOntologyID)ontologyID).getBaseOWLOntologyID());
+                    this.snapshotCache.remove(dependentSchemaOntologies);
                     return !cachedManager.contains(((InferredOWLOntologyID)ontologyID).getBaseOWLOntologyID());
                 }
                 
@@ -1001,6 +1155,7 @@ public class PoddOWLManagerImpl implements PoddOWLManager
                 if(containsOntology)
                 {
                     cachedManager.removeOntology(ontologyID);
+                    this.snapshotCache.remove(dependentSchemaOntologies);
                     
                     // return true if the ontology manager does not contain the
                     // ontology at this point
@@ -1052,4 +1207,45 @@ public class PoddOWLManagerImpl implements PoddOWLManager
             }
         }
     }
+    
+    /**
+     * The parts of a cached schema ontology that are needed to recreate it in another
+     * OWLOntologyManager. OWLAPI axioms are immutable, so they are shared with the cached ontology
+     * rather than copied.
+     */
+    private static final class SchemaOntologySnapshot
+    {
+        private final OWLOntologyID ontologyID;
+        
+        private final Set<OWLImportsDeclaration> importsDeclarations;
+        
+        private final Set<OWLAnnotation> annotations;
+        
+        private final Set<OWLAxiom> axioms;
+        
+        SchemaOntologySnapshot(final OWLOntology nextOntology)
+        {
+            this.ontologyID = nextOntology.getOntologyID();
+            this.importsDeclarations =
+                    Collections.unmodifiableSet(new LinkedHashSet<>(nextOntology.getImportsDeclarations()));
+            this.annotations = Collections.unmodifiableSet(new LinkedHashSet<>(nextOntology.getAnnotations()));
+            this.axioms = Collections.unmodifiableSet(new LinkedHashSet<>(nextOntology.getAxioms()));
+        }
+        
+        void copyInto(final OWLOntologyManager manager) throws OWLOntologyCreationException
+        {
+            final OWLOntology copy = manager.createOntology(this.ontologyID);
+            final List<OWLOntologyChange> changes = new ArrayList<>();
+            for(final OWLImportsDeclaration nextImport : this.importsDeclarations)
+            {
+                changes.add(new AddImport(copy, nextImport));
+            }
+            for(final OWLAnnotation nextAnnotation : this.annotations)
+            {
+                changes.add(new AddOntologyAnnotation(copy, nextAnnotation));
+            }
+            manager.applyChanges(changes);
+            manager.addAxioms(copy, this.axioms);
+        }
+    }
 }
@@ -0,0 +1,224 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.Rio;
+
+import com.github.podd.api.MetadataPolicy;
+import com.github.podd.utils.PoddLruCache;
+
+/**
+ * A bounded cache of the metadata that describes object types for display.
+ * <p>
+ * Object type metadata is derived only from the schema ontologies, whose version IRIs are never
+ * reused for different content. The schema contexts that the metadata was derived from are
+ * therefore part of the key, and entries never need to be invalidated. Entries for schema versions
+ * that are no longer in use are evicted when the cache is full.
+ */
+public class PoddObjectMetadataCache
+{
+    /**
+     * Object type metadata, along with its serialisations in each RDF format that it has been
+     * requested in.
+     */
+    public static class CachedObjectMetadata
+    {
+        private final Model model;
+        
+        private final ConcurrentMap<RDFFormat, byte[]> serialisations = new ConcurrentHashMap<>();
+        
+        CachedObjectMetadata(final Model model)
+        {
+            this.model = model;
+        }
+        
+        /**
+         * 
+         * @return An unmodifiable view of the metadata.
+         */
+        public Model getModel()
+        {
+            return this.model.unmodifiable();
+        }
+        
+        /**
+         * Gets the metadata serialised in the given format, serialising it only the first time
+         * the format is requested.
+         * 
+         * @param format
+         *            The RDF format to serialise the metadata in.
+         * @return The serialised metadata, which must not be modified.
+         * @throws RDFHandlerException
+         */
+        public byte[] getSerialisation(final RDFFormat format) throws RDFHandlerException
+        {
+            byte[] result = this.serialisations.get(format);
+            if(result == null)
+            {
+                final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                Rio.write(this.model, output, format);
+                result = output.toByteArray();
+                
+                final byte[] existing = this.serialisations.putIfAbsent(format, result);
+                if(existing != null)
+                {
+                    result = existing;
+                }
+            }
+            return result;
+        }
+        
+        /**
+         * Writes the metadata to the given output stream in the given format.
+         * 
+         * @param outputStream
+         *            The stream to write the metadata to.
+         * @param format
+         *            The RDF format to serialise the metadata in.
+         * @throws RDFHandlerException
+         * @throws IOException
+         */
+        public void write(final OutputStream outputStream, final RDFFormat format) throws RDFHandlerException,
+            IOException
+        {
+            outputStream.write(this.getSerialisation(format));
+        }
+    }
+    
+    /**
+     * The default number of object type metadata entries to keep.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 500;
+    
+    private final PoddLruCache<List<Object>, CachedObjectMetadata> entries;
+    
+    /**
+     * Creates a cache with the {@link #DEFAULT_MAXIMUM_SIZE}.
+     */
+    public PoddObjectMetadataCache()
+    {
+        this(PoddObjectMetadataCache.DEFAULT_MAXIMUM_SIZE);
+    }
+    
+    /**
+     * 
+     * @param maximumSize
+     *            The maximum number of object type metadata entries to keep.
+     */
+    public PoddObjectMetadataCache(final int maximumSize)
+    {
+        this.entries = new PoddLruCache<>(maximumSize);
+    }
+    
+    /**
+     * Removes all of the entries from this cache.
+     */
+    public void clear()
+    {
+        this.entries.clear();
+    }
+    
+    /**
+     * Gets the cached metadata for an object type.
+     * 
+     * @param objectType
+     *            The object type.
+     * @param includeDoNotDisplayProperties
+     *            True if properties marked as not for display were included in the metadata.
+     * @param containsPropertyPolicy
+     *            The policy used to select properties for the metadata.
+     * @param contexts
+     *            The schema and artifact contexts that the metadata was derived from.
+     * @return The cached metadata, or null if it has not been cached.
+     */
+    public CachedObjectMetadata get(final URI objectType, final boolean includeDoNotDisplayProperties,
+            final MetadataPolicy containsPropertyPolicy, final URI... contexts)
+    {
+        return this.entries.get(this.getKey(objectType, includeDoNotDisplayProperties, containsPropertyPolicy,
+                contexts));
+    }
+    
+    /**
+     * 
+     * @return The number of lookups that found cached metadata.
+     */
+    public long getHitCount()
+    {
+        return this.entries.getHitCount();
+    }
+    
+    private List<Object> getKey(final URI objectType, final boolean includeDoNotDisplayProperties,
+            final MetadataPolicy containsPropertyPolicy, final URI... contexts)
+    {
+        return Arrays.<Object> asList(objectType, includeDoNotDisplayProperties, containsPropertyPolicy,
+                Arrays.asList(contexts));
+    }
+    
+    /**
+     * 
+     * @return The number of lookups that did not find cached metadata.
+     */
+    public long getMissCount()
+    {
+        return this.entries.getMissCount();
+    }
+    
+    /**
+     * Caches the metadata for an object type.
+     * 
+     * @param objectType
+     *            The object type.
+     * @param includeDoNotDisplayProperties
+     *            True if properties marked as not for display were included in the metadata.
+     * @param containsPropertyPolicy
+     *            The policy used to select properties for the metadata.
+     * @param model
+     *            The metadata, which must not be modified after it is cached.
+     * @param contexts
+     *            The schema and artifact contexts that the metadata was derived from.
+     * @return The cached metadata.
+     */
+    public CachedObjectMetadata put(final URI objectType, final boolean includeDoNotDisplayProperties,
+            final MetadataPolicy containsPropertyPolicy, final Model model, final URI... contexts)
+    {
+        final CachedObjectMetadata result = new CachedObjectMetadata(model);
+        this.entries.put(this.getKey(objectType, includeDoNotDisplayProperties, containsPropertyPolicy, contexts),
+                result);
+        return result;
+    }
+    
+    /**
+     * 
+     * @return The number of object type metadata entries in this cache.
+     */
+    public int size()
+    {
+        return this.entries.size();
+    }
+}
@@ -19,19 +19,31 @@ package com.github.podd.impl;
 import info.aduna.iteration.Iterations;
 
 import java.io.IOException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Literal;
@@ -47,6 +59,7 @@ import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.RepositoryResult;
+import org.openrdf.repository.base.RepositoryWrapper;
 import org.openrdf.repository.config.RepositoryConfig;
 import org.openrdf.repository.config.RepositoryConfigException;
 import org.openrdf.repository.config.RepositoryImplConfig;
@@ -58,15 +71,17 @@ import org.openrdf.rio.RDFHandlerException;
 import org.openrdf.rio.helpers.StatementCollector;
 import org.openrdf.sail.federation.Federation;
 import org.openrdf.sail.memory.MemoryStore;
+import org.openrdf.sail.nativerdf.NativeStore;
 import org.semanticweb.owlapi.model.OWLOntologyID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.ansell.propertyutil.PropertyUtil;
 import com.github.podd.api.PoddRepositoryManager;
+import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.ManualShutdownRepository;
-import com.github.podd.utils.OntologyUtils;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddWebConstants;
 
 /**
  * @author Peter Ansell p_ansell@yahoo.com
@@ -90,13 +105,39 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
     
     private ManualShutdownRepository managementRepository;
     
-    private ConcurrentMap<Set<? extends OWLOntologyID>, ManualShutdownRepository> permanentRepositories =
+    /**
+     * Indexed views of the management graphs, shared by all connections to the current management
+     * repository.
+     */
+    private volatile PoddManagementGraphIndex managementGraphIndex = new PoddManagementGraphIndex();
+    
+    /**
+     * Permanent repositories, keyed by the canonical form of their schema ontologies.
+     */
+    private ConcurrentMap<Set<OWLOntologyID>, Future<ManualShutdownRepository>> permanentRepositories =
             new ConcurrentHashMap<>();
     
     private RepositoryImplConfig permanentRepositoryConfigForNew;
     
     private ConcurrentMap<URI, RepositoryManager> sesameRepositoryManagers = new ConcurrentHashMap<>();
     
+    /**
+     * Cleared in-memory temporary repositories that are available for reuse.
+     */
+    private final BlockingQueue<Repository> temporaryRepositoryPool;
+    
+    private final int temporaryRepositoryPoolSize;
+    
+    private final long temporaryRepositoryDiskThreshold;
+    
+    private final AtomicLong temporaryRepositoryInMemoryCount = new AtomicLong(0);
+    
+    private final AtomicLong temporaryRepositoryOnDiskCount = new AtomicLong(0);
+    
+    private final AtomicLong temporaryRepositoryPoolHitCount = new AtomicLong(0);
+    
+    private volatile boolean shutDown = false;
+    
     /**
      * 
      * @param managementRepository
@@ -125,6 +166,352 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
         this.repositoryGraph =
                 PODD.VF.createURI(props.get(PODD.PROPERTY_REPOSITORY_MANAGEMENT_GRAPH,
                         PODD.DEFAULT_REPOSITORY_MANAGEMENT_GRAPH.stringValue()));
+        this.temporaryRepositoryPoolSize =
+                Math.max(0, Integer.parseInt(props.get(PoddWebConstants.PROPERTY_TEMPORARY_REPOSITORY_POOL_SIZE,
+                        PoddWebConstants.DEFAULT_TEMPORARY_REPOSITORY_POOL_SIZE)));
+        this.temporaryRepositoryPool = new LinkedBlockingQueue<>(Math.max(1, this.temporaryRepositoryPoolSize));
+        this.temporaryRepositoryDiskThreshold =
+                Long.parseLong(props.get(PoddWebConstants.PROPERTY_TEMPORARY_REPOSITORY_DISK_THRESHOLD,
+                        PoddWebConstants.DEFAULT_TEMPORARY_REPOSITORY_DISK_THRESHOLD));
+    }
+    
+    /**
+     * Clears all statements and namespaces from the given temporary repository so that it can be
+     * reused.
+     * 
+     * @return True if the repository was cleared, and false if it could not be cleared.
+     */
+    private boolean clearTemporaryRepository(final Repository repository)
+    {
+        RepositoryConnection connection = null;
+        try
+        {
+            connection = repository.getConnection();
+            connection.begin();
+            connection.clear();
+            connection.clearNamespaces();
+            connection.commit();
+            return true;
+        }
+        catch(final RepositoryException e)
+        {
+            this.log.warn("Could not clear temporary repository, it will not be reused", e);
+            return false;
+        }
+        finally
+        {
+            if(connection != null)
+            {
+                try
+                {
+                    if(connection.isActive())
+                    {
+                        connection.rollback();
+                    }
+                }
+                catch(final RepositoryException e)
+                {
+                    this.log.error("Found exception rolling back temporary repository connection", e);
+                }
+                finally
+                {
+                    try
+                    {
+                        connection.close();
+                    }
+                    catch(final RepositoryException e)
+                    {
+                        this.log.error("Found exception closing temporary repository connection", e);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Finds the permanent repository for the given schema ontologies in the management graph,
+     * creating it if it does not exist yet.
+     * 
+     * @param schemaOntologies
+     *            The schema ontologies that must be supported by the permanent repository.
+     * @return The permanent repository for the given schema ontologies.
+     */
+    private ManualShutdownRepository createPermanentRepository(final Set<? extends OWLOntologyID> schemaOntologies)
+        throws OpenRDFException, IOException
+    {
+        this.log.debug("Permanent repository not cached, but may exist");
+        
+        ManualShutdownRepository permanentRepository = null;
+        
+        RepositoryConnection managementConnection = null;
+        try
+        {
+            managementConnection = this.getManagementRepositoryConnection();
+            managementConnection.begin();
+            final Map<Resource, RepositoryManager> sesameRepositoryManagerMap =
+                    this.getRepositoryManager(schemaOntologies, managementConnection, this.repositoryGraph);
+            if(sesameRepositoryManagerMap.isEmpty())
+            {
+                throw new RuntimeException("Could not create repository manager");
+            }
+            if(sesameRepositoryManagerMap.size() > 1)
+            {
+                throw new RuntimeException("Found duplicate repository managers. Failing fast");
+            }
+            final Resource repositoryManagerURI = sesameRepositoryManagerMap.keySet().iterator().next();
+            URI repositoryUri = null;
+            
+            final Model repositoriesInManagerModel = new LinkedHashModel();
+            managementConnection.exportStatements(repositoryManagerURI,
+                    PODD.PODD_REPOSITORY_MANAGER_CONTAINS_REPOSITORY, null, false, new StatementCollector(
+                            repositoriesInManagerModel), this.repositoryGraph);
+            for(final Value nextRepository : repositoriesInManagerModel.objects())
+            {
+                if(nextRepository instanceof URI)
+                {
+                    final Model model = new LinkedHashModel();
+                    managementConnection.exportStatements((URI)nextRepository,
+                            PODD.PODD_REPOSITORY_CONTAINS_SCHEMA_VERSION, null, true,
+                            new StatementCollector(model), this.repositoryGraph);
+                    
+                    final Set<Value> schemasInRepository =
+                            model.filter((URI)nextRepository, PODD.PODD_REPOSITORY_CONTAINS_SCHEMA_VERSION,
+                                    null).objects();
+                    boolean missingSchema = false;
+                    if(schemasInRepository.size() != schemaOntologies.size())
+                    {
+                        continue;
+                    }
+                    for(final OWLOntologyID nextSchemaOntology : schemaOntologies)
+                    {
+                        if(!model.contains((URI)nextRepository,
+                                PODD.PODD_REPOSITORY_CONTAINS_SCHEMA_VERSION, nextSchemaOntology
+                                        .getVersionIRI().toOpenRDFURI()))
+                        {
+                            missingSchema = true;
+                            break;
+                        }
+                    }
+                    
+                    for(final Value nextSchema : schemasInRepository)
+                    {
+                        if(nextSchema instanceof URI)
+                        {
+                            boolean foundNextSchema = false;
+                            for(final OWLOntologyID nextSchemaOntology : schemaOntologies)
+                            {
+                                if(nextSchemaOntology.getVersionIRI().toOpenRDFURI().equals(nextSchema))
+                                {
+                                    foundNextSchema = true;
+                                    break;
+                                }
+                            }
+                            if(!foundNextSchema)
+                            {
+                                missingSchema = true;
+                                break;
+                            }
+                        }
+                    }
+                    
+                    if(!missingSchema)
+                    {
+                        repositoryUri = (URI)nextRepository;
+                        break;
+                    }
+                }
+            }
+            
+            final RepositoryManager sesameRepositoryManager =
+                    sesameRepositoryManagerMap.values().iterator().next();
+            // If no existing repository found, then create one, else we regenerate a
+            // reference to the existing repository
+            if(repositoryUri == null)
+            {
+                this.log.debug("Permanent repository not created yet");
+                // Create a new one
+                repositoryUri =
+                        managementConnection.getValueFactory().createURI("urn:podd:repository:",
+                                UUID.randomUUID().toString());
+                // Get a new repository ID using our base name as the starting point
+                final String newRepositoryID =
+                        sesameRepositoryManager.getNewRepositoryID(repositoryUri.stringValue());
+                final RepositoryConfig config =
+                        new RepositoryConfig(newRepositoryID,
+                                "PODD Redesign Repository (Automatically created)",
+                                this.permanentRepositoryConfigForNew);
+                sesameRepositoryManager.addRepositoryConfig(config);
+                
+                permanentRepository =
+                        new ManualShutdownRepository(sesameRepositoryManager.getRepository(newRepositoryID));
+                this.log.debug("Permanent repository created: {}", newRepositoryID);
+                
+                // In this case, we need to copy the relevant schema ontologies over
+                // to
+                // the
+                // new repository
+                RepositoryConnection permanentConnection = null;
+                try
+                {
+                    permanentConnection = permanentRepository.getConnection();
+                    permanentConnection.begin();
+                    for(final OWLOntologyID nextSchemaOntology : schemaOntologies)
+                    {
+                        if(nextSchemaOntology.getVersionIRI() != null)
+                        {
+                            // TODO: Check if the ontology version exists in the
+                            // management connection
+                            if(!permanentConnection.hasStatement(null, null, null, false,
+                                    nextSchemaOntology.getVersionIRI().toOpenRDFURI()))
+                            {
+                                permanentConnection.add(
+                                        managementConnection.getStatements(null, null, null, false,
+                                                nextSchemaOntology.getVersionIRI().toOpenRDFURI()),
+                                        nextSchemaOntology.getVersionIRI().toOpenRDFURI());
+                            }
+                            
+                            final RepositoryResult<Statement> statements =
+                                    managementConnection.getStatements(nextSchemaOntology
+                                            .getVersionIRI().toOpenRDFURI(),
+                                            PODD.PODD_BASE_INFERRED_VERSION, null, false, this
+                                                    .getSchemaManagementGraph());
+                            
+                            for(final Statement nextInferredStatement : Iterations.asList(statements))
+                            {
+                                if(nextInferredStatement.getObject() instanceof URI)
+                                {
+                                    if(!permanentConnection.hasStatement(null, null, null, false,
+                                            (URI)nextInferredStatement.getObject()))
+                                    {
+                                        permanentConnection.add(managementConnection.getStatements(
+                                                null, null, null, false,
+                                                (URI)nextInferredStatement.getObject()),
+                                                (URI)nextInferredStatement.getObject());
+                                    }
+                                }
+                            }
+                        }
+                    }
+                    permanentConnection.commit();
+                }
+                catch(final Throwable e)
+                {
+                    if(permanentConnection != null)
+                    {
+                        permanentConnection.rollback();
+                    }
+                    throw e;
+                }
+                finally
+                {
+                    if(permanentConnection != null)
+                    {
+                        permanentConnection.close();
+                    }
+                }
+                
+                final Literal repositoryIdInManager =
+                        managementConnection.getValueFactory().createLiteral(newRepositoryID);
+                managementConnection.add(repositoryManagerURI,
+                        PODD.PODD_REPOSITORY_MANAGER_CONTAINS_REPOSITORY, repositoryUri,
+                        this.repositoryGraph);
+                managementConnection.add(repositoryUri, RDF.TYPE, PODD.PODD_REPOSITORY,
+                        this.repositoryGraph);
+                managementConnection.add(repositoryUri, PODD.PODD_REPOSITORY_ID_IN_MANAGER,
+                        repositoryIdInManager, this.repositoryGraph);
+                for(final OWLOntologyID nextSchemaOntologyID : schemaOntologies)
+                {
+                    managementConnection.add(repositoryUri, PODD.PODD_REPOSITORY_CONTAINS_SCHEMA_IRI,
+                            nextSchemaOntologyID.getOntologyIRI().toOpenRDFURI(), this.repositoryGraph);
+                    managementConnection.add(repositoryUri,
+                            PODD.PODD_REPOSITORY_CONTAINS_SCHEMA_VERSION, nextSchemaOntologyID
+                                    .getVersionIRI().toOpenRDFURI(), this.repositoryGraph);
+                }
+            }
+            else
+            {
+                this.log.debug("Permanent repository created but not cached: {}", repositoryUri);
+                if(this.log.isTraceEnabled())
+                {
+                    new RuntimeException().printStackTrace();
+                }
+                // create reference to existing repositoryUri
+                final Model model = new LinkedHashModel();
+                managementConnection.exportStatements(repositoryUri, null, null, false,
+                        new StatementCollector(model), this.repositoryGraph);
+                if(!model.contains(repositoryUri, RDF.TYPE, PODD.PODD_REPOSITORY))
+                {
+                    throw new RuntimeException(
+                            "Found repository that was not typed correctly in management graph: "
+                                    + repositoryUri.stringValue());
+                }
+                
+                final Literal existingRepositoryId =
+                        model.filter(repositoryUri, PODD.PODD_REPOSITORY_ID_IN_MANAGER, null)
+                                .objectLiteral();
+                
+                final Repository nextRepository =
+                        sesameRepositoryManager.getRepository(existingRepositoryId.getLabel());
+                
+                if(nextRepository == null)
+                {
+                    throw new RuntimeException("Failed to get existing repository from manager: "
+                            + existingRepositoryId);
+                }
+                
+                permanentRepository = new ManualShutdownRepository(nextRepository);
+            }
+            managementConnection.commit();
+        }
+        catch(final Throwable e)
+        {
+            if(managementConnection != null)
+            {
+                managementConnection.rollback();
+            }
+            throw e;
+        }
+        finally
+        {
+            if(managementConnection != null)
+            {
+                managementConnection.close();
+            }
+        }
+        
+        return permanentRepository;
+    }
+    
+    /**
+     * Recursively deletes the data directory for a disk-backed temporary repository.
+     */
+    private void deleteTemporaryRepositoryDirectory(final Path dataDir)
+    {
+        try
+        {
+            Files.walkFileTree(dataDir, new SimpleFileVisitor<Path>()
+                {
+                    @Override
+                    public FileVisitResult postVisitDirectory(final Path dir, final IOException exc)
+                        throws IOException
+                    {
+                        Files.delete(dir);
+                        return FileVisitResult.CONTINUE;
+                    }
+                    
+                    @Override
+                    public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs)
+                        throws IOException
+                    {
+                        Files.delete(file);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+        }
+        catch(final IOException e)
+        {
+            this.log.error("Could not delete temporary repository directory: " + dataDir, e);
+        }
     }
     
     @Override
@@ -143,18 +530,53 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
     public RepositoryConnection getManagementRepositoryConnection() throws OpenRDFException
     {
         this.log.debug("Get management repository");
-        return this.managementRepository.getConnection();
+        return this.managementGraphIndex.wrap(this.managementRepository, this.managementRepository.getConnection());
     }
     
     @Override
     public Repository getNewTemporaryRepository() throws OpenRDFException
     {
+        return this.getNewTemporaryRepository(0);
+    }
+    
+    @Override
+    public Repository getNewTemporaryRepository(final long expectedStatements) throws OpenRDFException
+    {
+        if(expectedStatements > this.temporaryRepositoryDiskThreshold)
+        {
+            this.log.debug("Started creating temporary NativeStore repository for {} statements", expectedStatements);
+            final Path dataDir;
+            try
+            {
+                dataDir = Files.createTempDirectory("podd-temp-repository-");
+            }
+            catch(final IOException e)
+            {
+                throw new RepositoryException("Could not create directory for temporary repository", e);
+            }
+            final Repository result = new SailRepository(new NativeStore(dataDir.toFile()));
+            result.initialize();
+            this.temporaryRepositoryOnDiskCount.incrementAndGet();
+            this.log.debug("Finished creating temporary NativeStore repository: {}", dataDir);
+            
+            return new PooledTemporaryRepository(result, dataDir);
+        }
+        
+        this.temporaryRepositoryInMemoryCount.incrementAndGet();
+        
+        final Repository pooled = this.temporaryRepositoryPool.poll();
+        if(pooled != null)
+        {
+            this.temporaryRepositoryPoolHitCount.incrementAndGet();
+            return new PooledTemporaryRepository(pooled, null);
+        }
+        
         this.log.debug("Started creating temporary MemoryStore repository");
         final Repository result = new SailRepository(new MemoryStore());
         result.initialize();
         this.log.debug("Finished creating temporary MemoryStore repository");
         
-        return result;
+        return new PooledTemporaryRepository(result, null);
     }
     
     @Override
@@ -175,318 +597,160 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
             new RuntimeException().printStackTrace();
         }
         
-        ManualShutdownRepository permanentRepository = this.getPermanentRepositoryInternal(schemaOntologies);
+        final Set<OWLOntologyID> key = PoddRepositoryManagerImpl.permanentRepositoryKey(schemaOntologies);
         
-        // ManualShutdownRepository permanentRepository =
-        // this.permanentRepositories.get(schemaOntologies);
-        // This synchronisation should not inhibit most operations, but is necessary to prevent
-        // multiple repositories with the same schema ontologies, given that there is a relatively
-        // large latency in the new repository create process
-        // ConcurrentMap.putIfAbsent is not applicable to the initial situation as it is very costly
-        // to create a repository if it is not needed
-        if(permanentRepository == null)
+        // Each set of schema ontologies has its own creation future, so the large latency in
+        // creating a new repository only blocks callers that are waiting for that repository
+        Future<ManualShutdownRepository> future = this.permanentRepositories.get(key);
+        if(future == null)
         {
-            synchronized(this.permanentRepositories)
-            {
-                permanentRepository = this.getPermanentRepositoryInternal(schemaOntologies);
-                if(permanentRepository == null)
-                {
-                    this.log.debug("Permanent repository not cached, but may exist");
-                    
-                    RepositoryConnection managementConnection = null;
-                    try
-                    {
-                        managementConnection = this.getManagementRepositoryConnection();
-                        managementConnection.begin();
-                        final Map<Resource, RepositoryManager> sesameRepositoryManagerMap =
-                                this.getRepositoryManager(schemaOntologies, managementConnection, this.repositoryGraph);
-                        if(sesameRepositoryManagerMap.isEmpty())
+            final FutureTask<ManualShutdownRepository> newFuture =
+                    new FutureTask<>(new Callable<ManualShutdownRepository>()
                         {
-                            throw new RuntimeException("Could not create repository manager");
-                        }
-                        if(sesameRepositoryManagerMap.size() > 1)
-                        {
-                            throw new RuntimeException("Found duplicate repository managers. Failing fast");
-                        }
-                        final Resource repositoryManagerURI = sesameRepositoryManagerMap.keySet().iterator().next();
-                        URI repositoryUri = null;
-                        
-                        final Model repositoriesInManagerModel = new LinkedHashModel();
-                        managementConnection.exportStatements(repositoryManagerURI,
-                                PODD.PODD_REPOSITORY_MANAGER_CONTAINS_REPOSITORY, null, false, new StatementCollector(
-                                        repositoriesInManagerModel), this.repositoryGraph);
-                        for(final Value nextRepository : repositoriesInManagerModel.objects())
-                        {
-                            if(nextRepository instanceof URI)
-                            {
-                                final Model model = new LinkedHashModel();
-                                managementConnection.exportStatements((URI)nextRepository,
-                                        PODD.PODD_REPOSITORY_CONTAINS_SCHEMA_VERSION, null, true,
-                                        new StatementCollector(model), this.repositoryGraph);
-                                
-                                final Set<Value> schemasInRepository =
-                                        model.filter((URI)nextRepository, PODD.PODD_REPOSITORY_CONTAINS_SCHEMA_VERSION,
-                                                null).objects();
-                                boolean missingSchema = false;
-                                if(schemasInRepository.size() != schemaOntologies.size())
-                                {
-                                    continue;
-                                }
-                                for(final OWLOntologyID nextSchemaOntology : schemaOntologies)
-                                {
-                                    if(!model.contains((URI)nextRepository,
-                                            PODD.PODD_REPOSITORY_CONTAINS_SCHEMA_VERSION, nextSchemaOntology
-                                                    .getVersionIRI().toOpenRDFURI()))
-                                    {
-                                        missingSchema = true;
-                                        break;
-                                    }
-                                }
-                                
-                                for(final Value nextSchema : schemasInRepository)
-                                {
-                                    if(nextSchema instanceof URI)
-                                    {
-                                        boolean foundNextSchema = false;
-                                        for(final OWLOntologyID nextSchemaOntology : schemaOntologies)
-                                        {
-                                            if(nextSchemaOntology.getVersionIRI().toOpenRDFURI().equals(nextSchema))
-                                            {
-                                                foundNextSchema = true;
-                                                break;
-                                            }
-                                        }
-                                        if(!foundNextSchema)
-                                        {
-                                            missingSchema = true;
-                                            break;
-                                        }
-                                    }
-                                }
-                                
-                                if(!missingSchema)
-                                {
-                                    repositoryUri = (URI)nextRepository;
-                                    break;
-                                }
-                            }
-                        }
-                        
-                        final RepositoryManager sesameRepositoryManager =
-                                sesameRepositoryManagerMap.values().iterator().next();
-                        // If no existing repository found, then create one, else we regenerate a
-                        // reference to the existing repository
-                        if(repositoryUri == null)
-                        {
-                            this.log.debug("Permanent repository not created yet");
-                            // Create a new one
-                            repositoryUri =
-                                    managementConnection.getValueFactory().createURI("urn:podd:repository:",
-                                            UUID.randomUUID().toString());
-                            // Get a new repository ID using our base name as the starting point
-                            final String newRepositoryID =
-                                    sesameRepositoryManager.getNewRepositoryID(repositoryUri.stringValue());
-                            final RepositoryConfig config =
-                                    new RepositoryConfig(newRepositoryID,
-                                            "PODD Redesign Repository (Automatically created)",
-                                            this.permanentRepositoryConfigForNew);
-                            sesameRepositoryManager.addRepositoryConfig(config);
-                            
-                            final ManualShutdownRepository nextRepository =
-                                    new ManualShutdownRepository(sesameRepositoryManager.getRepository(newRepositoryID));
-                            // If we somehow created a new repository since we entered this section,
-                            // we need to remove the new repository to cleanup
-                            final ManualShutdownRepository putIfAbsent =
-                                    this.permanentRepositories.putIfAbsent(schemaOntologies, nextRepository);
-                            if(putIfAbsent != null)
-                            {
-                                this.log.error("Created a new duplicate repository that must now be removed: {}",
-                                        newRepositoryID);
-                                final boolean removeRepository =
-                                        sesameRepositoryManager.removeRepository(newRepositoryID);
-                                if(!removeRepository)
-                                {
-                                    this.log.warn("Could not remove repository");
-                                }
-                                permanentRepository = putIfAbsent;
-                            }
-                            else
-                            {
-                                this.log.debug("Permanent repository created: {}", newRepositoryID);
-                                permanentRepository = nextRepository;
-                                
-                                // In this case, we need to copy the relevant schema ontologies over
-                                // to
-                                // the
-                                // new repository
-                                RepositoryConnection permanentConnection = null;
-                                try
-                                {
-                                    permanentConnection = permanentRepository.getConnection();
-                                    permanentConnection.begin();
-                                    for(final OWLOntologyID nextSchemaOntology : schemaOntologies)
-                                    {
-                                        if(nextSchemaOntology.getVersionIRI() != null)
-                                        {
-                                            // TODO: Check if the ontology version exists in the
-                                            // management connection
-                                            if(!permanentConnection.hasStatement(null, null, null, false,
-                                                    nextSchemaOntology.getVersionIRI().toOpenRDFURI()))
-                                            {
-                                                permanentConnection.add(
-                                                        managementConnection.getStatements(null, null, null, false,
-                                                                nextSchemaOntology.getVersionIRI().toOpenRDFURI()),
-                                                        nextSchemaOntology.getVersionIRI().toOpenRDFURI());
-                                            }
-                                            
-                                            final RepositoryResult<Statement> statements =
-                                                    managementConnection.getStatements(nextSchemaOntology
-                                                            .getVersionIRI().toOpenRDFURI(),
-                                                            PODD.PODD_BASE_INFERRED_VERSION, null, false, this
-                                                                    .getSchemaManagementGraph());
-                                            
-                                            for(final Statement nextInferredStatement : Iterations.asList(statements))
-                                            {
-                                                if(nextInferredStatement.getObject() instanceof URI)
-                                                {
-                                                    if(!permanentConnection.hasStatement(null, null, null, false,
-                                                            (URI)nextInferredStatement.getObject()))
-                                                    {
-                                                        permanentConnection.add(managementConnection.getStatements(
-                                                                null, null, null, false,
-                                                                (URI)nextInferredStatement.getObject()),
-                                                                (URI)nextInferredStatement.getObject());
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    }
-                                    permanentConnection.commit();
-                                }
-                                catch(final Throwable e)
-                                {
-                                    if(permanentConnection != null)
-                                    {
-                                        permanentConnection.rollback();
-                                    }
-                                    throw e;
-                                }
-                                finally
-                                {
-                                    if(permanentConnection != null)
-                                    {
-                                        permanentConnection.close();
-                                    }
-                                }
-                                
-                                final Literal repositoryIdInManager =
-                                        managementConnection.getValueFactory().createLiteral(newRepositoryID);
-                                managementConnection.add(repositoryManagerURI,
-                                        PODD.PODD_REPOSITORY_MANAGER_CONTAINS_REPOSITORY, repositoryUri,
-                                        this.repositoryGraph);
-                                managementConnection.add(repositoryUri, RDF.TYPE, PODD.PODD_REPOSITORY,
-                                        this.repositoryGraph);
-                                managementConnection.add(repositoryUri, PODD.PODD_REPOSITORY_ID_IN_MANAGER,
-                                        repositoryIdInManager, this.repositoryGraph);
-                                for(final OWLOntologyID nextSchemaOntologyID : schemaOntologies)
-                                {
-                                    managementConnection.add(repositoryUri, PODD.PODD_REPOSITORY_CONTAINS_SCHEMA_IRI,
-                                            nextSchemaOntologyID.getOntologyIRI().toOpenRDFURI(), this.repositoryGraph);
-                                    managementConnection.add(repositoryUri,
-                                            PODD.PODD_REPOSITORY_CONTAINS_SCHEMA_VERSION, nextSchemaOntologyID
-                                                    .getVersionIRI().toOpenRDFURI(), this.repositoryGraph);
-                                }
-                            }
-                        }
-                        else
-                        {
-                            this.log.debug("Permanent repository created but not cached: {}", repositoryUri);
-                            if(this.log.isTraceEnabled())
-                            {
-                                new RuntimeException().printStackTrace();
-                            }
-                            // create reference to existing repositoryUri
-                            final Model model = new LinkedHashModel();
-                            managementConnection.exportStatements(repositoryUri, null, null, false,
-                                    new StatementCollector(model), this.repositoryGraph);
-                            if(!model.contains(repositoryUri, RDF.TYPE, PODD.PODD_REPOSITORY))
-                            {
-                                throw new RuntimeException(
-                                        "Found repository that was not typed correctly in management graph: "
-                                                + repositoryUri.stringValue());
-                            }
-                            
-                            final Literal existingRepositoryId =
-                                    model.filter(repositoryUri, PODD.PODD_REPOSITORY_ID_IN_MANAGER, null)
-                                            .objectLiteral();
-                            
-                            Repository nextRepository =
-                                    sesameRepositoryManager.getRepository(existingRepositoryId.getLabel());
-                            
-                            if(nextRepository == null)
-                            {
-                                throw new RuntimeException("Failed to get existing repository from manager: "
-                                        + existingRepositoryId);
-                            }
-                            
-                            nextRepository = new ManualShutdownRepository(nextRepository);
-                            
-                            final ManualShutdownRepository putIfAbsent =
-                                    this.permanentRepositories.putIfAbsent(schemaOntologies,
-                                            (ManualShutdownRepository)nextRepository);
-                            if(putIfAbsent != null)
+                            @Override
+                            public ManualShutdownRepository call() throws Exception
                             {
-                                // TODO: Should we shutdown the repository that is being replaced?
-                                // Ideally we will be shutting down the repository manager later,
-                                // and they should be references to the same Repository anyway
-                                // nextRepository.shutDown();
-                                
-                                nextRepository = putIfAbsent;
+                                return PoddRepositoryManagerImpl.this.createPermanentRepository(schemaOntologies);
                             }
-                            permanentRepository = (ManualShutdownRepository)nextRepository;
-                        }
-                        managementConnection.commit();
-                    }
-                    catch(final Throwable e)
-                    {
-                        if(managementConnection != null)
-                        {
-                            managementConnection.rollback();
-                        }
-                        throw e;
-                    }
-                    finally
-                    {
-                        if(managementConnection != null)
-                        {
-                            managementConnection.close();
-                        }
-                    }
-                    
-                }
+                        });
+            future = this.permanentRepositories.putIfAbsent(key, newFuture);
+            if(future == null)
+            {
+                future = newFuture;
+                newFuture.run();
+            }
+        }
+        
+        final ManualShutdownRepository permanentRepository;
+        try
+        {
+            permanentRepository = future.get();
+        }
+        catch(final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException("Interrupted while waiting for permanent repository", e);
+        }
+        catch(final ExecutionException e)
+        {
+            // Remove the failed future so that later calls can try to create the repository again
+            this.permanentRepositories.remove(key, future);
+            if(e.getCause() instanceof OpenRDFException)
+            {
+                throw (OpenRDFException)e.getCause();
+            }
+            else if(e.getCause() instanceof IOException)
+            {
+                throw (IOException)e.getCause();
+            }
+            else if(e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException)e.getCause();
             }
+            else if(e.getCause() instanceof Error)
+            {
+                throw (Error)e.getCause();
+            }
+            throw new RepositoryException("Could not get permanent repository", e.getCause());
         }
+        
         this.log.debug("Returning from get permanent repository");
         return permanentRepository.getConnection();
     }
     
-    private ManualShutdownRepository getPermanentRepositoryInternal(final Set<? extends OWLOntologyID> schemaOntologies)
+    @Override
+    public URI getSchemaManagementGraph()
+    {
+        return this.schemaGraph;
+    }
+    
+    @Override
+    public long getTemporaryRepositoryInMemoryCount()
+    {
+        return this.temporaryRepositoryInMemoryCount.get();
+    }
+    
+    @Override
+    public long getTemporaryRepositoryOnDiskCount()
+    {
+        return this.temporaryRepositoryOnDiskCount.get();
+    }
+    
+    @Override
+    public long getTemporaryRepositoryPoolHitCount()
+    {
+        return this.temporaryRepositoryPoolHitCount.get();
+    }
+    
+    /**
+     * Creates a canonical key for a set of schema ontologies, ignoring any inferred ontology
+     * versions, so that the permanent repository for the set can be found with a single hash
+     * lookup.
+     */
+    private static Set<OWLOntologyID> permanentRepositoryKey(final Set<? extends OWLOntologyID> schemaOntologies)
     {
-        for(final Entry<Set<? extends OWLOntologyID>, ManualShutdownRepository> nextEntry : this.permanentRepositories
-                .entrySet())
+        final Set<OWLOntologyID> result = new HashSet<>();
+        for(final OWLOntologyID nextSchemaOntology : schemaOntologies)
         {
-            if(OntologyUtils.ontologyVersionsMatch(schemaOntologies, nextEntry.getKey()))
+            if(nextSchemaOntology instanceof InferredOWLOntologyID)
             {
-                return nextEntry.getValue();
+                result.add(((InferredOWLOntologyID)nextSchemaOntology).getBaseOWLOntologyID());
+            }
+            else
+            {
+                result.add(nextSchemaOntology);
             }
         }
-        return null;
+        return Collections.unmodifiableSet(result);
     }
     
-    @Override
-    public URI getSchemaManagementGraph()
+    /**
+     * Returns a temporary repository to this manager after it has been used. In-memory
+     * repositories are cleared and pooled if there is room in the pool, and all other repositories
+     * are shutdown.
+     * 
+     * @param repository
+     *            The repository that is no longer being used.
+     * @param dataDir
+     *            The data directory for a disk-backed repository, or null if the repository is
+     *            in-memory.
+     * @throws RepositoryException
+     *             If the repository could not be shutdown.
+     */
+    private void releaseTemporaryRepository(final Repository repository, final Path dataDir)
+        throws RepositoryException
     {
-        return this.schemaGraph;
+        if(dataDir != null)
+        {
+            try
+            {
+                repository.shutDown();
+            }
+            finally
+            {
+                this.deleteTemporaryRepositoryDirectory(dataDir);
+            }
+        }
+        else if(!this.shutDown && this.temporaryRepositoryPoolSize > 0 && this.clearTemporaryRepository(repository)
+                && this.temporaryRepositoryPool.offer(repository))
+        {
+            // Check again in case the pool was drained while the repository was being cleared
+            if(this.shutDown && this.temporaryRepositoryPool.remove(repository))
+            {
+                repository.shutDown();
+            }
+            
+            if(this.log.isDebugEnabled())
+            {
+                this.log.debug("Temporary repositories: inMemory={} onDisk={} poolHits={}",
+                        this.temporaryRepositoryInMemoryCount.get(), this.temporaryRepositoryOnDiskCount.get(),
+                        this.temporaryRepositoryPoolHitCount.get());
+            }
+        }
+        else
+        {
+            repository.shutDown();
+        }
     }
     
     @Override
@@ -556,6 +820,7 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
     public void setManagementRepository(final Repository repository) throws OpenRDFException
     {
         this.managementRepository = new ManualShutdownRepository(repository);
+        this.managementGraphIndex = new PoddManagementGraphIndex();
     }
     
     @Override
@@ -567,7 +832,24 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
     @Override
     public void shutDown() throws RepositoryException
     {
+        this.shutDown = true;
+        
         RepositoryException foundException = null;
+        
+        Repository nextTemporaryRepository;
+        while((nextTemporaryRepository = this.temporaryRepositoryPool.poll()) != null)
+        {
+            try
+            {
+                nextTemporaryRepository.shutDown();
+            }
+            catch(final RepositoryException e)
+            {
+                this.log.error("Found exception shutting down pooled temporary repository", e);
+                foundException = e;
+            }
+        }
+        
         try
         {
             if(this.managementRepository != null)
@@ -579,19 +861,37 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
         catch(final RepositoryException e)
         {
             this.log.error("Found exception shutting down management repository", e);
-            foundException = e;
+            if(foundException == null)
+            {
+                foundException = e;
+            }
+            else
+            {
+                foundException.addSuppressed(e);
+            }
         }
         finally
         {
             synchronized(this.permanentRepositories)
             {
-                for(final Entry<Set<? extends OWLOntologyID>, ManualShutdownRepository> nextRepository : this.permanentRepositories
-                        .entrySet())
+                for(final Entry<Set<OWLOntologyID>, Future<ManualShutdownRepository>> nextRepository :
+                        this.permanentRepositories.entrySet())
                 {
+                    if(!nextRepository.getValue().isDone())
+                    {
+                        this.log.warn("Permanent repository was still being created during shutdown: {}",
+                                nextRepository.getKey());
+                        continue;
+                    }
+                    
                     try
                     {
                         this.log.debug("Shutting down repository for schema ontologies: {} ", nextRepository.getKey());
-                        nextRepository.getValue().realShutDown();
+                        nextRepository.getValue().get().realShutDown();
+                    }
+                    catch(final ExecutionException | InterruptedException e)
+                    {
+                        this.log.debug("Permanent repository was not created, so it does not need to be shutdown", e);
                     }
                     catch(final RepositoryException e)
                     {
@@ -887,4 +1187,42 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
             return Collections.<Resource, RepositoryManager> singletonMap(newRepositoryManagerURI, repositoryManager);
         }
     }
+    
+    /**
+     * A temporary repository that is returned to this manager when it is shutdown, instead of
+     * being shutdown directly.
+     */
+    private class PooledTemporaryRepository extends RepositoryWrapper
+    {
+        private final Path dataDir;
+        
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        
+        PooledTemporaryRepository(final Repository delegate, final Path dataDir)
+        {
+            super(delegate);
+            this.dataDir = dataDir;
+        }
+        
+        @Override
+        public RepositoryConnection getConnection() throws RepositoryException
+        {
+            // The delegate may already be in use by another caller after it was released
+            if(this.released.get())
+            {
+                throw new IllegalStateException("Temporary repository has already been shutdown");
+            }
+            return super.getConnection();
+        }
+        
+        @Override
+        public void shutDown() throws RepositoryException
+        {
+            // Only release the delegate once, as it may have been given to another caller since
+            if(this.released.compareAndSet(false, true))
+            {
+                PoddRepositoryManagerImpl.this.releaseTemporaryRepository(this.getDelegate(), this.dataDir);
+            }
+        }
+    }
 }
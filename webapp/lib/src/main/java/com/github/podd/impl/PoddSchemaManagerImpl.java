@@ -36,16 +36,13 @@ import java.util.concurrent.ConcurrentMap;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
-import org.openrdf.model.Namespace;
 import org.openrdf.model.Resource;
 import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
-import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.util.ModelException;
 import org.openrdf.model.vocabulary.OWL;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
-import org.openrdf.repository.RepositoryResult;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.Rio;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
@@ -130,16 +127,9 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
         {
             managementConnection = this.repositoryManager.getManagementRepositoryConnection();
             
-            final RepositoryResult<Statement> statements =
-                    managementConnection.getStatements(null, null, null, includeInferred,
-                            contexts.toArray(new Resource[] {}));
-            final Model model = new LinkedHashModel(Iterations.asList(statements));
-            final RepositoryResult<Namespace> namespaces = managementConnection.getNamespaces();
-            for(final Namespace nextNs : Iterations.asSet(namespaces))
-            {
-                model.setNamespace(nextNs);
-            }
-            Rio.write(model, Rio.createWriter(format, outputStream));
+            // Streams the namespaces and statements to the writer without collecting them first
+            managementConnection.exportStatements(null, null, null, includeInferred,
+                    Rio.createWriter(format, outputStream), contexts.toArray(new Resource[] {}));
         }
         finally
         {
@@ -460,6 +450,8 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
                     if(loadEntry.getKey() instanceof InferredOWLOntologyID)
                     {
                         results.add((InferredOWLOntologyID)loadEntry.getKey());
+                        this.sesameManager.materialiseSchemaHierarchy((InferredOWLOntologyID)loadEntry.getKey(),
+                                managementConnection);
                     }
                     else
                     {
@@ -527,6 +519,10 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
                         
                         managementConnection.commit();
                         
+                        this.sesameManager.materialiseSchemaHierarchy(nextResult, managementConnection);
+                        this.sesameManager.indexLabels(managementConnection,
+                                this.sesameManager.versionAndInferredContexts(nextResult));
+                        
                         results.add(nextResult);
                     }
                     
@@ -604,6 +600,9 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
             
             managementConnection.commit();
             
+            this.sesameManager.materialiseSchemaHierarchy(nextResult, managementConnection);
+            this.sesameManager.indexLabels(managementConnection, this.sesameManager.versionAndInferredContexts(nextResult));
+            
             return nextResult;
         }
         catch(final Throwable e)
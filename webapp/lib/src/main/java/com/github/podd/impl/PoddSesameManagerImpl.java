@@ -22,7 +22,10 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +34,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import org.openrdf.OpenRDFException;
+import org.openrdf.model.Literal;
 import org.openrdf.model.Model;
 import org.openrdf.model.Resource;
 import org.openrdf.model.Statement;
@@ -42,14 +46,15 @@ import org.openrdf.model.impl.ValueFactoryImpl;
 import org.openrdf.model.vocabulary.OWL;
 import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.query.Binding;
 import org.openrdf.query.BindingSet;
-import org.openrdf.query.BooleanQuery;
 import org.openrdf.query.GraphQuery;
 import org.openrdf.query.QueryLanguage;
 import org.openrdf.query.QueryResults;
 import org.openrdf.query.TupleQuery;
 import org.openrdf.query.TupleQueryResult;
 import org.openrdf.query.impl.DatasetImpl;
+import org.openrdf.query.impl.MapBindingSet;
 import org.openrdf.query.resultio.helpers.QueryResultCollector;
 import org.openrdf.queryrender.RenderUtils;
 import org.openrdf.repository.Repository;
@@ -65,18 +70,24 @@ import org.semanticweb.owlapi.model.OWLOntologyID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.podd.api.ChildObjectOrder;
 import com.github.podd.api.MetadataPolicy;
 import com.github.podd.api.PoddSesameManager;
 import com.github.podd.exception.SchemaManifestException;
 import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
+import com.github.podd.impl.PoddManagementGraphIndex.ManagementConnection;
+import com.github.podd.impl.PoddManagementGraphIndex.ManagementGraph;
 import com.github.podd.utils.DebugUtils;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.OntologyUtils;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddChildObjectPage;
 import com.github.podd.utils.PoddObjectLabel;
 import com.github.podd.utils.PoddObjectLabelImpl;
+import com.github.podd.utils.PoddSchemaHierarchy;
 import com.github.podd.utils.RdfUtility;
+import com.github.podd.utils.SparqlQueryRegistry;
 
 /**
  * @author kutila
@@ -85,8 +96,390 @@ import com.github.podd.utils.RdfUtility;
  */
 public class PoddSesameManagerImpl implements PoddSesameManager
 {
+    /**
+     * The values that child objects are sorted by, which are also used as the cursor for the next
+     * page of children.
+     */
+    private static final class ChildObjectKey
+    {
+        /**
+         * Parses a cursor created by {@link #toCursor()}.
+         * 
+         * @throws IllegalArgumentException
+         *             If the cursor was not recognised.
+         */
+        static ChildObjectKey fromCursor(final String cursor)
+        {
+            // The label is last, as it is the only part that may contain tabs
+            final String[] parts = cursor.split("\t", 3);
+            if(parts.length != 3 || !(parts[2].isEmpty() || parts[2].startsWith("L")))
+            {
+                throw new IllegalArgumentException("Unrecognised child object cursor: " + cursor);
+            }
+            
+            try
+            {
+                final Integer weight = parts[0].isEmpty() ? null : Integer.valueOf(parts[0]);
+                final String label = parts[2].isEmpty() ? null : parts[2].substring(1);
+                return new ChildObjectKey(weight, label, PODD.VF.createURI(parts[1]));
+            }
+            catch(final IllegalArgumentException e)
+            {
+                throw new IllegalArgumentException("Unrecognised child object cursor: " + cursor, e);
+            }
+        }
+        
+        private final Integer weight;
+        
+        private final String label;
+        
+        private final URI uri;
+        
+        ChildObjectKey(final Integer weight, final String label, final URI uri)
+        {
+            this.weight = weight;
+            this.label = label;
+            this.uri = uri;
+        }
+        
+        /**
+         * Sets the bindings that select the children after this child.
+         */
+        void setBindings(final TupleQuery query)
+        {
+            query.setBinding("afterUri", this.uri);
+            if(this.weight != null)
+            {
+                query.setBinding("afterWeight", PODD.VF.createLiteral(this.weight.intValue()));
+            }
+            if(this.label != null)
+            {
+                query.setBinding("afterLabel", PODD.VF.createLiteral(this.label));
+            }
+        }
+        
+        /**
+         * 
+         * @return A cursor that refers to the position after this child.
+         */
+        String toCursor()
+        {
+            // A missing label is distinguished from an empty label by the prefix
+            return (this.weight == null ? "" : this.weight.toString()) + "\t" + this.uri.stringValue() + "\t"
+                    + (this.label == null ? "" : "L" + this.label);
+        }
+    }
+    
+    /*
+     * The text of the queries that are registered with the SparqlQueryRegistry, built once.
+     */
+    
+    private static final String CHILD_OBJECTS_QUERY = "SELECT DISTINCT ?childUri ?propertyUri WHERE { "
+            + " ?poddObject ?propertyUri ?childUri . " + " FILTER(isIRI(?childUri)) . " + " ?propertyUri <"
+            + RDFS.SUBPROPERTYOF.stringValue() + "> <" + PODD.PODD_BASE_CONTAINS.stringValue() + "> . " + " } ";
+    
+    private static final String CHILD_OBJECT_COUNT_QUERY = PoddSesameManagerImpl.buildChildObjectCountQuery(null);
+    
+    private static final String OBJECT_TYPES_QUERY = "SELECT DISTINCT ?poddTypeUri WHERE { " + " ?objectUri <"
+            + RDF.TYPE + "> ?poddTypeUri . " + " FILTER NOT EXISTS { ?poddTypeUri <"
+            + PODD.PODD_BASE_DO_NOT_DISPLAY.stringValue() + "> true } " + " FILTER isIRI(?poddTypeUri) "
+            // filter out TYPE statements for OWL:Thing, OWL:Individual, OWL:NamedIndividual &
+            // OWL:Class
+            + "FILTER (?poddTypeUri != <" + OWL.THING.stringValue() + ">) " + "FILTER (?poddTypeUri != <"
+            + OWL.INDIVIDUAL.stringValue() + ">) "
+            + "FILTER (?poddTypeUri != <http://www.w3.org/2002/07/owl#NamedIndividual>) "
+            + "FILTER (?poddTypeUri != <" + OWL.CLASS.stringValue() + ">) " + " }";
+    
+    private static final String CURRENT_ONTOLOGIES_QUERY = PoddSesameManagerImpl.buildOntologiesQuery(true);
+    
+    private static final String ALL_ONTOLOGIES_QUERY = PoddSesameManagerImpl.buildOntologiesQuery(false);
+    
+    private static final String TOP_OBJECTS_QUERY = "SELECT DISTINCT ?topObjectUri WHERE { " + " ?artifactUri <"
+            + PODD.PODD_BASE_HAS_TOP_OBJECT.stringValue() + "> ?topObjectUri . \n" + " }";
+    
+    private static final String WEIGHTED_PROPERTIES_QUERY = PoddSesameManagerImpl.buildWeightedPropertiesQuery(false);
+    
+    private static final String WEIGHTED_PROPERTIES_EXCLUDING_CONTAINS_QUERY = PoddSesameManagerImpl
+            .buildWeightedPropertiesQuery(true);
+    
+    private static final String IS_CONTAINS_PROPERTY_QUERY = "ASK { ?propertyUri <"
+            + RDFS.SUBPROPERTYOF.stringValue() + ">+ <" + PODD.PODD_BASE_CONTAINS.stringValue() + "> . }";
+    
+    private static final String IS_PUBLISHED_QUERY = "ASK { " + " ?artifact "
+            + RenderUtils.getSPARQLQueryString(OWL.VERSIONIRI) + " ?versionIri . " + " ?artifact "
+            + RenderUtils.getSPARQLQueryString(PODD.PODD_BASE_HAS_PUBLICATION_STATUS) + " "
+            + RenderUtils.getSPARQLQueryString(PODD.PODD_BASE_PUBLISHED) + " . " + " } ";
+    
+    private static final String IS_SUB_CLASS_OF_QUERY = "ASK { ?subClass <" + RDFS.SUBCLASSOF.stringValue()
+            + ">+ ?superClass . }";
+    
+    /**
+     * The restriction queries for getObjectTypeMetadata, indexed by
+     * {@link #getObjectTypeMetadataQueryIndex(boolean, MetadataPolicy)}.
+     */
+    private static final String[] OBJECT_TYPE_RESTRICTIONS_QUERIES = new String[2 * MetadataPolicy.values().length];
+    
+    /**
+     * The RDFS domain and range queries for getObjectTypeMetadata, indexed by
+     * {@link #getObjectTypeMetadataQueryIndex(boolean, MetadataPolicy)}.
+     */
+    private static final String[] OBJECT_TYPE_RDFS_QUERIES = new String[2 * MetadataPolicy.values().length];
+    
+    static
+    {
+        for(final boolean includeDoNotDisplayProperties : new boolean[] { false, true })
+        {
+            for(final MetadataPolicy nextPolicy : MetadataPolicy.values())
+            {
+                final int index =
+                        PoddSesameManagerImpl.getObjectTypeMetadataQueryIndex(includeDoNotDisplayProperties,
+                                nextPolicy);
+                PoddSesameManagerImpl.OBJECT_TYPE_RESTRICTIONS_QUERIES[index] =
+                        PoddSesameManagerImpl.buildObjectTypeRestrictionsQuery(includeDoNotDisplayProperties,
+                                nextPolicy);
+                PoddSesameManagerImpl.OBJECT_TYPE_RDFS_QUERIES[index] =
+                        PoddSesameManagerImpl.buildObjectTypeRdfsQuery(includeDoNotDisplayProperties, nextPolicy);
+            }
+        }
+    }
+    
+    /**
+     * Builds the query that counts the children of an object.
+     * 
+     * @param hierarchy
+     *            The materialised schema hierarchy to list the contains properties from, or null
+     *            to find them with the query.
+     */
+    private static String buildChildObjectCountQuery(final PoddSchemaHierarchy hierarchy)
+    {
+        final StringBuilder sb = new StringBuilder(1024);
+        
+        sb.append("SELECT (COUNT(DISTINCT ?childUri) AS ?count) ");
+        sb.append(" WHERE { ");
+        sb.append(" ?poddObject ?propertyUri ?childUri . ");
+        sb.append(" FILTER(isIRI(?childUri)) . ");
+        PoddSesameManagerImpl.appendContainsPropertyPattern(sb, hierarchy);
+        sb.append(" } ");
+        
+        return sb.toString();
+    }
+    
+    private static String buildOntologiesQuery(final boolean onlyCurrentVersions)
+    {
+        final StringBuilder sb = new StringBuilder(1024);
+        
+        sb.append("SELECT ?ontology ?version ?inferredVersion WHERE { ?ontology ");
+        sb.append(RenderUtils.getSPARQLQueryString(RDF.TYPE));
+        sb.append(" ");
+        sb.append(RenderUtils.getSPARQLQueryString(OWL.ONTOLOGY));
+        sb.append(" . ");
+        if(onlyCurrentVersions)
+        {
+            sb.append(" ?ontology ");
+            sb.append(RenderUtils.getSPARQLQueryString(PODD.OMV_CURRENT_VERSION));
+            sb.append(" ?version . ");
+        }
+        else
+        {
+            sb.append(" ?ontology ");
+            sb.append(RenderUtils.getSPARQLQueryString(OWL.VERSIONIRI));
+            sb.append(" ?version . ");
+        }
+        sb.append("OPTIONAL{ ?version ");
+        sb.append(RenderUtils.getSPARQLQueryString(PODD.PODD_BASE_INFERRED_VERSION));
+        sb.append(" ?inferredVersion . ");
+        sb.append(" }");
+        sb.append("}");
+        
+        return sb.toString();
+    }
+    
+    /**
+     * Builds the query for getWeightedProperties.
+     * 
+     * @param excludeContainsProperties
+     *            True to exclude contains properties in the query, which is only needed if there
+     *            is no materialised schema hierarchy to exclude them with.
+     */
+    private static String buildWeightedPropertiesQuery(final boolean excludeContainsProperties)
+    {
+        final StringBuilder sb = new StringBuilder(1024);
+        
+        sb.append("SELECT DISTINCT ?propertyUri ");
+        sb.append(" WHERE { ");
+        sb.append(" ?poddObject ?propertyUri ?value . ");
+        
+        // for ORDER BY
+        sb.append(" OPTIONAL { ?propertyUri <" + RDFS.LABEL.stringValue() + "> ?propertyLabel } . ");
+        
+        // for ORDER BY
+        sb.append("OPTIONAL { ?propertyUri <" + PODD.PODD_BASE_WEIGHT.stringValue() + "> ?weight } . ");
+        
+        sb.append("FILTER (?value != <" + OWL.THING.stringValue() + ">) ");
+        sb.append("FILTER (?value != <" + OWL.INDIVIDUAL.stringValue() + ">) ");
+        sb.append("FILTER (?value != <http://www.w3.org/2002/07/owl#NamedIndividual>) ");
+        sb.append("FILTER (?value != <" + OWL.CLASS.stringValue() + ">) ");
+        
+        // Exclude as TYPE, Label (title) and Comment (description) are
+        // displayed separately
+        sb.append("FILTER (?propertyUri != <" + RDF.TYPE.stringValue() + ">) ");
+        sb.append("FILTER (?propertyUri != <" + RDFS.LABEL.stringValue() + ">) ");
+        sb.append("FILTER (?propertyUri != <" + RDFS.COMMENT.stringValue() + ">) ");
+        
+        if(excludeContainsProperties)
+        {
+            sb.append("FILTER NOT EXISTS { ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue() + "> <"
+                    + PODD.PODD_BASE_CONTAINS.stringValue() + "> } ");
+        }
+        
+        sb.append(" FILTER NOT EXISTS { ?propertyUri <" + PODD.PODD_BASE_DO_NOT_DISPLAY.stringValue() + "> true } ");
+        
+        sb.append(" } ");
+        sb.append("  ORDER BY ASC(xsd:integer(?weight)) ASC(?propertyLabel) ");
+        
+        return sb.toString();
+    }
+    
+    /**
+     * Builds the query for the properties of an object type that are defined as OWL restrictions.
+     */
+    private static String buildObjectTypeRestrictionsQuery(final boolean includeDoNotDisplayProperties,
+            final MetadataPolicy queryPolicy)
+    {
+        /*
+         * NOTE: This SPARQL query only finds properties defined as OWL restrictions in the given
+         * Object Type and its ancestors.
+         */
+        final StringBuilder owlRestrictionQuery = new StringBuilder(1024);
+        
+        owlRestrictionQuery.append("CONSTRUCT { ");
+        owlRestrictionQuery.append(" ?objectType <" + RDFS.SUBCLASSOF.stringValue() + "> ?x . ");
+        owlRestrictionQuery.append(" ?x <" + RDF.TYPE.stringValue() + "> <" + OWL.RESTRICTION.stringValue() + "> . ");
+        owlRestrictionQuery.append(" ?x <" + OWL.ONPROPERTY.stringValue() + "> ?propertyUri . ");
+        owlRestrictionQuery.append(" ?x <" + OWL.ALLVALUESFROM.stringValue() + "> ?rangeClass . ");
+        owlRestrictionQuery.append(" ?x <http://www.w3.org/2002/07/owl#onClass> ?owlClass . ");
+        owlRestrictionQuery.append(" ?x <http://www.w3.org/2002/07/owl#onDataRange> ?valueRange . ");
+        
+        owlRestrictionQuery.append("} WHERE {");
+        
+        // TODO: The following seems to pick up restrictions that are put onto
+        // other types
+        owlRestrictionQuery.append(" ?objectType <" + RDFS.SUBCLASSOF.stringValue() + ">+ ?x . ");
+        // owlRestrictionQuery.append(" ?objectType <" +
+        // RDFS.SUBCLASSOF.stringValue() + "> ?x . ");
+        owlRestrictionQuery.append(" ?x <" + RDF.TYPE.stringValue() + "> <" + OWL.RESTRICTION.stringValue() + "> . ");
+        owlRestrictionQuery.append(" ?x <" + OWL.ONPROPERTY.stringValue() + "> ?propertyUri . ");
+        owlRestrictionQuery.append(" OPTIONAL { ?x <" + OWL.ALLVALUESFROM.stringValue() + "> ?rangeClass } . ");
+        owlRestrictionQuery.append(" OPTIONAL { ?x <http://www.w3.org/2002/07/owl#onClass> ?owlClass } . ");
+        owlRestrictionQuery.append(" OPTIONAL { ?x <http://www.w3.org/2002/07/owl#onDataRange> ?valueRange } . ");
+        
+        if(!includeDoNotDisplayProperties)
+        {
+            owlRestrictionQuery.append(" FILTER NOT EXISTS { ?propertyUri <"
+                    + PODD.PODD_BASE_DO_NOT_DISPLAY.stringValue() + "> true . } ");
+        }
+        
+        switch(queryPolicy)
+        {
+            case EXCLUDE_CONTAINS:
+                owlRestrictionQuery.append("FILTER NOT EXISTS { ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue()
+                        + "> <" + PODD.PODD_BASE_CONTAINS.stringValue() + "> } ");
+                break;
+            
+            case ONLY_CONTAINS:
+                owlRestrictionQuery.append("FILTER EXISTS { ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue() + "> <"
+                        + PODD.PODD_BASE_CONTAINS.stringValue() + "> } ");
+                break;
+            
+            default:
+                // ALL: do nothing. everything will be included
+        }
+        
+        owlRestrictionQuery.append("}");
+        return owlRestrictionQuery.toString();
+    }
+    
+    /**
+     * Builds the query for the properties of an object type that are defined by their RDFS domain
+     * and range.
+     */
+    private static String buildObjectTypeRdfsQuery(final boolean includeDoNotDisplayProperties,
+            final MetadataPolicy queryPolicy)
+    {
+        /*
+         * This query maps RDFS:Domain and RDFS:Range to OWL:Restriction/SubClassOf so that we get a
+         * homogeneous set of results.
+         */
+        final StringBuilder rdfsQuery = new StringBuilder(1024);
+        
+        rdfsQuery.append("CONSTRUCT { ");
+        rdfsQuery.append(" ?objectType <" + RDF.TYPE.stringValue() + "> <" + OWL.CLASS.stringValue() + "> . ");
+        rdfsQuery.append(" ?objectType <" + RDFS.SUBCLASSOF.stringValue() + "> _:x . ");
+        rdfsQuery.append(" _:x <" + RDF.TYPE.stringValue() + "> <" + OWL.RESTRICTION.stringValue() + "> . ");
+        rdfsQuery.append(" _:x <" + OWL.ONPROPERTY.stringValue() + "> ?propertyUri . ");
+        rdfsQuery.append(" _:x <" + OWL.ALLVALUESFROM.stringValue() + "> ?rangeClass . ");
+        
+        rdfsQuery.append("} WHERE {");
+        rdfsQuery.append(" ?objectType <" + RDFS.SUBCLASSOF.stringValue() + ">* ?actualObjectType . ");
+        rdfsQuery.append(" ?propertyUri <" + RDFS.DOMAIN.stringValue() + "> ?actualObjectType . ");
+        rdfsQuery.append(" ?propertyUri <" + RDFS.RANGE.stringValue() + "> ?rangeClass . ");
+        
+        if(!includeDoNotDisplayProperties)
+        {
+            rdfsQuery.append(" FILTER NOT EXISTS { ?propertyUri <" + PODD.PODD_BASE_DO_NOT_DISPLAY.stringValue()
+                    + "> true . } ");
+        }
+        
+        switch(queryPolicy)
+        {
+            case EXCLUDE_CONTAINS:
+                rdfsQuery.append("FILTER NOT EXISTS { ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue() + "> <"
+                        + PODD.PODD_BASE_CONTAINS.stringValue() + "> } ");
+                break;
+            
+            case ONLY_CONTAINS:
+                rdfsQuery.append("FILTER EXISTS { ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue() + "> <"
+                        + PODD.PODD_BASE_CONTAINS.stringValue() + "> } ");
+                break;
+            
+            default:
+                // do nothing. everything will be included
+        }
+        
+        rdfsQuery.append("}");
+        return rdfsQuery.toString();
+    }
+    
+    private static int getObjectTypeMetadataQueryIndex(final boolean includeDoNotDisplayProperties,
+            final MetadataPolicy queryPolicy)
+    {
+        return (includeDoNotDisplayProperties ? MetadataPolicy.values().length : 0) + queryPolicy.ordinal();
+    }
+    
     private final Logger log = LoggerFactory.getLogger(this.getClass());
     
+    /**
+     * The child object count query for each materialised schema hierarchy, which lists the
+     * contains properties of the hierarchy.
+     */
+    private final ConcurrentMap<PoddSchemaHierarchy, String> childObjectCountQueries = new ConcurrentHashMap<>();
+    
+    /**
+     * The rdfs:subClassOf and rdfs:subPropertyOf statements in each schema context that has been
+     * materialised. Schema contexts are version IRIs, so their contents do not change.
+     */
+    private final ConcurrentMap<URI, Model> schemaHierarchyStatements = new ConcurrentHashMap<>();
+    
+    private final ConcurrentMap<List<URI>, PoddSchemaHierarchy> schemaHierarchies = new ConcurrentHashMap<>();
+    
+    private final PoddLabelIndex labelIndex = new PoddLabelIndex();
+    
+    /**
+     * The labels of objects and schema terms, shared across requests. Schema and published artifact
+     * contexts are pinned.
+     */
+    private final PoddLabelCache labelCache = new PoddLabelCache();
+    
     public PoddSesameManagerImpl()
     {
     }
@@ -123,6 +516,10 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             // clear out the direct and inferred ontology graphs
             permanentConnection.remove((URI)null, null, null, nextOntologyID.getInferredOntologyIRI().toOpenRDFURI());
             permanentConnection.remove((URI)null, null, null, nextOntologyID.getVersionIRI().toOpenRDFURI());
+            this.labelIndex.remove(nextOntologyID.getInferredOntologyIRI().toOpenRDFURI(), nextOntologyID
+                    .getVersionIRI().toOpenRDFURI());
+            this.labelCache.remove(nextOntologyID.getInferredOntologyIRI().toOpenRDFURI(), nextOntologyID
+                    .getVersionIRI().toOpenRDFURI());
             
             // clear out references attached to the version and inferred IRIs in
             // the management graph
@@ -193,6 +590,17 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             return new LinkedHashModel();
         }
         
+        if(contexts.length > 0)
+        {
+            final Model results = new LinkedHashModel();
+            for(final Statement nextLabel : this.labelCache.getLabels(missingLabelUris, repositoryConnection,
+                    contexts).filter(null, RDFS.LABEL, null))
+            {
+                results.add(nextLabel.getSubject(), RDFS.LABEL, nextLabel.getObject());
+            }
+            return results;
+        }
+        
         final StringBuilder graphQuery = new StringBuilder(1024);
         
         graphQuery.append("CONSTRUCT { ");
@@ -227,6 +635,12 @@ public class PoddSesameManagerImpl implements PoddSesameManager
     public Set<InferredOWLOntologyID> getAllCurrentSchemaOntologyVersions(
             final RepositoryConnection repositoryConnection, final URI schemaManagementGraph) throws OpenRDFException
     {
+        final ManagementGraph indexedGraph = this.getIndexedGraph(repositoryConnection, schemaManagementGraph);
+        if(indexedGraph != null)
+        {
+            return new HashSet<InferredOWLOntologyID>(indexedGraph.getOntologies(true));
+        }
+        
         final Set<InferredOWLOntologyID> returnList = new HashSet<InferredOWLOntologyID>();
         final StringBuilder sb = new StringBuilder(1024);
         
@@ -272,6 +686,12 @@ public class PoddSesameManagerImpl implements PoddSesameManager
     public Set<InferredOWLOntologyID> getAllSchemaOntologyVersions(final RepositoryConnection repositoryConnection,
             final URI schemaManagementGraph) throws OpenRDFException
     {
+        final ManagementGraph indexedGraph = this.getIndexedGraph(repositoryConnection, schemaManagementGraph);
+        if(indexedGraph != null)
+        {
+            return new LinkedHashSet<InferredOWLOntologyID>(indexedGraph.getOntologies(false));
+        }
+        
         final Set<InferredOWLOntologyID> returnList = new LinkedHashSet<InferredOWLOntologyID>();
         final StringBuilder sb = new StringBuilder(1024);
         
@@ -305,6 +725,92 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         return returnList;
     }
     
+    @Override
+    public List<InferredOWLOntologyID> getArtifactsByPublicationStatus(final boolean published,
+            final boolean unpublished, final int limit, final int offset,
+            final RepositoryConnection repositoryConnection, final URI artifactManagementGraph)
+        throws OpenRDFException
+    {
+        if(!published && !unpublished)
+        {
+            throw new IllegalArgumentException("Cannot choose to exclude both published and unpublished artifacts");
+        }
+        
+        final ManagementGraph indexedGraph = this.getIndexedGraph(repositoryConnection, artifactManagementGraph);
+        if(indexedGraph != null)
+        {
+            final List<InferredOWLOntologyID> artifacts = indexedGraph.getArtifacts(published, unpublished);
+            final int fromIndex = Math.min(Math.max(offset, 0), artifacts.size());
+            final int toIndex = limit < 1 ? artifacts.size() : (int)Math.min((long)fromIndex + limit, artifacts.size());
+            return new ArrayList<InferredOWLOntologyID>(artifacts.subList(fromIndex, toIndex));
+        }
+        
+        final StringBuilder sb = new StringBuilder(1024);
+        
+        sb.append("SELECT ?ontology ?version ?inferredVersion WHERE { ?ontology ");
+        sb.append(RenderUtils.getSPARQLQueryString(RDF.TYPE));
+        sb.append(" ");
+        sb.append(RenderUtils.getSPARQLQueryString(OWL.ONTOLOGY));
+        sb.append(" . ");
+        sb.append(" ?ontology ");
+        sb.append(RenderUtils.getSPARQLQueryString(PODD.OMV_CURRENT_VERSION));
+        sb.append(" ?version . ");
+        sb.append(" OPTIONAL { ?version ");
+        sb.append(RenderUtils.getSPARQLQueryString(PODD.PODD_BASE_INFERRED_VERSION));
+        sb.append(" ?inferredVersion . } ");
+        
+        final StringBuilder publishedPattern = new StringBuilder(256);
+        publishedPattern.append(" { ?ontology ");
+        publishedPattern.append(RenderUtils.getSPARQLQueryString(PODD.PODD_BASE_HAS_PUBLICATION_STATUS));
+        publishedPattern.append(" ");
+        publishedPattern.append(RenderUtils.getSPARQLQueryString(PODD.PODD_BASE_PUBLISHED));
+        publishedPattern.append(" . } ");
+        
+        if(published && !unpublished)
+        {
+            sb.append(publishedPattern);
+        }
+        else if(!published && unpublished)
+        {
+            sb.append(" FILTER NOT EXISTS ").append(publishedPattern);
+        }
+        
+        sb.append(" } ORDER BY ?ontology ?version");
+        
+        if(limit > 0)
+        {
+            sb.append(" LIMIT ");
+            sb.append(limit);
+        }
+        if(offset > 0)
+        {
+            sb.append(" OFFSET ");
+            sb.append(offset);
+        }
+        
+        this.log.debug("Generated SPARQL {}", sb);
+        
+        final TupleQuery query = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
+        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(query, artifactManagementGraph);
+        
+        final List<InferredOWLOntologyID> returnList =
+                new ArrayList<InferredOWLOntologyID>(queryResults.getBindingSets().size());
+        for(final BindingSet nextResult : queryResults.getBindingSets())
+        {
+            final String nextOntologyIRI = nextResult.getValue("ontology").stringValue();
+            final String nextVersionIRI = nextResult.getValue("version").stringValue();
+            IRI nextInferredIRI = null;
+            if(nextResult.hasBinding("inferredVersion"))
+            {
+                nextInferredIRI = IRI.create(nextResult.getValue("inferredVersion").stringValue());
+            }
+            
+            returnList.add(new InferredOWLOntologyID(IRI.create(nextOntologyIRI), IRI.create(nextVersionIRI),
+                    nextInferredIRI));
+        }
+        return returnList;
+    }
+    
     @Override
     public Map<URI, URI> getCardinalityValues(final InferredOWLOntologyID artifactID, final URI objectUri,
             final Collection<URI> propertyUris, final RepositoryConnection managementConnection,
@@ -368,111 +874,313 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             sb.append(" } ");
         }
         
-        // this.log.debug("Created SPARQL {} with propertyUri {} and poddObject {}",
-        // sb,
-        // propertyUri, objectUri);
+        // this.log.debug("Created SPARQL {} with propertyUri {} and poddObject {}",
+        // sb,
+        // propertyUri, objectUri);
+        
+        final TupleQuery query = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
+        // query.setBinding("propertyUri", propertyUri);
+        if(findFromType)
+        {
+            query.setBinding("somePoddConcept", objectUri);
+        }
+        else
+        {
+            query.setBinding("poddObject", objectUri);
+        }
+        
+        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(query, contexts);
+        
+        final ConcurrentMap<URI, URI> resultMap = new ConcurrentHashMap<URI, URI>();
+        
+        for(final BindingSet next : queryResults.getBindingSets())
+        {
+            final Value nextProperty = next.getValue("propertyUri");
+            if(nextProperty instanceof URI)
+            {
+                final URI nextPropertyURI = (URI)nextProperty;
+                URI nextCardinality = PODD.PODD_BASE_CARDINALITY_ZERO_OR_MANY;
+                
+                final Value qualifiedCardinalityValue = next.getValue("qualifiedCardinality");
+                if(qualifiedCardinalityValue != null)
+                {
+                    nextCardinality = PODD.PODD_BASE_CARDINALITY_EXACTLY_ONE;
+                }
+                
+                int minCardinality = -1;
+                int maxCardinality = -1;
+                
+                final Value minCardinalityValue = next.getValue("minQualifiedCardinality");
+                if(minCardinalityValue != null && minCardinalityValue instanceof LiteralImpl)
+                {
+                    minCardinality = ((LiteralImpl)minCardinalityValue).intValue();
+                }
+                
+                final Value maxCardinalityValue = next.getValue("maxQualifiedCardinality");
+                if(maxCardinalityValue != null && maxCardinalityValue instanceof LiteralImpl)
+                {
+                    maxCardinality = ((LiteralImpl)maxCardinalityValue).intValue();
+                }
+                
+                if(maxCardinality == 1 && minCardinality < 1)
+                {
+                    nextCardinality = PODD.PODD_BASE_CARDINALITY_ZERO_OR_ONE;
+                }
+                else if(minCardinality == 1 && maxCardinality != 1)
+                {
+                    nextCardinality = PODD.PODD_BASE_CARDINALITY_ONE_OR_MANY;
+                }
+                
+                final URI putIfAbsent = resultMap.putIfAbsent(nextPropertyURI, nextCardinality);
+                
+                if(putIfAbsent != null && !nextCardinality.equals(putIfAbsent))
+                {
+                    this.log.warn(
+                            "Found duplicate cardinality constraints for {} : original constraint : {} ignored constraint {}",
+                            nextPropertyURI, putIfAbsent, nextCardinality);
+                }
+            }
+            else
+            {
+                this.log.warn("Property was not bound to a URI: {}", nextProperty);
+            }
+        }
+        
+        return resultMap;
+    }
+    
+    /**
+     * Appends a pattern that binds ?propertyUri to the properties that link an object to its
+     * children, listing them from the materialised schema hierarchy if there is one.
+     */
+    private static void appendContainsPropertyPattern(final StringBuilder sb, final PoddSchemaHierarchy hierarchy)
+    {
+        if(hierarchy == null)
+        {
+            sb.append(" ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue() + "> <" + PODD.PODD_BASE_CONTAINS + "> . ");
+        }
+        else
+        {
+            sb.append(" VALUES ?propertyUri { ");
+            for(final URI nextProperty : hierarchy.getContainsProperties())
+            {
+                sb.append("<").append(nextProperty.stringValue()).append("> ");
+            }
+            sb.append("} ");
+        }
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddSesameManager#getChildObjectCount(org.openrdf.model.URI,
+     * org.openrdf.repository.RepositoryConnection, org.openrdf.model.URI[])
+     */
+    @Override
+    public int getChildObjectCount(final URI objectUri, final RepositoryConnection repositoryConnection,
+            final URI... contexts) throws OpenRDFException
+    {
+        final PoddSchemaHierarchy hierarchy = this.getSchemaHierarchy(contexts);
+        if(hierarchy != null && hierarchy.getContainsProperties().isEmpty())
+        {
+            return 0;
+        }
+        
+        String query = PoddSesameManagerImpl.CHILD_OBJECT_COUNT_QUERY;
+        if(hierarchy != null)
+        {
+            query = this.childObjectCountQueries.get(hierarchy);
+            if(query == null)
+            {
+                query = PoddSesameManagerImpl.buildChildObjectCountQuery(hierarchy);
+                this.childObjectCountQueries.putIfAbsent(hierarchy, query);
+            }
+        }
+        
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("poddObject", objectUri);
+        final QueryResultCollector queryResults =
+                SparqlQueryRegistry.getTemplate("getChildObjectCount", query).evaluateTupleQuery(
+                        repositoryConnection, bindings, contexts);
+        
+        for(final BindingSet next : queryResults.getBindingSets())
+        {
+            final Value count = next.getValue("count");
+            if(count instanceof Literal)
+            {
+                return ((Literal)count).intValue();
+            }
+        }
+        return 0;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * Children are sorted by their lowest contains property weight if required, their lowest label,
+     * and then their URI, with missing weights and labels first as in SPARQL ORDER BY. The cursor
+     * records those values for the last child on the page, and the query only selects the
+     * children after it, so that each page is ordered and limited by the repository.
+     * 
+     * @see com.github.podd.api.PoddSesameManager#getChildObjectLabels(com.github.podd.utils.
+     * InferredOWLOntologyID, org.openrdf.model.URI, com.github.podd.api.ChildObjectOrder,
+     * java.lang.String, int, org.openrdf.repository.RepositoryConnection, org.openrdf.model.URI[])
+     */
+    @Override
+    public PoddChildObjectPage getChildObjectLabels(final InferredOWLOntologyID ontologyID, final URI objectUri,
+            final ChildObjectOrder order, final String cursor, final int pageSize,
+            final RepositoryConnection repositoryConnection, final URI... contexts) throws OpenRDFException
+    {
+        if(pageSize < 1)
+        {
+            throw new IllegalArgumentException("Page size must be at least 1: " + pageSize);
+        }
+        
+        final ChildObjectKey after = cursor != null ? ChildObjectKey.fromCursor(cursor) : null;
+        
+        final PoddSchemaHierarchy hierarchy = this.getSchemaHierarchy(contexts);
+        if(hierarchy != null && hierarchy.getContainsProperties().isEmpty())
+        {
+            return new PoddChildObjectPage(Collections.<PoddObjectLabel> emptyList(), null);
+        }
+        
+        final boolean byWeight = order == ChildObjectOrder.WEIGHT;
+        final StringBuilder sb = new StringBuilder(2048);
+        
+        sb.append("SELECT ?childUri ?weight ?label ");
+        sb.append(" WHERE { ");
+        sb.append(" { SELECT ?childUri ");
+        if(byWeight)
+        {
+            sb.append(" (MIN(?propertyWeight) AS ?weight) ");
+        }
+        sb.append(" (MIN(STR(?childLabel)) AS ?label) ");
+        sb.append(" WHERE { ");
+        sb.append(" ?poddObject ?propertyUri ?childUri . ");
+        sb.append(" FILTER(isIRI(?childUri)) . ");
+        PoddSesameManagerImpl.appendContainsPropertyPattern(sb, hierarchy);
+        if(byWeight)
+        {
+            sb.append(" OPTIONAL { ?propertyUri <" + PODD.PODD_BASE_WEIGHT.stringValue() + "> ?propertyWeight . } ");
+        }
+        sb.append(" OPTIONAL { ?childUri <" + RDFS.LABEL.stringValue() + "> ?childLabel . } ");
+        sb.append(" } GROUP BY ?childUri } ");
+        
+        // Only the children after the cursor, where an unbound value is before any bound value
+        sb.append(" FILTER(!BOUND(?afterUri) || ");
+        if(byWeight)
+        {
+            sb.append(" (BOUND(?weight) && (!BOUND(?afterWeight) || ?weight > ?afterWeight)) || ");
+            sb.append(" (((!BOUND(?weight) && !BOUND(?afterWeight)) || ?weight = ?afterWeight) && ( ");
+        }
+        sb.append(" (BOUND(?label) && (!BOUND(?afterLabel) || ?label > ?afterLabel)) || ");
+        sb.append(" (((!BOUND(?label) && !BOUND(?afterLabel)) || ?label = ?afterLabel) ");
+        sb.append(" && STR(?childUri) > STR(?afterUri)) ");
+        if(byWeight)
+        {
+            sb.append(" )) ");
+        }
+        sb.append(" ) ");
+        sb.append(" } ");
+        sb.append(" ORDER BY ");
+        if(byWeight)
+        {
+            sb.append(" ?weight ");
+        }
+        sb.append(" ?label STR(?childUri) ");
+        // One more than the page size, to find out whether there is another page
+        sb.append(" LIMIT ").append(pageSize + 1);
+        
+        this.log.debug("Created SPARQL {} with poddObject bound to {}", sb, objectUri);
         
+        // Not registered as a template, as the page size is part of the query text
         final TupleQuery query = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
-        // query.setBinding("propertyUri", propertyUri);
-        if(findFromType)
-        {
-            query.setBinding("somePoddConcept", objectUri);
-        }
-        else
+        query.setBinding("poddObject", objectUri);
+        if(after != null)
         {
-            query.setBinding("poddObject", objectUri);
+            after.setBindings(query);
         }
-        
         final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(query, contexts);
         
-        final ConcurrentMap<URI, URI> resultMap = new ConcurrentHashMap<URI, URI>();
-        
+        final List<PoddObjectLabel> results = new ArrayList<PoddObjectLabel>(pageSize);
+        ChildObjectKey last = null;
         for(final BindingSet next : queryResults.getBindingSets())
         {
-            final Value nextProperty = next.getValue("propertyUri");
-            if(nextProperty instanceof URI)
-            {
-                final URI nextPropertyURI = (URI)nextProperty;
-                URI nextCardinality = PODD.PODD_BASE_CARDINALITY_ZERO_OR_MANY;
-                
-                final Value qualifiedCardinalityValue = next.getValue("qualifiedCardinality");
-                if(qualifiedCardinalityValue != null)
-                {
-                    nextCardinality = PODD.PODD_BASE_CARDINALITY_EXACTLY_ONE;
-                }
-                
-                int minCardinality = -1;
-                int maxCardinality = -1;
-                
-                final Value minCardinalityValue = next.getValue("minQualifiedCardinality");
-                if(minCardinalityValue != null && minCardinalityValue instanceof LiteralImpl)
-                {
-                    minCardinality = ((LiteralImpl)minCardinalityValue).intValue();
-                }
-                
-                final Value maxCardinalityValue = next.getValue("maxQualifiedCardinality");
-                if(maxCardinalityValue != null && maxCardinalityValue instanceof LiteralImpl)
-                {
-                    maxCardinality = ((LiteralImpl)maxCardinalityValue).intValue();
-                }
-                
-                if(maxCardinality == 1 && minCardinality < 1)
-                {
-                    nextCardinality = PODD.PODD_BASE_CARDINALITY_ZERO_OR_ONE;
-                }
-                else if(minCardinality == 1 && maxCardinality != 1)
-                {
-                    nextCardinality = PODD.PODD_BASE_CARDINALITY_ONE_OR_MANY;
-                }
-                
-                final URI putIfAbsent = resultMap.putIfAbsent(nextPropertyURI, nextCardinality);
-                
-                if(putIfAbsent != null && !nextCardinality.equals(putIfAbsent))
-                {
-                    this.log.warn(
-                            "Found duplicate cardinality constraints for {} : original constraint : {} ignored constraint {}",
-                            nextPropertyURI, putIfAbsent, nextCardinality);
-                }
-            }
-            else
+            if(results.size() == pageSize)
             {
-                this.log.warn("Property was not bound to a URI: {}", nextProperty);
+                return new PoddChildObjectPage(results, last.toCursor());
             }
+            
+            final URI childUri = (URI)next.getValue("childUri");
+            final Value weight = next.getValue("weight");
+            final Value label = next.getValue("label");
+            last =
+                    new ChildObjectKey(weight instanceof Literal ? ((Literal)weight).intValue() : null,
+                            label != null ? label.stringValue() : null, childUri);
+            results.add(new PoddObjectLabelImpl(ontologyID, childUri, label != null ? label.stringValue()
+                    : childUri.stringValue()));
         }
-        
-        return resultMap;
+        return new PoddChildObjectPage(results, null);
     }
     
-    @Override
-    public Set<URI> getChildObjects(final URI objectUri, final RepositoryConnection repositoryConnection,
-            final URI... contexts) throws OpenRDFException
+    /**
+     * Finds the children of the given object, along with the contains properties that link the
+     * object to each of them.
+     */
+    private Map<URI, Set<URI>> getChildObjectProperties(final URI objectUri,
+            final RepositoryConnection repositoryConnection, final URI... contexts) throws OpenRDFException
     {
-        final StringBuilder sb = new StringBuilder(1024);
-        
-        sb.append("SELECT DISTINCT ?childUri ");
-        sb.append(" WHERE { ");
-        sb.append(" ?poddObject ?propertyUri ?childUri . ");
-        sb.append(" FILTER(isIRI(?childUri)) . ");
-        sb.append(" ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue() + "> <" + PODD.PODD_BASE_CONTAINS + "> . ");
-        sb.append(" } ");
+        final Map<URI, Set<URI>> results = new LinkedHashMap<>();
         
-        this.log.debug("Created SPARQL {} with poddObject bound to {}", sb, objectUri);
+        final PoddSchemaHierarchy hierarchy = this.getSchemaHierarchy(contexts);
+        if(hierarchy != null)
+        {
+            for(final Statement next : Iterations.asList(repositoryConnection.getStatements(objectUri, null, null,
+                    true, contexts)))
+            {
+                if(next.getObject() instanceof URI && hierarchy.isContainsProperty(next.getPredicate()))
+                {
+                    this.addChildObjectProperty(results, (URI)next.getObject(), next.getPredicate());
+                }
+            }
+            return results;
+        }
         
-        final TupleQuery tupleQuery = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
-        tupleQuery.setBinding("poddObject", objectUri);
-        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(tupleQuery, contexts);
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("poddObject", objectUri);
+        final QueryResultCollector queryResults =
+                SparqlQueryRegistry.getTemplate("getChildObjects", PoddSesameManagerImpl.CHILD_OBJECTS_QUERY)
+                        .evaluateTupleQuery(repositoryConnection, bindings, contexts);
         
-        final Set<URI> resultSet = new HashSet<URI>();
         for(final BindingSet next : queryResults.getBindingSets())
         {
             final Value child = next.getValue("childUri");
             if(child instanceof URI)
             {
-                resultSet.add((URI)child);
+                this.addChildObjectProperty(results, (URI)child, (URI)next.getValue("propertyUri"));
             }
         }
         
-        return resultSet;
+        return results;
+    }
+    
+    private void addChildObjectProperty(final Map<URI, Set<URI>> childProperties, final URI child,
+            final URI property)
+    {
+        Set<URI> properties = childProperties.get(child);
+        if(properties == null)
+        {
+            properties = new HashSet<URI>();
+            childProperties.put(child, properties);
+        }
+        properties.add(property);
+    }
+    
+    @Override
+    public Set<URI> getChildObjects(final URI objectUri, final RepositoryConnection repositoryConnection,
+            final URI... contexts) throws OpenRDFException
+    {
+        return new HashSet<URI>(this.getChildObjectProperties(objectUri, repositoryConnection, contexts).keySet());
     }
     
     /*
@@ -573,6 +1281,12 @@ public class PoddSesameManagerImpl implements PoddSesameManager
     private List<InferredOWLOntologyID> getCurrentVersionsInternal(final IRI ontologyIRI,
             final RepositoryConnection repositoryConnection, final URI managementGraph) throws OpenRDFException
     {
+        final ManagementGraph indexedGraph = this.getIndexedGraph(repositoryConnection, managementGraph);
+        if(indexedGraph != null)
+        {
+            return indexedGraph.getCurrentVersions(ontologyIRI);
+        }
+        
         final List<InferredOWLOntologyID> returnList = new ArrayList<InferredOWLOntologyID>();
         
         final DatasetImpl dataset = new DatasetImpl();
@@ -687,6 +1401,15 @@ public class PoddSesameManagerImpl implements PoddSesameManager
     public Set<URI> getDirectImports(final IRI ontologyIRI, final RepositoryConnection permanentConnection,
             final URI... contexts) throws OpenRDFException
     {
+        if(contexts != null && contexts.length == 1)
+        {
+            final ManagementGraph indexedGraph = this.getIndexedGraph(permanentConnection, contexts[0]);
+            if(indexedGraph != null)
+            {
+                return indexedGraph.getImports(ontologyIRI);
+            }
+        }
+        
         final Set<URI> results = new HashSet<>();
         
         RepositoryResult<Statement> statements;
@@ -711,6 +1434,36 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         return results;
     }
     
+    /**
+     * 
+     * @return The cache of labels shared across requests, for reporting its hit and miss counts.
+     */
+    public PoddLabelCache getLabelCache()
+    {
+        return this.labelCache;
+    }
+    
+    /**
+     * Gets the indexed view of a management graph if the given connection supports one, and there
+     * are no uncommitted writes to the management repository.
+     * 
+     * @param repositoryConnection
+     *            A connection which may have been supplied by the repository manager.
+     * @param managementGraph
+     *            The management graph to look up.
+     * @return The indexed view of the graph, or null if the graph must be queried directly.
+     * @throws OpenRDFException
+     */
+    private ManagementGraph getIndexedGraph(final RepositoryConnection repositoryConnection,
+            final URI managementGraph) throws OpenRDFException
+    {
+        if(managementGraph != null && repositoryConnection instanceof ManagementConnection)
+        {
+            return ((ManagementConnection)repositoryConnection).getIndexedGraph(managementGraph);
+        }
+        return null;
+    }
+    
     private Model getInstancesOf(final Collection<URI> nextRangeTypes, final RepositoryConnection repositoryConnection,
             final URI[] contexts) throws OpenRDFException
     {
@@ -871,17 +1624,24 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             final URI schemaManagementGraph, final URI artifactManagementGraph) throws OpenRDFException,
         SchemaManifestException, UnmanagedSchemaIRIException
     {
-        final StringBuilder sb = new StringBuilder(1024);
-        sb.append("SELECT ?label ?description ");
-        sb.append(" WHERE { ");
-        sb.append(" OPTIONAL { ?objectUri <" + RDFS.LABEL + "> ?label . } ");
-        sb.append(" OPTIONAL { ?objectUri <" + RDFS.COMMENT + "> ?description . } ");
-        sb.append(" }");
-        
-        this.log.debug("Created SPARQL {} with objectUri bound to {}", sb, objectUri);
-        
-        final TupleQuery tupleQuery = permanentConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
-        tupleQuery.setBinding("objectUri", objectUri);
+        return this.getObjectLabels(ontologyID, Collections.singletonList(objectUri), managementConnection,
+                permanentConnection, schemaManagementGraph, artifactManagementGraph).get(objectUri);
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddSesameManager#getObjectLabels(com.github.podd.utils.
+     * InferredOWLOntologyID, java.util.Collection, org.openrdf.repository.RepositoryConnection,
+     * org.openrdf.repository.RepositoryConnection, org.openrdf.model.URI, org.openrdf.model.URI)
+     */
+    @Override
+    public Map<URI, PoddObjectLabel> getObjectLabels(final InferredOWLOntologyID ontologyID,
+            final Collection<URI> objectUris, final RepositoryConnection managementConnection,
+            final RepositoryConnection permanentConnection, final URI schemaManagementGraph,
+            final URI artifactManagementGraph) throws OpenRDFException, SchemaManifestException,
+        UnmanagedSchemaIRIException
+    {
         URI[] contexts;
         
         if(ontologyID != null)
@@ -896,36 +1656,46 @@ public class PoddSesameManagerImpl implements PoddSesameManager
                     this.schemaContexts(ontologyID, managementConnection, schemaManagementGraph,
                             artifactManagementGraph);
         }
-        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(tupleQuery, contexts);
-        
-        String label = null;
-        String description = null;
         
-        for(final BindingSet next : queryResults.getBindingSets())
+        Model labels;
+        if(contexts.length > 0)
         {
-            if(next.getValue("label") != null)
+            labels = this.labelCache.getLabels(objectUris, permanentConnection, contexts);
+        }
+        else
+        {
+            labels = new LinkedHashModel();
+            for(final URI nextObjectUri : objectUris)
             {
-                label = next.getValue("label").stringValue();
+                Iterations.addAll(permanentConnection.getStatements(nextObjectUri, RDFS.LABEL, null, true), labels);
+                Iterations.addAll(permanentConnection.getStatements(nextObjectUri, RDFS.COMMENT, null, true),
+                        labels);
             }
-            else
+        }
+        
+        final Map<URI, PoddObjectLabel> results = new LinkedHashMap<>();
+        for(final URI nextObjectUri : objectUris)
+        {
+            // Disabled using the local name as the default label as it produces worse than useless
+            // results for the typical URIs that end in /UUID/object, and "object" is literally the
+            // word "object" and is displayed as such.
+            // FIXME: Showing the URI may be worse than showing them nothing
+            String label = nextObjectUri.stringValue();
+            String description = null;
+            
+            for(final Value nextLabel : labels.filter(nextObjectUri, RDFS.LABEL, null).objects())
             {
-                // Disabled this method as it produces worse than useless
-                // results for the typical
-                // URIs that end in /UUID/object, and "object" is literally the
-                // word "object" and is
-                // displayed as such.
-                // FIXME: This method may be worse than showing them a URI
-                // label = objectUri.getLocalName();
-                label = objectUri.stringValue();
+                label = nextLabel.stringValue();
             }
-            
-            if(next.getValue("description") != null)
+            for(final Value nextDescription : labels.filter(nextObjectUri, RDFS.COMMENT, null).objects())
             {
-                description = next.getValue("description").stringValue();
+                description = nextDescription.stringValue();
             }
+            
+            results.put(nextObjectUri, new PoddObjectLabelImpl(ontologyID, nextObjectUri, label, description));
         }
         
-        return new PoddObjectLabelImpl(ontologyID, objectUri, label, description);
+        return results;
     }
     
     @Override
@@ -1088,121 +1858,39 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         // - identify it as an owl:Class
         results.add(objectType, RDF.TYPE, OWL.CLASS);
         
-        // - find all Properties and their ranges
-        
-        final Set<Value> properties = new HashSet<Value>();
-        
-        /*
-         * NOTE: This SPARQL query only finds properties defined as OWL restrictions in the given
-         * Object Type and its ancestors.
-         */
-        final StringBuilder owlRestrictionQuery = new StringBuilder(1024);
-        
-        owlRestrictionQuery.append("CONSTRUCT { ");
-        owlRestrictionQuery.append(" ?objectType <" + RDFS.SUBCLASSOF.stringValue() + "> ?x . ");
-        owlRestrictionQuery.append(" ?x <" + RDF.TYPE.stringValue() + "> <" + OWL.RESTRICTION.stringValue() + "> . ");
-        owlRestrictionQuery.append(" ?x <" + OWL.ONPROPERTY.stringValue() + "> ?propertyUri . ");
-        owlRestrictionQuery.append(" ?x <" + OWL.ALLVALUESFROM.stringValue() + "> ?rangeClass . ");
-        owlRestrictionQuery.append(" ?x <http://www.w3.org/2002/07/owl#onClass> ?owlClass . ");
-        owlRestrictionQuery.append(" ?x <http://www.w3.org/2002/07/owl#onDataRange> ?valueRange . ");
-        
-        owlRestrictionQuery.append("} WHERE {");
-        
-        // TODO: The following seems to pick up restrictions that are put onto
-        // other types
-        owlRestrictionQuery.append(" ?objectType <" + RDFS.SUBCLASSOF.stringValue() + ">+ ?x . ");
-        // owlRestrictionQuery.append(" ?objectType <" +
-        // RDFS.SUBCLASSOF.stringValue() + "> ?x . ");
-        owlRestrictionQuery.append(" ?x <" + RDF.TYPE.stringValue() + "> <" + OWL.RESTRICTION.stringValue() + "> . ");
-        owlRestrictionQuery.append(" ?x <" + OWL.ONPROPERTY.stringValue() + "> ?propertyUri . ");
-        owlRestrictionQuery.append(" OPTIONAL { ?x <" + OWL.ALLVALUESFROM.stringValue() + "> ?rangeClass } . ");
-        owlRestrictionQuery.append(" OPTIONAL { ?x <http://www.w3.org/2002/07/owl#onClass> ?owlClass } . ");
-        owlRestrictionQuery.append(" OPTIONAL { ?x <http://www.w3.org/2002/07/owl#onDataRange> ?valueRange } . ");
-        
-        if(!includeDoNotDisplayProperties)
-        {
-            owlRestrictionQuery.append(" FILTER NOT EXISTS { ?propertyUri <"
-                    + PODD.PODD_BASE_DO_NOT_DISPLAY.stringValue() + "> true . } ");
-        }
-        
-        switch(containsPropertyPolicy)
-        {
-            case EXCLUDE_CONTAINS:
-                owlRestrictionQuery.append("FILTER NOT EXISTS { ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue()
-                        + "> <" + PODD.PODD_BASE_CONTAINS.stringValue() + "> } ");
-                break;
-            
-            case ONLY_CONTAINS:
-                owlRestrictionQuery.append("FILTER EXISTS { ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue() + "> <"
-                        + PODD.PODD_BASE_CONTAINS.stringValue() + "> } ");
-                break;
-            
-            default:
-                // ALL: do nothing. everything will be included
-        }
-        
-        owlRestrictionQuery.append("}");
-        final String owlRestrictionQueryString = owlRestrictionQuery.toString();
-        
-        final GraphQuery graphQuery =
-                repositoryConnection.prepareGraphQuery(QueryLanguage.SPARQL, owlRestrictionQueryString);
-        graphQuery.setBinding("objectType", objectType);
-        
-        this.log.debug("Created SPARQL {} \n   with objectType bound to {}", owlRestrictionQueryString, objectType);
-        
-        final Model restrictionQueryResults = RdfUtility.executeGraphQuery(graphQuery, contexts);
-        results.addAll(restrictionQueryResults);
-        
-        properties.addAll(restrictionQueryResults.filter(null, OWL.ONPROPERTY, null).objects());
-        
-        /*
-         * This query maps RDFS:Domain and RDFS:Range to OWL:Restriction/SubClassOf so that we get a
-         * homogeneous set of results.
-         */
-        final StringBuilder rdfsQuery = new StringBuilder(1024);
-        
-        rdfsQuery.append("CONSTRUCT { ");
-        rdfsQuery.append(" ?objectType <" + RDF.TYPE.stringValue() + "> <" + OWL.CLASS.stringValue() + "> . ");
-        rdfsQuery.append(" ?objectType <" + RDFS.SUBCLASSOF.stringValue() + "> _:x . ");
-        rdfsQuery.append(" _:x <" + RDF.TYPE.stringValue() + "> <" + OWL.RESTRICTION.stringValue() + "> . ");
-        rdfsQuery.append(" _:x <" + OWL.ONPROPERTY.stringValue() + "> ?propertyUri . ");
-        rdfsQuery.append(" _:x <" + OWL.ALLVALUESFROM.stringValue() + "> ?rangeClass . ");
-        
-        rdfsQuery.append("} WHERE {");
-        rdfsQuery.append(" ?objectType <" + RDFS.SUBCLASSOF.stringValue() + ">* ?actualObjectType . ");
-        rdfsQuery.append(" ?propertyUri <" + RDFS.DOMAIN.stringValue() + "> ?actualObjectType . ");
-        rdfsQuery.append(" ?propertyUri <" + RDFS.RANGE.stringValue() + "> ?rangeClass . ");
+        // - if the schema hierarchy is materialised, apply the contains property policy to the
+        // results instead of in the queries
+        final PoddSchemaHierarchy hierarchy = this.getSchemaHierarchy(contexts);
+        final MetadataPolicy queryPolicy = hierarchy == null ? containsPropertyPolicy : MetadataPolicy.INCLUDE_ALL;
         
-        if(!includeDoNotDisplayProperties)
-        {
-            rdfsQuery.append(" FILTER NOT EXISTS { ?propertyUri <" + PODD.PODD_BASE_DO_NOT_DISPLAY.stringValue()
-                    + "> true . } ");
-        }
+        // - find all Properties and their ranges
         
-        switch(containsPropertyPolicy)
-        {
-            case EXCLUDE_CONTAINS:
-                rdfsQuery.append("FILTER NOT EXISTS { ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue() + "> <"
-                        + PODD.PODD_BASE_CONTAINS.stringValue() + "> } ");
-                break;
-            
-            case ONLY_CONTAINS:
-                rdfsQuery.append("FILTER EXISTS { ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue() + "> <"
-                        + PODD.PODD_BASE_CONTAINS.stringValue() + "> } ");
-                break;
-            
-            default:
-                // do nothing. everything will be included
-        }
+        final Set<Value> properties = new HashSet<Value>();
         
-        rdfsQuery.append("}");
-        final String rdfsQueryString = rdfsQuery.toString();
-        final GraphQuery rdfsGraphQuery = repositoryConnection.prepareGraphQuery(QueryLanguage.SPARQL, rdfsQueryString);
-        rdfsGraphQuery.setBinding("objectType", objectType);
+        final int queryIndex =
+                PoddSesameManagerImpl.getObjectTypeMetadataQueryIndex(includeDoNotDisplayProperties, queryPolicy);
+        final String owlRestrictionQueryString = PoddSesameManagerImpl.OBJECT_TYPE_RESTRICTIONS_QUERIES[queryIndex];
+        
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("objectType", objectType);
+        
+        this.log.debug("Created SPARQL {} \n   with objectType bound to {}", owlRestrictionQueryString, objectType);
+        
+        final Model restrictionQueryResults =
+                SparqlQueryRegistry.getTemplate("getObjectTypeMetadata-restrictions", owlRestrictionQueryString)
+                        .evaluateGraphQuery(repositoryConnection, bindings, contexts);
+        this.removeRestrictionsByPolicy(restrictionQueryResults, containsPropertyPolicy, hierarchy);
+        results.addAll(restrictionQueryResults);
         
+        properties.addAll(restrictionQueryResults.filter(null, OWL.ONPROPERTY, null).objects());
+        
+        final String rdfsQueryString = PoddSesameManagerImpl.OBJECT_TYPE_RDFS_QUERIES[queryIndex];
         this.log.debug("Created SPARQL {} \n   with objectType bound to {}", rdfsQueryString, objectType);
         
-        final Model rdfsQueryResults = RdfUtility.executeGraphQuery(rdfsGraphQuery, contexts);
+        final Model rdfsQueryResults =
+                SparqlQueryRegistry.getTemplate("getObjectTypeMetadata-rdfs", rdfsQueryString).evaluateGraphQuery(
+                        repositoryConnection, bindings, contexts);
+        this.removeRestrictionsByPolicy(rdfsQueryResults, containsPropertyPolicy, hierarchy);
         results.addAll(rdfsQueryResults);
         
         properties.addAll(rdfsQueryResults.filter(null, OWL.ONPROPERTY, null).objects());
@@ -1406,30 +2094,15 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             final URI schemaManagementGraph, final URI artifactManagementGraph) throws OpenRDFException,
         SchemaManifestException, UnmanagedSchemaIRIException
     {
-        final StringBuilder sb = new StringBuilder(1024);
-        sb.append("SELECT DISTINCT ?poddTypeUri ");
-        sb.append(" WHERE { ");
-        sb.append(" ?objectUri <" + RDF.TYPE + "> ?poddTypeUri . ");
-        
-        sb.append(" FILTER NOT EXISTS { ?poddTypeUri <" + PODD.PODD_BASE_DO_NOT_DISPLAY.stringValue() + "> true } ");
-        sb.append(" FILTER isIRI(?poddTypeUri) ");
-        
-        // filter out TYPE statements for OWL:Thing, OWL:Individual,
-        // OWL:NamedIndividual & OWL:Class
-        sb.append("FILTER (?poddTypeUri != <" + OWL.THING.stringValue() + ">) ");
-        sb.append("FILTER (?poddTypeUri != <" + OWL.INDIVIDUAL.stringValue() + ">) ");
-        sb.append("FILTER (?poddTypeUri != <http://www.w3.org/2002/07/owl#NamedIndividual>) ");
-        sb.append("FILTER (?poddTypeUri != <" + OWL.CLASS.stringValue() + ">) ");
-        
-        sb.append(" }");
-        
-        this.log.debug("Created SPARQL {} with objectUri bound to {}", sb, objectUri);
-        
-        final TupleQuery tupleQuery = permanentConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
-        tupleQuery.setBinding("objectUri", objectUri);
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("objectUri", objectUri);
         final QueryResultCollector queryResults =
-                RdfUtility.executeTupleQuery(tupleQuery, this.versionAndSchemaContexts(ontologyID,
-                        managementConnection, schemaManagementGraph, artifactManagementGraph));
+                SparqlQueryRegistry.getTemplate("getObjectTypes", PoddSesameManagerImpl.OBJECT_TYPES_QUERY)
+                        .evaluateTupleQuery(
+                                permanentConnection,
+                                bindings,
+                                this.versionAndSchemaContexts(ontologyID, managementConnection,
+                                        schemaManagementGraph, artifactManagementGraph));
         
         final List<URI> results = new ArrayList<URI>(queryResults.getBindingSets().size());
         
@@ -1445,47 +2118,25 @@ public class PoddSesameManagerImpl implements PoddSesameManager
     public Collection<InferredOWLOntologyID> getOntologies(final boolean onlyCurrentVersions,
             final RepositoryConnection repositoryConnection, final URI ontologyManagementGraph) throws OpenRDFException
     {
+        final ManagementGraph indexedGraph = this.getIndexedGraph(repositoryConnection, ontologyManagementGraph);
+        if(indexedGraph != null)
+        {
+            return indexedGraph.getOntologies(onlyCurrentVersions);
+        }
+        
         final List<InferredOWLOntologyID> returnList = new ArrayList<InferredOWLOntologyID>();
         
         final DatasetImpl dataset = new DatasetImpl();
         dataset.addDefaultGraph(ontologyManagementGraph);
         dataset.addNamedGraph(ontologyManagementGraph);
         
-        // 1: see if the given IRI exists as an ontology IRI
-        final StringBuilder sb = new StringBuilder(1024);
-        
-        sb.append("SELECT ?ontology ?version ?inferredVersion WHERE { ?ontology ");
-        sb.append(RenderUtils.getSPARQLQueryString(RDF.TYPE));
-        sb.append(" ");
-        sb.append(RenderUtils.getSPARQLQueryString(OWL.ONTOLOGY));
-        sb.append(" . ");
-        if(onlyCurrentVersions)
-        {
-            sb.append(" ?ontology ");
-            sb.append(RenderUtils.getSPARQLQueryString(PODD.OMV_CURRENT_VERSION));
-            sb.append(" ?version . ");
-        }
-        else
-        {
-            sb.append(" ?ontology ");
-            sb.append(RenderUtils.getSPARQLQueryString(OWL.VERSIONIRI));
-            sb.append(" ?version . ");
-        }
-        sb.append("OPTIONAL{ ?version ");
-        sb.append(RenderUtils.getSPARQLQueryString(PODD.PODD_BASE_INFERRED_VERSION));
-        sb.append(" ?inferredVersion . ");
-        sb.append(" }");
-        sb.append("}");
-        
-        this.log.debug("Generated SPARQL {}", sb);
-        
-        final TupleQuery query1 = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
-        query1.setDataset(dataset);
-        
-        final TupleQueryResult query1Results = query1.evaluate();
+        final String query =
+                onlyCurrentVersions ? PoddSesameManagerImpl.CURRENT_ONTOLOGIES_QUERY
+                        : PoddSesameManagerImpl.ALL_ONTOLOGIES_QUERY;
         
-        final QueryResultCollector nextResults1 = new QueryResultCollector();
-        QueryResults.report(query1Results, nextResults1);
+        final QueryResultCollector nextResults1 =
+                SparqlQueryRegistry.getTemplate("getOntologies", query).evaluateTupleQuery(
+                        repositoryConnection, null, dataset);
         
         for(final BindingSet nextResult : nextResults1.getBindingSets())
         {
@@ -1561,6 +2212,12 @@ public class PoddSesameManagerImpl implements PoddSesameManager
     public InferredOWLOntologyID getOntologyVersion(final IRI versionIRI,
             final RepositoryConnection repositoryConnection, final URI managementGraph) throws OpenRDFException
     {
+        final ManagementGraph indexedGraph = this.getIndexedGraph(repositoryConnection, managementGraph);
+        if(indexedGraph != null)
+        {
+            return indexedGraph.getOntologyVersion(versionIRI);
+        }
+        
         final DatasetImpl dataset = new DatasetImpl();
         dataset.addDefaultGraph(managementGraph);
         
@@ -1666,6 +2323,41 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         return RdfUtility.executeGraphQuery(graphQuery, contexts);
     }
     
+    @Override
+    public PoddSchemaHierarchy getSchemaHierarchy(final URI... contexts)
+    {
+        final List<URI> schemaContexts = new ArrayList<>(contexts.length);
+        for(final URI nextContext : contexts)
+        {
+            if(nextContext != null && this.schemaHierarchyStatements.containsKey(nextContext))
+            {
+                schemaContexts.add(nextContext);
+            }
+        }
+        
+        if(schemaContexts.isEmpty())
+        {
+            return null;
+        }
+        
+        PoddSchemaHierarchy result = this.schemaHierarchies.get(schemaContexts);
+        if(result == null)
+        {
+            final Model statements = new LinkedHashModel();
+            for(final URI nextContext : schemaContexts)
+            {
+                statements.addAll(this.schemaHierarchyStatements.get(nextContext));
+            }
+            result = PoddSchemaHierarchy.create(statements);
+            final PoddSchemaHierarchy existing = this.schemaHierarchies.putIfAbsent(schemaContexts, result);
+            if(existing != null)
+            {
+                result = existing;
+            }
+        }
+        return result;
+    }
+    
     @Override
     public InferredOWLOntologyID getSchemaVersion(final IRI schemaVersionIRI,
             final RepositoryConnection repositoryConnection, final URI schemaManagementGraph) throws OpenRDFException,
@@ -1709,6 +2401,149 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         }
     }
     
+    @Override
+    public Map<InferredOWLOntologyID, PoddObjectLabel> getTopObjectLabels(
+            final Collection<InferredOWLOntologyID> artifacts, final Model objectTypes,
+            final RepositoryConnection managementConnection, final RepositoryConnection permanentConnection,
+            final URI schemaManagementGraph, final URI artifactManagementGraph) throws OpenRDFException,
+        SchemaManifestException, UnmanagedSchemaIRIException
+    {
+        final Map<InferredOWLOntologyID, PoddObjectLabel> results = new LinkedHashMap<>();
+        if(artifacts.isEmpty())
+        {
+            return results;
+        }
+        
+        // The top object statements may be in either the version or inferred graph, while labels,
+        // descriptions and types are found in the version graph and the shared schema graphs
+        final DatasetImpl dataset = new DatasetImpl();
+        final Map<URI, InferredOWLOntologyID> versions = new HashMap<>();
+        
+        final StringBuilder sb = new StringBuilder(1024);
+        sb.append("SELECT ?version ?topObject ?label ?description ?type ?typeLabel WHERE { ");
+        sb.append(" VALUES (?artifact ?version ?inferredVersion) { ");
+        for(final InferredOWLOntologyID nextArtifact : artifacts)
+        {
+            final URI versionUri = nextArtifact.getVersionIRI().toOpenRDFURI();
+            final URI inferredUri =
+                    nextArtifact.getInferredOntologyIRI() == null ? versionUri : nextArtifact
+                            .getInferredOntologyIRI().toOpenRDFURI();
+            versions.put(versionUri, nextArtifact);
+            dataset.addDefaultGraph(versionUri);
+            dataset.addNamedGraph(versionUri);
+            dataset.addNamedGraph(inferredUri);
+            
+            sb.append(" ( ");
+            sb.append(RenderUtils.getSPARQLQueryString(nextArtifact.getOntologyIRI().toOpenRDFURI()));
+            sb.append(" ");
+            sb.append(RenderUtils.getSPARQLQueryString(versionUri));
+            sb.append(" ");
+            sb.append(RenderUtils.getSPARQLQueryString(inferredUri));
+            sb.append(" ) ");
+        }
+        sb.append(" } ");
+        sb.append(" { GRAPH ?version { ?artifact <" + PODD.PODD_BASE_HAS_TOP_OBJECT.stringValue()
+                + "> ?topObject . } } ");
+        sb.append(" UNION ");
+        sb.append(" { GRAPH ?inferredVersion { ?artifact <" + PODD.PODD_BASE_HAS_TOP_OBJECT.stringValue()
+                + "> ?topObject . } } ");
+        sb.append(" OPTIONAL { ?topObject <" + RDFS.LABEL + "> ?label . } ");
+        sb.append(" OPTIONAL { ?topObject <" + RDFS.COMMENT + "> ?description . } ");
+        if(objectTypes != null)
+        {
+            // Same restrictions as getObjectTypes
+            sb.append(" OPTIONAL { ?topObject <" + RDF.TYPE + "> ?type . ");
+            sb.append(" FILTER NOT EXISTS { ?type <" + PODD.PODD_BASE_DO_NOT_DISPLAY.stringValue() + "> true } ");
+            sb.append(" FILTER isIRI(?type) ");
+            sb.append(" FILTER (?type != <" + OWL.THING.stringValue() + ">) ");
+            sb.append(" FILTER (?type != <" + OWL.INDIVIDUAL.stringValue() + ">) ");
+            sb.append(" FILTER (?type != <http://www.w3.org/2002/07/owl#NamedIndividual>) ");
+            sb.append(" FILTER (?type != <" + OWL.CLASS.stringValue() + ">) ");
+            sb.append(" OPTIONAL { ?type <" + RDFS.LABEL + "> ?typeLabel . } ");
+            sb.append(" } ");
+        }
+        sb.append(" }");
+        
+        // All of the artifacts share the same schema imports, so the schema contexts are the same
+        for(final URI nextSchemaContext : this.schemaContexts(artifacts.iterator().next(), managementConnection,
+                schemaManagementGraph, artifactManagementGraph))
+        {
+            dataset.addDefaultGraph(nextSchemaContext);
+        }
+        
+        this.log.debug("Created SPARQL {}", sb);
+        
+        final TupleQuery tupleQuery = permanentConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
+        tupleQuery.setDataset(dataset);
+        
+        final QueryResultCollector queryResults = new QueryResultCollector();
+        QueryResults.report(tupleQuery.evaluate(), queryResults);
+        
+        final Map<InferredOWLOntologyID, URI> topObjects = new HashMap<>();
+        final Map<InferredOWLOntologyID, String> labels = new HashMap<>();
+        final Map<InferredOWLOntologyID, String> descriptions = new HashMap<>();
+        final Set<URI> types = new HashSet<>();
+        
+        for(final BindingSet next : queryResults.getBindingSets())
+        {
+            final InferredOWLOntologyID artifactId = versions.get(next.getValue("version"));
+            final URI topObject = (URI)next.getValue("topObject");
+            
+            final URI existingTopObject = topObjects.get(artifactId);
+            if(existingTopObject == null)
+            {
+                topObjects.put(artifactId, topObject);
+            }
+            else if(!existingTopObject.equals(topObject))
+            {
+                this.log.warn("More than one top object found: {}", artifactId.getOntologyIRI());
+                continue;
+            }
+            
+            if(next.getValue("label") != null)
+            {
+                labels.put(artifactId, next.getValue("label").stringValue());
+            }
+            if(next.getValue("description") != null)
+            {
+                descriptions.put(artifactId, next.getValue("description").stringValue());
+            }
+            if(objectTypes != null && next.getValue("type") != null)
+            {
+                final URI type = (URI)next.getValue("type");
+                types.add(type);
+                objectTypes.add(topObject, RDF.TYPE, type);
+                if(next.getValue("typeLabel") != null)
+                {
+                    objectTypes.add(type, RDFS.LABEL, next.getValue("typeLabel"));
+                }
+            }
+        }
+        
+        for(final URI nextType : types)
+        {
+            // Same fallback as getObjectLabel when there is no label
+            if(!objectTypes.contains(nextType, RDFS.LABEL, null))
+            {
+                objectTypes.add(nextType, RDFS.LABEL, PODD.VF.createLiteral(nextType.stringValue()));
+            }
+        }
+        
+        for(final InferredOWLOntologyID nextArtifact : artifacts)
+        {
+            final URI topObject = topObjects.get(nextArtifact);
+            if(topObject != null)
+            {
+                final String label = labels.containsKey(nextArtifact) ? labels.get(nextArtifact) : topObject
+                        .stringValue();
+                results.put(nextArtifact, new PoddObjectLabelImpl(nextArtifact, topObject, label, descriptions
+                        .get(nextArtifact)));
+            }
+        }
+        
+        return results;
+    }
+    
     /**
      * Retrieve a list of Top Objects that are contained in the given ontology.
      * 
@@ -1721,21 +2556,13 @@ public class PoddSesameManagerImpl implements PoddSesameManager
     public List<URI> getTopObjects(final InferredOWLOntologyID ontologyID,
             final RepositoryConnection repositoryConnection) throws OpenRDFException
     {
-        final StringBuilder sb = new StringBuilder(1024);
-        
-        sb.append("SELECT DISTINCT ?topObjectUri ");
-        
-        sb.append(" WHERE { ");
-        
-        sb.append(" ?artifactUri <" + PODD.PODD_BASE_HAS_TOP_OBJECT.stringValue() + "> ?topObjectUri . \n");
-        
-        sb.append(" }");
-        
-        final TupleQuery query = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
-        query.setBinding("artifactUri", ontologyID.getOntologyIRI().toOpenRDFURI());
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("artifactUri", ontologyID.getOntologyIRI().toOpenRDFURI());
         
         final QueryResultCollector queryResults =
-                RdfUtility.executeTupleQuery(query, this.versionAndInferredContexts(ontologyID));
+                SparqlQueryRegistry.getTemplate("getTopObjects", PoddSesameManagerImpl.TOP_OBJECTS_QUERY)
+                        .evaluateTupleQuery(repositoryConnection, bindings,
+                                this.versionAndInferredContexts(ontologyID));
         
         final List<URI> topObjectList = new ArrayList<URI>();
         
@@ -1760,52 +2587,27 @@ public class PoddSesameManagerImpl implements PoddSesameManager
     public List<URI> getWeightedProperties(final URI objectUri, final boolean excludeContainsProperties,
             final RepositoryConnection repositoryConnection, final URI... contexts) throws OpenRDFException
     {
-        final StringBuilder sb = new StringBuilder(1024);
-        
-        sb.append("SELECT DISTINCT ?propertyUri ");
-        sb.append(" WHERE { ");
-        sb.append(" ?poddObject ?propertyUri ?value . ");
-        
-        // for ORDER BY
-        sb.append(" OPTIONAL { ?propertyUri <" + RDFS.LABEL.stringValue() + "> ?propertyLabel } . ");
-        
-        // for ORDER BY
-        sb.append("OPTIONAL { ?propertyUri <" + PODD.PODD_BASE_WEIGHT.stringValue() + "> ?weight } . ");
-        
-        sb.append("FILTER (?value != <" + OWL.THING.stringValue() + ">) ");
-        sb.append("FILTER (?value != <" + OWL.INDIVIDUAL.stringValue() + ">) ");
-        sb.append("FILTER (?value != <http://www.w3.org/2002/07/owl#NamedIndividual>) ");
-        sb.append("FILTER (?value != <" + OWL.CLASS.stringValue() + ">) ");
-        
-        // Exclude as TYPE, Label (title) and Comment (description) are
-        // displayed separately
-        sb.append("FILTER (?propertyUri != <" + RDF.TYPE.stringValue() + ">) ");
-        sb.append("FILTER (?propertyUri != <" + RDFS.LABEL.stringValue() + ">) ");
-        sb.append("FILTER (?propertyUri != <" + RDFS.COMMENT.stringValue() + ">) ");
-        
-        if(excludeContainsProperties)
-        {
-            sb.append("FILTER NOT EXISTS { ?propertyUri <" + RDFS.SUBPROPERTYOF.stringValue() + "> <"
-                    + PODD.PODD_BASE_CONTAINS.stringValue() + "> } ");
-        }
-        
-        sb.append(" FILTER NOT EXISTS { ?propertyUri <" + PODD.PODD_BASE_DO_NOT_DISPLAY.stringValue() + "> true } ");
+        final PoddSchemaHierarchy hierarchy = excludeContainsProperties ? this.getSchemaHierarchy(contexts) : null;
         
-        sb.append(" } ");
-        sb.append("  ORDER BY ASC(xsd:integer(?weight)) ASC(?propertyLabel) ");
+        final String query =
+                excludeContainsProperties && hierarchy == null
+                        ? PoddSesameManagerImpl.WEIGHTED_PROPERTIES_EXCLUDING_CONTAINS_QUERY
+                        : PoddSesameManagerImpl.WEIGHTED_PROPERTIES_QUERY;
         
-        this.log.debug("Created SPARQL {} with poddObject bound to {}", sb, objectUri);
+        this.log.debug("Created SPARQL {} with poddObject bound to {}", query, objectUri);
         
-        final TupleQuery tupleQuery = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
-        tupleQuery.setBinding("poddObject", objectUri);
-        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(tupleQuery, contexts);
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("poddObject", objectUri);
+        final QueryResultCollector queryResults =
+                SparqlQueryRegistry.getTemplate("getWeightedProperties", query).evaluateTupleQuery(
+                        repositoryConnection, bindings, contexts);
         // this.versionAndSchemaContexts(artifactID, repositoryConnection, c));
         
         final List<URI> resultList = new ArrayList<URI>();
         for(final BindingSet next : queryResults.getBindingSets())
         {
             final Value property = next.getValue("propertyUri");
-            if(property instanceof URI)
+            if(property instanceof URI && (hierarchy == null || !hierarchy.isContainsProperty((URI)property)))
             {
                 resultList.add((URI)property);
             }
@@ -1919,6 +2721,31 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         }
     }
     
+    @Override
+    public void indexLabels(final RepositoryConnection repositoryConnection, final URI... contexts)
+        throws OpenRDFException
+    {
+        this.labelIndex.index(repositoryConnection, contexts);
+        // Labels may have been looked up before all of the statements were added to the contexts
+        this.labelCache.invalidate(contexts);
+    }
+    
+    @Override
+    public boolean isContainsProperty(final URI propertyUri, final RepositoryConnection repositoryConnection,
+            final URI... contexts) throws OpenRDFException
+    {
+        final PoddSchemaHierarchy hierarchy = this.getSchemaHierarchy(contexts);
+        if(hierarchy != null)
+        {
+            return hierarchy.isContainsProperty(propertyUri);
+        }
+        
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("propertyUri", propertyUri);
+        return SparqlQueryRegistry.getTemplate("isContainsProperty", PoddSesameManagerImpl.IS_CONTAINS_PROPERTY_QUERY)
+                .evaluateBooleanQuery(repositoryConnection, bindings, SparqlQueryRegistry.getDataset(contexts));
+    }
+    
     @Override
     public boolean isPublished(final InferredOWLOntologyID ontologyID, final RepositoryConnection repositoryConnection,
             final URI managementGraph) throws OpenRDFException
@@ -1928,6 +2755,12 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             throw new NullPointerException("OWLOntology is incomplete");
         }
         
+        final ManagementGraph indexedGraph = this.getIndexedGraph(repositoryConnection, managementGraph);
+        if(indexedGraph != null)
+        {
+            return indexedGraph.isPublished(ontologyID.getVersionIRI());
+        }
+        
         final URI artifactGraphUri = ontologyID.getVersionIRI().toOpenRDFURI();
         
         /*
@@ -1950,30 +2783,93 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         // "> <"
         // + PoddRdfConstants.PODD_BASE_PUBLISHED.stringValue() + ">" + " }";
         
-        final StringBuilder sparqlQuery = new StringBuilder(1024);
-        sparqlQuery.append("ASK { ");
-        sparqlQuery.append(" ?artifact ").append(RenderUtils.getSPARQLQueryString(OWL.VERSIONIRI)).append(" ");
-        sparqlQuery.append(RenderUtils.getSPARQLQueryString(ontologyID.getVersionIRI().toOpenRDFURI()));
-        sparqlQuery.append(" . ");
-        sparqlQuery.append(" ?artifact ").append(
-                RenderUtils.getSPARQLQueryString(PODD.PODD_BASE_HAS_PUBLICATION_STATUS));
-        sparqlQuery.append(" ");
-        sparqlQuery.append(RenderUtils.getSPARQLQueryString(PODD.PODD_BASE_PUBLISHED));
-        sparqlQuery.append(" . ");
-        sparqlQuery.append(" } ");
-        
-        this.log.debug("Generated SPARQL {}", sparqlQuery);
-        
-        final BooleanQuery booleanQuery =
-                repositoryConnection.prepareBooleanQuery(QueryLanguage.SPARQL, sparqlQuery.toString());
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("versionIri", artifactGraphUri);
         
         // Create a dataset to specify the contexts
         final DatasetImpl dataset = new DatasetImpl();
         dataset.addDefaultGraph(managementGraph);
         dataset.addNamedGraph(managementGraph);
-        booleanQuery.setDataset(dataset);
         
-        return booleanQuery.evaluate();
+        return SparqlQueryRegistry.getTemplate("isPublished", PoddSesameManagerImpl.IS_PUBLISHED_QUERY)
+                .evaluateBooleanQuery(repositoryConnection, bindings, dataset);
+    }
+    
+    @Override
+    public boolean isSubClassOf(final URI subClass, final URI superClass,
+            final RepositoryConnection repositoryConnection, final URI... contexts) throws OpenRDFException
+    {
+        final PoddSchemaHierarchy hierarchy = this.getSchemaHierarchy(contexts);
+        if(hierarchy != null)
+        {
+            return hierarchy.isSubClassOf(subClass, superClass);
+        }
+        
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("subClass", subClass);
+        bindings.addBinding("superClass", superClass);
+        return SparqlQueryRegistry.getTemplate("isSubClassOf", PoddSesameManagerImpl.IS_SUB_CLASS_OF_QUERY)
+                .evaluateBooleanQuery(repositoryConnection, bindings, SparqlQueryRegistry.getDataset(contexts));
+    }
+    
+    @Override
+    public void materialiseSchemaHierarchy(final InferredOWLOntologyID schemaOntologyID,
+            final RepositoryConnection managementConnection) throws OpenRDFException
+    {
+        // Schema versions are never replaced, so their labels are kept for as long as they are loaded
+        this.labelCache.pin(this.versionAndInferredContexts(schemaOntologyID));
+        
+        for(final URI nextContext : this.versionAndInferredContexts(schemaOntologyID))
+        {
+            // Do not record an empty hierarchy for a context that is not in this repository, as it
+            // would hide the hierarchy from the queries that are used without it
+            if(!this.schemaHierarchyStatements.containsKey(nextContext)
+                    && managementConnection.hasStatement(null, null, null, false, nextContext))
+            {
+                final Model statements = new LinkedHashModel();
+                Iterations.addAll(managementConnection.getStatements(null, RDFS.SUBCLASSOF, null, false, nextContext),
+                        statements);
+                Iterations.addAll(
+                        managementConnection.getStatements(null, RDFS.SUBPROPERTYOF, null, false, nextContext),
+                        statements);
+                this.schemaHierarchyStatements.putIfAbsent(nextContext, statements);
+                
+                this.log.debug("Materialised {} schema hierarchy statements for: {}", statements.size(), nextContext);
+            }
+        }
+    }
+    
+    /**
+     * Removes the restrictions in the given results whose property does not match the given
+     * {@link MetadataPolicy}, along with the links from the object type to them.
+     * 
+     * @param restrictions
+     *            The restrictions found for an object type.
+     * @param containsPropertyPolicy
+     *            The policy to apply.
+     * @param hierarchy
+     *            The materialised schema hierarchy, or null if the policy was already applied in
+     *            the query.
+     */
+    private void removeRestrictionsByPolicy(final Model restrictions, final MetadataPolicy containsPropertyPolicy,
+            final PoddSchemaHierarchy hierarchy)
+    {
+        if(hierarchy == null || containsPropertyPolicy == MetadataPolicy.INCLUDE_ALL)
+        {
+            return;
+        }
+        
+        final boolean keepContains = containsPropertyPolicy == MetadataPolicy.ONLY_CONTAINS;
+        for(final Statement next : new ArrayList<>(restrictions.filter(null, OWL.ONPROPERTY, null)))
+        {
+            final boolean isContains =
+                    next.getObject() instanceof URI && hierarchy.isContainsProperty((URI)next.getObject());
+            if(isContains != keepContains)
+            {
+                restrictions.remove(null, null, next.getSubject());
+                restrictions.remove(next.getSubject(), null, null);
+            }
+        }
     }
     
     @Override
@@ -1981,6 +2877,12 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             final int offset, final RepositoryConnection repositoryConnection, final URI... contexts)
         throws OpenRDFException
     {
+        // The label index is kept per context, so it can only be used when the contexts are given
+        if(contexts.length > 0)
+        {
+            return this.labelIndex.search(searchTerm, searchTypes, limit, offset, repositoryConnection, contexts);
+        }
+        
         final StringBuilder sb = new StringBuilder(1024);
         
         sb.append("CONSTRUCT { ");
@@ -1988,11 +2890,13 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         sb.append(" } WHERE { ");
         
         // limit the "types" of objects to search for
+        final MapBindingSet bindings = new MapBindingSet();
         if(searchTypes != null)
         {
-            for(final URI type : searchTypes)
+            for(int i = 0; i < searchTypes.length; i++)
             {
-                sb.append(" ?uri a <" + type.stringValue() + "> . ");
+                sb.append(" ?uri a ?searchType" + i + " . ");
+                bindings.addBinding("searchType" + i, searchTypes[i]);
                 // sb.append(" ?uri a ?type . ");
                 // sb.append(" ?type rdfs:subClassOf+ <" + type.stringValue() +
                 // "> . ");
@@ -2010,11 +2914,17 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         sb.append(" OFFSET ");
         sb.append(offset);
         
-        final GraphQuery graphQuery = repositoryConnection.prepareGraphQuery(QueryLanguage.SPARQL, sb.toString());
-        graphQuery.setBinding("searchTerm", PODD.VF.createLiteral(searchTerm));
+        bindings.addBinding("searchTerm", PODD.VF.createLiteral(searchTerm));
         
         this.log.debug("Created SPARQL {} with searchTerm bound to '{}' ", sb, searchTerm);
         
+        // Not registered as a template, as the limit and offset make each page a distinct query
+        final GraphQuery graphQuery = repositoryConnection.prepareGraphQuery(QueryLanguage.SPARQL, sb.toString());
+        for(final Binding nextBinding : bindings)
+        {
+            graphQuery.setBinding(nextBinding.getName(), nextBinding.getValue());
+        }
+        
         final Model queryResults = RdfUtility.executeGraphQuery(graphQuery, contexts);
         
         return queryResults;
@@ -2059,6 +2969,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
                     PODD.PODD_BASE_PUBLISHED, artifactManagementGraph);
             
             this.log.info("{} was set as Published", ontologyID.getOntologyIRI().toOpenRDFURI());
+            
+            this.labelCache.pin(this.versionAndInferredContexts(ontologyID));
         }
         else
         {
@@ -2073,6 +2985,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
                     PODD.PODD_BASE_NOT_PUBLISHED, artifactManagementGraph);
             
             this.log.info("{} was set as Unpublished", ontologyID.getOntologyIRI().toOpenRDFURI());
+            
+            this.labelCache.unpin(this.versionAndInferredContexts(ontologyID));
         }
         
         return ontologyID;
@@ -2208,6 +3122,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
                             {
                                 // clear inferred statements for previous inferred version
                                 repositoryConnection.clear((URI)nextInferredVersion.getObject());
+                                this.labelIndex.remove((URI)nextInferredVersion.getObject());
+                                this.labelCache.remove((URI)nextInferredVersion.getObject());
                                 
                                 // remove all references from artifact management graph
                                 repositoryConnection.remove((URI)nextInferredVersion.getObject(), null, null,
@@ -2220,6 +3136,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
                         }
                         
                         repositoryConnection.clear((URI)nextPreviousVersion.getObject());
+                        this.labelIndex.remove((URI)nextPreviousVersion.getObject());
+                        this.labelCache.remove((URI)nextPreviousVersion.getObject());
                         repositoryConnection.remove((URI)nextPreviousVersion.getObject(), null, null, managementGraph);
                     }
                     else
@@ -2389,6 +3307,18 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             final URI artifactManagementGraph) throws OpenRDFException, SchemaManifestException,
         UnmanagedSchemaIRIException
     {
+        final ManagementGraph indexedGraph = this.getIndexedGraph(managementConnection, schemaManagementGraph);
+        if(indexedGraph != null)
+        {
+            final URI[] cachedContexts =
+                    ((ManagementConnection)managementConnection).getSchemaContexts(artifactID, schemaManagementGraph,
+                            artifactManagementGraph);
+            if(cachedContexts != null)
+            {
+                return cachedContexts;
+            }
+        }
+        
         final Set<URI> contexts = new LinkedHashSet<URI>();
         final Set<OWLOntologyID> dependentSchemaOntologies = new LinkedHashSet<>();
         if(artifactID != null)
@@ -2409,8 +3339,17 @@ public class PoddSesameManagerImpl implements PoddSesameManager
                     schemaManagementGraph));
         }
         
-        final Model model = new LinkedHashModel();
-        managementConnection.export(new StatementCollector(model), schemaManagementGraph);
+        final Model model;
+        if(indexedGraph != null)
+        {
+            // Copied because the manifest import ordering adds statements to the model
+            model = new LinkedHashModel(indexedGraph.getModel());
+        }
+        else
+        {
+            model = new LinkedHashModel();
+            managementConnection.export(new StatementCollector(model), schemaManagementGraph);
+        }
         
         final List<OWLOntologyID> schemaManifestImports =
                 OntologyUtils.schemaManifestImports(model, dependentSchemaOntologies);
@@ -2420,7 +3359,13 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             contexts.add(schemaOntology.getVersionIRI().toOpenRDFURI());
         }
         
-        return contexts.toArray(new URI[0]);
+        final URI[] result = contexts.toArray(new URI[0]);
+        if(indexedGraph != null)
+        {
+            ((ManagementConnection)managementConnection).putSchemaContexts(artifactID, schemaManagementGraph,
+                    artifactManagementGraph, indexedGraph, schemaManifestImports, result);
+        }
+        return result;
     }
     
     @Override
@@ -0,0 +1,108 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.podd.api.PoddRepositoryManager;
+import com.github.podd.utils.SparqlQueryRegistry;
+import com.github.podd.utils.SparqlQueryRegistry.QueryTemplate;
+
+/**
+ * Periodically logs usage statistics that are not otherwise visible outside of tests, so that
+ * configuration such as the temporary repository thresholds can be tuned and slow SPARQL query
+ * templates can be found.
+ */
+public class PoddStatisticsLogger implements Runnable
+{
+    /**
+     * Schedules a statistics logger to run periodically on a daemon thread.
+     * 
+     * @param repositoryManager
+     * @param interval
+     *            The interval between runs.
+     * @param unit
+     * @return The executor running the logger, which may be shutdown to stop logging.
+     */
+    public static ScheduledExecutorService schedule(final PoddRepositoryManager repositoryManager,
+            final long interval, final TimeUnit unit)
+    {
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(final Runnable r)
+                {
+                    final Thread thread = new Thread(r, "podd-statistics-logger");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        executor.scheduleWithFixedDelay(new PoddStatisticsLogger(repositoryManager), interval, interval, unit);
+        return executor;
+    }
+    
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    
+    private final PoddRepositoryManager repositoryManager;
+    
+    public PoddStatisticsLogger(final PoddRepositoryManager repositoryManager)
+    {
+        this.repositoryManager = repositoryManager;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Runnable#run()
+     */
+    @Override
+    public void run()
+    {
+        try
+        {
+            this.log.info("Temporary repositories: inMemory={} onDisk={} poolHits={}",
+                    this.repositoryManager.getTemporaryRepositoryInMemoryCount(),
+                    this.repositoryManager.getTemporaryRepositoryOnDiskCount(),
+                    this.repositoryManager.getTemporaryRepositoryPoolHitCount());
+            
+            this.log.info("SPARQL template latency buckets (ms): {}",
+                    Arrays.toString(SparqlQueryRegistry.getLatencyBucketLimitsMillis()));
+            for(final QueryTemplate nextTemplate : SparqlQueryRegistry.getTemplates())
+            {
+                if(nextTemplate.getExecutionCount() > 0)
+                {
+                    this.log.info("SPARQL template: name={} executions={} totalMillis={} latencyHistogram={}",
+                            nextTemplate.getName(), nextTemplate.getExecutionCount(),
+                            nextTemplate.getTotalExecutionTimeMillis(),
+                            Arrays.toString(nextTemplate.getLatencyHistogram()));
+                }
+            }
+        }
+        catch(final Throwable e)
+        {
+            // Do not propagate, as that would cancel any future runs
+            this.log.error("Failed to log statistics", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.podd.api.PoddArtifactManager;
+
+/**
+ * Periodically stores full copies of delta encoded artifact versions, to bound the number of
+ * deltas that need to be replayed when an old version is requested.
+ */
+public class PoddVersionDeltaCompactor implements Runnable
+{
+    /**
+     * Schedules a compactor to run periodically on a daemon thread.
+     * 
+     * @param artifactManager
+     * @param maxChainLength
+     *            The maximum number of deltas that may need to be replayed to reconstruct a version.
+     * @param interval
+     *            The interval between runs.
+     * @param unit
+     * @return The executor running the compactor, which may be shutdown to stop compaction.
+     */
+    public static ScheduledExecutorService schedule(final PoddArtifactManager artifactManager,
+            final int maxChainLength, final long interval, final TimeUnit unit)
+    {
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(final Runnable r)
+                {
+                    final Thread thread = new Thread(r, "podd-version-delta-compactor");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        executor.scheduleWithFixedDelay(new PoddVersionDeltaCompactor(artifactManager, maxChainLength), interval,
+                interval, unit);
+        return executor;
+    }
+    
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    
+    private final PoddArtifactManager artifactManager;
+    
+    private final int maxChainLength;
+    
+    public PoddVersionDeltaCompactor(final PoddArtifactManager artifactManager, final int maxChainLength)
+    {
+        this.artifactManager = artifactManager;
+        this.maxChainLength = maxChainLength;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Runnable#run()
+     */
+    @Override
+    public void run()
+    {
+        try
+        {
+            final long start = System.currentTimeMillis();
+            final int snapshots = this.artifactManager.compactVersionDeltas(this.maxChainLength);
+            this.log.info("Compacted artifact version deltas: {} snapshots in {} ms", snapshots,
+                    (System.currentTimeMillis() - start));
+        }
+        catch(final Throwable e)
+        {
+            // Do not propagate, as that would cancel any future runs
+            this.log.error("Failed to compact artifact version deltas", e);
+        }
+    }
+}
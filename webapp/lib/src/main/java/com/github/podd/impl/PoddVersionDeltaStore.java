@@ -0,0 +1,420 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl;
+
+import info.aduna.iteration.Iterations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.openrdf.OpenRDFException;
+import org.openrdf.model.Model;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryResult;
+import org.openrdf.rio.helpers.StatementCollector;
+import org.semanticweb.owlapi.model.IRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PODD;
+
+/**
+ * Stores previous versions of artifacts as deltas against the next version, so that only the
+ * current version of an artifact needs to be stored in full.
+ * 
+ * A delta encoded version is linked from the artifact in the artifact management graph using
+ * {@link PODD#PODD_BASE_DELTA_VERSION}, and to the version that its delta is relative to using
+ * {@link PODD#PODD_BASE_DELTA_BASE}. The statements that need to be added to, and removed from, the
+ * later version to reconstruct it are stored in the permanent repository in contexts derived from
+ * the version IRI and inferred ontology IRI using {@link PODD#DELTA_ADDED_PREFIX} and
+ * {@link PODD#DELTA_REMOVED_PREFIX}. Versions without a delta base are stored in full.
+ */
+public class PoddVersionDeltaStore
+{
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    
+    private void applyDelta(final Model model, final URI context, final RepositoryConnection permanentConnection)
+        throws OpenRDFException
+    {
+        final RepositoryResult<Statement> removed =
+                permanentConnection.getStatements(null, null, null, false, this.getRemovedContext(context));
+        try
+        {
+            while(removed.hasNext())
+            {
+                final Statement nextStatement = removed.next();
+                model.remove(nextStatement.getSubject(), nextStatement.getPredicate(), nextStatement.getObject());
+            }
+        }
+        finally
+        {
+            removed.close();
+        }
+        
+        final RepositoryResult<Statement> added =
+                permanentConnection.getStatements(null, null, null, false, this.getAddedContext(context));
+        try
+        {
+            while(added.hasNext())
+            {
+                final Statement nextStatement = added.next();
+                model.add(nextStatement.getSubject(), nextStatement.getPredicate(), nextStatement.getObject());
+            }
+        }
+        finally
+        {
+            added.close();
+        }
+    }
+    
+    /**
+     * Removes all of the delta encoded versions for the given artifact.
+     * 
+     * @param artifactIRI
+     * @param permanentConnection
+     *            A connection to the permanent repository containing the artifact.
+     * @param managementConnection
+     * @param artifactManagementGraph
+     * @throws OpenRDFException
+     */
+    public void deleteDeltas(final IRI artifactIRI, final RepositoryConnection permanentConnection,
+            final RepositoryConnection managementConnection, final URI artifactManagementGraph)
+        throws OpenRDFException
+    {
+        for(final InferredOWLOntologyID nextDeltaVersion : this.getDeltaVersions(artifactIRI, managementConnection,
+                artifactManagementGraph))
+        {
+            final URI versionUri = nextDeltaVersion.getVersionIRI().toOpenRDFURI();
+            permanentConnection.clear(versionUri, this.getAddedContext(versionUri), this.getRemovedContext(versionUri));
+            if(nextDeltaVersion.getInferredOntologyIRI() != null)
+            {
+                final URI inferredUri = nextDeltaVersion.getInferredOntologyIRI().toOpenRDFURI();
+                permanentConnection.clear(inferredUri, this.getAddedContext(inferredUri),
+                        this.getRemovedContext(inferredUri));
+                managementConnection.remove(inferredUri, null, null, artifactManagementGraph);
+                managementConnection.remove((URI)null, null, inferredUri, artifactManagementGraph);
+            }
+            managementConnection.remove(versionUri, null, null, artifactManagementGraph);
+        }
+        managementConnection.remove(artifactIRI.toOpenRDFURI(), PODD.PODD_BASE_DELTA_VERSION, null,
+                artifactManagementGraph);
+    }
+    
+    private URI getAddedContext(final URI context)
+    {
+        return PODD.VF.createURI(PODD.DELTA_ADDED_PREFIX + context.stringValue());
+    }
+    
+    /**
+     * Finds the chain of versions needed to reconstruct the given version, starting with the given
+     * version and ending with a version that is stored in full.
+     * 
+     * @param versionUri
+     * @param managementConnection
+     * @param artifactManagementGraph
+     * @return The chain of versions, including the given version.
+     * @throws OpenRDFException
+     */
+    public List<URI> getDeltaChain(final URI versionUri, final RepositoryConnection managementConnection,
+            final URI artifactManagementGraph) throws OpenRDFException
+    {
+        final Set<URI> chain = new LinkedHashSet<URI>();
+        URI nextVersion = versionUri;
+        while(nextVersion != null && chain.add(nextVersion))
+        {
+            final List<Statement> bases =
+                    Iterations.asList(managementConnection.getStatements(nextVersion, PODD.PODD_BASE_DELTA_BASE, null,
+                            false, artifactManagementGraph));
+            nextVersion = null;
+            if(!bases.isEmpty() && bases.get(0).getObject() instanceof URI)
+            {
+                nextVersion = (URI)bases.get(0).getObject();
+            }
+        }
+        return new ArrayList<URI>(chain);
+    }
+    
+    /**
+     * Finds the details of a delta encoded version.
+     * 
+     * @param versionIRI
+     * @param managementConnection
+     * @param artifactManagementGraph
+     * @return The details of the version, or null if the version is not delta encoded.
+     * @throws OpenRDFException
+     */
+    public InferredOWLOntologyID getDeltaVersion(final IRI versionIRI, final RepositoryConnection managementConnection,
+            final URI artifactManagementGraph) throws OpenRDFException
+    {
+        final List<Statement> artifacts =
+                Iterations.asList(managementConnection.getStatements(null, PODD.PODD_BASE_DELTA_VERSION,
+                        versionIRI.toOpenRDFURI(), false, artifactManagementGraph));
+        
+        if(artifacts.isEmpty() || !(artifacts.get(0).getSubject() instanceof URI))
+        {
+            return null;
+        }
+        
+        return new InferredOWLOntologyID(IRI.create((URI)artifacts.get(0).getSubject()), versionIRI,
+                this.getInferredVersion(versionIRI.toOpenRDFURI(), managementConnection, artifactManagementGraph));
+    }
+    
+    /**
+     * Finds all of the delta encoded versions for the given artifact.
+     * 
+     * @param artifactIRI
+     * @param managementConnection
+     * @param artifactManagementGraph
+     * @return
+     * @throws OpenRDFException
+     */
+    public List<InferredOWLOntologyID> getDeltaVersions(final IRI artifactIRI,
+            final RepositoryConnection managementConnection, final URI artifactManagementGraph)
+        throws OpenRDFException
+    {
+        final List<InferredOWLOntologyID> results = new ArrayList<InferredOWLOntologyID>();
+        for(final Statement nextVersion : Iterations.asList(managementConnection.getStatements(
+                artifactIRI.toOpenRDFURI(), PODD.PODD_BASE_DELTA_VERSION, null, false, artifactManagementGraph)))
+        {
+            if(nextVersion.getObject() instanceof URI)
+            {
+                final URI versionUri = (URI)nextVersion.getObject();
+                results.add(new InferredOWLOntologyID(artifactIRI, IRI.create(versionUri), this.getInferredVersion(
+                        versionUri, managementConnection, artifactManagementGraph)));
+            }
+        }
+        return results;
+    }
+    
+    private IRI getInferredVersion(final URI versionUri, final RepositoryConnection managementConnection,
+            final URI artifactManagementGraph) throws OpenRDFException
+    {
+        final List<Statement> inferredVersions =
+                Iterations.asList(managementConnection.getStatements(versionUri, PODD.PODD_BASE_INFERRED_VERSION, null,
+                        false, artifactManagementGraph));
+        if(!inferredVersions.isEmpty() && inferredVersions.get(0).getObject() instanceof URI)
+        {
+            return IRI.create((URI)inferredVersions.get(0).getObject());
+        }
+        return null;
+    }
+    
+    private URI getRemovedContext(final URI context)
+    {
+        return PODD.VF.createURI(PODD.DELTA_REMOVED_PREFIX + context.stringValue());
+    }
+    
+    /**
+     * Reconstructs a delta encoded version by replaying the deltas back from the nearest version
+     * that is stored in full.
+     * 
+     * @param deltaID
+     *            The version to reconstruct.
+     * @param includeInferred
+     *            True to also reconstruct the inferred statements.
+     * @param permanentConnection
+     * @param managementConnection
+     * @param artifactManagementGraph
+     * @return The statements for the version, in the version and inferred contexts for the version.
+     * @throws OpenRDFException
+     */
+    public Model reconstruct(final InferredOWLOntologyID deltaID, final boolean includeInferred,
+            final RepositoryConnection permanentConnection, final RepositoryConnection managementConnection,
+            final URI artifactManagementGraph) throws OpenRDFException
+    {
+        final List<URI> chain =
+                this.getDeltaChain(deltaID.getVersionIRI().toOpenRDFURI(), managementConnection,
+                        artifactManagementGraph);
+        
+        final Model results = new LinkedHashModel();
+        for(final Statement nextStatement : this.reconstructContexts(chain, permanentConnection))
+        {
+            results.add(nextStatement.getSubject(), nextStatement.getPredicate(), nextStatement.getObject(), deltaID
+                    .getVersionIRI().toOpenRDFURI());
+        }
+        
+        if(includeInferred && deltaID.getInferredOntologyIRI() != null)
+        {
+            final List<URI> inferredChain = new ArrayList<URI>(chain.size());
+            for(final URI nextVersion : chain)
+            {
+                final IRI nextInferred =
+                        this.getInferredVersion(nextVersion, managementConnection, artifactManagementGraph);
+                if(nextInferred == null)
+                {
+                    this.log.warn("Could not find inferred version for {}, inferred statements will be missing",
+                            nextVersion);
+                    return results;
+                }
+                inferredChain.add(nextInferred.toOpenRDFURI());
+            }
+            
+            for(final Statement nextStatement : this.reconstructContexts(inferredChain, permanentConnection))
+            {
+                results.add(nextStatement.getSubject(), nextStatement.getPredicate(), nextStatement.getObject(),
+                        deltaID.getInferredOntologyIRI().toOpenRDFURI());
+            }
+        }
+        
+        return results;
+    }
+    
+    private Model reconstructContexts(final List<URI> chain, final RepositoryConnection permanentConnection)
+        throws OpenRDFException
+    {
+        // Start from the nearest version that is stored in full, which is not always the end of the
+        // chain, as inferred statements may be stored in full when the concrete statements are not
+        int base = chain.size() - 1;
+        for(int i = 0; i < chain.size() - 1; i++)
+        {
+            if(permanentConnection.hasStatement(null, null, null, false, chain.get(i)))
+            {
+                base = i;
+                break;
+            }
+        }
+        
+        final Model model = new LinkedHashModel();
+        permanentConnection.export(new StatementCollector(model), chain.get(base));
+        
+        // Replay the deltas from the newest to the oldest
+        for(int i = base - 1; i >= 0; i--)
+        {
+            this.applyDelta(model, chain.get(i), permanentConnection);
+        }
+        return model;
+    }
+    
+    /**
+     * Stores the given delta encoded version in full, so that it can be used as the base for
+     * reconstructing older versions without replaying any later deltas.
+     * 
+     * @param deltaID
+     * @param permanentConnection
+     * @param managementConnection
+     * @param artifactManagementGraph
+     * @throws OpenRDFException
+     */
+    public void snapshot(final InferredOWLOntologyID deltaID, final RepositoryConnection permanentConnection,
+            final RepositoryConnection managementConnection, final URI artifactManagementGraph)
+        throws OpenRDFException
+    {
+        final Model snapshot =
+                this.reconstruct(deltaID, true, permanentConnection, managementConnection, artifactManagementGraph);
+        
+        final URI versionUri = deltaID.getVersionIRI().toOpenRDFURI();
+        permanentConnection.clear(this.getAddedContext(versionUri), this.getRemovedContext(versionUri));
+        if(deltaID.getInferredOntologyIRI() != null)
+        {
+            final URI inferredUri = deltaID.getInferredOntologyIRI().toOpenRDFURI();
+            permanentConnection.clear(this.getAddedContext(inferredUri), this.getRemovedContext(inferredUri));
+        }
+        
+        permanentConnection.add(snapshot);
+        managementConnection.remove(versionUri, PODD.PODD_BASE_DELTA_BASE, null, artifactManagementGraph);
+        
+        this.log.info("Stored snapshot of {} with {} statements", versionUri, snapshot.size());
+    }
+    
+    /**
+     * Replaces the full copy of the previous version of an artifact with a delta against the next
+     * version.
+     * 
+     * @param previousID
+     *            The previous version, which must currently be stored in full.
+     * @param nextID
+     *            The next version, which must be stored in full.
+     * @param includeInferred
+     *            True to also replace the inferred statements for the previous version with a
+     *            delta, or false to keep them in full, for instance if the inferred statements for
+     *            the next version are not available yet.
+     * @param permanentConnection
+     * @param managementConnection
+     * @param artifactManagementGraph
+     * @throws OpenRDFException
+     */
+    public void storeDelta(final InferredOWLOntologyID previousID, final InferredOWLOntologyID nextID,
+            final boolean includeInferred, final RepositoryConnection permanentConnection,
+            final RepositoryConnection managementConnection, final URI artifactManagementGraph)
+        throws OpenRDFException
+    {
+        final URI previousVersionUri = previousID.getVersionIRI().toOpenRDFURI();
+        
+        this.storeDeltaContext(previousVersionUri, nextID.getVersionIRI().toOpenRDFURI(), permanentConnection);
+        
+        if(previousID.getInferredOntologyIRI() != null)
+        {
+            if(includeInferred && nextID.getInferredOntologyIRI() != null)
+            {
+                this.storeDeltaContext(previousID.getInferredOntologyIRI().toOpenRDFURI(), nextID
+                        .getInferredOntologyIRI().toOpenRDFURI(), permanentConnection);
+            }
+            managementConnection.add(previousVersionUri, PODD.PODD_BASE_INFERRED_VERSION, previousID
+                    .getInferredOntologyIRI().toOpenRDFURI(), artifactManagementGraph);
+        }
+        
+        managementConnection.add(nextID.getOntologyIRI().toOpenRDFURI(), PODD.PODD_BASE_DELTA_VERSION,
+                previousVersionUri, artifactManagementGraph);
+        managementConnection.add(previousVersionUri, PODD.PODD_BASE_DELTA_BASE, nextID.getVersionIRI()
+                .toOpenRDFURI(), artifactManagementGraph);
+    }
+    
+    private void storeDeltaContext(final URI previousContext, final URI nextContext,
+            final RepositoryConnection permanentConnection) throws OpenRDFException
+    {
+        final Model previous = new LinkedHashModel();
+        permanentConnection.export(new StatementCollector(previous), previousContext);
+        final Model next = new LinkedHashModel();
+        permanentConnection.export(new StatementCollector(next), nextContext);
+        
+        final URI addedContext = this.getAddedContext(previousContext);
+        final URI removedContext = this.getRemovedContext(previousContext);
+        
+        int added = 0;
+        for(final Statement nextStatement : previous)
+        {
+            if(!next.contains(nextStatement.getSubject(), nextStatement.getPredicate(), nextStatement.getObject()))
+            {
+                permanentConnection.add(nextStatement.getSubject(), nextStatement.getPredicate(),
+                        nextStatement.getObject(), addedContext);
+                added++;
+            }
+        }
+        
+        int removed = 0;
+        for(final Statement nextStatement : next)
+        {
+            if(!previous.contains(nextStatement.getSubject(), nextStatement.getPredicate(), nextStatement.getObject()))
+            {
+                permanentConnection.add(nextStatement.getSubject(), nextStatement.getPredicate(),
+                        nextStatement.getObject(), removedContext);
+                removed++;
+            }
+        }
+        
+        permanentConnection.clear(previousContext);
+        
+        this.log.debug("Stored delta for {}: {} added {} removed, replacing {} statements", previousContext, added,
+                removed, previous.size());
+    }
+}
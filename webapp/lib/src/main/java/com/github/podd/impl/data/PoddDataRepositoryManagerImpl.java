@@ -22,12 +22,26 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Literal;
@@ -77,6 +91,180 @@ import com.github.podd.utils.RdfUtility;
  */
 public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
 {
+    /**
+     * A reference waiting to be verified, along with the state of the call that is waiting for it.
+     */
+    private final class VerificationTask
+    {
+        private static final int PENDING = 0;
+        
+        private static final int RUNNING = 1;
+        
+        private static final int FINISHED = 2;
+        
+        private static final int ABANDONED = 3;
+        
+        private final DataReference dataReference;
+        
+        private final PoddDataRepository<DataReference> repository;
+        
+        private final Map<DataReference, Throwable> errors;
+        
+        private final Set<DataReference> verified;
+        
+        private final AtomicBoolean cancelled;
+        
+        private final CountDownLatch remaining;
+        
+        private final VerificationQueue queue;
+        
+        private final AtomicInteger state = new AtomicInteger(VerificationTask.PENDING);
+        
+        private volatile Thread runner;
+        
+        VerificationTask(final DataReference dataReference, final PoddDataRepository<DataReference> repository,
+                final Map<DataReference, Throwable> errors, final Set<DataReference> verified,
+                final AtomicBoolean cancelled, final CountDownLatch remaining, final VerificationQueue queue)
+        {
+            this.dataReference = dataReference;
+            this.repository = repository;
+            this.errors = errors;
+            this.verified = verified;
+            this.cancelled = cancelled;
+            this.remaining = remaining;
+            this.queue = queue;
+        }
+        
+        /**
+         * Called by the caller once it has stopped waiting. If the reference is still being
+         * verified, the worker is interrupted and its slot is given to another worker, so that a
+         * validation that never returns cannot hold the slot forever.
+         */
+        void abandon()
+        {
+            if(this.state.compareAndSet(VerificationTask.RUNNING, VerificationTask.ABANDONED))
+            {
+                final Thread nextRunner = this.runner;
+                if(nextRunner != null)
+                {
+                    nextRunner.interrupt();
+                }
+                this.queue.releaseWorker();
+            }
+        }
+        
+        /**
+         * Verifies the reference unless the caller has stopped waiting for it.
+         * 
+         * @return False if the task was abandoned while it was running, in which case the worker
+         *         no longer holds a slot and must stop.
+         */
+        boolean run()
+        {
+            try
+            {
+                if(this.cancelled.get())
+                {
+                    return true;
+                }
+                
+                this.runner = Thread.currentThread();
+                if(!this.state.compareAndSet(VerificationTask.PENDING, VerificationTask.RUNNING))
+                {
+                    return true;
+                }
+                
+                PoddDataRepositoryManagerImpl.this.verifyDataReference(this.dataReference, this.repository,
+                        this.errors);
+                
+                if(this.state.compareAndSet(VerificationTask.RUNNING, VerificationTask.FINISHED))
+                {
+                    this.verified.add(this.dataReference);
+                    return true;
+                }
+                
+                // Clear the interrupt from abandon before the thread is reused
+                Thread.interrupted();
+                return false;
+            }
+            finally
+            {
+                this.runner = null;
+                this.remaining.countDown();
+            }
+        }
+    }
+    
+    /**
+     * The references waiting to be verified for a single repository alias. Workers take references
+     * from the queue until it is empty, which limits the number of connections to a repository
+     * without blocking executor threads.
+     */
+    private final class VerificationQueue implements Runnable
+    {
+        private final Queue<VerificationTask> tasks = new ConcurrentLinkedQueue<VerificationTask>();
+        
+        private final AtomicInteger workers = new AtomicInteger(0);
+        
+        void add(final VerificationTask task)
+        {
+            this.tasks.add(task);
+        }
+        
+        @Override
+        public void run()
+        {
+            VerificationTask nextTask;
+            while((nextTask = this.tasks.poll()) != null)
+            {
+                if(!nextTask.run())
+                {
+                    // The slot for this worker was released when its task was abandoned
+                    return;
+                }
+            }
+            
+            this.releaseWorker();
+        }
+        
+        /**
+         * Releases the slot held by a worker, and starts another worker if tasks were added after
+         * the queue was found to be empty, while the worker was still counted.
+         */
+        void releaseWorker()
+        {
+            this.workers.decrementAndGet();
+            this.startWorkers();
+        }
+        
+        /**
+         * Starts workers until the queue is empty or the concurrency limit has been reached.
+         */
+        void startWorkers()
+        {
+            while(!this.tasks.isEmpty())
+            {
+                final int current = this.workers.get();
+                if(current >= PoddDataRepositoryManagerImpl.this.verificationConcurrency)
+                {
+                    return;
+                }
+                if(this.workers.compareAndSet(current, current + 1))
+                {
+                    try
+                    {
+                        PoddDataRepositoryManagerImpl.this.verificationExecutor.execute(this);
+                    }
+                    catch(final RejectedExecutionException e)
+                    {
+                        // The executor is saturated, so verify on this thread instead
+                        this.run();
+                    }
+                }
+            }
+        }
+    }
+    
     private final Logger log = LoggerFactory.getLogger(this.getClass());
     
     private PoddRepositoryManager repositoryManager;
@@ -85,6 +273,18 @@ public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
     
     private Model dataRepositorySchema;
     
+    private ExecutorService verificationExecutor;
+    
+    private int verificationConcurrency = 4;
+    
+    private long verificationTimeoutNanos = TimeUnit.SECONDS.toNanos(120);
+    
+    /**
+     * The references waiting to be verified for each repository alias, shared by all calls.
+     */
+    private final ConcurrentMap<String, VerificationQueue> verificationQueues =
+            new ConcurrentHashMap<String, VerificationQueue>();
+    
     /**
      * 
      */
@@ -523,42 +723,201 @@ public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
         this.repositoryManager = repositoryManager;
     }
     
+    @Override
+    public void setVerificationConcurrency(final int verificationConcurrency)
+    {
+        if(verificationConcurrency < 1)
+        {
+            throw new IllegalArgumentException("Verification concurrency must be at least 1");
+        }
+        this.verificationConcurrency = verificationConcurrency;
+    }
+    
+    @Override
+    public void setVerificationExecutor(final ExecutorService verificationExecutor)
+    {
+        this.verificationExecutor = verificationExecutor;
+    }
+    
+    @Override
+    public void setVerificationTimeout(final long timeout, final TimeUnit unit)
+    {
+        this.verificationTimeoutNanos = unit.toNanos(timeout);
+    }
+    
+    private VerificationQueue getVerificationQueue(final String alias)
+    {
+        VerificationQueue result = this.verificationQueues.get(alias);
+        if(result == null)
+        {
+            final VerificationQueue newQueue = new VerificationQueue();
+            result = this.verificationQueues.putIfAbsent(alias, newQueue);
+            if(result == null)
+            {
+                result = newQueue;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Verifies a single {@link DataReference}, adding the cause to the given map if it fails.
+     */
+    private void verifyDataReference(final DataReference dataReference,
+            final PoddDataRepository<DataReference> repository, final Map<DataReference, Throwable> errors)
+    {
+        try
+        {
+            if(!repository.validate(dataReference))
+            {
+                errors.put(dataReference, new DataReferenceInvalidException(dataReference,
+                        "Remote File Repository says this File Reference is invalid"));
+            }
+        }
+        catch(final Exception e)
+        {
+            errors.put(dataReference, e);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
     @Override
     public void verifyDataReferences(final Set<DataReference> fileReferenceResults) throws OpenRDFException,
         DataRepositoryException, DataReferenceVerificationException
     {
-        final Map<DataReference, Throwable> errors = new HashMap<DataReference, Throwable>();
+        final Map<DataReference, Throwable> errors = new ConcurrentHashMap<DataReference, Throwable>();
         
+        // Group the references by alias so that each repository configuration is only looked up once
+        final Map<String, List<DataReference>> referencesByAlias = new HashMap<String, List<DataReference>>();
         for(final DataReference dataReference : fileReferenceResults)
         {
-            final String alias = dataReference.getRepositoryAlias();
+            List<DataReference> aliasReferences = referencesByAlias.get(dataReference.getRepositoryAlias());
+            if(aliasReferences == null)
+            {
+                aliasReferences = new ArrayList<DataReference>();
+                referencesByAlias.put(dataReference.getRepositoryAlias(), aliasReferences);
+            }
+            aliasReferences.add(dataReference);
+        }
+        
+        final Map<String, PoddDataRepository<DataReference>> repositories =
+                new HashMap<String, PoddDataRepository<DataReference>>();
+        for(final String alias : referencesByAlias.keySet())
+        {
             final PoddDataRepository<DataReference> repository =
                     (PoddDataRepository<DataReference>)this.getRepository(alias);
             if(repository == null)
             {
-                errors.put(dataReference, new DataRepositoryMappingNotFoundException(alias,
-                        "Could not find a File Repository configuration mapped to this alias"));
+                for(final DataReference dataReference : referencesByAlias.get(alias))
+                {
+                    errors.put(dataReference, new DataRepositoryMappingNotFoundException(alias,
+                            "Could not find a File Repository configuration mapped to this alias"));
+                }
             }
             else
             {
-                try
+                repositories.put(alias, repository);
+            }
+        }
+        
+        if(this.verificationExecutor == null)
+        {
+            for(final Entry<String, PoddDataRepository<DataReference>> nextRepository : repositories.entrySet())
+            {
+                for(final DataReference dataReference : referencesByAlias.get(nextRepository.getKey()))
                 {
-                    if(!repository.validate(dataReference))
-                    {
-                        errors.put(dataReference, new DataReferenceInvalidException(dataReference,
-                                "Remote File Repository says this File Reference is invalid"));
-                    }
+                    this.verifyDataReference(dataReference, nextRepository.getValue(), errors);
                 }
-                catch(final Exception e)
+            }
+        }
+        else
+        {
+            this.verifyDataReferencesInParallel(fileReferenceResults, repositories, referencesByAlias, errors);
+        }
+        
+        if(!errors.isEmpty())
+        {
+            throw new DataReferenceVerificationException(new HashMap<DataReference, Throwable>(errors),
+                    "File Reference validation resulted in failures");
+        }
+    }
+    
+    /**
+     * Verifies references using the verification executor, with at most
+     * {@link #setVerificationConcurrency(int)} references from each repository alias being
+     * verified at once across all calls. References that are not verified before the verification
+     * timeout are added to the map of errors, and workers that are still verifying them are
+     * interrupted and no longer count towards the limit.
+     */
+    private void verifyDataReferencesInParallel(final Collection<DataReference> fileReferenceResults,
+            final Map<String, PoddDataRepository<DataReference>> repositories,
+            final Map<String, List<DataReference>> referencesByAlias, final Map<DataReference, Throwable> errors)
+    {
+        final Set<DataReference> verified =
+                Collections.newSetFromMap(new ConcurrentHashMap<DataReference, Boolean>());
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+        
+        int referenceCount = 0;
+        for(final String alias : repositories.keySet())
+        {
+            referenceCount += referencesByAlias.get(alias).size();
+        }
+        final CountDownLatch remaining = new CountDownLatch(referenceCount);
+        final List<VerificationTask> tasks = new ArrayList<VerificationTask>(referenceCount);
+        
+        for(final Entry<String, PoddDataRepository<DataReference>> nextRepository : repositories.entrySet())
+        {
+            final VerificationQueue queue = this.getVerificationQueue(nextRepository.getKey());
+            for(final DataReference nextReference : referencesByAlias.get(nextRepository.getKey()))
+            {
+                final VerificationTask nextTask =
+                        new VerificationTask(nextReference, nextRepository.getValue(), errors, verified, cancelled,
+                                remaining, queue);
+                tasks.add(nextTask);
+                queue.add(nextTask);
+            }
+            queue.startWorkers();
+        }
+        
+        Throwable incomplete = null;
+        try
+        {
+            if(this.verificationTimeoutNanos > 0)
+            {
+                if(!remaining.await(this.verificationTimeoutNanos, TimeUnit.NANOSECONDS))
                 {
-                    errors.put(dataReference, e);
+                    incomplete =
+                            new TimeoutException("Data reference was not verified before the verification timeout");
                 }
             }
+            else
+            {
+                remaining.await();
+            }
+        }
+        catch(final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            incomplete = e;
+        }
+        finally
+        {
+            // Workers skip the references from this call that are still queued, and give up on
+            // the references that are still being verified
+            cancelled.set(true);
+            for(final VerificationTask nextTask : tasks)
+            {
+                nextTask.abandon();
+            }
         }
         
-        if(!errors.isEmpty())
+        for(final DataReference dataReference : fileReferenceResults)
         {
-            throw new DataReferenceVerificationException(errors, "File Reference validation resulted in failures");
+            if(!verified.contains(dataReference) && !errors.containsKey(dataReference))
+            {
+                errors.put(dataReference, incomplete != null ? incomplete : new IllegalStateException(
+                        "Data reference was not verified"));
+            }
         }
     }
     
@@ -0,0 +1,159 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl.ingest;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openrdf.model.Statement;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.helpers.RDFHandlerWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class for a single stage in the streaming artifact ingest pipeline.
+ * 
+ * Each stage processes one statement at a time and forwards the result to the next handler in the
+ * chain, so the uploaded statements are never collected into an intermediate Model. The time spent
+ * inside each stage, excluding downstream stages, and the peak heap usage observed while the stage
+ * was active are recorded and logged when the document ends.
+ */
+public abstract class AbstractIngestStage extends RDFHandlerWrapper
+{
+    /**
+     * The number of statements between samples of the heap usage.
+     */
+    private static final int MEMORY_SAMPLE_INTERVAL = 10000;
+    
+    protected final Logger log = LoggerFactory.getLogger(this.getClass());
+    
+    private final String stageName;
+    
+    private long statementCount = 0;
+    
+    private long droppedCount = 0;
+    
+    private long elapsedNanos = 0;
+    
+    private long peakHeapUsed = 0;
+    
+    /**
+     * 
+     * @param stageName
+     *            The name of this stage, used when reporting metrics.
+     * @param nextHandler
+     *            The handler to forward statements to after this stage has processed them.
+     */
+    public AbstractIngestStage(final String stageName, final RDFHandler nextHandler)
+    {
+        super(nextHandler);
+        this.stageName = stageName;
+    }
+    
+    @Override
+    public void endRDF() throws RDFHandlerException
+    {
+        this.sampleHeap();
+        super.endRDF();
+        this.log.info("Ingest stage {}: statements={} dropped={} time={}ms peakHeap={}MB", this.stageName,
+                this.statementCount, this.droppedCount, this.getElapsedMillis(), this.peakHeapUsed / (1024 * 1024));
+    }
+    
+    /**
+     * @return The number of statements removed by this stage.
+     */
+    public long getDroppedCount()
+    {
+        return this.droppedCount;
+    }
+    
+    /**
+     * @return The total time spent processing statements inside this stage, excluding the time
+     *         spent in downstream handlers.
+     */
+    public long getElapsedMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos);
+    }
+    
+    /**
+     * @return The highest heap usage, in bytes, sampled while this stage was processing statements.
+     */
+    public long getPeakHeapUsed()
+    {
+        return this.peakHeapUsed;
+    }
+    
+    /**
+     * @return The number of statements that were passed into this stage.
+     */
+    public long getStatementCount()
+    {
+        return this.statementCount;
+    }
+    
+    public String getStageName()
+    {
+        return this.stageName;
+    }
+    
+    @Override
+    public void handleStatement(final Statement st) throws RDFHandlerException
+    {
+        final long start = System.nanoTime();
+        final Statement result = this.processStatement(st);
+        this.elapsedNanos += System.nanoTime() - start;
+        
+        this.statementCount++;
+        if(this.statementCount % AbstractIngestStage.MEMORY_SAMPLE_INTERVAL == 0)
+        {
+            this.sampleHeap();
+        }
+        
+        if(result == null)
+        {
+            this.droppedCount++;
+        }
+        else
+        {
+            super.handleStatement(result);
+        }
+    }
+    
+    /**
+     * Process a single statement for this stage.
+     * 
+     * @param st
+     *            The statement to process.
+     * @return The statement to forward to the next stage, which may be the original statement, or
+     *         null to drop the statement.
+     * @throws RDFHandlerException
+     *             If the statement could not be processed.
+     */
+    protected abstract Statement processStatement(Statement st) throws RDFHandlerException;
+    
+    private void sampleHeap()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        final long used = runtime.totalMemory() - runtime.freeMemory();
+        if(used > this.peakHeapUsed)
+        {
+            this.peakHeapUsed = used;
+        }
+    }
+}
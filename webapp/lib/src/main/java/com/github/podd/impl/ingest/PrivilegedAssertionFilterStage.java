@@ -0,0 +1,44 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl.ingest;
+
+import org.openrdf.model.Statement;
+import org.openrdf.rio.RDFHandler;
+
+import com.github.podd.utils.PODD;
+
+/**
+ * Removes any assertions that the user has made about publication status, as this information is
+ * a privileged operation that must be done through the designated API method.
+ */
+public class PrivilegedAssertionFilterStage extends AbstractIngestStage
+{
+    public PrivilegedAssertionFilterStage(final RDFHandler nextHandler)
+    {
+        super("privileged-assertions", nextHandler);
+    }
+    
+    @Override
+    protected Statement processStatement(final Statement st)
+    {
+        if(PODD.PODD_BASE_HAS_PUBLICATION_STATUS.equals(st.getPredicate()))
+        {
+            return null;
+        }
+        return st;
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl.ingest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+
+import com.github.podd.api.purl.PoddPurlProcessor;
+import com.github.podd.api.purl.PoddPurlProcessorFactory;
+import com.github.podd.api.purl.PoddPurlReference;
+import com.github.podd.exception.PurlProcessorNotHandledException;
+import com.github.podd.utils.PODD;
+
+/**
+ * Replaces temporary URIs in subject and object positions with PURLs as the statements are parsed.
+ * 
+ * Each temporary URI is translated once, and the same PURL is used for every later occurrence.
+ */
+public class PurlRewritingStage extends AbstractIngestStage
+{
+    private final List<PoddPurlProcessor> processors;
+    
+    private final Map<URI, PoddPurlReference> purls = new LinkedHashMap<URI, PoddPurlReference>();
+    
+    /**
+     * 
+     * @param processorFactories
+     *            The PURL processor factories that are active in the RDF parsing stage.
+     * @param nextHandler
+     */
+    public PurlRewritingStage(final Collection<PoddPurlProcessorFactory> processorFactories,
+            final RDFHandler nextHandler)
+    {
+        super("purls", nextHandler);
+        this.processors = new ArrayList<PoddPurlProcessor>(processorFactories.size());
+        for(final PoddPurlProcessorFactory nextFactory : processorFactories)
+        {
+            this.processors.add(nextFactory.getProcessor());
+        }
+    }
+    
+    /**
+     * @return The PURL references that were generated for temporary URIs found during parsing.
+     */
+    public Set<PoddPurlReference> getPurlReferences()
+    {
+        return Collections.unmodifiableSet(new HashSet<PoddPurlReference>(this.purls.values()));
+    }
+    
+    @Override
+    protected Statement processStatement(final Statement st) throws RDFHandlerException
+    {
+        if(this.processors.isEmpty())
+        {
+            return st;
+        }
+        
+        Resource subject = st.getSubject();
+        Value object = st.getObject();
+        boolean changed = false;
+        
+        if(subject instanceof URI)
+        {
+            final URI purl = this.translate((URI)subject);
+            if(purl != null)
+            {
+                subject = purl;
+                changed = true;
+            }
+        }
+        
+        // Predicate rewriting is not supported. Predicates in OWL Documents must be URIs from
+        // recognized vocabularies, so cannot be auto generated PURLs
+        
+        if(object instanceof URI)
+        {
+            final URI purl = this.translate((URI)object);
+            if(purl != null)
+            {
+                object = purl;
+                changed = true;
+            }
+        }
+        
+        if(changed)
+        {
+            return PODD.VF.createStatement(subject, st.getPredicate(), object, st.getContext());
+        }
+        return st;
+    }
+    
+    private URI translate(final URI nextUri) throws RDFHandlerException
+    {
+        final PoddPurlReference existing = this.purls.get(nextUri);
+        if(existing != null)
+        {
+            return existing.getPurlURI();
+        }
+        
+        for(final PoddPurlProcessor nextProcessor : this.processors)
+        {
+            if(nextProcessor.canHandle(nextUri))
+            {
+                try
+                {
+                    final PoddPurlReference purl = nextProcessor.handleTranslation(nextUri, null);
+                    this.log.debug("Converting: {} to {}", nextUri, purl.getPurlURI());
+                    this.purls.put(nextUri, purl);
+                    return purl.getPurlURI();
+                }
+                catch(final PurlProcessorNotHandledException e)
+                {
+                    throw new RDFHandlerException(e);
+                }
+            }
+        }
+        
+        return null;
+    }
+}
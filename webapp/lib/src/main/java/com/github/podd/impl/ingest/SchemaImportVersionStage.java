@@ -0,0 +1,96 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl.ingest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openrdf.OpenRDFException;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.vocabulary.OWL;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+import org.semanticweb.owlapi.model.IRI;
+
+import com.github.podd.api.PoddSesameManager;
+import com.github.podd.exception.UnmanagedSchemaIRIException;
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PODD;
+
+/**
+ * Pins owl:imports statements to the version IRI of the matching managed schema ontology.
+ * 
+ * Failures to find a schema are wrapped in an {@link RDFHandlerException} so that they can be
+ * unwrapped by the caller after parsing.
+ */
+public class SchemaImportVersionStage extends AbstractIngestStage
+{
+    private final PoddSesameManager sesameManager;
+    
+    private final RepositoryConnection managementConnection;
+    
+    private final URI schemaManagementGraph;
+    
+    private final Map<URI, URI> versionCache = new HashMap<URI, URI>();
+    
+    public SchemaImportVersionStage(final PoddSesameManager sesameManager,
+            final RepositoryConnection managementConnection, final URI schemaManagementGraph,
+            final RDFHandler nextHandler)
+    {
+        super("schema-imports", nextHandler);
+        this.sesameManager = sesameManager;
+        this.managementConnection = managementConnection;
+        this.schemaManagementGraph = schemaManagementGraph;
+    }
+    
+    @Override
+    protected Statement processStatement(final Statement st) throws RDFHandlerException
+    {
+        if(!OWL.IMPORTS.equals(st.getPredicate()) || !(st.getObject() instanceof URI))
+        {
+            return st;
+        }
+        
+        final URI importedSchemaIRI = (URI)st.getObject();
+        URI versionIRI = this.versionCache.get(importedSchemaIRI);
+        if(versionIRI == null)
+        {
+            try
+            {
+                final InferredOWLOntologyID schemaOntologyID =
+                        this.sesameManager.getSchemaVersion(IRI.create(importedSchemaIRI),
+                                this.managementConnection, this.schemaManagementGraph);
+                versionIRI = schemaOntologyID.getVersionIRI().toOpenRDFURI();
+            }
+            catch(final OpenRDFException | UnmanagedSchemaIRIException e)
+            {
+                throw new RDFHandlerException(e);
+            }
+            this.versionCache.put(importedSchemaIRI, versionIRI);
+        }
+        
+        // Always replace with the version IRI
+        if(!importedSchemaIRI.equals(versionIRI))
+        {
+            this.log.info("Updating import to version <{}>", versionIRI);
+            return PODD.VF.createStatement(st.getSubject(), st.getPredicate(), versionIRI, st.getContext());
+        }
+        return st;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl.ingest;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.openrdf.model.Literal;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.rio.RDFHandler;
+
+import com.github.podd.utils.PODD;
+
+/**
+ * Replaces date-time values with the year 1970 on the given properties with a new timestamp.
+ */
+public class TimestampDefaultingStage extends AbstractIngestStage
+{
+    private final Value newTimestamp;
+    
+    private final Set<URI> properties;
+    
+    public TimestampDefaultingStage(final Value newTimestamp, final RDFHandler nextHandler,
+            final URI... properties)
+    {
+        super("timestamps", nextHandler);
+        this.newTimestamp = newTimestamp;
+        this.properties = new HashSet<URI>(Arrays.asList(properties));
+    }
+    
+    @Override
+    protected Statement processStatement(final Statement st)
+    {
+        if(this.properties.contains(st.getPredicate()) && st.getObject() instanceof Literal)
+        {
+            final int year = ((Literal)st.getObject()).calendarValue().getYear();
+            if(year == 1970)
+            {
+                return PODD.VF.createStatement(st.getSubject(), st.getPredicate(), this.newTimestamp,
+                        st.getContext());
+            }
+        }
+        return st;
+    }
+}
@@ -16,10 +16,13 @@
  */
 package com.github.podd.resources;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.openrdf.model.URI;
 import org.restlet.data.Method;
+import org.restlet.data.Reference;
 import org.restlet.data.Status;
 import org.restlet.representation.Variant;
 import org.restlet.resource.ResourceException;
@@ -34,6 +37,9 @@ import com.github.podd.api.PoddSchemaManager;
 import com.github.podd.api.PoddSesameManager;
 import com.github.podd.restlet.PoddAction;
 import com.github.podd.restlet.PoddWebServiceApplication;
+import com.github.podd.utils.InferenceJob;
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PoddWebConstants;
 
 public abstract class AbstractPoddResourceImpl extends ServerResource
 {
@@ -142,6 +148,41 @@ public abstract class AbstractPoddResourceImpl extends ServerResource
         }
     }
     
+    /**
+     * Finds the artifacts that the currently authenticated user can perform the given action on,
+     * checking all of them together instead of one at a time.
+     * 
+     * @param action
+     *            The PoddAction that is to be performed.
+     * @param artifacts
+     *            The artifacts to check.
+     * @return The artifacts, in their original order, that the user is authorised to perform the
+     *         given action on.
+     */
+    protected List<InferredOWLOntologyID> checkAuthentication(final PoddAction action,
+            final List<InferredOWLOntologyID> artifacts)
+    {
+        final List<URI> artifactUris = new ArrayList<URI>(artifacts.size());
+        for(final InferredOWLOntologyID nextArtifact : artifacts)
+        {
+            artifactUris.add(nextArtifact.getOntologyIRI().toOpenRDFURI());
+        }
+        
+        final Set<URI> authorisedUris =
+                this.getPoddApplication().authenticateObjects(action, this.getRequest(), this.getResponse(),
+                        artifactUris);
+        
+        final List<InferredOWLOntologyID> results = new ArrayList<InferredOWLOntologyID>(authorisedUris.size());
+        for(final InferredOWLOntologyID nextArtifact : artifacts)
+        {
+            if(authorisedUris.contains(nextArtifact.getOntologyIRI().toOpenRDFURI()))
+            {
+                results.add(nextArtifact);
+            }
+        }
+        return results;
+    }
+    
     /**
      * Sets the data handler for this resource based on the application level data handler.
      * 
@@ -214,6 +255,36 @@ public abstract class AbstractPoddResourceImpl extends ServerResource
         return this.getPoddApplication().getPoddArtifactManager().getSesameManager();
     }
     
+    /**
+     * Sets the response status to HTTP 202 (Accepted) if the inferred statements for the given
+     * artifact version are still being computed in the background, and points the client to the
+     * inference status service for the version.
+     * 
+     * @param artifactId
+     *            The artifact version that was just uploaded or edited.
+     */
+    protected void setAcceptedIfInferencePending(final InferredOWLOntologyID artifactId)
+    {
+        final InferenceJob job = this.getPoddArtifactManager().getInferenceJob(artifactId);
+        if(job != null && !job.isFinished())
+        {
+            String baseUrl = this.getRequest().getRootRef().toString();
+            if(baseUrl.endsWith("/"))
+            {
+                baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+            }
+            final Reference statusRef =
+                    new Reference(baseUrl + "/" + PoddWebConstants.PATH_ARTIFACT_INFERENCE_STATUS);
+            statusRef.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, artifactId.getOntologyIRI()
+                    .toString());
+            statusRef.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_VERSION_IDENTIFIER, artifactId
+                    .getVersionIRI().toString());
+            
+            this.getResponse().setStatus(Status.SUCCESS_ACCEPTED);
+            this.getResponse().setLocationRef(statusRef);
+        }
+    }
+    
     /**
      * Overriding broken ServerResource.getVariants method
      * 
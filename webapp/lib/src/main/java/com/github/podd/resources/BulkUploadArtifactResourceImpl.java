@@ -0,0 +1,305 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.resources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.fileupload.FileItem;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.disk.DiskFileItemFactory;
+import org.openrdf.OpenRDFException;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.OWL;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.Rio;
+import org.restlet.data.MediaType;
+import org.restlet.data.Status;
+import org.restlet.ext.fileupload.RestletFileUpload;
+import org.restlet.representation.ByteArrayRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.representation.Variant;
+import org.restlet.resource.Post;
+import org.restlet.resource.ResourceException;
+import org.restlet.security.User;
+import org.semanticweb.owlapi.model.OWLException;
+
+import com.github.podd.api.DanglingObjectPolicy;
+import com.github.podd.api.DataReferenceVerificationPolicy;
+import com.github.podd.api.PoddArtifactManager;
+import com.github.podd.exception.PoddException;
+import com.github.podd.restlet.PoddAction;
+import com.github.podd.restlet.PoddSesameRealm;
+import com.github.podd.utils.ArtifactLoadResult;
+import com.github.podd.utils.InferenceJob;
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddRoles;
+import com.github.podd.utils.PoddWebConstants;
+
+/**
+ * Resource which allows uploading many new artifacts in a single multipart request, and reports
+ * the result for each of them.
+ */
+public class BulkUploadArtifactResourceImpl extends AbstractPoddResourceImpl
+{
+    private final Path tempDirectory;
+    
+    public BulkUploadArtifactResourceImpl()
+    {
+        super();
+        
+        try
+        {
+            this.tempDirectory = Files.createTempDirectory("podd-bulkuploads");
+        }
+        catch(final IOException e)
+        {
+            this.log.error("Could not create temporary directory for bulk upload", e);
+            throw new RuntimeException("Could not create temporary directory", e);
+        }
+    }
+    
+    /**
+     * Removes the temporary directory for this request, along with any upload files that were left
+     * in it.
+     */
+    private void deleteTempDirectory()
+    {
+        try
+        {
+            try (final DirectoryStream<Path> stream = Files.newDirectoryStream(this.tempDirectory))
+            {
+                for(final Path nextPath : stream)
+                {
+                    Files.deleteIfExists(nextPath);
+                }
+            }
+            Files.deleteIfExists(this.tempDirectory);
+        }
+        catch(final IOException e)
+        {
+            this.log.error("Failed to delete temporary directory for bulk upload: {}", this.tempDirectory, e);
+        }
+    }
+    
+    /**
+     * Determines the format for all of the uploaded artifacts, from the format query parameter if
+     * it was given, or otherwise from the first uploaded file.
+     */
+    private RDFFormat getUploadFormat(final List<FileItem> files)
+    {
+        final String formatString = this.getQuery().getFirstValue("format", true);
+        if(formatString != null)
+        {
+            return Rio.getParserFormatForMIMEType(formatString, RDFFormat.RDFXML);
+        }
+        
+        RDFFormat format = null;
+        if(!files.isEmpty())
+        {
+            final FileItem firstFile = files.get(0);
+            // Browsers attach application/octet-stream when they are not sure what the real type is
+            if(firstFile.getContentType() != null
+                    && !MediaType.APPLICATION_OCTET_STREAM.getName().equals(firstFile.getContentType()))
+            {
+                format = Rio.getParserFormatForMIMEType(firstFile.getContentType());
+            }
+            if(format == null)
+            {
+                format = Rio.getParserFormatForFileName(firstFile.getName());
+            }
+        }
+        
+        if(format == null)
+        {
+            this.log.warn("Could not determine RDF format from request so falling back to RDF/XML");
+            format = RDFFormat.RDFXML;
+        }
+        return format;
+    }
+    
+    /**
+     * Handle http POST submitting a multipart form containing one file for each new artifact.
+     * Returns an RDF report containing the index, file name and either the artifact IRI and version
+     * IRI or the failure message for each file.
+     */
+    @Post(":rdf|rj|json|ttl")
+    public Representation uploadArtifactsToRdf(final Representation entity, final Variant variant)
+        throws ResourceException
+    {
+        this.checkAuthentication(PoddAction.ARTIFACT_CREATE);
+        
+        if(entity == null || !MediaType.MULTIPART_FORM_DATA.equals(entity.getMediaType(), true))
+        {
+            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Must submit a multipart form");
+        }
+        
+        final PoddArtifactManager artifactManager = this.getPoddArtifactManager();
+        if(artifactManager == null)
+        {
+            throw new ResourceException(Status.SERVER_ERROR_SERVICE_UNAVAILABLE,
+                    "Could not find PODD Artifact Manager");
+        }
+        
+        // - optional parameter 'isforce'
+        DanglingObjectPolicy danglingObjectPolicy = DanglingObjectPolicy.REPORT;
+        final String forceStr = this.getQuery().getFirstValue(PoddWebConstants.KEY_EDIT_WITH_FORCE, true);
+        if(forceStr != null && Boolean.valueOf(forceStr))
+        {
+            danglingObjectPolicy = DanglingObjectPolicy.FORCE_CLEAN;
+        }
+        
+        // - optional parameter 'verifyfilerefs'
+        DataReferenceVerificationPolicy fileRefVerificationPolicy = DataReferenceVerificationPolicy.DO_NOT_VERIFY;
+        final String fileRefVerifyStr =
+                this.getQuery().getFirstValue(PoddWebConstants.KEY_EDIT_VERIFY_FILE_REFERENCES, true);
+        if(fileRefVerifyStr != null && Boolean.valueOf(fileRefVerifyStr))
+        {
+            fileRefVerificationPolicy = DataReferenceVerificationPolicy.VERIFY;
+        }
+        
+        final int batchSize =
+                Integer.parseInt(this.getPoddApplication().getPropertyUtil()
+                        .get(PoddWebConstants.PROPERTY_BULK_LOAD_BATCH_SIZE,
+                                PoddWebConstants.DEFAULT_BULK_LOAD_BATCH_SIZE));
+        
+        final DiskFileItemFactory factory = new DiskFileItemFactory(1000240, this.tempDirectory.toFile());
+        final RestletFileUpload upload = new RestletFileUpload(factory);
+        
+        final List<FileItem> files = new ArrayList<>();
+        final List<InputStream> inputStreams = new ArrayList<>();
+        List<ArtifactLoadResult> results;
+        try
+        {
+            for(final FileItem fi : upload.parseRequest(this.getRequest()))
+            {
+                if(fi.getName() != null)
+                {
+                    files.add(fi);
+                }
+            }
+            
+            if(files.isEmpty())
+            {
+                throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Did not submit any files");
+            }
+            
+            for(final FileItem nextFile : files)
+            {
+                inputStreams.add(nextFile.getInputStream());
+            }
+            
+            results =
+                    artifactManager.loadArtifacts(inputStreams, this.getUploadFormat(files), danglingObjectPolicy,
+                            fileRefVerificationPolicy, batchSize);
+        }
+        catch(final FileUploadException e)
+        {
+            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, e);
+        }
+        catch(OpenRDFException | PoddException | IOException | OWLException e)
+        {
+            this.log.error("Failed to bulk load artifacts: {}", e.getMessage());
+            throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Error loading artifacts to PODD", e);
+        }
+        finally
+        {
+            for(final InputStream nextStream : inputStreams)
+            {
+                try
+                {
+                    nextStream.close();
+                }
+                catch(final IOException e)
+                {
+                    this.log.error("Failed to close uploaded file", e);
+                }
+            }
+            for(final FileItem nextFile : files)
+            {
+                nextFile.delete();
+            }
+            this.deleteTempDirectory();
+        }
+        
+        final User user = this.getRequest().getClientInfo().getUser();
+        final PoddSesameRealm realm = this.getPoddApplication().getRealm();
+        final Model model = new LinkedHashModel();
+        for(final ArtifactLoadResult nextResult : results)
+        {
+            Resource resultNode;
+            if(nextResult.isSuccessful())
+            {
+                final InferredOWLOntologyID artifactId = nextResult.getArtifactID();
+                final URI artifactUri = artifactId.getOntologyIRI().toOpenRDFURI();
+                
+                // Map uploading user as Project Administrator for each artifact so that they can
+                // edit it and assign permissions to it in the future
+                realm.map(user, PoddRoles.PROJECT_ADMIN.getRole(), artifactUri);
+                realm.map(user, PoddRoles.PROJECT_PRINCIPAL_INVESTIGATOR.getRole(), artifactUri);
+                
+                resultNode = artifactUri;
+                model.add(artifactUri, RDF.TYPE, OWL.ONTOLOGY);
+                model.add(artifactUri, OWL.VERSIONIRI, artifactId.getVersionIRI().toOpenRDFURI());
+                
+                final InferenceJob job = artifactManager.getInferenceJob(artifactId);
+                if(job != null)
+                {
+                    model.add(artifactId.getVersionIRI().toOpenRDFURI(), PODD.PODD_BASE_INFERENCE_STATUS,
+                            PODD.VF.createLiteral(job.getStatus().name()));
+                }
+            }
+            else
+            {
+                resultNode = PODD.VF.createBNode();
+                model.add(resultNode, RDFS.COMMENT, PODD.VF.createLiteral(String.valueOf(nextResult.getFailure()
+                        .getMessage())));
+            }
+            model.add(resultNode, PODD.PODD_BASE_BULK_LOAD_INDEX, PODD.VF.createLiteral(nextResult.getIndex()));
+            model.add(resultNode, RDFS.LABEL, PODD.VF.createLiteral(files.get(nextResult.getIndex()).getName()));
+        }
+        
+        this.log.info("Bulk uploaded {} artifacts", results.size());
+        
+        final RDFFormat outputFormat =
+                Rio.getWriterFormatForMIMEType(variant.getMediaType().getName(), RDFFormat.RDFXML);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(8096);
+        try
+        {
+            Rio.write(model, output, outputFormat);
+        }
+        catch(final RDFHandlerException e)
+        {
+            throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Could not create response", e);
+        }
+        
+        return new ByteArrayRepresentation(output.toByteArray(), MediaType.valueOf(outputFormat.getDefaultMIMEType()));
+    }
+}
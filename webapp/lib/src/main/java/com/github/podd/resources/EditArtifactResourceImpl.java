@@ -55,6 +55,7 @@ import com.github.podd.exception.UnmanagedSchemaIRIException;
 import com.github.podd.restlet.PoddAction;
 import com.github.podd.restlet.RestletUtils;
 import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.OntologyUtils;
 import com.github.podd.utils.PODD;
 import com.github.podd.utils.PoddObjectLabel;
 import com.github.podd.utils.PoddWebConstants;
@@ -164,6 +165,11 @@ public class EditArtifactResourceImpl extends AbstractPoddResourceImpl
             // empty OWL Ontology
             // - write the artifact ID into response
             Rio.write(model, output, outputFormat);
+            
+            for(final InferredOWLOntologyID nextArtifactId : OntologyUtils.modelToOntologyIDs(model))
+            {
+                this.setAcceptedIfInferencePending(nextArtifactId);
+            }
         }
         catch(final UnmanagedArtifactVersionException e)
         {
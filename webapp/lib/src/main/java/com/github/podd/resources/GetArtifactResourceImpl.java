@@ -16,20 +16,18 @@
  */
 package com.github.podd.resources;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Collections;
+import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.openrdf.OpenRDFException;
-import org.openrdf.model.Model;
 import org.openrdf.model.URI;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.UnsupportedRDFormatException;
 import org.restlet.data.MediaType;
 import org.restlet.data.Status;
-import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Get;
@@ -37,16 +35,21 @@ import org.restlet.resource.ResourceException;
 import org.restlet.security.User;
 import org.semanticweb.owlapi.model.IRI;
 
+import com.github.podd.api.ChildObjectOrder;
 import com.github.podd.exception.PoddException;
+import com.github.podd.exception.PoddRuntimeException;
 import com.github.podd.exception.SchemaManifestException;
 import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.exception.UnmanagedArtifactVersionException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
 import com.github.podd.restlet.PoddAction;
+import com.github.podd.restlet.PoddStreamingRepresentation;
 import com.github.podd.restlet.RestletUtils;
 import com.github.podd.utils.FreemarkerUtil;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddChildObjectPage;
+import com.github.podd.utils.PoddObjectDisplayBundle;
 import com.github.podd.utils.PoddObjectLabel;
 import com.github.podd.utils.PoddWebConstants;
 
@@ -183,8 +186,8 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
         
         this.log.debug("getArtifactRdf");
         
-        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        
+        final InferredOWLOntologyID ontologyID;
+        final boolean includeInferred;
         try
         {
             final String artifactString = this.getQuery().getFirstValue(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, true);
@@ -207,7 +210,6 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
             final User user = this.getRequest().getClientInfo().getUser();
             this.log.debug("authenticated user: {}", user);
             
-            InferredOWLOntologyID ontologyID = null;
             if(versionString == null)
             {
                 ontologyID = this.getPoddArtifactManager().getArtifact(IRI.create(artifactString));
@@ -222,23 +224,38 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
             final String includeInferredString =
                     this.getRequest().getResourceRef().getQueryAsForm()
                             .getFirstValue(PoddWebConstants.KEY_INCLUDE_INFERRED, true);
-            final boolean includeInferred = Boolean.valueOf(includeInferredString);
+            includeInferred = Boolean.valueOf(includeInferredString);
+            
+            if(ontologyID == null)
+            {
+                throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND, "Could not find the given artifact");
+            }
             
-            this.getPoddApplication()
-                    .getPoddArtifactManager()
-                    .exportArtifact(ontologyID, stream,
-                            RDFFormat.forMIMEType(variant.getMediaType().getName(), RDFFormat.RDFJSON), includeInferred);
+            // Errors after the response has started can no longer change its status, so check that
+            // the version can be exported first
+            this.getPoddArtifactManager().checkArtifactExport(ontologyID, includeInferred);
         }
-        catch(final UnmanagedArtifactIRIException e)
+        catch(final UnmanagedArtifactIRIException | UnmanagedArtifactVersionException e)
         {
             throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND, "Could not find the given artifact", e);
         }
-        catch(OpenRDFException | PoddException | IOException e)
+        catch(OpenRDFException | PoddException | IOException | PoddRuntimeException e)
         {
             throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Failed to export artifact", e);
         }
         
-        return new ByteArrayRepresentation(stream.toByteArray());
+        // The artifact is streamed from the repository as the response is written
+        final RDFFormat format = RDFFormat.forMIMEType(variant.getMediaType().getName(), RDFFormat.RDFJSON);
+        return new PoddStreamingRepresentation(format)
+            {
+                @Override
+                protected void writeTo(final OutputStream outputStream) throws OpenRDFException, PoddException,
+                    IOException
+                {
+                    GetArtifactResourceImpl.this.getPoddArtifactManager().exportArtifact(ontologyID, outputStream,
+                            format, includeInferred);
+                }
+            };
     }
     
     /**
@@ -270,19 +287,41 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
         UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, ResourceException
     {
         
-        final PoddObjectLabel theObject =
-                RestletUtils.getParentDetails(this.getPoddArtifactManager(), ontologyID, objectToView);
+        URI objectToViewUri = null;
+        if(objectToView != null && !objectToView.trim().isEmpty())
+        {
+            objectToViewUri = PODD.VF.createURI(objectToView);
+        }
+        
+        final PoddObjectDisplayBundle displayBundle =
+                this.getPoddArtifactManager().getObjectDisplayBundle(ontologyID, objectToViewUri);
+        if(displayBundle == null)
+        {
+            throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "There should be only 1 top object");
+        }
+        
         // set title & description of object to display
-        dataModel.put("poddObject", theObject);
-        final URI objectUri = theObject.getObjectURI();
+        dataModel.put("poddObject", displayBundle.getObject());
         
-        final Map<String, String> parentMap =
-                RestletUtils.populateParentDetails(this.getPoddArtifactManager(), ontologyID, objectUri);
+        final Map<String, String> parentMap = new HashMap<>();
+        if(displayBundle.getParent() != null)
+        {
+            parentMap.put("uri", displayBundle.getParent().getObjectURI().stringValue());
+            parentMap.put("label", displayBundle.getParent().getLabel());
+            
+            String parentType = "Unknown Type";
+            if(displayBundle.getParentType() != null)
+            {
+                parentType = displayBundle.getParentType().getLabel();
+            }
+            parentMap.put("type", parentType);
+            parentMap.put("relationship", displayBundle.getParentRelationship().getLabel());
+        }
         dataModel.put("parentObject", parentMap);
         
         // find the object's type
-        final List<PoddObjectLabel> objectTypes = this.getPoddArtifactManager().getObjectTypes(ontologyID, objectUri);
-        if(objectTypes == null || objectTypes.isEmpty())
+        final List<PoddObjectLabel> objectTypes = displayBundle.getObjectTypes();
+        if(objectTypes.isEmpty())
         {
             throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Could not determine type of object");
         }
@@ -295,20 +334,11 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
             dataModel.put("isProject", true);
         }
         
-        // populate the properties of the object
-        final List<URI> orderedProperties =
-                this.getPoddArtifactManager().getOrderedProperties(ontologyID, objectUri, false);
-        
-        final Model allNeededStatementsForDisplay =
-                this.getPoddArtifactManager().getObjectDetailsForDisplay(ontologyID, objectUri);
-        
         dataModel.put("artifactUri", ontologyID.getOntologyIRI().toOpenRDFURI());
         dataModel.put("versionIri", ontologyID.getVersionIRI().toOpenRDFURI());
-        dataModel.put("propertyList", orderedProperties);
-        dataModel.put("completeModel", allNeededStatementsForDisplay);
-        
-        final int childrenCount = this.getPoddArtifactManager().getChildObjects(ontologyID, objectUri).size();
-        dataModel.put("childCount", childrenCount);
+        dataModel.put("propertyList", displayBundle.getOrderedProperties());
+        dataModel.put("completeModel", displayBundle.getDisplayModel());
+        dataModel.put("childCount", displayBundle.getChildCount());
         
         if(!isPublished
                 && this.checkAuthentication(PoddAction.ARTIFACT_EDIT, ontologyID.getOntologyIRI().toOpenRDFURI(), false))
@@ -339,7 +369,35 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
         }
         
         dataModel.put("selectedObjectCount", 0);
-        dataModel.put("childHierarchyList", Collections.emptyList());
+        
+        // Only the requested page of children is fetched, as there may be many thousands of them
+        final String childOrderString = this.getQuery().getFirstValue(PoddWebConstants.KEY_CHILD_ORDER, true);
+        ChildObjectOrder childOrder = ChildObjectOrder.WEIGHT;
+        if(PoddWebConstants.CHILD_ORDER_LABEL.equalsIgnoreCase(childOrderString))
+        {
+            childOrder = ChildObjectOrder.LABEL;
+        }
+        final String childCursor = this.getQuery().getFirstValue(PoddWebConstants.KEY_CHILD_CURSOR, true);
+        
+        final PoddChildObjectPage childPage;
+        try
+        {
+            childPage =
+                    this.getPoddArtifactManager().getChildObjects(ontologyID,
+                            displayBundle.getObject().getObjectURI(), childOrder, childCursor,
+                            PoddWebConstants.DEFAULT_CHILD_PAGE_SIZE);
+        }
+        catch(final IllegalArgumentException e)
+        {
+            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Invalid child object cursor", e);
+        }
+        dataModel.put("childHierarchyList", childPage.getChildren());
+        dataModel.put("childHierarchyOrder", childOrder == ChildObjectOrder.LABEL ? PoddWebConstants.CHILD_ORDER_LABEL
+                : PoddWebConstants.CHILD_ORDER_WEIGHT);
+        if(childPage.hasNext())
+        {
+            dataModel.put("childHierarchyNextCursor", childPage.getNextCursor());
+        }
         
         dataModel.put("util", new FreemarkerUtil());
         
@@ -16,15 +16,14 @@
  */
 package com.github.podd.resources;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.Rio;
 import org.restlet.data.MediaType;
 import org.restlet.data.Status;
-import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Get;
@@ -36,6 +35,7 @@ import com.github.podd.api.MetadataPolicy;
 import com.github.podd.exception.PoddException;
 import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.restlet.PoddAction;
+import com.github.podd.restlet.PoddStreamingRepresentation;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.PODD;
 import com.github.podd.utils.PoddWebConstants;
@@ -101,30 +101,42 @@ public class GetMetadataResourceImpl extends AbstractPoddResourceImpl
         final User user = this.getRequest().getClientInfo().getUser();
         this.log.info("authenticated user: {}", user);
         
-        final ByteArrayOutputStream output = new ByteArrayOutputStream();
-        final RDFFormat format = Rio.getWriterFormatForMIMEType(variant.getMediaType().getName(), RDFFormat.TURTLE);
+        final InferredOWLOntologyID artifactID;
         try
         {
-            InferredOWLOntologyID artifactID = null;
             if(artifactUri != null)
             {
                 artifactID = this.getPoddArtifactManager().getArtifact(IRI.create(artifactUri));
             }
-            this.log.info("artifactID: {}", artifactID);
-            this.log.info("objectType: {}", objectType);
-            this.getPoddArtifactManager().exportObjectMetadata(PODD.VF.createURI(objectType), output, format,
-                    includeDoNotDisplayProperties, containsPropertyPolicy, artifactID);
+            else
+            {
+                artifactID = null;
+            }
         }
         catch(final UnmanagedArtifactIRIException e)
         {
             throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND, "Could not find the given artifact", e);
         }
-        catch(OpenRDFException | IOException | PoddException e)
+        catch(final PoddException e)
         {
             throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Could not generate object metadata", e);
         }
+        this.log.info("artifactID: {}", artifactID);
+        this.log.info("objectType: {}", objectType);
         
-        return new ByteArrayRepresentation(output.toByteArray(), MediaType.valueOf(format.getDefaultMIMEType()));
+        final RDFFormat format = Rio.getWriterFormatForMIMEType(variant.getMediaType().getName(), RDFFormat.TURTLE);
+        final MetadataPolicy metadataPolicy = containsPropertyPolicy;
+        return new PoddStreamingRepresentation(MediaType.valueOf(format.getDefaultMIMEType()))
+            {
+                @Override
+                protected void writeTo(final OutputStream outputStream) throws OpenRDFException, PoddException,
+                    IOException
+                {
+                    GetMetadataResourceImpl.this.getPoddArtifactManager().exportObjectMetadata(
+                            PODD.VF.createURI(objectType), outputStream, format, includeDoNotDisplayProperties,
+                            metadataPolicy, artifactID);
+                }
+            };
     }
     
 }
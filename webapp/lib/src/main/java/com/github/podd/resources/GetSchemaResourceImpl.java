@@ -16,13 +16,13 @@
  */
 package com.github.podd.resources;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.Rio;
 import org.restlet.data.Status;
-import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Get;
@@ -33,6 +33,7 @@ import org.semanticweb.owlapi.model.OWLOntologyID;
 import com.github.podd.exception.PoddException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
 import com.github.podd.exception.UnmanagedSchemaOntologyIDException;
+import com.github.podd.restlet.PoddStreamingRepresentation;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.PoddWebConstants;
 
@@ -114,12 +115,19 @@ public class GetSchemaResourceImpl extends AbstractPoddResourceImpl
                             .getFirstValue(PoddWebConstants.KEY_INCLUDE_INFERRED, true);
             final boolean includeInferred = Boolean.valueOf(includeInferredString);
             
-            final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-            this.getPoddSchemaManager()
-                    .downloadSchemaOntology(ontologyID, stream,
-                            Rio.getWriterFormatForMIMEType(variant.getMediaType().getName(), RDFFormat.RDFXML),
-                            includeInferred);
-            return new ByteArrayRepresentation(stream.toByteArray());
+            final InferredOWLOntologyID schemaID = ontologyID;
+            final RDFFormat format =
+                    Rio.getWriterFormatForMIMEType(variant.getMediaType().getName(), RDFFormat.RDFXML);
+            return new PoddStreamingRepresentation(format)
+                {
+                    @Override
+                    protected void writeTo(final OutputStream outputStream) throws OpenRDFException, PoddException,
+                        IOException
+                    {
+                        GetSchemaResourceImpl.this.getPoddSchemaManager().downloadSchemaOntology(schemaID,
+                                outputStream, format, includeInferred);
+                    }
+                };
         }
         catch(final UnmanagedSchemaIRIException e)
         {
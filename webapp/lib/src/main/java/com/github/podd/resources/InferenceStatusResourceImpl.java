@@ -0,0 +1,111 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.resources;
+
+import java.io.ByteArrayOutputStream;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.Rio;
+import org.restlet.data.MediaType;
+import org.restlet.data.Status;
+import org.restlet.representation.ByteArrayRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.representation.Variant;
+import org.restlet.resource.Get;
+import org.restlet.resource.ResourceException;
+import org.semanticweb.owlapi.model.IRI;
+
+import com.github.podd.exception.UnmanagedSchemaException;
+import com.github.podd.restlet.PoddAction;
+import com.github.podd.utils.InferenceJob;
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddWebConstants;
+
+/**
+ * Reports the status of the background inference job for an artifact version that was uploaded or
+ * edited while asynchronous inferencing was enabled.
+ */
+public class InferenceStatusResourceImpl extends AbstractPoddResourceImpl
+{
+    @Get(":rdf|rj|json|ttl")
+    public Representation getInferenceStatusRdf(final Variant variant) throws ResourceException
+    {
+        final String artifactUri = this.getQuery().getFirstValue(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, true);
+        if(artifactUri == null)
+        {
+            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Artifact IRI not submitted");
+        }
+        
+        final String versionUri = this.getQuery().getFirstValue(PoddWebConstants.KEY_ARTIFACT_VERSION_IDENTIFIER, true);
+        if(versionUri == null)
+        {
+            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Artifact Version IRI not submitted");
+        }
+        
+        this.checkAuthentication(PoddAction.UNPUBLISHED_ARTIFACT_READ, PODD.VF.createURI(artifactUri));
+        
+        InferredOWLOntologyID artifactId;
+        try
+        {
+            artifactId = this.getPoddArtifactManager().getArtifact(IRI.create(artifactUri), IRI.create(versionUri));
+        }
+        catch(final UnmanagedSchemaException e)
+        {
+            throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND, "Could not find the given artifact", e);
+        }
+        
+        final InferenceJob job = this.getPoddArtifactManager().getInferenceJob(artifactId);
+        if(job == null)
+        {
+            throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND,
+                    "Could not find an inference job for the given artifact version");
+        }
+        
+        final URI versionIRI = artifactId.getVersionIRI().toOpenRDFURI();
+        final Model model = new LinkedHashModel();
+        model.add(versionIRI, PODD.PODD_BASE_INFERENCE_STATUS, PODD.VF.createLiteral(job.getStatus().name()));
+        if(job.getMessage() != null)
+        {
+            model.add(versionIRI, RDFS.COMMENT, PODD.VF.createLiteral(job.getMessage()));
+        }
+        if(artifactId.getInferredOntologyIRI() != null)
+        {
+            model.add(versionIRI, PODD.PODD_BASE_INFERRED_VERSION, artifactId.getInferredOntologyIRI()
+                    .toOpenRDFURI());
+        }
+        
+        final RDFFormat outputFormat =
+                Rio.getWriterFormatForMIMEType(variant.getMediaType().getName(), RDFFormat.RDFXML);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(1024);
+        try
+        {
+            Rio.write(model, output, outputFormat);
+        }
+        catch(final RDFHandlerException e)
+        {
+            throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Could not create response", e);
+        }
+        
+        return new ByteArrayRepresentation(output.toByteArray(), MediaType.valueOf(outputFormat.getDefaultMIMEType()));
+    }
+}
@@ -16,8 +16,8 @@
  */
 package com.github.podd.resources;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -27,14 +27,12 @@ import java.util.Map.Entry;
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
 import org.openrdf.model.impl.LinkedHashModel;
-import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.Rio;
 import org.openrdf.rio.UnsupportedRDFormatException;
 import org.restlet.data.MediaType;
 import org.restlet.data.Status;
-import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Get;
@@ -45,6 +43,7 @@ import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.exception.UnmanagedArtifactVersionException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
 import com.github.podd.restlet.PoddAction;
+import com.github.podd.restlet.PoddStreamingRepresentation;
 import com.github.podd.restlet.RestletUtils;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.OntologyUtils;
@@ -66,6 +65,98 @@ public class ListArtifactsResourceImpl extends AbstractPoddResourceImpl
 {
     public static final String LIST_PAGE_TITLE_TEXT = "PODD Artifact Listing";
     
+    /**
+     * The smallest number of artifacts to fetch at a time when filtering a page of readable
+     * artifacts.
+     */
+    private static final int MIN_BATCH_SIZE = 50;
+    
+    /**
+     * Parses an optional, non-negative integer query parameter used for paging.
+     * 
+     * @param key
+     *            The query parameter name.
+     * @param defaultValue
+     *            The value to use if the parameter is not present.
+     * @return The value of the parameter.
+     * @throws ResourceException
+     *             If the parameter is not a non-negative integer.
+     */
+    private int getPagingParameter(final String key, final int defaultValue) throws ResourceException
+    {
+        final String value = this.getQuery().getFirstValue(key, true);
+        
+        if(value == null || value.trim().isEmpty())
+        {
+            return defaultValue;
+        }
+        
+        try
+        {
+            final int result = Integer.parseInt(value.trim());
+            if(result < 0)
+            {
+                throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Negative value for " + key);
+            }
+            return result;
+        }
+        catch(final NumberFormatException e)
+        {
+            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Invalid value for " + key, e);
+        }
+    }
+    
+    /**
+     * Finds a page of the published or unpublished artifacts that the current user can read. The
+     * limit and offset count readable artifacts, so the artifacts are fetched in batches and
+     * filtered until the page is full.
+     * 
+     * @param limit
+     *            The maximum number of artifacts to return, or 0 for no limit.
+     * @param offset
+     *            The number of readable artifacts to skip.
+     */
+    private List<InferredOWLOntologyID> listReadableArtifacts(final boolean published, final int limit,
+            final int offset) throws OpenRDFException
+    {
+        final PoddAction readAction =
+                published ? PoddAction.PUBLISHED_ARTIFACT_READ : PoddAction.UNPUBLISHED_ARTIFACT_READ;
+        // Fetch at least enough for the whole page each time, or everything if there is no limit
+        final int batchSize = limit > 0 ? Math.max(limit + offset, ListArtifactsResourceImpl.MIN_BATCH_SIZE) : 0;
+        
+        final List<InferredOWLOntologyID> results = new ArrayList<InferredOWLOntologyID>();
+        int skipped = 0;
+        int batchOffset = 0;
+        while(true)
+        {
+            final List<InferredOWLOntologyID> nextBatch =
+                    published ? this.getPoddArtifactManager().listPublishedArtifacts(batchSize, batchOffset) : this
+                            .getPoddArtifactManager().listUnpublishedArtifacts(batchSize, batchOffset);
+            
+            for(final InferredOWLOntologyID nextArtifact : this.checkAuthentication(readAction, nextBatch))
+            {
+                if(skipped < offset)
+                {
+                    skipped++;
+                }
+                else
+                {
+                    results.add(nextArtifact);
+                    if(limit > 0 && results.size() == limit)
+                    {
+                        return results;
+                    }
+                }
+            }
+            
+            if(batchSize == 0 || nextBatch.size() < batchSize)
+            {
+                return results;
+            }
+            batchOffset += batchSize;
+        }
+    }
+    
     private Map<String, List<InferredOWLOntologyID>> getArtifactsInternal() throws ResourceException
     {
         final Map<String, List<InferredOWLOntologyID>> results = new HashMap<String, List<InferredOWLOntologyID>>();
@@ -120,26 +211,16 @@ public class ListArtifactsResourceImpl extends AbstractPoddResourceImpl
                     "Both published and unpublished artifacts were disabled in query");
         }
         
+        // Paging is applied separately to the readable published and unpublished artifacts, with 0
+        // meaning no limit
+        final int limit = this.getPagingParameter(PoddWebConstants.KEY_LIMIT, 0);
+        final int offset = this.getPagingParameter(PoddWebConstants.KEY_OFFSET, 0);
+        
         try
         {
             if(published)
             {
-                final List<InferredOWLOntologyID> publishedResults = new ArrayList<InferredOWLOntologyID>();
-                
-                final List<InferredOWLOntologyID> publishedArtifacts =
-                        this.getPoddArtifactManager().listPublishedArtifacts();
-                
-                for(final InferredOWLOntologyID nextPublishedArtifact : publishedArtifacts)
-                {
-                    if(this.checkAuthentication(PoddAction.PUBLISHED_ARTIFACT_READ, nextPublishedArtifact
-                            .getOntologyIRI().toOpenRDFURI(), false))
-                    {
-                        // If the authentication succeeded add the artifact
-                        publishedResults.add(nextPublishedArtifact);
-                    }
-                }
-                
-                results.put(PoddWebConstants.KEY_PUBLISHED, publishedArtifacts);
+                results.put(PoddWebConstants.KEY_PUBLISHED, this.listReadableArtifacts(true, limit, offset));
             }
             
             if(unpublished && this.checkAuthentication(PoddAction.UNPUBLISHED_ARTIFACT_LIST, null, false))
@@ -148,30 +229,7 @@ public class ListArtifactsResourceImpl extends AbstractPoddResourceImpl
                 this.log.debug("Is authenticated: {}", this.getRequest().getClientInfo().isAuthenticated());
                 this.log.debug("Current user: {}", this.getRequest().getClientInfo().getUser());
                 
-                final List<InferredOWLOntologyID> unpublishedResults = new ArrayList<InferredOWLOntologyID>();
-                
-                final List<InferredOWLOntologyID> unpublishedArtifacts =
-                        this.getPoddArtifactManager().listUnpublishedArtifacts();
-                
-                for(final InferredOWLOntologyID nextUnpublishedArtifact : unpublishedArtifacts)
-                {
-                    try
-                    {
-                        if(this.checkAuthentication(PoddAction.UNPUBLISHED_ARTIFACT_READ, nextUnpublishedArtifact
-                                .getOntologyIRI().toOpenRDFURI(), false))
-                        {
-                            // If the authentication succeeded add the artifact
-                            unpublishedResults.add(nextUnpublishedArtifact);
-                        }
-                    }
-                    catch(final ResourceException e)
-                    {
-                        // Ignore this as it should not happen with the
-                        // throwExceptionOnFailure
-                        // parameter set to false.
-                    }
-                }
-                results.put(PoddWebConstants.KEY_UNPUBLISHED, unpublishedResults);
+                results.put(PoddWebConstants.KEY_UNPUBLISHED, this.listReadableArtifacts(false, limit, offset));
             }
         }
         catch(final OpenRDFException e)
@@ -259,7 +317,6 @@ public class ListArtifactsResourceImpl extends AbstractPoddResourceImpl
         
         final MediaType resultMediaType = MediaType.valueOf(resultFormat.getDefaultMIMEType());
         
-        final ByteArrayOutputStream out = new ByteArrayOutputStream(8096);
         final Model model = new LinkedHashModel();
         
         try
@@ -268,25 +325,17 @@ public class ListArtifactsResourceImpl extends AbstractPoddResourceImpl
             {
                 OntologyUtils.ontologyIDsToModel(nextArtifacts, model);
                 
-                final List<PoddObjectLabel> results = this.getPoddArtifactManager().getTopObjectLabels(nextArtifacts);
+                // Adds the types of the top objects, and their labels, directly to the model
+                final List<PoddObjectLabel> results =
+                        this.getPoddArtifactManager().getTopObjectLabels(nextArtifacts, model);
                 
                 for(final PoddObjectLabel nextResult : results)
                 {
                     model.add(nextResult.getOntologyID().getOntologyIRI().toOpenRDFURI(),
                             PODD.PODD_BASE_HAS_TOP_OBJECT, nextResult.getObjectURI());
                     model.add(nextResult.getObjectURI(), RDFS.LABEL, nextResult.getLabelLiteral());
-                    
-                    final List<PoddObjectLabel> typesList =
-                            this.getPoddArtifactManager().getObjectTypes(nextResult.getOntologyID(),
-                                    nextResult.getObjectURI());
-                    for(final PoddObjectLabel objectType : typesList)
-                    {
-                        model.add(nextResult.getObjectURI(), RDF.TYPE, objectType.getObjectURI());
-                        model.add(objectType.getObjectURI(), RDFS.LABEL, objectType.getLabelLiteral());
-                    }
                 }
             }
-            Rio.write(model, out, resultFormat);
         }
         catch(final OpenRDFException | UnmanagedSchemaIRIException | SchemaManifestException
                 | UnsupportedRDFormatException | IOException | UnmanagedArtifactIRIException
@@ -296,10 +345,13 @@ public class ListArtifactsResourceImpl extends AbstractPoddResourceImpl
                     "Could not generate RDF output due to an exception", e);
         }
         
-        // this.log.info(new String(out.toByteArray(), StandardCharsets.UTF_8));
-        
-        final ByteArrayRepresentation result = new ByteArrayRepresentation(out.toByteArray(), resultMediaType);
-        
-        return result;
+        return new PoddStreamingRepresentation(resultMediaType)
+            {
+                @Override
+                protected void writeTo(final OutputStream outputStream) throws OpenRDFException
+                {
+                    Rio.write(model, outputStream, resultFormat);
+                }
+            };
     }
 }
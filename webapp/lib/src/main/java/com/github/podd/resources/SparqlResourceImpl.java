@@ -16,8 +16,8 @@
  */
 package com.github.podd.resources;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -42,7 +42,6 @@ import org.openrdf.rio.helpers.StatementCollector;
 import org.restlet.data.MediaType;
 import org.restlet.data.Status;
 import org.restlet.ext.html.FormDataSet;
-import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Get;
@@ -57,6 +56,7 @@ import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.exception.UnmanagedArtifactVersionException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
 import com.github.podd.restlet.PoddAction;
+import com.github.podd.restlet.PoddStreamingRepresentation;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.PoddWebConstants;
 
@@ -226,33 +226,11 @@ public class SparqlResourceImpl extends AbstractPoddResourceImpl
         {
             final List<InferredOWLOntologyID> unpublishedArtifacts =
                     this.getPoddArtifactManager().listUnpublishedArtifacts();
-            
-            for(final InferredOWLOntologyID unpublishedArtifact : unpublishedArtifacts)
-            {
-                final boolean checkAuthentication =
-                        this.checkAuthentication(PoddAction.UNPUBLISHED_ARTIFACT_READ, unpublishedArtifact
-                                .getOntologyIRI().toOpenRDFURI(), false);
-                
-                if(checkAuthentication)
-                {
-                    artifactIds.add(unpublishedArtifact);
-                }
-            }
+            artifactIds.addAll(this.checkAuthentication(PoddAction.UNPUBLISHED_ARTIFACT_READ, unpublishedArtifacts));
             
             final List<InferredOWLOntologyID> publishedArtifacts =
                     this.getPoddArtifactManager().listPublishedArtifacts();
-            
-            for(final InferredOWLOntologyID publishedArtifact : publishedArtifacts)
-            {
-                final boolean checkAuthentication =
-                        this.checkAuthentication(PoddAction.PUBLISHED_ARTIFACT_READ, publishedArtifact.getOntologyIRI()
-                                .toOpenRDFURI(), false);
-                
-                if(checkAuthentication)
-                {
-                    artifactIds.add(publishedArtifact);
-                }
-            }
+            artifactIds.addAll(this.checkAuthentication(PoddAction.PUBLISHED_ARTIFACT_READ, publishedArtifacts));
         }
         else
         {
@@ -435,21 +413,16 @@ public class SparqlResourceImpl extends AbstractPoddResourceImpl
             }
         }
         
-        // container for results
-        final ByteArrayOutputStream output = new ByteArrayOutputStream(8096);
-        
         final RDFFormat resultFormat =
                 Rio.getWriterFormatForMIMEType(variant.getMediaType().getName(), RDFFormat.RDFXML);
-        // - prepare response
-        try
-        {
-            Rio.write(results, output, resultFormat);
-        }
-        catch(final OpenRDFException e)
-        {
-            throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Error while preparing response", e);
-        }
-        
-        return new ByteArrayRepresentation(output.toByteArray(), MediaType.valueOf(resultFormat.getDefaultMIMEType()));
+        // - prepare response, the results are merged across artifacts above, so only the serialisation is streamed
+        return new PoddStreamingRepresentation(MediaType.valueOf(resultFormat.getDefaultMIMEType()))
+            {
+                @Override
+                protected void writeTo(final OutputStream outputStream) throws OpenRDFException
+                {
+                    Rio.write(results, outputStream, resultFormat);
+                }
+            };
     }
 }
@@ -196,6 +196,8 @@ public class UploadArtifactResourceImpl extends AbstractPoddResourceImpl
         realm.map(this.getRequest().getClientInfo().getUser(), PoddRoles.PROJECT_PRINCIPAL_INVESTIGATOR.getRole(),
                 artifactMap.getOntologyIRI().toOpenRDFURI());
         
+        this.setAcceptedIfInferencePending(artifactMap);
+        
         return artifactMap;
     }
     
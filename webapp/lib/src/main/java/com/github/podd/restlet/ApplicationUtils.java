@@ -27,12 +27,18 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
@@ -70,6 +76,7 @@ import org.slf4j.LoggerFactory;
 
 import com.github.ansell.propertyutil.PropertyUtil;
 import com.github.ansell.restletutils.FixedRedirectCookieAuthenticator;
+import com.github.podd.api.InferencePolicy;
 import com.github.podd.api.PoddArtifactManager;
 import com.github.podd.api.PoddOWLManager;
 import com.github.podd.api.PoddSchemaManager;
@@ -85,6 +92,8 @@ import com.github.podd.impl.PoddOWLManagerImpl;
 import com.github.podd.impl.PoddRepositoryManagerImpl;
 import com.github.podd.impl.PoddSchemaManagerImpl;
 import com.github.podd.impl.PoddSesameManagerImpl;
+import com.github.podd.impl.PoddStatisticsLogger;
+import com.github.podd.impl.PoddVersionDeltaCompactor;
 import com.github.podd.impl.data.DataReferenceManagerImpl;
 import com.github.podd.impl.data.PoddDataRepositoryManagerImpl;
 import com.github.podd.impl.purl.PoddPurlManagerImpl;
@@ -358,6 +367,35 @@ public class ApplicationUtils
         final PoddDataRepositoryManager nextDataRepositoryManager = new PoddDataRepositoryManagerImpl();
         nextDataRepositoryManager.setRepositoryManager(application.getPoddRepositoryManager());
         nextDataRepositoryManager.setOWLManager(nextOWLManager);
+        nextDataRepositoryManager.setVerificationConcurrency(Integer.parseInt(props.get(
+                PoddWebConstants.PROPERTY_DATA_REFERENCE_VERIFICATION_CONCURRENCY,
+                PoddWebConstants.DEFAULT_DATA_REFERENCE_VERIFICATION_CONCURRENCY)));
+        nextDataRepositoryManager.setVerificationTimeout(Long.parseLong(props.get(
+                PoddWebConstants.PROPERTY_DATA_REFERENCE_VERIFICATION_TIMEOUT,
+                PoddWebConstants.DEFAULT_DATA_REFERENCE_VERIFICATION_TIMEOUT)), TimeUnit.SECONDS);
+        final int verificationThreads =
+                Integer.parseInt(props.get(PoddWebConstants.PROPERTY_DATA_REFERENCE_VERIFICATION_THREADS,
+                        PoddWebConstants.DEFAULT_DATA_REFERENCE_VERIFICATION_THREADS));
+        if(verificationThreads > 0)
+        {
+            // Idle threads time out, as verification only happens while artifacts are uploaded
+            final ThreadPoolExecutor verificationExecutor =
+                    new ThreadPoolExecutor(verificationThreads, verificationThreads, 60L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+                                {
+                                    @Override
+                                    public Thread newThread(final Runnable r)
+                                    {
+                                        final Thread thread = new Thread(r, "podd-data-reference-verification");
+                                        thread.setDaemon(true);
+                                        return thread;
+                                    }
+                                });
+            verificationExecutor.allowCoreThreadTimeOut(true);
+            nextDataRepositoryManager.setVerificationExecutor(verificationExecutor);
+            application.addExecutor(verificationExecutor);
+        }
+        
         try
         {
             // TODO: Configure data repositories in a cleaner manner than this
@@ -386,6 +424,61 @@ public class ApplicationUtils
         application.getPoddArtifactManager().setOwlManager(nextOWLManager);
         application.getPoddArtifactManager().setSchemaManager(application.getPoddSchemaManager());
         application.getPoddArtifactManager().setSesameManager(poddSesameManager);
+        application.getPoddArtifactManager().setInferencePolicy(
+                InferencePolicy.valueOf(props.get(PoddWebConstants.PROPERTY_INFERENCE_POLICY,
+                        PoddWebConstants.DEFAULT_INFERENCE_POLICY)));
+        
+        if(Boolean.parseBoolean(props.get(PoddWebConstants.PROPERTY_INFERENCE_ASYNCHRONOUS,
+                PoddWebConstants.DEFAULT_INFERENCE_ASYNCHRONOUS)))
+        {
+            final int inferenceThreads =
+                    Integer.parseInt(props.get(PoddWebConstants.PROPERTY_INFERENCE_THREADS,
+                            PoddWebConstants.DEFAULT_INFERENCE_THREADS));
+            final int inferenceQueueSize =
+                    Integer.parseInt(props.get(PoddWebConstants.PROPERTY_INFERENCE_QUEUE_SIZE,
+                            PoddWebConstants.DEFAULT_INFERENCE_QUEUE_SIZE));
+            // When the queue is full, inferences are computed on the request thread, which slows
+            // down clients instead of failing the job
+            final ThreadPoolExecutor inferenceExecutor =
+                    new ThreadPoolExecutor(inferenceThreads, inferenceThreads, 0L, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<Runnable>(inferenceQueueSize), new ThreadFactory()
+                                {
+                                    @Override
+                                    public Thread newThread(final Runnable r)
+                                    {
+                                        final Thread thread = new Thread(r, "podd-inference");
+                                        thread.setDaemon(true);
+                                        return thread;
+                                    }
+                                }, new ThreadPoolExecutor.CallerRunsPolicy());
+            application.getPoddArtifactManager().setInferenceExecutor(inferenceExecutor);
+            application.addExecutor(inferenceExecutor);
+            application.getPoddArtifactManager().setAsynchronousInferences(true);
+        }
+        
+        if(Boolean.parseBoolean(props.get(PoddWebConstants.PROPERTY_DELTA_VERSION_STORAGE,
+                PoddWebConstants.DEFAULT_DELTA_VERSION_STORAGE)))
+        {
+            application.getPoddArtifactManager().setDeltaVersionStorage(true);
+            
+            final long compactionInterval =
+                    Long.parseLong(props.get(PoddWebConstants.PROPERTY_DELTA_COMPACTION_INTERVAL,
+                            PoddWebConstants.DEFAULT_DELTA_COMPACTION_INTERVAL));
+            final int maxChainLength =
+                    Integer.parseInt(props.get(PoddWebConstants.PROPERTY_DELTA_MAX_CHAIN_LENGTH,
+                            PoddWebConstants.DEFAULT_DELTA_MAX_CHAIN_LENGTH));
+            application.addExecutor(PoddVersionDeltaCompactor.schedule(application.getPoddArtifactManager(),
+                    maxChainLength, compactionInterval, TimeUnit.SECONDS));
+        }
+        
+        final long statisticsInterval =
+                Long.parseLong(props.get(PoddWebConstants.PROPERTY_STATISTICS_LOG_INTERVAL,
+                        PoddWebConstants.DEFAULT_STATISTICS_LOG_INTERVAL));
+        if(statisticsInterval > 0)
+        {
+            application.addExecutor(PoddStatisticsLogger.schedule(application.getPoddRepositoryManager(),
+                    statisticsInterval, TimeUnit.SECONDS));
+        }
         
         ApplicationUtils.setupSchemas(application);
         
@@ -396,6 +489,10 @@ public class ApplicationUtils
         // FIXME: Make this configurable
         nextRealm.setName("PODDRealm");
         
+        nextRealm.getSessionTokens().setLifetime(
+                Long.parseLong(props.get(PoddWebConstants.PROPERTY_SESSION_TOKEN_LIFETIME,
+                        PoddWebConstants.DEFAULT_SESSION_TOKEN_LIFETIME)), TimeUnit.SECONDS);
+        
         // Check if there is a current admin, and only add our test admin user if there is no admin
         // in the system
         boolean foundCurrentAdmin = false;
@@ -539,16 +636,10 @@ public class ApplicationUtils
             
             ApplicationUtils.log.debug("Existing unpublished artifacts: \n{}", unpublishedArtifacts);
             
+            // NOTE: The publication status is checked by listUnpublishedArtifacts, so published
+            // artifacts, whose schema imports must not be updated, are never in this list
             for(final InferredOWLOntologyID nextArtifact : unpublishedArtifacts)
             {
-                if(poddArtifactManager.isPublished(nextArtifact))
-                {
-                    ApplicationUtils.log.info("Not attempting to update ontologies for published artifact: {}",
-                            nextArtifact.getOntologyIRI());
-                    // Must not update the schema imports for published artifacts
-                    continue;
-                }
-                
                 ApplicationUtils.log.debug("Fetching schema imports for unpublished artifact: {}",
                         nextArtifact.getOntologyIRI());
                 
@@ -624,6 +715,18 @@ public class ApplicationUtils
                     ApplicationUtils.log.error("Could not update schema imports automatically due to exception: ", e);
                 }
             }
+            
+            // Prepare the metadata used to create new projects, as it is derived from the
+            // schema ontologies that were just loaded
+            try
+            {
+                poddArtifactManager.warmUpObjectMetadata(Collections.singleton(PODD.PODD_SCIENCE_PROJECT));
+            }
+            catch(final Throwable e)
+            {
+                ApplicationUtils.log.warn("Could not warm up object metadata cache: ", e);
+            }
+            
             // Enable the following for debugging
             // dumpSchemaGraph(application, nextRepository);
             
@@ -0,0 +1,91 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.restlet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.openrdf.OpenRDFException;
+import org.openrdf.rio.RDFFormat;
+import org.restlet.data.MediaType;
+import org.restlet.representation.OutputRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.podd.exception.PoddException;
+
+/**
+ * A representation that is written directly to the response while it is being generated, instead
+ * of being serialised into memory first, so that large responses start reaching the client
+ * straight away.
+ * <p>
+ * The response status has already been sent by the time the representation is written, so any
+ * checks that may need to report an error to the client must be made before it is returned from
+ * a resource. Errors while writing are logged, and end the response early.
+ */
+public abstract class PoddStreamingRepresentation extends OutputRepresentation
+{
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    
+    /**
+     * @param mediaType
+     *            The media type of the representation.
+     */
+    public PoddStreamingRepresentation(final MediaType mediaType)
+    {
+        super(mediaType);
+    }
+    
+    /**
+     * @param format
+     *            The RDF format that the representation will be written in.
+     */
+    public PoddStreamingRepresentation(final RDFFormat format)
+    {
+        this(MediaType.valueOf(format.getDefaultMIMEType()));
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.restlet.representation.Representation#write(java.io.OutputStream)
+     */
+    @Override
+    public void write(final OutputStream outputStream) throws IOException
+    {
+        try
+        {
+            this.writeTo(outputStream);
+        }
+        catch(final OpenRDFException | PoddException e)
+        {
+            this.log.error("Failed while streaming a response", e);
+            throw new IOException("Failed while streaming a response", e);
+        }
+    }
+    
+    /**
+     * Writes the representation to the response.
+     * 
+     * @param outputStream
+     *            The stream for the response body.
+     * @throws OpenRDFException
+     * @throws PoddException
+     * @throws IOException
+     */
+    protected abstract void writeTo(OutputStream outputStream) throws OpenRDFException, PoddException, IOException;
+}
@@ -19,7 +19,12 @@ package com.github.podd.restlet;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
@@ -56,6 +61,7 @@ import com.github.podd.exception.PoddRuntimeException;
 import com.github.podd.resources.AboutResourceImpl;
 import com.github.podd.resources.AddObjectResourceImpl;
 import com.github.podd.resources.ArtifactRolesResourceImpl;
+import com.github.podd.resources.BulkUploadArtifactResourceImpl;
 import com.github.podd.resources.CookieLoginResourceImpl;
 import com.github.podd.resources.DataReferenceAttachResourceImpl;
 import com.github.podd.resources.DeleteArtifactResourceImpl;
@@ -66,6 +72,7 @@ import com.github.podd.resources.GetMetadataResourceImpl;
 import com.github.podd.resources.GetSchemaResourceImpl;
 import com.github.podd.resources.HelpResourceImpl;
 import com.github.podd.resources.IndexResourceImpl;
+import com.github.podd.resources.InferenceStatusResourceImpl;
 import com.github.podd.resources.ListArtifactsResourceImpl;
 import com.github.podd.resources.ListDataRepositoriesResourceImpl;
 import com.github.podd.resources.SearchOntologyResourceImpl;
@@ -127,6 +134,11 @@ public class PoddWebServiceApplicationImpl extends PoddWebServiceApplication
     
     private PropertyUtil propertyUtil = new PropertyUtil("podd");
     
+    /**
+     * Executors running background tasks, which are shut down when the application is stopped.
+     */
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<ExecutorService>();
+    
     /**
      * Default Constructor.
      * 
@@ -173,16 +185,67 @@ public class PoddWebServiceApplicationImpl extends PoddWebServiceApplication
         // this.nextRepository = ApplicationUtils.getNewRepository();
     }
     
+    @Override
+    public void addExecutor(final ExecutorService executor)
+    {
+        this.executors.add(executor);
+    }
+    
     /**
      * 
      */
     @Override
     public boolean authenticate(final PoddAction action, final Request request, final Response response,
             final URI optionalObjectUri)
+    {
+        final Boolean actionResult = this.authenticateAction(action, request, response);
+        if(actionResult != null)
+        {
+            return actionResult;
+        }
+        else if(optionalObjectUri == null)
+        {
+            this.log.error("Action requires object URIs and none were given: {}", action);
+            
+            return false;
+        }
+        else
+        {
+            final Map<String, Collection<Role>> rolesForObjectMap =
+                    this.getRealm().getRolesForObjectAlternate(request.getClientInfo().getUser().getIdentifier(),
+                            optionalObjectUri);
+            final Collection<Role> rolesCommonAcrossGivenObjects =
+                    rolesForObjectMap.get(request.getClientInfo().getUser().getIdentifier());
+            
+            if(rolesCommonAcrossGivenObjects == null || !action.matchesForRoles(rolesCommonAcrossGivenObjects))
+            {
+                this.log.error("Authenticated user does not have enough privileges to execute the given action: {}"
+                        + " on the given objects: {}", action, optionalObjectUri);
+                return false;
+            }
+        }
+        
+        if(request.getClientInfo().isAuthenticated() && request.getClientInfo().getRoles().isEmpty())
+        {
+            // TODO: can this case still occur?
+            this.log.warn("Authenticated user did not have any roles: user={}", request.getClientInfo().getUser());
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Performs the checks for the given action that do not depend on the objects that it is
+     * performed on.
+     * 
+     * @return True or false if the action is allowed or denied regardless of the objects, or null
+     *         if the roles of the user for each object must be checked.
+     */
+    private Boolean authenticateAction(final PoddAction action, final Request request, final Response response)
     {
         if(!action.isAuthRequired())
         {
-            return true;
+            return Boolean.TRUE;
         }
         else if(!request.getClientInfo().isAuthenticated())
         {
@@ -198,21 +261,21 @@ public class PoddWebServiceApplicationImpl extends PoddWebServiceApplication
             // Return false after the challenge and HTTP 401 response have been
             // added to the
             // response
-            return false;
+            return Boolean.FALSE;
         }
         else if(this.isUserInactive(request.getClientInfo().getUser()))
         {
             this.log.error("Authenticated user is Inactive. user={}", request.getClientInfo().getUser());
-            return false;
+            return Boolean.FALSE;
         }
         else if(!action.isRoleRequired())
         {
-            return true;
+            return Boolean.TRUE;
         }
         else if(request.getClientInfo().getRoles().contains(PoddRoles.ADMIN.getRole()))
         {
             // All admins can do everything if they are authenticated
-            return true;
+            return Boolean.TRUE;
         }
         else if(!action.matchesForRoles(request.getClientInfo().getRoles()))
         {
@@ -223,49 +286,65 @@ public class PoddWebServiceApplicationImpl extends PoddWebServiceApplication
             // referenceUri,
             // authenticationScope, get, currentUser, currentRole);
             
-            return false;
+            return Boolean.FALSE;
         }
         else if(!action.requiresObjectUris(request.getClientInfo().getRoles()))
         {
-            return true;
+            return Boolean.TRUE;
         }
         
-        else if(optionalObjectUri == null)
-        {
-            this.log.error("Action requires object URIs and none were given: {}", action);
-            
-            return false;
-        }
-        else
+        return null;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.restlet.PoddWebServiceApplication#authenticateObjects(com.github.podd.restlet.PoddAction,
+     * org.restlet.Request, org.restlet.Response, java.util.Collection)
+     */
+    @Override
+    public Set<URI> authenticateObjects(final PoddAction action, final Request request, final Response response,
+            final Collection<URI> objectUris)
+    {
+        final Set<URI> results = new LinkedHashSet<URI>();
+        
+        final Boolean actionResult = this.authenticateAction(action, request, response);
+        if(actionResult != null)
         {
-            final Map<String, Collection<Role>> rolesForObjectMap =
-                    this.getRealm().getRolesForObjectAlternate(request.getClientInfo().getUser().getIdentifier(),
-                            optionalObjectUri);
-            final Collection<Role> rolesCommonAcrossGivenObjects =
-                    rolesForObjectMap.get(request.getClientInfo().getUser().getIdentifier());
-            
-            if(rolesCommonAcrossGivenObjects == null || !action.matchesForRoles(rolesCommonAcrossGivenObjects))
+            if(actionResult)
             {
-                this.log.error("Authenticated user does not have enough privileges to execute the given action: {}"
-                        + " on the given objects: {}", action, optionalObjectUri);
-                return false;
+                results.addAll(objectUris);
             }
+            return results;
         }
         
-        if(request.getClientInfo().isAuthenticated() && request.getClientInfo().getRoles().isEmpty())
+        // All of the roles of the user are found together, instead of querying for each object
+        final Map<URI, Collection<Role>> objectRoles =
+                this.getRealm().getObjectRolesForUser(request.getClientInfo().getUser());
+        for(final URI nextObjectUri : objectUris)
         {
-            // TODO: can this case still occur?
-            this.log.warn("Authenticated user did not have any roles: user={}", request.getClientInfo().getUser());
+            final Collection<Role> nextRoles = objectRoles.get(nextObjectUri);
+            if(nextRoles != null && action.matchesForRoles(nextRoles))
+            {
+                results.add(nextObjectUri);
+            }
         }
         
-        return true;
+        return results;
     }
     
     /**
-     * Call this method to clean up resources used by PODD. At present it shuts down the Repository.
+     * Call this method to clean up resources used by PODD. At present it shuts down the background
+     * executors and the Repository.
      */
     public void cleanUpResources()
     {
+        for(final ExecutorService nextExecutor : this.executors)
+        {
+            nextExecutor.shutdownNow();
+        }
+        this.executors.clear();
+        
         try
         {
             // clear all resources and shut down PODD
@@ -380,6 +459,16 @@ public class PoddWebServiceApplicationImpl extends PoddWebServiceApplication
         this.log.debug("attaching Edit Artifact service to path={}", editArtifact);
         router.attach(editArtifact, EditArtifactResourceImpl.class);
         
+        // Add a route for the Artifact inference status service.
+        final String inferenceStatus = PoddWebConstants.PATH_ARTIFACT_INFERENCE_STATUS;
+        this.log.debug("attaching Inference Status service to path={}", inferenceStatus);
+        router.attach(inferenceStatus, InferenceStatusResourceImpl.class);
+        
+        // Add a route for the bulk Artifact upload service.
+        final String bulkUploadArtifactPath = PoddWebConstants.PATH_ARTIFACT_BULK_UPLOAD;
+        this.log.debug("attaching Bulk Upload Artifact service to path={}", bulkUploadArtifactPath);
+        router.attach(bulkUploadArtifactPath, BulkUploadArtifactResourceImpl.class);
+        
         // Add a route for the Artifact Role edit page.
         final String artifactRoles = PoddWebConstants.PATH_ARTIFACT_ROLES;
         this.log.debug("attaching Edit Artifact Roles service to path={}", artifactRoles);
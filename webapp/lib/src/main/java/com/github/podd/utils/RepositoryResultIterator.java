@@ -0,0 +1,89 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.openrdf.model.Statement;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.RepositoryResult;
+
+import com.github.podd.exception.PoddRuntimeException;
+
+/**
+ * Adapts a {@link RepositoryResult} to an {@link Iterator} so that statements can be streamed out
+ * of a repository without first copying them into a List.
+ * 
+ * The underlying result is closed automatically when it is exhausted, but callers must still call
+ * {@link #close()} in a finally block in case iteration stops early.
+ */
+public class RepositoryResultIterator implements Iterator<Statement>
+{
+    private final RepositoryResult<Statement> result;
+    
+    public RepositoryResultIterator(final RepositoryResult<Statement> result)
+    {
+        this.result = result;
+    }
+    
+    public void close() throws RepositoryException
+    {
+        this.result.close();
+    }
+    
+    @Override
+    public boolean hasNext()
+    {
+        try
+        {
+            final boolean hasNext = this.result.hasNext();
+            if(!hasNext)
+            {
+                this.result.close();
+            }
+            return hasNext;
+        }
+        catch(final RepositoryException e)
+        {
+            throw new PoddRuntimeException("Could not iterate over repository statements", e);
+        }
+    }
+    
+    @Override
+    public Statement next()
+    {
+        try
+        {
+            if(!this.result.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            return this.result.next();
+        }
+        catch(final RepositoryException e)
+        {
+            throw new PoddRuntimeException("Could not iterate over repository statements", e);
+        }
+    }
+    
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException("Cannot remove statements using this iterator");
+    }
+}
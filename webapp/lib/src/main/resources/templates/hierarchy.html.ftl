@@ -1,8 +1,13 @@
 <#-- @ftlvariable name="baseUrl" type="java.lang.String" -->
-<#-- @ftlvariable name="parentHierarchy" type="podd.resources.ObjectDetailsResource.HierarchyElement" -->
-<#-- @ftlvariable name="poddObject" type="podd.model.entity.PoddObject" -->
-<#-- @ftlvariable name="objectType" type="java.lang.String" -->
-<#-- @ftlvariable name="childHierarchyList" type="java.util.ArrayList<podd.resources.ObjectDetailsResource.HierarchyElement>" -->
+<#-- @ftlvariable name="artifactUri" type="org.openrdf.model.URI" -->
+<#-- @ftlvariable name="versionIri" type="org.openrdf.model.URI" -->
+<#-- @ftlvariable name="parentObject" type="java.util.Map<java.lang.String, java.lang.String>" -->
+<#-- @ftlvariable name="poddObject" type="com.github.podd.utils.PoddObjectLabel" -->
+<#-- @ftlvariable name="objectType" type="com.github.podd.utils.PoddObjectLabel" -->
+<#-- @ftlvariable name="childCount" type="java.lang.Integer" -->
+<#-- @ftlvariable name="childHierarchyList" type="java.util.List<com.github.podd.utils.PoddObjectLabel>" -->
+<#-- @ftlvariable name="childHierarchyOrder" type="java.lang.String" -->
+<#-- @ftlvariable name="childHierarchyNextCursor" type="java.lang.String" -->
 
 <h3 class="underlined_heading">Hierarchy
     <a href="javascript:animatedcollapse.toggle('hierarchy')" icon="toggle" title="View Hierarchy"></a>
@@ -11,47 +16,30 @@
 
     <p>Hierarchy displays only the parent and existing children of the current object.</p>
 
+    <#if poddObject??>
         <ol>
-            <#if  parentHierarchy??>
-            <li class="hierarchy"><label class="parent"></label><a href="${baseUrl}/artifact/base?artifacturi=${parentHierarchy.poddObject.pid}" class="padded">${parentHierarchy.poddObject.localName}</a><span>: Type: ${parentHierarchy.type}, Children:
-            	<#--
-            		For performance reasons we don't want hibernate to fetch all the children just to count the number of children objects,
-            		so if the childrenCountMap exists, then we use it to fetch the count, otherwise, load it from hibernate to do the count.            	
-            	-->                          
-            	<#if childrenCountMap?? && (childrenCountMap[parentHierarchy.poddObject.pid]??) >
-            		${childrenCountMap[parentHierarchy.poddObject.pid]}	
-            	<#else>
-            		${parentHierarchy.poddObject.members?size}
-            	</#if>
-            	</span>
+            <#if parentObject?? && parentObject.uri??>
+            <li class="hierarchy"><label class="parent"></label><a href="${baseUrl}/artifact/base?artifacturi=${artifactUri?url}&amp;versionuri=${versionIri?url}&amp;objecturi=${parentObject.uri?url}" class="padded">${parentObject.label!parentObject.uri}</a><span>: Type: ${parentObject.type!"-"}</span>
            	</li>
             </#if>
-            <#if poddObject??>
             <ol>
             <li class="bold, hierarchy"><label class="current"></label>
-            	<span class="padded">${poddObject.localName}: Type: ${objectType!"-"}, Children: ${poddObject.members?size} 
-
-            	</span>
+            	<span class="padded">${poddObject.label!poddObject.objectURI}: Type: ${(objectType.label)!"-"}, Children: ${childCount!0}</span>
             </li>
             </ol>
             <ol>
+            <#--
+                Children are fetched one page at a time, so that objects with many thousands of children
+                do not need all of them to be loaded to display this page.
+            -->
+            <#if childHierarchyList??>
             <#list childHierarchyList as child>
-                <#if child.state == "A" || isAdmin>
-                    <li class="hierarchy"><label class="child"></label><a href="${baseUrl}/artifact/base?artifacturi=${child.poddObject.pid}" class="padded">${child.poddObject.localName}</a>
-                        <#if child.state != "A">
-                            (<span class="descriptive">deleted</span>)
-                        </#if>
-                        <span>: Type: ${child.type}, Children: 
-                        <#if childrenCountMap?? && (childrenCountMap[child.poddObject.pid]??) >
-                        	${childrenCountMap[child.poddObject.pid]}
-                        <#else>
-                        	${child.poddObject.members?size}
-                        </#if>
-                         
-                        </span>
-                    </li>
-                </#if>
+                <li class="hierarchy"><label class="child"></label><a href="${baseUrl}/artifact/base?artifacturi=${artifactUri?url}&amp;versionuri=${versionIri?url}&amp;objecturi=${child.objectURI?url}" class="padded">${child.label!child.objectURI}</a></li>
             </#list>
+            </#if>
+            <#if childHierarchyNextCursor??>
+                <li class="hierarchy"><a href="${baseUrl}/artifact/base?artifacturi=${artifactUri?url}&amp;versionuri=${versionIri?url}&amp;objecturi=${poddObject.objectURI?url}&amp;childorder=${childHierarchyOrder!"weight"}&amp;childcursor=${childHierarchyNextCursor?url}" class="padded">More children...</a></li>
+            </#if>
             </ol>
         </ol>
     </#if>
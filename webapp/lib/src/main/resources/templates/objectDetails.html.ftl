@@ -147,7 +147,7 @@
 <!-- include "attachedFilesDetails.html.ftl"/ -->
 
 <br />
-<!--#include "hierarchy.html.ftl"/-->
+<#include "hierarchy.html.ftl"/>
 
 <br />    
 <div id="buttonwrapper">
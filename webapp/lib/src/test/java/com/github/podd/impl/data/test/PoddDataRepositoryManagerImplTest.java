@@ -18,13 +18,25 @@ package com.github.podd.impl.data.test;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.rules.Timeout;
 import org.openrdf.model.Model;
@@ -54,6 +66,7 @@ import com.github.podd.api.data.PoddDataRepository;
 import com.github.podd.api.data.PoddDataRepositoryManager;
 import com.github.podd.api.data.test.AbstractPoddDataRepositoryManagerTest;
 import com.github.podd.exception.DataReferenceNotSupportedException;
+import com.github.podd.exception.DataReferenceVerificationException;
 import com.github.podd.impl.PoddOWLManagerImpl;
 import com.github.podd.impl.PoddRepositoryManagerImpl;
 import com.github.podd.impl.data.PoddDataRepositoryManagerImpl;
@@ -211,6 +224,78 @@ public class PoddDataRepositoryManagerImplTest extends AbstractPoddDataRepositor
                                 .toPath());
     }
     
+    /**
+     * Creates valid DataReferences with the given alias.
+     */
+    private Set<DataReference> getNewValidDataReferences(final int count, final String alias) throws Exception
+    {
+        final Set<DataReference> results = new HashSet<DataReference>();
+        for(int i = 0; i < count; i++)
+        {
+            final DataReference nextReference = this.getNewValidDataReference();
+            nextReference.setRepositoryAlias(alias);
+            results.add(nextReference);
+        }
+        return results;
+    }
+    
+    /**
+     * Creates a PoddDataRepositoryManager which maps every alias to a repository that validates
+     * references using the given validator.
+     */
+    private PoddDataRepositoryManagerImpl getValidatingDataRepositoryManager(final Callable<Boolean> validator)
+    {
+        final PoddDataRepository<DataReference> repository = new PoddDataRepository<DataReference>()
+            {
+                @Override
+                public boolean canHandle(final DataReference reference)
+                {
+                    return true;
+                }
+                
+                @Override
+                public String getAlias()
+                {
+                    return null;
+                }
+                
+                @Override
+                public Model getAsModel()
+                {
+                    return null;
+                }
+                
+                @Override
+                public Set<URI> getTypes()
+                {
+                    return null;
+                }
+                
+                @Override
+                public boolean validate(final DataReference reference) throws DataReferenceNotSupportedException,
+                    IOException
+                {
+                    try
+                    {
+                        return validator.call();
+                    }
+                    catch(final Exception e)
+                    {
+                        throw new IOException(e);
+                    }
+                }
+            };
+        
+        return new PoddDataRepositoryManagerImpl()
+            {
+                @Override
+                public PoddDataRepository<? extends DataReference> getRepository(final String alias)
+                {
+                    return repository;
+                }
+            };
+    }
+    
     @Before
     @Override
     public void setUp() throws Exception
@@ -221,6 +306,188 @@ public class PoddDataRepositoryManagerImplTest extends AbstractPoddDataRepositor
         super.setUp();
     }
     
+    /**
+     * Verifies that the per-alias concurrency limit applies across concurrent calls, rather than to
+     * each call separately.
+     */
+    @Test
+    public void testVerifyDataReferencesConcurrencyLimitAcrossCalls() throws Exception
+    {
+        final AtomicInteger active = new AtomicInteger(0);
+        final AtomicInteger maximum = new AtomicInteger(0);
+        final PoddDataRepositoryManagerImpl manager =
+                this.getValidatingDataRepositoryManager(new Callable<Boolean>()
+                    {
+                        @Override
+                        public Boolean call() throws Exception
+                        {
+                            final int current = active.incrementAndGet();
+                            try
+                            {
+                                int previous = maximum.get();
+                                while(current > previous && !maximum.compareAndSet(previous, current))
+                                {
+                                    previous = maximum.get();
+                                }
+                                Thread.sleep(20);
+                                return true;
+                            }
+                            finally
+                            {
+                                active.decrementAndGet();
+                            }
+                        }
+                    });
+        
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final ExecutorService callers = Executors.newFixedThreadPool(2);
+        try
+        {
+            manager.setVerificationExecutor(executor);
+            manager.setVerificationConcurrency(2);
+            
+            final List<Future<Void>> calls = new ArrayList<Future<Void>>();
+            for(int i = 0; i < 2; i++)
+            {
+                final Set<DataReference> dataReferences =
+                        this.getNewValidDataReferences(10, AbstractPoddDataRepositoryManagerTest.TEST_ALIAS_1A);
+                calls.add(callers.submit(new Callable<Void>()
+                    {
+                        @Override
+                        public Void call() throws Exception
+                        {
+                            manager.verifyDataReferences(dataReferences);
+                            return null;
+                        }
+                    }));
+            }
+            for(final Future<Void> nextCall : calls)
+            {
+                nextCall.get();
+            }
+            
+            Assert.assertTrue("Too many concurrent verifications: " + maximum.get(), maximum.get() <= 2);
+        }
+        finally
+        {
+            callers.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Verifies that references which are not verified before the timeout are reported as failures.
+     */
+    @Test
+    public void testVerifyDataReferencesTimeout() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final PoddDataRepositoryManagerImpl manager =
+                this.getValidatingDataRepositoryManager(new Callable<Boolean>()
+                    {
+                        @Override
+                        public Boolean call() throws Exception
+                        {
+                            release.await();
+                            return true;
+                        }
+                    });
+        
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            manager.setVerificationExecutor(executor);
+            manager.setVerificationTimeout(100, TimeUnit.MILLISECONDS);
+            
+            final Set<DataReference> dataReferences =
+                    this.getNewValidDataReferences(3, AbstractPoddDataRepositoryManagerTest.TEST_ALIAS_1A);
+            try
+            {
+                manager.verifyDataReferences(dataReferences);
+                Assert.fail("Should have thrown a DataReferenceVerificationException");
+            }
+            catch(final DataReferenceVerificationException e)
+            {
+                Assert.assertEquals(dataReferences, e.getValidationFailures().keySet());
+                for(final Throwable nextFailure : e.getValidationFailures().values())
+                {
+                    Assert.assertTrue(nextFailure instanceof TimeoutException);
+                }
+            }
+        }
+        finally
+        {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Verifies that a validation which ignores interrupts and never returns does not keep its
+     * worker slot after its caller has timed out.
+     */
+    @Test
+    public void testVerifyDataReferencesReleasesHungWorker() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger(0);
+        final PoddDataRepositoryManagerImpl manager =
+                this.getValidatingDataRepositoryManager(new Callable<Boolean>()
+                    {
+                        @Override
+                        public Boolean call() throws Exception
+                        {
+                            if(calls.getAndIncrement() == 0)
+                            {
+                                boolean released = false;
+                                while(!released)
+                                {
+                                    try
+                                    {
+                                        release.await();
+                                        released = true;
+                                    }
+                                    catch(final InterruptedException e)
+                                    {
+                                        // Ignore the interrupt, as a hung connection would
+                                    }
+                                }
+                            }
+                            return true;
+                        }
+                    });
+        
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            manager.setVerificationExecutor(executor);
+            manager.setVerificationConcurrency(1);
+            manager.setVerificationTimeout(100, TimeUnit.MILLISECONDS);
+            
+            try
+            {
+                manager.verifyDataReferences(this.getNewValidDataReferences(1,
+                        AbstractPoddDataRepositoryManagerTest.TEST_ALIAS_1A));
+                Assert.fail("Should have thrown a DataReferenceVerificationException");
+            }
+            catch(final DataReferenceVerificationException e)
+            {
+                Assert.assertTrue(e.getValidationFailures().values().iterator().next() instanceof TimeoutException);
+            }
+            
+            // The only slot for the alias was held by the hung validation
+            manager.setVerificationTimeout(10, TimeUnit.SECONDS);
+            manager.verifyDataReferences(this.getNewValidDataReferences(2,
+                    AbstractPoddDataRepositoryManagerTest.TEST_ALIAS_1A));
+            Assert.assertEquals(3, calls.get());
+        }
+        finally
+        {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+    
     @Override
     protected void startRepositorySource() throws Exception
     {
@@ -0,0 +1,114 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl.ingest.test;
+
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.rio.helpers.StatementCollector;
+
+import com.github.podd.api.purl.PoddPurlProcessorFactory;
+import com.github.podd.api.purl.PoddPurlProcessorPrefixes;
+import com.github.podd.impl.ingest.PrivilegedAssertionFilterStage;
+import com.github.podd.impl.ingest.PurlRewritingStage;
+import com.github.podd.impl.ingest.TimestampDefaultingStage;
+import com.github.podd.impl.purl.UUIDPurlProcessorFactoryImpl;
+import com.github.podd.utils.PODD;
+
+/**
+ * Tests the streaming ingest stages without any repositories.
+ */
+public class IngestStagesTest
+{
+    private final String purlPrefix = "http://purl.org/podd/";
+    
+    private PurlRewritingStage getPurlStage(final Model output)
+    {
+        final UUIDPurlProcessorFactoryImpl factory = new UUIDPurlProcessorFactoryImpl();
+        factory.setPrefix(this.purlPrefix);
+        return new PurlRewritingStage(Collections.<PoddPurlProcessorFactory> singletonList(factory),
+                new StatementCollector(output));
+    }
+    
+    @Test
+    public void testPrivilegedAssertionsRemoved() throws Exception
+    {
+        final Model output = new LinkedHashModel();
+        final PrivilegedAssertionFilterStage stage = new PrivilegedAssertionFilterStage(new StatementCollector(output));
+        
+        final URI artifact = PODD.VF.createURI("http://example.org/artifact");
+        stage.startRDF();
+        stage.handleStatement(PODD.VF.createStatement(artifact, PODD.PODD_BASE_HAS_PUBLICATION_STATUS,
+                PODD.PODD_BASE_PUBLISHED));
+        stage.handleStatement(PODD.VF.createStatement(artifact, RDFS.LABEL, PODD.VF.createLiteral("Artifact")));
+        stage.endRDF();
+        
+        Assert.assertEquals(1, output.size());
+        Assert.assertTrue(output.filter(null, PODD.PODD_BASE_HAS_PUBLICATION_STATUS, null).isEmpty());
+        Assert.assertEquals(2, stage.getStatementCount());
+        Assert.assertEquals(1, stage.getDroppedCount());
+    }
+    
+    @Test
+    public void testPurlsRewrittenConsistently() throws Exception
+    {
+        final Model output = new LinkedHashModel();
+        final PurlRewritingStage stage = this.getPurlStage(output);
+        
+        final URI temp = PODD.VF.createURI(PoddPurlProcessorPrefixes.UUID.getTemporaryPrefix() + "object1");
+        final URI other = PODD.VF.createURI("http://example.org/other");
+        stage.startRDF();
+        stage.handleStatement(PODD.VF.createStatement(temp, RDFS.LABEL, PODD.VF.createLiteral("Object")));
+        stage.handleStatement(PODD.VF.createStatement(other, RDFS.SEEALSO, temp));
+        stage.endRDF();
+        
+        Assert.assertEquals(1, stage.getPurlReferences().size());
+        final URI purl = stage.getPurlReferences().iterator().next().getPurlURI();
+        Assert.assertTrue(purl.stringValue().startsWith(this.purlPrefix));
+        Assert.assertEquals(1, output.filter(purl, RDFS.LABEL, null).size());
+        Assert.assertEquals(1, output.filter(other, RDFS.SEEALSO, purl).size());
+        Assert.assertTrue(output.filter(temp, null, null).isEmpty());
+        Assert.assertTrue(output.filter(null, null, temp).isEmpty());
+    }
+    
+    @Test
+    public void testDefaultTimestampsReplaced() throws Exception
+    {
+        final Model output = new LinkedHashModel();
+        final Literal now = PODD.VF.createLiteral(new Date());
+        final TimestampDefaultingStage stage =
+                new TimestampDefaultingStage(now, new StatementCollector(output), PODD.PODD_BASE_CREATED_AT);
+        
+        final URI object = PODD.VF.createURI("http://example.org/object");
+        final URI otherObject = PODD.VF.createURI("http://example.org/otherObject");
+        final Literal defaultTimestamp = PODD.VF.createLiteral(new Date(864000000L));
+        stage.startRDF();
+        stage.handleStatement(PODD.VF.createStatement(object, PODD.PODD_BASE_CREATED_AT, defaultTimestamp));
+        stage.handleStatement(PODD.VF.createStatement(otherObject, PODD.PODD_BASE_LAST_MODIFIED, defaultTimestamp));
+        stage.endRDF();
+        
+        Assert.assertEquals(1, output.filter(object, PODD.PODD_BASE_CREATED_AT, now).size());
+        Assert.assertEquals(1, output.filter(otherObject, PODD.PODD_BASE_LAST_MODIFIED, defaultTimestamp).size());
+    }
+}
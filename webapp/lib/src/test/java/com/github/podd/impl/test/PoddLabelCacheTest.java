@@ -0,0 +1,172 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+
+import com.github.podd.impl.PoddLabelCache;
+import com.github.podd.utils.PODD;
+
+/**
+ * Tests for the shared label cache.
+ */
+public class PoddLabelCacheTest
+{
+    private final URI context1 = PODD.VF.createURI("urn:test:context1");
+    
+    private final URI context2 = PODD.VF.createURI("urn:test:context2");
+    
+    private final URI meter = PODD.VF.createURI("urn:test:meter");
+    
+    private final URI project = PODD.VF.createURI("urn:test:project");
+    
+    private final URI unlabelled = PODD.VF.createURI("urn:test:unlabelled");
+    
+    private PoddLabelCache testCache;
+    
+    private Repository testRepository;
+    
+    private RepositoryConnection testConnection;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        this.testCache = new PoddLabelCache(4);
+        
+        this.testRepository = new SailRepository(new MemoryStore());
+        this.testRepository.initialize();
+        this.testConnection = this.testRepository.getConnection();
+        
+        this.testConnection.add(this.meter, RDFS.LABEL, PODD.VF.createLiteral("SPAD Meter"), this.context1);
+        this.testConnection.add(this.meter, RDFS.COMMENT, PODD.VF.createLiteral("Measures chlorophyll"),
+                this.context1);
+        this.testConnection.add(this.project, RDFS.LABEL, PODD.VF.createLiteral("Demo Project"), this.context2);
+    }
+    
+    @After
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            if(this.testConnection != null)
+            {
+                this.testConnection.close();
+            }
+        }
+        finally
+        {
+            if(this.testRepository != null)
+            {
+                this.testRepository.shutDown();
+            }
+        }
+    }
+    
+    @Test
+    public void testGetLabelsBulk() throws Exception
+    {
+        final Model labels =
+                this.testCache.getLabels(Arrays.asList(this.meter, this.project, this.unlabelled),
+                        this.testConnection, this.context1, this.context2);
+        
+        Assert.assertEquals(3, labels.size());
+        Assert.assertEquals("SPAD Meter", labels.filter(this.meter, RDFS.LABEL, null).objectString());
+        Assert.assertEquals("Measures chlorophyll", labels.filter(this.meter, RDFS.COMMENT, null).objectString());
+        Assert.assertTrue(labels.contains(this.project, RDFS.LABEL, null, this.context2));
+        Assert.assertTrue(labels.filter(this.unlabelled, null, null).isEmpty());
+        
+        // Every URI is cached for every context, including those without labels
+        Assert.assertEquals(6, this.testCache.size());
+        Assert.assertEquals(0, this.testCache.getHitCount());
+        Assert.assertEquals(6, this.testCache.getMissCount());
+    }
+    
+    @Test
+    public void testGetLabelsCached() throws Exception
+    {
+        this.testCache.getLabels(Arrays.asList(this.meter, this.unlabelled), this.testConnection, this.context1);
+        
+        // Changes are not seen until the context is invalidated, as contexts are never modified
+        this.testConnection.add(this.unlabelled, RDFS.LABEL, PODD.VF.createLiteral("Late label"), this.context1);
+        Assert.assertTrue(this.testCache
+                .getLabels(Collections.singleton(this.unlabelled), this.testConnection, this.context1).isEmpty());
+        Assert.assertEquals(1, this.testCache.getHitCount());
+        
+        this.testCache.invalidate(this.context1);
+        Assert.assertEquals(0, this.testCache.size());
+        Assert.assertEquals("Late label",
+                this.testCache.getLabels(Collections.singleton(this.unlabelled), this.testConnection, this.context1)
+                        .filter(this.unlabelled, RDFS.LABEL, null).objectString());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetLabelsNoContexts() throws Exception
+    {
+        this.testCache.getLabels(Collections.singleton(this.meter), this.testConnection);
+    }
+    
+    @Test
+    public void testPinnedContextsNotEvicted() throws Exception
+    {
+        this.testCache.pin(this.context1);
+        Assert.assertTrue(this.testCache.isPinned(this.context1));
+        this.testCache.getLabels(Collections.singleton(this.meter), this.testConnection, this.context1);
+        
+        for(int i = 0; i < 10; i++)
+        {
+            this.testCache.getLabels(Collections.singleton(PODD.VF.createURI("urn:test:other:" + i)),
+                    this.testConnection, this.context2);
+        }
+        
+        // The unpinned context was limited to the maximum size, while the pinned entry was kept
+        Assert.assertEquals(5, this.testCache.size());
+        final long hits = this.testCache.getHitCount();
+        this.testCache.getLabels(Collections.singleton(this.meter), this.testConnection, this.context1);
+        Assert.assertEquals(hits + 1, this.testCache.getHitCount());
+        
+        this.testCache.unpin(this.context1);
+        Assert.assertFalse(this.testCache.isPinned(this.context1));
+        Assert.assertEquals(4, this.testCache.size());
+    }
+    
+    @Test
+    public void testRemove() throws Exception
+    {
+        this.testCache.pin(this.context1);
+        this.testCache.getLabels(Arrays.asList(this.meter, this.project), this.testConnection, this.context1,
+                this.context2);
+        Assert.assertEquals(4, this.testCache.size());
+        
+        this.testCache.remove(this.context1);
+        
+        Assert.assertFalse(this.testCache.isPinned(this.context1));
+        Assert.assertEquals(2, this.testCache.size());
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl.test;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+
+import com.github.podd.impl.PoddLabelIndex;
+import com.github.podd.utils.PODD;
+
+/**
+ * Tests for the in-memory label index.
+ */
+public class PoddLabelIndexTest
+{
+    private final URI context1 = PODD.VF.createURI("urn:test:context1");
+    
+    private final URI context2 = PODD.VF.createURI("urn:test:context2");
+    
+    private final URI meter = PODD.VF.createURI("urn:test:meter");
+    
+    private final URI platform = PODD.VF.createURI(PODD.PODD_SCIENCE, "Platform");
+    
+    private final URI pyrometer = PODD.VF.createURI("urn:test:pyrometer");
+    
+    private final URI project = PODD.VF.createURI("urn:test:project");
+    
+    private PoddLabelIndex testIndex;
+    
+    private Repository testRepository;
+    
+    private RepositoryConnection testConnection;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        this.testIndex = new PoddLabelIndex();
+        
+        this.testRepository = new SailRepository(new MemoryStore());
+        this.testRepository.initialize();
+        this.testConnection = this.testRepository.getConnection();
+        
+        this.testConnection.add(this.meter, RDFS.LABEL, PODD.VF.createLiteral("SPAD Meter"), this.context1);
+        this.testConnection.add(this.pyrometer, RDFS.LABEL, PODD.VF.createLiteral("Pyrometer"), this.context1);
+        this.testConnection.add(this.project, RDFS.LABEL, PODD.VF.createLiteral("Demo Project"), this.context2);
+        // Types may be in a different context to the labels
+        this.testConnection.add(this.meter, RDF.TYPE, this.platform, this.context2);
+        this.testConnection.add(this.pyrometer, RDF.TYPE, this.platform, this.context2);
+        this.testConnection.add(this.project, RDF.TYPE, PODD.PODD_SCIENCE_PROJECT, this.context2);
+    }
+    
+    @After
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            if(this.testConnection != null)
+            {
+                this.testConnection.close();
+            }
+        }
+        finally
+        {
+            if(this.testRepository != null)
+            {
+                this.testRepository.shutDown();
+            }
+        }
+    }
+    
+    @Test
+    public void testIndexReplacesContext() throws Exception
+    {
+        this.testIndex.search("meter", null, 10, 0, this.testConnection, this.context1);
+        Assert.assertTrue(this.testIndex.isIndexed(this.context1));
+        
+        this.testConnection.remove(this.meter, RDFS.LABEL, null, this.context1);
+        // The existing index is used until the context is indexed again
+        Assert.assertEquals(2, this.testIndex.search("meter", null, 10, 0, this.testConnection, this.context1)
+                .size());
+        
+        this.testIndex.index(this.testConnection, this.context1);
+        Assert.assertEquals(1, this.testIndex.search("meter", null, 10, 0, this.testConnection, this.context1)
+                .size());
+        
+        this.testIndex.remove(this.context1);
+        Assert.assertFalse(this.testIndex.isIndexed(this.context1));
+    }
+    
+    @Test
+    public void testSearchEmptyContext() throws Exception
+    {
+        final URI emptyContext = PODD.VF.createURI("urn:test:empty");
+        
+        Assert.assertTrue(this.testIndex.search("meter", null, 10, 0, this.testConnection, emptyContext).isEmpty());
+        // Empty contexts may still be loading, so they are not indexed
+        Assert.assertFalse(this.testIndex.isIndexed(emptyContext));
+    }
+    
+    @Test
+    public void testSearchLimitAndOffset() throws Exception
+    {
+        final Model all = this.testIndex.search("", null, 10, 0, this.testConnection, this.context1, this.context2);
+        Assert.assertEquals(3, all.size());
+        
+        final Model page = this.testIndex.search("", null, 2, 1, this.testConnection, this.context1, this.context2);
+        Assert.assertEquals(2, page.size());
+        Assert.assertFalse(page.contains(all.iterator().next()));
+    }
+    
+    @Test
+    public void testSearchSubstring() throws Exception
+    {
+        // Matches the middle of a word, ignoring case, as CONTAINS(LCASE(?label)) does
+        final Model results = this.testIndex.search("ME", null, 10, 0, this.testConnection, this.context1);
+        
+        Assert.assertEquals(2, results.size());
+        Assert.assertTrue(results.contains(this.meter, RDFS.LABEL, PODD.VF.createLiteral("SPAD Meter")));
+        Assert.assertTrue(results.contains(this.pyrometer, RDFS.LABEL, PODD.VF.createLiteral("Pyrometer")));
+        
+        Assert.assertEquals(1, this.testIndex.search("spad met", null, 10, 0, this.testConnection, this.context1)
+                .size());
+        Assert.assertTrue(this.testIndex.search("meter spad", null, 10, 0, this.testConnection, this.context1)
+                .isEmpty());
+        // Labels in contexts that are not searched are not found
+        Assert.assertTrue(this.testIndex.search("demo", null, 10, 0, this.testConnection, this.context1).isEmpty());
+    }
+    
+    @Test
+    public void testSearchTypes() throws Exception
+    {
+        final URI[] platformTypes = { this.platform };
+        
+        Assert.assertEquals(2, this.testIndex.search("e", platformTypes, 10, 0, this.testConnection, this.context1,
+                this.context2).size());
+        // The types are only visible when their context is searched
+        Assert.assertTrue(this.testIndex.search("e", platformTypes, 10, 0, this.testConnection, this.context1)
+                .isEmpty());
+    }
+}
@@ -0,0 +1,318 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.ValueFactoryImpl;
+import org.openrdf.model.vocabulary.OWL;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+import com.github.podd.impl.PoddManagementGraphIndex;
+import com.github.podd.impl.PoddManagementGraphIndex.ManagementConnection;
+import com.github.podd.impl.PoddSesameManagerImpl;
+import com.github.podd.utils.InferredOWLOntologyID;
+
+/**
+ * Tests that lookups through {@link PoddManagementGraphIndex} stay consistent with the management
+ * repository.
+ */
+public class PoddManagementGraphIndexTest
+{
+    private final IRI artifactIRI = IRI.create("http://purl.org/podd/99-99/artifact:99");
+    
+    private final IRI versionIRIv1 = IRI.create("http://purl.org/podd/99-99/version:1");
+    
+    private final IRI inferredIRIv1 = IRI.create("urn:inferred:http://purl.org/podd/99-99/version:1");
+    
+    private final IRI versionIRIv2 = IRI.create("http://purl.org/podd/99-99/version:2");
+    
+    private final IRI inferredIRIv2 = IRI.create("urn:inferred:http://purl.org/podd/99-99/version:2");
+    
+    private URI artifactGraph;
+    
+    private URI schemaGraph;
+    
+    private PoddManagementGraphIndex testIndex;
+    
+    private Repository testRepository;
+    
+    private PoddSesameManagerImpl testSesameManager;
+    
+    private InferredOWLOntologyID addArtifact(final IRI versionIRI, final IRI inferredIRI) throws Exception
+    {
+        final InferredOWLOntologyID ontologyID = new InferredOWLOntologyID(this.artifactIRI, versionIRI, inferredIRI);
+        final ManagementConnection connection = this.getConnection();
+        try
+        {
+            connection.begin();
+            this.testSesameManager.updateManagedPoddArtifactVersion(ontologyID, true, connection, this.artifactGraph);
+            connection.commit();
+        }
+        finally
+        {
+            connection.close();
+        }
+        return ontologyID;
+    }
+    
+    private OWLOntologyID addSchema(final String ontologyIRI, final String versionIRI) throws Exception
+    {
+        final OWLOntologyID ontologyID = new OWLOntologyID(IRI.create(ontologyIRI), IRI.create(versionIRI));
+        final ManagementConnection connection = this.getConnection();
+        try
+        {
+            connection.begin();
+            this.testSesameManager.updateManagedSchemaOntologyVersion(ontologyID, true, connection, this.schemaGraph);
+            connection.commit();
+        }
+        finally
+        {
+            connection.close();
+        }
+        return ontologyID;
+    }
+    
+    private ManagementConnection getConnection() throws Exception
+    {
+        return this.testIndex.wrap(this.testRepository, this.testRepository.getConnection());
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        this.artifactGraph = ValueFactoryImpl.getInstance().createURI("urn:test:artifact-mgt-graph:");
+        this.schemaGraph = ValueFactoryImpl.getInstance().createURI("urn:test:schema-mgt-graph:");
+        this.testRepository = new SailRepository(new MemoryStore());
+        this.testRepository.initialize();
+        this.testIndex = new PoddManagementGraphIndex();
+        this.testSesameManager = new PoddSesameManagerImpl();
+    }
+    
+    @After
+    public void tearDown() throws Exception
+    {
+        this.testRepository.shutDown();
+    }
+    
+    @Test
+    public void testGetArtifactsByPublicationStatus() throws Exception
+    {
+        final InferredOWLOntologyID ontologyID = this.addArtifact(this.versionIRIv1, this.inferredIRIv1);
+        
+        final ManagementConnection connection = this.getConnection();
+        try
+        {
+            connection.begin();
+            this.testSesameManager.setPublished(true, ontologyID, connection, this.artifactGraph);
+            connection.commit();
+            
+            Assert.assertNotNull(connection.getIndexedGraph(this.artifactGraph));
+            Assert.assertEquals(Arrays.asList(ontologyID), this.testSesameManager.getArtifactsByPublicationStatus(
+                    true, false, -1, 0, connection, this.artifactGraph));
+            Assert.assertTrue(this.testSesameManager.getArtifactsByPublicationStatus(false, true, -1, 0, connection,
+                    this.artifactGraph).isEmpty());
+            Assert.assertTrue(this.testSesameManager.getArtifactsByPublicationStatus(true, true, 1, 1, connection,
+                    this.artifactGraph).isEmpty());
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+    
+    @Test
+    public void testGetCurrentArtifactVersionAfterUpdate() throws Exception
+    {
+        this.addArtifact(this.versionIRIv1, this.inferredIRIv1);
+        
+        final ManagementConnection connection = this.getConnection();
+        try
+        {
+            Assert.assertNotNull(connection.getIndexedGraph(this.artifactGraph));
+            Assert.assertEquals(this.versionIRIv1,
+                    this.testSesameManager.getCurrentArtifactVersion(this.artifactIRI, connection, this.artifactGraph)
+                            .getVersionIRI());
+            
+            this.addArtifact(this.versionIRIv2, this.inferredIRIv2);
+            
+            final InferredOWLOntologyID current =
+                    this.testSesameManager.getCurrentArtifactVersion(this.artifactIRI, connection, this.artifactGraph);
+            Assert.assertEquals(this.versionIRIv2, current.getVersionIRI());
+            Assert.assertEquals(this.inferredIRIv2, current.getInferredOntologyIRI());
+            
+            // Lookups by the new version IRI must also be served from the rebuilt index
+            Assert.assertEquals(this.versionIRIv2,
+                    this.testSesameManager.getCurrentArtifactVersion(this.versionIRIv2, connection, this.artifactGraph)
+                            .getVersionIRI());
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+    
+    @Test
+    public void testGetIndexedGraphWithPendingWrite() throws Exception
+    {
+        this.addArtifact(this.versionIRIv1, this.inferredIRIv1);
+        
+        final ManagementConnection writer = this.getConnection();
+        final ManagementConnection reader = this.getConnection();
+        try
+        {
+            Assert.assertNotNull(reader.getIndexedGraph(this.artifactGraph));
+            
+            writer.begin();
+            this.testSesameManager.updateManagedPoddArtifactVersion(new InferredOWLOntologyID(this.artifactIRI,
+                    this.versionIRIv2, this.inferredIRIv2), true, writer, this.artifactGraph);
+            
+            Assert.assertNull("Index must not be used while a write is pending",
+                    reader.getIndexedGraph(this.artifactGraph));
+            // The writer still sees its own uncommitted changes through the repository
+            Assert.assertEquals(this.versionIRIv2,
+                    this.testSesameManager.getCurrentArtifactVersion(this.artifactIRI, writer, this.artifactGraph)
+                            .getVersionIRI());
+            
+            writer.rollback();
+            
+            Assert.assertNotNull(reader.getIndexedGraph(this.artifactGraph));
+            Assert.assertEquals(this.versionIRIv1,
+                    this.testSesameManager.getCurrentArtifactVersion(this.artifactIRI, reader, this.artifactGraph)
+                            .getVersionIRI());
+        }
+        finally
+        {
+            reader.close();
+            writer.close();
+        }
+    }
+    
+    @Test
+    public void testGetOntologiesAfterDelete() throws Exception
+    {
+        final InferredOWLOntologyID ontologyID = this.addArtifact(this.versionIRIv1, this.inferredIRIv1);
+        
+        final Repository permanentRepository = new SailRepository(new MemoryStore());
+        permanentRepository.initialize();
+        final RepositoryConnection permanentConnection = permanentRepository.getConnection();
+        final ManagementConnection connection = this.getConnection();
+        try
+        {
+            Assert.assertEquals(1, this.testSesameManager.getOntologies(true, connection, this.artifactGraph).size());
+            
+            connection.begin();
+            this.testSesameManager.deleteOntologies(Collections.singleton(ontologyID), permanentConnection,
+                    connection, this.artifactGraph);
+            connection.commit();
+            
+            Assert.assertTrue(this.testSesameManager.getOntologies(true, connection, this.artifactGraph).isEmpty());
+        }
+        finally
+        {
+            connection.close();
+            permanentConnection.close();
+            permanentRepository.shutDown();
+        }
+    }
+    
+    @Test
+    public void testGetSchemaContextsAfterImportsChange() throws Exception
+    {
+        final OWLOntologyID schemaA = this.addSchema("http://example.org/schema/a", "http://example.org/schema/a/1");
+        final InferredOWLOntologyID ontologyID = this.addArtifact(this.versionIRIv1, this.inferredIRIv1);
+        
+        final ManagementConnection connection = this.getConnection();
+        try
+        {
+            connection.begin();
+            connection.add(this.artifactIRI.toOpenRDFURI(), OWL.IMPORTS, schemaA.getOntologyIRI().toOpenRDFURI(),
+                    this.artifactGraph);
+            connection.commit();
+            
+            Assert.assertNull(connection.getSchemaContexts(ontologyID, this.schemaGraph, this.artifactGraph));
+            Assert.assertArrayEquals(new URI[] { schemaA.getVersionIRI().toOpenRDFURI() },
+                    this.testSesameManager.schemaContexts(ontologyID, connection, this.schemaGraph,
+                            this.artifactGraph));
+            Assert.assertArrayEquals(new URI[] { schemaA.getVersionIRI().toOpenRDFURI() },
+                    connection.getSchemaContexts(ontologyID, this.schemaGraph, this.artifactGraph));
+            
+            // An unrelated schema must not discard the cached contexts
+            final OWLOntologyID schemaB =
+                    this.addSchema("http://example.org/schema/b", "http://example.org/schema/b/1");
+            Assert.assertNotNull(connection.getSchemaContexts(ontologyID, this.schemaGraph, this.artifactGraph));
+            
+            // A new current version of an imported schema must be picked up
+            final OWLOntologyID schemaA2 =
+                    this.addSchema("http://example.org/schema/a", "http://example.org/schema/a/2");
+            Assert.assertNull(connection.getSchemaContexts(ontologyID, this.schemaGraph, this.artifactGraph));
+            Assert.assertArrayEquals(new URI[] { schemaA2.getVersionIRI().toOpenRDFURI() },
+                    this.testSesameManager.schemaContexts(ontologyID, connection, this.schemaGraph,
+                            this.artifactGraph));
+            
+            // Changing the imports of the artifact must be picked up
+            connection.begin();
+            connection.remove(this.artifactIRI.toOpenRDFURI(), OWL.IMPORTS, null, this.artifactGraph);
+            connection.add(this.artifactIRI.toOpenRDFURI(), OWL.IMPORTS, schemaB.getVersionIRI().toOpenRDFURI(),
+                    this.artifactGraph);
+            connection.commit();
+            
+            Assert.assertNull(connection.getSchemaContexts(ontologyID, this.schemaGraph, this.artifactGraph));
+            Assert.assertArrayEquals(new URI[] { schemaB.getVersionIRI().toOpenRDFURI() },
+                    this.testSesameManager.schemaContexts(ontologyID, connection, this.schemaGraph,
+                            this.artifactGraph));
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+    
+    @Test
+    public void testIsPublishedAfterSetPublished() throws Exception
+    {
+        final InferredOWLOntologyID ontologyID = this.addArtifact(this.versionIRIv1, this.inferredIRIv1);
+        
+        final ManagementConnection connection = this.getConnection();
+        try
+        {
+            Assert.assertFalse(this.testSesameManager.isPublished(ontologyID, connection, this.artifactGraph));
+            
+            connection.begin();
+            this.testSesameManager.setPublished(true, ontologyID, connection, this.artifactGraph);
+            connection.commit();
+            
+            Assert.assertNotNull(connection.getIndexedGraph(this.artifactGraph));
+            Assert.assertTrue(this.testSesameManager.isPublished(ontologyID, connection, this.artifactGraph));
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.Rio;
+
+import com.github.podd.api.MetadataPolicy;
+import com.github.podd.impl.PoddObjectMetadataCache;
+import com.github.podd.impl.PoddObjectMetadataCache.CachedObjectMetadata;
+import com.github.podd.utils.PODD;
+
+/**
+ * Tests for {@link PoddObjectMetadataCache}.
+ */
+public class PoddObjectMetadataCacheTest
+{
+    private final URI objectType = PODD.VF.createURI("http://example.org/schema/a#Thing");
+    
+    private final URI schemaV1 = PODD.VF.createURI("http://example.org/schema/a/1");
+    
+    private final URI schemaV2 = PODD.VF.createURI("http://example.org/schema/a/2");
+    
+    private Model testModel;
+    
+    private PoddObjectMetadataCache testCache;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        this.testModel = new LinkedHashModel();
+        this.testModel.add(this.objectType, RDFS.LABEL, PODD.VF.createLiteral("Thing"));
+        this.testCache = new PoddObjectMetadataCache(2);
+    }
+    
+    @Test
+    public void testEviction() throws Exception
+    {
+        this.testCache.put(this.objectType, false, MetadataPolicy.INCLUDE_ALL, this.testModel, this.schemaV1);
+        this.testCache.put(this.objectType, false, MetadataPolicy.ONLY_CONTAINS, this.testModel, this.schemaV1);
+        // Use the first entry so that the second is the least recently used
+        Assert.assertNotNull(this.testCache.get(this.objectType, false, MetadataPolicy.INCLUDE_ALL, this.schemaV1));
+        this.testCache.put(this.objectType, false, MetadataPolicy.EXCLUDE_CONTAINS, this.testModel, this.schemaV1);
+        
+        Assert.assertEquals(2, this.testCache.size());
+        Assert.assertNotNull(this.testCache.get(this.objectType, false, MetadataPolicy.INCLUDE_ALL, this.schemaV1));
+        Assert.assertNull(this.testCache.get(this.objectType, false, MetadataPolicy.ONLY_CONTAINS, this.schemaV1));
+    }
+    
+    @Test
+    public void testGetHitsAndMisses() throws Exception
+    {
+        Assert.assertNull(this.testCache.get(this.objectType, false, MetadataPolicy.INCLUDE_ALL, this.schemaV1));
+        
+        this.testCache.put(this.objectType, false, MetadataPolicy.INCLUDE_ALL, this.testModel, this.schemaV1);
+        
+        Assert.assertNotNull(this.testCache.get(this.objectType, false, MetadataPolicy.INCLUDE_ALL, this.schemaV1));
+        // Each part of the key must match
+        Assert.assertNull(this.testCache.get(this.objectType, true, MetadataPolicy.INCLUDE_ALL, this.schemaV1));
+        Assert.assertNull(this.testCache.get(this.objectType, false, MetadataPolicy.EXCLUDE_CONTAINS, this.schemaV1));
+        Assert.assertNull(this.testCache.get(this.objectType, false, MetadataPolicy.INCLUDE_ALL, this.schemaV2));
+        
+        Assert.assertEquals(1, this.testCache.getHitCount());
+        Assert.assertEquals(4, this.testCache.getMissCount());
+    }
+    
+    @Test
+    public void testGetSerialisation() throws Exception
+    {
+        final CachedObjectMetadata metadata =
+                this.testCache.put(this.objectType, false, MetadataPolicy.INCLUDE_ALL, this.testModel, this.schemaV1);
+        
+        final byte[] turtle = metadata.getSerialisation(RDFFormat.TURTLE);
+        Assert.assertSame(turtle, metadata.getSerialisation(RDFFormat.TURTLE));
+        Assert.assertNotSame(turtle, metadata.getSerialisation(RDFFormat.RDFJSON));
+        
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        metadata.write(output, RDFFormat.TURTLE);
+        
+        final Model parsed = Rio.parse(new ByteArrayInputStream(output.toByteArray()), "", RDFFormat.TURTLE);
+        Assert.assertEquals(this.testModel, parsed);
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.performance.test;
+
+import java.io.InputStream;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.openrdf.model.URI;
+import org.openrdf.rio.RDFFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.podd.api.test.TestConstants;
+import com.github.podd.impl.test.PoddArtifactManagerImplTest;
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PODD;
+
+/**
+ * Compares the time taken to fetch everything needed to display an object as a single display
+ * bundle with the time taken by the separate calls that it replaces.
+ */
+@Ignore
+public class ObjectDisplayBundlePerformanceTest extends PoddArtifactManagerImplTest
+{
+    /**
+     * The number of times each approach is timed.
+     */
+    private static final int ITERATIONS = 100;
+    
+    /**
+     * log4j logger which writes to the statistics file.
+     */
+    private final Logger statsLogger = LoggerFactory.getLogger("statsLogger");
+    
+    @Test
+    public void testObjectDisplayTime() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final InputStream inputStream = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);
+        final InferredOWLOntologyID ontologyID = this.testArtifactManager.loadArtifact(inputStream, RDFFormat.TURTLE);
+        
+        final URI objectUri = PODD.VF.createURI("http://purl.org/podd/basic-2-20130206/artifact:1#Demo_Investigation");
+        
+        final long bundleStart = System.nanoTime();
+        for(int i = 0; i < ObjectDisplayBundlePerformanceTest.ITERATIONS; i++)
+        {
+            this.testArtifactManager.getObjectDisplayBundle(ontologyID, objectUri);
+        }
+        final long bundleTime = System.nanoTime() - bundleStart;
+        
+        final long separateStart = System.nanoTime();
+        for(int i = 0; i < ObjectDisplayBundlePerformanceTest.ITERATIONS; i++)
+        {
+            this.testArtifactManager.getObjectLabel(ontologyID, objectUri);
+            this.testArtifactManager.getObjectTypes(ontologyID, objectUri);
+            this.testArtifactManager.getOrderedProperties(ontologyID, objectUri, false);
+            this.testArtifactManager.getObjectDetailsForDisplay(ontologyID, objectUri);
+            this.testArtifactManager.getChildObjects(ontologyID, objectUri);
+            this.testArtifactManager.getParentDetails(ontologyID, objectUri);
+        }
+        final long separateTime = System.nanoTime() - separateStart;
+        
+        // write statistics: iterations, average microseconds for a bundle, average microseconds
+        // for the separate calls
+        final StringBuilder statsMsg = new StringBuilder();
+        statsMsg.append(ObjectDisplayBundlePerformanceTest.ITERATIONS);
+        statsMsg.append(',');
+        statsMsg.append(bundleTime / ObjectDisplayBundlePerformanceTest.ITERATIONS / 1000);
+        statsMsg.append(',');
+        statsMsg.append(separateTime / ObjectDisplayBundlePerformanceTest.ITERATIONS / 1000);
+        statsMsg.append('\n');
+        
+        this.statsLogger.info(statsMsg.toString());
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.performance.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.util.GraphUtil;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.config.RepositoryConfigSchema;
+import org.openrdf.repository.config.RepositoryImplConfig;
+import org.openrdf.repository.config.RepositoryImplConfigBase;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.Rio;
+import org.openrdf.sail.memory.MemoryStore;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.ansell.propertyutil.PropertyUtil;
+import com.github.podd.api.PoddRepositoryManager;
+import com.github.podd.impl.PoddRepositoryManagerImpl;
+
+/**
+ * Parameterized class for measuring the cost of finding the permanent repository for a set of
+ * schema ontologies as the number of permanent repositories grows.
+ */
+@Ignore
+@RunWith(value = Parameterized.class)
+public class PermanentRepositoryLookupPerformanceTest
+{
+    private static final int LOOKUPS = 10000;
+    
+    @Parameters
+    public static Collection<Object[]> data()
+    {
+        final Object[][] data = new Object[][] { { 1 }, { 10 }, { 100 }, { 1000 } };
+        return Arrays.asList(data);
+    }
+    
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+    
+    /**
+     * log4j logger which writes to the statistics file.
+     */
+    private final Logger statsLogger = LoggerFactory.getLogger("statsLogger");
+    
+    /**
+     * parameter: number of permanent repositories
+     */
+    private int repositoryCount;
+    
+    private PoddRepositoryManager testRepositoryManager;
+    
+    private List<Set<OWLOntologyID>> schemaSets;
+    
+    public PermanentRepositoryLookupPerformanceTest(final int repositoryCount)
+    {
+        this.repositoryCount = repositoryCount;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        final SailRepository managementRepository = new SailRepository(new MemoryStore());
+        managementRepository.initialize();
+        
+        final Model graph =
+                Rio.parse(this.getClass().getResourceAsStream("/memorystoreconfig.ttl"), "", RDFFormat.TURTLE);
+        final Resource repositoryNode = GraphUtil.getUniqueSubject(graph, RepositoryConfigSchema.REPOSITORYTYPE, null);
+        final RepositoryImplConfig repositoryImplConfig = RepositoryImplConfigBase.create(graph, repositoryNode);
+        
+        this.testRepositoryManager =
+                new PoddRepositoryManagerImpl(managementRepository, repositoryImplConfig, "", this.tempDir
+                        .newFolder("repositories").toPath(), new PropertyUtil("podd"));
+        
+        this.schemaSets = new ArrayList<>(this.repositoryCount);
+        for(int i = 0; i < this.repositoryCount; i++)
+        {
+            final Set<OWLOntologyID> nextSchemaSet =
+                    Collections.singleton(new OWLOntologyID(IRI.create("urn:test:schema:" + i), IRI
+                            .create("urn:test:schema:" + i + ":version:1")));
+            this.schemaSets.add(nextSchemaSet);
+            
+            // Create the repository before the lookups are timed
+            this.testRepositoryManager.getPermanentRepositoryConnection(nextSchemaSet).close();
+        }
+    }
+    
+    @After
+    public void tearDown() throws Exception
+    {
+        if(this.testRepositoryManager != null)
+        {
+            this.testRepositoryManager.shutDown();
+        }
+    }
+    
+    @Test
+    public void testPermanentRepositoryLookup() throws Exception
+    {
+        final long startedAt = System.nanoTime();
+        
+        for(int i = 0; i < PermanentRepositoryLookupPerformanceTest.LOOKUPS; i++)
+        {
+            final RepositoryConnection nextConnection =
+                    this.testRepositoryManager.getPermanentRepositoryConnection(this.schemaSets.get(i
+                            % this.repositoryCount));
+            nextConnection.close();
+        }
+        
+        final long elapsed = System.nanoTime() - startedAt;
+        
+        // write statistics: repositories, lookups, average nanoseconds per lookup
+        final StringBuilder statsMsg = new StringBuilder();
+        statsMsg.append(this.repositoryCount);
+        statsMsg.append(',');
+        statsMsg.append(PermanentRepositoryLookupPerformanceTest.LOOKUPS);
+        statsMsg.append(',');
+        statsMsg.append(elapsed / PermanentRepositoryLookupPerformanceTest.LOOKUPS);
+        statsMsg.append('\n');
+        
+        this.statsLogger.info(statsMsg.toString());
+    }
+}
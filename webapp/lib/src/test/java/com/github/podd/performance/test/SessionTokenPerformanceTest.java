@@ -0,0 +1,105 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.performance.test;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.restlet.data.CookieSetting;
+import org.restlet.data.MediaType;
+import org.restlet.data.Status;
+import org.restlet.resource.ClientResource;
+import org.restlet.util.Series;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.ansell.restletutils.test.RestletTestUtils;
+import com.github.podd.resources.test.AbstractResourceImplTest;
+import com.github.podd.restlet.PoddSessionTokens;
+import com.github.podd.utils.PoddWebConstants;
+
+/**
+ * Compares the number of authenticated requests per second that the PODD Web Application serves
+ * with and without session tokens, which avoid verifying the password hash on every request.
+ */
+@Ignore
+public class SessionTokenPerformanceTest extends AbstractResourceImplTest
+{
+    /**
+     * The number of requests to time in each run.
+     */
+    private static final int REQUESTS = 200;
+    
+    /**
+     * log4j logger which writes to the statistics file.
+     */
+    private final Logger statsLogger = LoggerFactory.getLogger("statsLogger");
+    
+    private double getRequestsPerSecond() throws Exception
+    {
+        final Series<CookieSetting> currentCookies = new Series<CookieSetting>(CookieSetting.class);
+        
+        Assert.assertTrue("Login was not successful", this.login(RestletTestUtils.TEST_ADMIN_USERNAME,
+                RestletTestUtils.TEST_ADMIN_PASSWORD, currentCookies));
+        try
+        {
+            final long startedAt = System.nanoTime();
+            for(int i = 0; i < SessionTokenPerformanceTest.REQUESTS; i++)
+            {
+                final ClientResource userDetailsClientResource =
+                        new ClientResource(this.getUrl(PoddWebConstants.PATH_USER_DETAILS));
+                try
+                {
+                    userDetailsClientResource.addQueryParameter(PoddWebConstants.KEY_USER_IDENTIFIER,
+                            RestletTestUtils.TEST_ADMIN_USERNAME);
+                    userDetailsClientResource.getCookies().addAll(currentCookies);
+                    
+                    userDetailsClientResource.get(MediaType.APPLICATION_RDF_TURTLE);
+                    Assert.assertEquals(Status.SUCCESS_OK.getCode(), userDetailsClientResource.getResponse()
+                            .getStatus().getCode());
+                }
+                finally
+                {
+                    this.releaseClient(userDetailsClientResource);
+                }
+            }
+            return SessionTokenPerformanceTest.REQUESTS * 1000000000.0 / (System.nanoTime() - startedAt);
+        }
+        finally
+        {
+            this.logout(currentCookies);
+        }
+    }
+    
+    @Test
+    public void testRequestsPerSecondWithAndWithoutSessionTokens() throws Exception
+    {
+        final PoddSessionTokens sessionTokens = this.getPoddApplication().getRealm().getSessionTokens();
+        
+        sessionTokens.setLifetime(0, TimeUnit.SECONDS);
+        sessionTokens.clear();
+        final double withoutTokens = this.getRequestsPerSecond();
+        
+        sessionTokens.setLifetime(Long.parseLong(PoddWebConstants.DEFAULT_SESSION_TOKEN_LIFETIME), TimeUnit.SECONDS);
+        final double withTokens = this.getRequestsPerSecond();
+        
+        // write statistics: requests per second without and with session tokens
+        this.statsLogger.info("sessiontokens," + withoutTokens + "," + withTokens + "\n");
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.resources.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openrdf.model.Model;
+import org.openrdf.model.vocabulary.OWL;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+import org.restlet.ext.html.FormData;
+import org.restlet.ext.html.FormDataSet;
+import org.restlet.representation.Representation;
+import org.restlet.resource.ClientResource;
+import org.restlet.resource.ResourceException;
+
+import com.github.podd.api.test.TestConstants;
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddWebConstants;
+
+/**
+ * Tests the bulk artifact upload service.
+ */
+public class BulkUploadArtifactResourceImplTest extends AbstractResourceImplTest
+{
+    /**
+     * Test that each uploaded file is reported separately, and that a bad file does not prevent
+     * the other files from being loaded.
+     */
+    @Test
+    public void testBulkUploadWithFailureRdf() throws Exception
+    {
+        final ClientResource bulkUploadClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_ARTIFACT_BULK_UPLOAD));
+        
+        try
+        {
+            final FormDataSet form = new FormDataSet();
+            form.setMultipart(true);
+            form.getEntries().add(
+                    new FormData("file", this.buildRepresentationFromResource(
+                            TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT, MediaType.APPLICATION_RDF_XML)));
+            form.getEntries().add(
+                    new FormData("file", this.buildRepresentationFromResource(
+                            TestConstants.TEST_ARTIFACT_BAD_2_LEAD_INSTITUTES, MediaType.APPLICATION_RDF_XML)));
+            form.getEntries().add(
+                    new FormData("file", this.buildRepresentationFromResource(
+                            TestConstants.TEST_ARTIFACT_BASIC_PROJECT_2, MediaType.APPLICATION_RDF_XML)));
+            
+            final Representation results =
+                    this.doTestAuthenticatedRequest(bulkUploadClientResource, Method.POST, form,
+                            MediaType.APPLICATION_RDF_TURTLE, Status.SUCCESS_OK, AbstractResourceImplTest.WITH_ADMIN);
+            
+            final Model model = this.getModel(results);
+            
+            Assert.assertEquals(3, model.filter(null, PODD.PODD_BASE_BULK_LOAD_INDEX, null).size());
+            Assert.assertEquals(2, model.filter(null, RDF.TYPE, OWL.ONTOLOGY).subjects().size());
+            Assert.assertEquals(1, model.filter(null, RDFS.COMMENT, null).size());
+        }
+        finally
+        {
+            this.releaseClient(bulkUploadClientResource);
+        }
+    }
+    
+    /**
+     * Test bulk upload attempt without authentication.
+     */
+    @Test
+    public void testErrorBulkUploadWithoutAuthentication() throws Exception
+    {
+        final ClientResource bulkUploadClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_ARTIFACT_BULK_UPLOAD));
+        
+        try
+        {
+            final FormDataSet form = new FormDataSet();
+            form.setMultipart(true);
+            form.getEntries().add(
+                    new FormData("file", this.buildRepresentationFromResource(
+                            TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT, MediaType.APPLICATION_RDF_XML)));
+            
+            bulkUploadClientResource.post(form, MediaType.APPLICATION_RDF_TURTLE);
+            Assert.fail("Should have thrown a ResourceException with Status Code 401");
+        }
+        catch(final ResourceException e)
+        {
+            Assert.assertEquals("Not the expected HTTP status code", Status.CLIENT_ERROR_UNAUTHORIZED, e.getStatus());
+        }
+        finally
+        {
+            this.releaseClient(bulkUploadClientResource);
+        }
+    }
+}
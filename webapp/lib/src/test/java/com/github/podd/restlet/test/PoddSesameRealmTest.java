@@ -20,6 +20,7 @@ import info.aduna.iteration.Iterations;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -36,6 +37,8 @@ import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.sail.SailRepository;
 import org.openrdf.sail.memory.MemoryStore;
 import org.restlet.security.Role;
+import org.restlet.security.SecretVerifier;
+import org.restlet.security.Verifier;
 
 import com.github.ansell.restletutils.SesameRealmConstants;
 import com.github.podd.exception.PoddRuntimeException;
@@ -311,6 +314,82 @@ public class PoddSesameRealmTest
         Assert.assertTrue("Project_Member role missing", rolesForObject1.contains(PoddRoles.PROJECT_MEMBER.getRole()));
     }
     
+    /**
+     * Test that the roles of a user for all of their objects are found together, and are updated
+     * when the user is mapped or unmapped.
+     */
+    @Test
+    public void testGetObjectRolesForUser() throws Exception
+    {
+        final PoddUser user1 = this.addTestUser("john@example.com");
+        final PoddUser user2 = this.addTestUser("bob@hope.com");
+        final URI object1URI = PODD.VF.createURI("urn:podd:artifact:1");
+        final URI object2URI = PODD.VF.createURI("urn:podd:artifact:2");
+        
+        this.testRealm.map(user1, PoddRoles.ADMIN.getRole());
+        this.testRealm.map(user1, PoddRoles.PROJECT_MEMBER.getRole(), object1URI);
+        this.testRealm.map(user1, PoddRoles.PROJECT_ADMIN.getRole(), object1URI);
+        this.testRealm.map(user2, PoddRoles.PROJECT_OBSERVER.getRole(), object2URI);
+        
+        final Map<URI, Collection<Role>> user1Roles = this.testRealm.getObjectRolesForUser(user1);
+        Assert.assertEquals("Roles without objects should not be included", 1, user1Roles.size());
+        Assert.assertEquals(2, user1Roles.get(object1URI).size());
+        Assert.assertTrue(user1Roles.get(object1URI).contains(PoddRoles.PROJECT_ADMIN.getRole()));
+        
+        final long hits = this.testRealm.getRoleCache().getHitCount();
+        Assert.assertEquals(user1Roles, this.testRealm.getObjectRolesForUser(user1));
+        Assert.assertEquals("Second lookup should hit", hits + 1, this.testRealm.getRoleCache().getHitCount());
+        
+        // -verify: mapping and unmapping are visible immediately
+        this.testRealm.map(user1, PoddRoles.PROJECT_OBSERVER.getRole(), object2URI);
+        Assert.assertEquals(2, this.testRealm.getObjectRolesForUser(user1).size());
+        this.testRealm.unmap(user1, PoddRoles.PROJECT_OBSERVER.getRole(), object2URI);
+        Assert.assertFalse(this.testRealm.getObjectRolesForUser(user1).containsKey(object2URI));
+        
+        final Map<URI, Collection<Role>> user2Roles = this.testRealm.getObjectRolesForUser(user2);
+        Assert.assertEquals(1, user2Roles.size());
+        Assert.assertTrue(user2Roles.get(object2URI).contains(PoddRoles.PROJECT_OBSERVER.getRole()));
+    }
+    
+    /**
+     * Test that roles for an object are cached, and that the cache is invalidated when the
+     * roles of the user are changed.
+     */
+    @Test
+    public void testGetRolesForObjectCached() throws Exception
+    {
+        final PoddUser user1 = this.addTestUser("john@example.com");
+        final URI object1URI = PODD.VF.createURI("urn:podd:artifact:1");
+        
+        this.testRealm.map(user1, PoddRoles.PROJECT_MEMBER.getRole(), object1URI);
+        
+        final long misses = this.testRealm.getRoleCache().getMissCount();
+        final long hits = this.testRealm.getRoleCache().getHitCount();
+        
+        Assert.assertEquals(1, this.testRealm.getRolesForObject(user1, object1URI).size());
+        Assert.assertEquals(1, this.testRealm.getRolesForObject(user1, object1URI).size());
+        Assert.assertEquals("First lookup should miss", misses + 1, this.testRealm.getRoleCache().getMissCount());
+        Assert.assertEquals("Second lookup should hit", hits + 1, this.testRealm.getRoleCache().getHitCount());
+        
+        // -verify: mapping a new role is visible immediately
+        this.testRealm.map(user1, PoddRoles.PROJECT_ADMIN.getRole(), object1URI);
+        final Collection<Role> afterMap = this.testRealm.getRolesForObject(user1, object1URI);
+        Assert.assertEquals("Should be 2 roles after map", 2, afterMap.size());
+        Assert.assertTrue("Project_Admin role missing", afterMap.contains(PoddRoles.PROJECT_ADMIN.getRole()));
+        
+        // -verify: unmapping a role is visible immediately
+        this.testRealm.unmap(user1, PoddRoles.PROJECT_MEMBER.getRole(), object1URI);
+        final Collection<Role> afterUnmap = this.testRealm.getRolesForObject(user1, object1URI);
+        Assert.assertEquals("Should be 1 role after unmap", 1, afterUnmap.size());
+        Assert.assertTrue("Project_Admin role missing", afterUnmap.contains(PoddRoles.PROJECT_ADMIN.getRole()));
+        
+        // -verify: lookups across all users are invalidated by a change to any user
+        Assert.assertEquals(1, this.testRealm.getRolesForObjectAlternate(null, object1URI).size());
+        final PoddUser user2 = this.addTestUser("bob@hope.com");
+        this.testRealm.map(user2, PoddRoles.PROJECT_OBSERVER.getRole(), object1URI);
+        Assert.assertEquals(2, this.testRealm.getRolesForObjectAlternate(null, object1URI).size());
+    }
+    
     @Test
     public void testGetRolesWithObjectMappings() throws Exception
     {
@@ -543,6 +622,49 @@ public class PoddSesameRealmTest
         Assert.assertEquals("Results not in ascending order", "ns1983", activeUsers.get(1).getIdentifier());
     }
     
+    /**
+     * Test that searches and listings reflect users that are added, changed and deleted after the
+     * user directory has been loaded.
+     */
+    @Test
+    public void testSearchUserAfterChanges() throws Exception
+    {
+        this.addTestUser("albert@hope.com");
+        
+        // - load the directory
+        Assert.assertEquals(1, this.testRealm.searchUser("", null, false, -1, 0).size());
+        
+        final PoddUser testUser =
+                new PoddUser("ks1985", "secret".toCharArray(), "Kamal", "Silva", "kamal@silva.com",
+                        PoddUserStatus.ACTIVE, PODD.VF.createURI("http://example.org/kamal"),
+                        "University of Queensland", "SOME_ORCID_ID");
+        this.testRealm.addUser(testUser);
+        
+        Assert.assertEquals(1, this.testRealm.searchUser("kam", null, false, -1, 0).size());
+        Assert.assertEquals("Organisation was not searched", 1,
+                this.testRealm.searchUser("queensland", null, false, -1, 0).size());
+        Assert.assertEquals(2, this.testRealm.getUserByStatus(PoddUserStatus.ACTIVE, false, -1, 0).size());
+        
+        // - change the name and status
+        final PoddUser updatedUser =
+                new PoddUser("ks1985", "secret".toCharArray(), "Nimal", "Silva", "kamal@silva.com",
+                        PoddUserStatus.INACTIVE, PODD.VF.createURI("http://example.org/kamal"),
+                        "University of Queensland", "SOME_ORCID_ID");
+        this.testRealm.updateUser(updatedUser);
+        
+        Assert.assertEquals(1, this.testRealm.searchUser("nimal silva", null, false, -1, 0).size());
+        Assert.assertEquals(0, this.testRealm.searchUser("kamal silva", null, false, -1, 0).size());
+        Assert.assertEquals(1, this.testRealm.getUserByStatus(PoddUserStatus.ACTIVE, false, -1, 0).size());
+        Assert.assertEquals(1, this.testRealm.getUserByStatus(PoddUserStatus.INACTIVE, false, -1, 0).size());
+        
+        // - delete the user
+        this.testRealm.deleteUser(updatedUser);
+        
+        Assert.assertEquals(0, this.testRealm.searchUser("silva", null, false, -1, 0).size());
+        Assert.assertEquals(0, this.testRealm.getUserByStatus(PoddUserStatus.INACTIVE, false, -1, 0).size());
+        Assert.assertEquals(1, this.testRealm.searchUser(null, null, false, -1, 0).size());
+    }
+    
     /**
      * Test some of the functionality provided by the super class RestletUtilSesameRealm.java
      */
@@ -652,4 +774,29 @@ public class PoddSesameRealmTest
         Assert.assertEquals("Status was not overwritten", PoddUserStatus.INACTIVE, userFromRealm.getUserStatus());
     }
     
+    /**
+     * Test that a session token is issued after a password is verified, and that it is revoked
+     * when the password is changed.
+     */
+    @Test
+    public void testVerifyWithSessionToken() throws Exception
+    {
+        final PoddUser user1 = this.addTestUser("john@example.com");
+        final SecretVerifier verifier = (SecretVerifier)this.testRealm.getVerifier();
+        
+        Assert.assertEquals(0, this.testRealm.getSessionTokens().size());
+        Assert.assertEquals(Verifier.RESULT_VALID, verifier.verify(user1.getIdentifier(), "secret".toCharArray()));
+        Assert.assertEquals("Token was not issued", 1, this.testRealm.getSessionTokens().size());
+        Assert.assertTrue(this.testRealm.getSessionTokens().verify(user1.getIdentifier(), "secret".toCharArray()));
+        Assert.assertFalse(this.testRealm.getSessionTokens().verify(user1.getIdentifier(), "wrong".toCharArray()));
+        Assert.assertEquals(Verifier.RESULT_INVALID, verifier.verify(user1.getIdentifier(), "wrong".toCharArray()));
+        
+        // -verify: changing the password revokes the token
+        user1.setSecret("changed".toCharArray());
+        this.testRealm.updateUser(user1);
+        Assert.assertEquals("Token was not revoked", 0, this.testRealm.getSessionTokens().size());
+        Assert.assertEquals(Verifier.RESULT_INVALID, verifier.verify(user1.getIdentifier(), "secret".toCharArray()));
+        Assert.assertEquals(Verifier.RESULT_VALID, verifier.verify(user1.getIdentifier(), "changed".toCharArray()));
+    }
+    
 }
@@ -0,0 +1,91 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ * 
+ * Copyright (C) 2009-2013 The University Of Queensland
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.restlet.test;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.podd.restlet.PoddSessionTokens;
+import com.github.podd.utils.PoddUser;
+import com.github.podd.utils.PoddUserStatus;
+
+public class PoddSessionTokensTest
+{
+    private PoddSessionTokens testTokens;
+    
+    private PoddUser testUser;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        this.testTokens = new PoddSessionTokens(1, TimeUnit.HOURS);
+        this.testUser =
+                new PoddUser("john@example.com", null, "First", "Last", "john@example.com", PoddUserStatus.ACTIVE);
+    }
+    
+    @Test
+    public void testIssueAfterRevokeIgnored() throws Exception
+    {
+        final long generation = this.testTokens.getGeneration();
+        this.testTokens.revoke("john@example.com");
+        this.testTokens.issue("john@example.com", "secret".toCharArray(), this.testUser, generation);
+        
+        Assert.assertFalse(this.testTokens.verify("john@example.com", "secret".toCharArray()));
+        Assert.assertNull(this.testTokens.getUser("john@example.com"));
+    }
+    
+    @Test
+    public void testIssueDisabled() throws Exception
+    {
+        this.testTokens.setLifetime(0, TimeUnit.SECONDS);
+        this.testTokens.issue("john@example.com", "secret".toCharArray(), this.testUser,
+                this.testTokens.getGeneration());
+        
+        Assert.assertEquals(0, this.testTokens.size());
+        Assert.assertFalse(this.testTokens.verify("john@example.com", "secret".toCharArray()));
+    }
+    
+    @Test
+    public void testVerify() throws Exception
+    {
+        this.testTokens.issue("john@example.com", "secret".toCharArray(), this.testUser,
+                this.testTokens.getGeneration());
+        
+        Assert.assertTrue(this.testTokens.verify("john@example.com", "secret".toCharArray()));
+        Assert.assertSame(this.testUser, this.testTokens.getUser("john@example.com"));
+        Assert.assertFalse(this.testTokens.verify("john@example.com", "secret2".toCharArray()));
+        Assert.assertFalse(this.testTokens.verify("bob@hope.com", "secret".toCharArray()));
+        
+        this.testTokens.revoke("john@example.com");
+        Assert.assertFalse(this.testTokens.verify("john@example.com", "secret".toCharArray()));
+    }
+    
+    @Test
+    public void testVerifyExpired() throws Exception
+    {
+        this.testTokens.setLifetime(1, TimeUnit.MILLISECONDS);
+        this.testTokens.issue("john@example.com", "secret".toCharArray(), this.testUser,
+                this.testTokens.getGeneration());
+        Thread.sleep(20);
+        
+        Assert.assertFalse(this.testTokens.verify("john@example.com", "secret".toCharArray()));
+        Assert.assertEquals("Expired token was not removed", 0, this.testTokens.size());
+    }
+}